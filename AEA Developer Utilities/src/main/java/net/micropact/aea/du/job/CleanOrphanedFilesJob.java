@@ -0,0 +1,31 @@
+package net.micropact.aea.du.job;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.scheduler.JobHandler;
+import com.entellitrak.scheduler.SchedulerExecutionContext;
+
+import net.micropact.aea.du.utility.OrphanedEtkFileUtility;
+import net.micropact.aea.du.utility.OrphanedFileCColumnUtility;
+
+/**
+ * This job deletes files from etk_file which are not referenced anymore and clears file columns which reference files
+ * which do not exist. It does the same thing as the Clean Orphaned Files page, but cleaning up after a large purge can
+ * take much longer than a page request should.
+ *
+ * <p>
+ *  The work is committed in batches and progress is written to the log. If the job is interrupted, the next run will
+ *  only find the orphans which have not been cleaned yet.
+ * </p>
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = JobHandler.class)
+public class CleanOrphanedFilesJob implements JobHandler {
+
+    @Override
+    public void execute(final SchedulerExecutionContext etk) throws ApplicationException {
+        OrphanedEtkFileUtility.cleanOrphanedFiles(etk);
+        OrphanedFileCColumnUtility.cleanOrphanedCColumns(etk);
+    }
+}
@@ -0,0 +1,35 @@
+package net.micropact.aea.du.job;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.scheduler.JobHandler;
+import com.entellitrak.scheduler.SchedulerExecutionContext;
+
+import net.micropact.aea.du.utility.dataHealth.DataHealthScanEngine;
+import net.micropact.aea.du.utility.dataHealth.IDataHealthScanner;
+
+/**
+ * This job runs every {@link IDataHealthScanner} against the data objects which have changed since they were last
+ * scanned and stores the findings, so that the pages which display them (such as Bad Dates and Duplicate Code Values)
+ * do not have to query every table when they are opened. It should be scheduled to run regularly, such as nightly,
+ * since the pages only display what was found by the most recent scan. Every data object can still be scanned again
+ * from the pages.
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = JobHandler.class)
+public class DataHealthScanJob implements JobHandler {
+
+    @Override
+    public void execute(final SchedulerExecutionContext etk) throws ApplicationException {
+        for (final IDataHealthScanner scanner : DataHealthScanEngine.getScanners(etk)) {
+            final long startTime = System.currentTimeMillis();
+
+            DataHealthScanEngine.scanChanged(etk, scanner);
+
+            etk.getLogger().info(String.format("DataHealthScanJob: %s finished in %s ms",
+                    scanner.getKey(),
+                    System.currentTimeMillis() - startTime));
+        }
+    }
+}
@@ -7,18 +7,12 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.entellitrak.ApplicationException;
-import com.entellitrak.ExecutionContext;
 import com.entellitrak.IncorrectResultSizeDataAccessException;
-import com.entellitrak.InputValidationException;
 import com.entellitrak.PageExecutionContext;
-import com.entellitrak.WorkExecutionException;
 import com.entellitrak.configuration.DataObject;
 import com.entellitrak.configuration.DataObjectService;
-import com.entellitrak.dynamic.DataObjectInstance;
-import com.entellitrak.dynamic.DynamicObjectService;
 import com.entellitrak.handler.HandlerScript;
 import com.entellitrak.page.PageController;
 import com.entellitrak.page.Response;
@@ -29,11 +23,10 @@ import com.google.gson.Gson;
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.pageUtility.BreadcrumbUtility;
 import net.micropact.aea.core.pageUtility.PageUtility;
-import net.micropact.aea.core.query.QueryUtility;
-import net.micropact.aea.core.utility.DynamicObjectConfigurationUtils;
 import net.micropact.aea.core.utility.EtkDataUtils;
+import net.micropact.aea.du.utility.bulkDelete.BulkDeleteMode;
+import net.micropact.aea.du.utility.bulkDelete.BulkDeleter;
 import net.micropact.aea.du.utility.page.DuBreadcrumbUtility;
-import net.micropact.aea.utility.UserUtility;
 import net.micropact.aea.utility.Utility;
 
 /**
@@ -74,17 +67,15 @@ public class BulkDeleteDataController implements PageController {
 				.collect(Collectors.toList());
 
 
+		final BulkDeleteMode mode = Utility.isBlank(etk.getParameters().getSingle("mode"))
+				? BulkDeleteMode.RECORDS
+				: BulkDeleteMode.valueOf(etk.getParameters().getSingle("mode"));
+
 		/* We will delete any objects we were requested to */
 		dataObjects
 		.stream()
 		.filter(dataObject -> keysToDelete.contains(dataObject.getBusinessKey()))
-		.forEachOrdered(dataObject -> {
-			try {
-				deleteObjectType(etk, dataObject);
-			} catch (final ClassNotFoundException e) {
-				throw new GeneralRuntimeException(e);
-			}
-		});
+		.forEachOrdered(dataObject -> BulkDeleter.deleteAll(etk, dataObject, mode, BulkDeleter.getDefaultBatchSize(mode)));
 
 		final Gson gson = new Gson();
 
@@ -110,50 +101,4 @@ public class BulkDeleteDataController implements PageController {
 
 		return response;
 	}
-
-	/**
-	 * Deletes all data objects of a particular type.
-	 *
-	 * @param etk entellitrak execution context
-	 * @param dataObject the data object
-	 * @throws ClassNotFoundException If there was an underlying {@link ClassNotFoundException}
-	 */
-	private static void deleteObjectType(final ExecutionContext etk,
-			final DataObject dataObject) throws ClassNotFoundException{
-		final Class<? extends DataObjectInstance> objectClass = DynamicObjectConfigurationUtils.getDynamicClass(etk, dataObject);
-
-		getIdsForDataObject(etk, dataObject)
-		.forEachOrdered(trackingId -> {
-			try {
-				etk.doWork(etkWork -> {
-					final DynamicObjectService objectService = etkWork.getDynamicObjectService();
-					try {
-						objectService.createDeleteOperation(objectService.get(objectClass, trackingId))
-						.setUser(UserUtility.getCurrentUserOrServiceAccount(etk))
-						.delete();
-					} catch (final InputValidationException e) {
-						throw new ApplicationException(e);
-					}
-				});
-			} catch (final WorkExecutionException e) {
-				etk.getLogger().error(String.format("Error attempting to delete object of type %s with trackingId %s",
-						dataObject,
-						trackingId), e);
-			}
-		});
-	}
-
-	/**
-	 * Retrieves the trackingIds of all objects of a particular type.
-	 *
-	 * @param etk entellitrak execution
-	 * @param dataObjectType the type of object to get ids for
-	 * @return the tracking ids
-	 */
-	private static Stream<Long> getIdsForDataObject(final ExecutionContext etk, final DataObject dataObjectType){
-		return QueryUtility.mapsToLongs(etk.createSQL(String.format("SELECT id FROM %s ORDER BY id",
-				dataObjectType.getTableName()))
-				.fetchList())
-				.stream();
-	}
 }
@@ -0,0 +1,86 @@
+package net.micropact.aea.du.page.bulkDeleteDataAjax;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.page.ContentType;
+import com.entellitrak.page.PageController;
+import com.entellitrak.page.Parameters;
+import com.entellitrak.page.Response;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.pageUtility.PageUtility;
+import net.micropact.aea.du.utility.bulkDelete.BulkDeleteMode;
+import net.micropact.aea.du.utility.bulkDelete.BulkDeleter;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * This page is used by the Bulk Delete Data page. Each request deletes a single batch of records of a root data object
+ * and returns where the next batch should start. The Bulk Delete Data page keeps several of these requests running at
+ * once, each working on its own partition of the ids, and displays the progress as they finish.
+ *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>dataObject: the business key of the root data object</li>
+ *  <li>mode: RECORDS or FAST (see {@link BulkDeleteMode})</li>
+ *  <li>batchSize: the number of records to delete, at most {@link BulkDeleter#MAX_BATCH_SIZE}</li>
+ *  <li>afterId: the lastId returned by the previous batch</li>
+ *  <li>partitionCount/partition: which partition of the ids to delete</li>
+ * </ul>
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = PageController.class)
+public class BulkDeleteDataAjaxController implements PageController {
+
+	private static final int MAX_PARTITION_COUNT = 16;
+
+	@Override
+	public Response execute(final PageExecutionContext etk) throws ApplicationException {
+		PageUtility.validateCsrfToken(etk);
+
+		final Parameters parameters = etk.getParameters();
+
+		final String dataObjectBusinessKey = parameters.getSingle("dataObject");
+		final DataObject dataObject = etk.getDataObjectService().getDataObjectByBusinessKey(dataObjectBusinessKey);
+
+		if(dataObject == null){
+			throw new GeneralRuntimeException(String.format("\"%s\" is not the business key of a Data Object",
+					dataObjectBusinessKey));
+		}
+
+		final BulkDeleteMode mode = BulkDeleteMode.valueOf(parameters.getSingle("mode"));
+		final int batchSize = parseInt(parameters.getSingle("batchSize"), BulkDeleter.getDefaultBatchSize(mode), 1, BulkDeleter.MAX_BATCH_SIZE);
+		final long afterId = Utility.isBlank(parameters.getSingle("afterId")) ? 0 : Long.parseLong(parameters.getSingle("afterId"));
+		final int partitionCount = parseInt(parameters.getSingle("partitionCount"), 1, 1, MAX_PARTITION_COUNT);
+		final int partition = parseInt(parameters.getSingle("partition"), 0, 0, partitionCount - 1);
+
+		final TextResponse response = etk.createTextResponse();
+		response.setContentType(ContentType.JSON);
+
+		response.put("out", new Gson().toJson(
+				BulkDeleter.deleteBatch(etk, dataObject, mode, batchSize, afterId, partitionCount, partition)));
+
+		return response;
+	}
+
+	/**
+	 * Parse an integer parameter, restricting it to a range.
+	 *
+	 * @param intString the parameter
+	 * @param defaultValue the value to use if the parameter is blank
+	 * @param min the minimum allowed value
+	 * @param max the maximum allowed value
+	 * @return the integer
+	 */
+	private static int parseInt(final String intString, final int defaultValue, final int min, final int max){
+		return Utility.isBlank(intString)
+				? defaultValue
+				: Math.max(min, Math.min(max, Integer.parseInt(intString)));
+	}
+}
@@ -7,7 +7,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -30,10 +34,13 @@ import com.entellitrak.page.TextResponse;
 import com.entellitrak.query.QueryService;
 import com.google.gson.Gson;
 
+import net.entellitrak.aea.core.cache.CacheManager;
 import net.entellitrak.aea.gl.api.java.StringUtil;
 import net.entellitrak.aea.gl.api.java.map.MapBuilder;
 import net.micropact.aea.core.cache.AeaCoreConfiguration;
 import net.micropact.aea.core.pageUtility.BreadcrumbUtility;
+import net.micropact.aea.core.query.QueryUtility;
+import net.micropact.aea.du.page.codeSearch.CodeSearchIndex.Source;
 import net.micropact.aea.du.utility.page.DuBreadcrumbUtility;
 import net.micropact.aea.utility.Utility;
 
@@ -64,79 +71,106 @@ public class CodeSearchController implements PageController {
 		if (keyword != null) {
 			final Workspace workspace = workspaceService.getWorkspace(workspaceName);
 
-			final List<ResultGroup> resultGroups = new ArrayList<>();
-
-			// Script Objects
-			resultGroups.add(new ResultGroup("Script Objects",
-					convertMapsToResults(workspaceService.getScripts(workspace)
-							.stream()
-							.map(script -> new MapBuilder<String, Object>()
-									.put("NAME", script.getFullyQualifiedName())
-									.put("CODE", workspaceService.getCode(workspace, script))
-									.build()),
-							"NAME", keyword, "CODE", isCaseSensitive)));
-
-			// Form Instructions
-			resultGroups.add(new ResultGroup("Data Forms",
-					convertMapsToResults(dataObjectService.getDataObjects()
-							.stream()
-							.flatMap(dataObject -> formService.getForms(dataObject).stream())
-							.map(dataForm -> new MapBuilder<String, Object>()
-									.put("NAME", dataForm.getName())
-									.put("INSTRUCTIONS", dataForm.getInstructions())
-									.build()), "NAME",
-							keyword, "INSTRUCTIONS", isCaseSensitive)));
-
-			// View Instructions
-			resultGroups.add(new ResultGroup("Data Views",
-					convertMapsToResults(dataObjectService.getDataObjects()
-							.stream()
-							.flatMap(dataObject -> viewService.getViews(dataObject).stream())
-							.map(view -> new MapBuilder<String, Object>()
-									.put("NAME", view.getName())
-									.put("TEXT", view.getInstructions())
-									.build()),
-							"NAME",
-							keyword, "TEXT", isCaseSensitive)));
-
-			// Reports
-			resultGroups.add(new ResultGroup("Reports", convertMapsToResults(reportService.getReports()
-					.stream()
-					.map(report -> new MapBuilder<String, Object>()
-							.put("NAME", report.getName())
-							.put("REPORT", report.getXMLDesign())
-							.build()),
-					"NAME",
-					keyword, "REPORT", isCaseSensitive)));
-
-			// Queries
-			resultGroups.add(new ResultGroup("Queries",
-					convertMapsToResults(queryService.getQueries()
-							.stream()
-							.map(query -> new MapBuilder<String, Object>()
-									.put("NAME", query.getName())
-									.put("SQL_SCRIPT", query.getSql())
-									.build()),
-							"NAME", keyword,
-							"SQL_SCRIPT", isCaseSensitive)));
-
-			// Stored Procedures
-			resultGroups.add(new ResultGroup("Stored Procedures",
-					convertMapsToResults(
-							getDatabaseObject(etk,
-									DatabaseObjectType.STORED_PROCEDURE).stream(),
-							"NAME", keyword, "TEXT", isCaseSensitive)));
-
-			// Database Functions
-			resultGroups.add(new ResultGroup("Database Functions",
-					convertMapsToResults(
-							getDatabaseObject(etk, DatabaseObjectType.FUNCTION).stream(),
-							"NAME", keyword, "TEXT", isCaseSensitive)));
-
-			// Database Views
-			resultGroups.add(new ResultGroup("Database Views",
-					convertMapsToResults(getDatabaseViews(etk, isCaseSensitive, keyword).stream(), "NAME",
-							keyword, "TEXT", isCaseSensitive)));
+			/* Forms and views change whenever the tracking configuration does */
+			final String configurationFingerprint = getQueryFingerprint(etk,
+					"SELECT MAX(tracking_config_id) CURRENT_CONFIG FROM etk_tracking_config_archive",
+					"SELECT MAX(config_version) NEXT_CONFIG_VERSION FROM etk_tracking_config");
+			final String databaseFingerprint = getDatabaseFingerprint(etk);
+
+			final List<SourceGroup> sourceGroups = Arrays.asList(
+					// Script Objects
+					new SourceGroup("Script Objects",
+							getQueryFingerprint(etk,
+									"SELECT SUM(workspace_revision) WORKSPACE_REVISIONS, MAX(last_updated_on) WORKSPACE_UPDATED_ON FROM etk_workspace",
+									"SELECT COUNT(*) SCRIPT_COUNT, SUM(revision) SCRIPT_REVISIONS FROM etk_script_object"),
+							isNameWanted -> workspaceService.getScripts(workspace)
+									.stream()
+									.filter(script -> isNameWanted.test(script.getFullyQualifiedName()))
+									.map(script -> new MapBuilder<String, Object>()
+											.put("NAME", script.getFullyQualifiedName())
+											.put("CODE", workspaceService.getCode(workspace, script))
+											.build()),
+							"NAME", "CODE"),
+
+					// Form Instructions
+					new SourceGroup("Data Forms",
+							configurationFingerprint,
+							isNameWanted -> dataObjectService.getDataObjects()
+									.stream()
+									.flatMap(dataObject -> formService.getForms(dataObject).stream())
+									.filter(dataForm -> isNameWanted.test(dataForm.getName()))
+									.map(dataForm -> new MapBuilder<String, Object>()
+											.put("NAME", dataForm.getName())
+											.put("INSTRUCTIONS", dataForm.getInstructions())
+											.build()),
+							"NAME", "INSTRUCTIONS"),
+
+					// View Instructions
+					new SourceGroup("Data Views",
+							configurationFingerprint,
+							isNameWanted -> dataObjectService.getDataObjects()
+									.stream()
+									.flatMap(dataObject -> viewService.getViews(dataObject).stream())
+									.filter(view -> isNameWanted.test(view.getName()))
+									.map(view -> new MapBuilder<String, Object>()
+											.put("NAME", view.getName())
+											.put("TEXT", view.getInstructions())
+											.build()),
+							"NAME", "TEXT"),
+
+					// Reports
+					new SourceGroup("Reports",
+							getReportFingerprint(etk),
+							isNameWanted -> reportService.getReports()
+									.stream()
+									.filter(report -> isNameWanted.test(report.getName()))
+									.map(report -> new MapBuilder<String, Object>()
+											.put("NAME", report.getName())
+											.put("REPORT", report.getXMLDesign())
+											.build()),
+							"NAME", "REPORT"),
+
+					// Queries. These are cheap to load, so they do not have a fingerprint.
+					new SourceGroup("Queries",
+							null,
+							isNameWanted -> queryService.getQueries()
+									.stream()
+									.filter(query -> isNameWanted.test(query.getName()))
+									.map(query -> new MapBuilder<String, Object>()
+											.put("NAME", query.getName())
+											.put("SQL_SCRIPT", query.getSql())
+											.build()),
+							"NAME", "SQL_SCRIPT"),
+
+					// Stored Procedures
+					new SourceGroup("Stored Procedures",
+							databaseFingerprint,
+							isNameWanted -> getDatabaseObject(etk, DatabaseObjectType.STORED_PROCEDURE, isNameWanted),
+							"NAME", "TEXT"),
+
+					// Database Functions
+					new SourceGroup("Database Functions",
+							databaseFingerprint,
+							isNameWanted -> getDatabaseObject(etk, DatabaseObjectType.FUNCTION, isNameWanted),
+							"NAME", "TEXT"),
+
+					// Database Views
+					new SourceGroup("Database Views",
+							databaseFingerprint,
+							isNameWanted -> getDatabaseViews(etk, isNameWanted),
+							"NAME", "TEXT",
+							// The whitespace of view definitions is collapsed, so the keyword must be as well
+							theKeyword -> theKeyword.trim().replaceAll(" +", " ")));
+
+			final List<ResultGroup> resultGroups = sourceGroups.stream()
+					.map(sourceGroup -> {
+						final String groupKeyword = sourceGroup.normalizeKeyword(keyword);
+
+						return new ResultGroup(sourceGroup.getTitle(),
+								convertSourcesToResults(getCandidates(etk, workspaceName, sourceGroup, groupKeyword),
+										groupKeyword, isCaseSensitive));
+					})
+					.collect(Collectors.toList());
 
 			filteredResultGroups = filterExcludedObjectNames(etk, resultGroups);
 		} else {
@@ -223,86 +257,109 @@ public class CodeSearchController implements PageController {
 	}
 
 	/**
-	 * This function searches for text for objects within the database such as
-	 * stored procedures.
+	 * Loads the text of database objects such as stored procedures. The names are queried first, so that only the
+	 * text of the objects with the wanted names is loaded.
 	 *
 	 * @param etk entellitrak execution context
-	 * @param isCaseSensitive Whether the search is case sensitive
-	 * @param queryParameterMap A map containing the default parameters such as those required by {@link #generateLikeClause(ExecutionContext, String, boolean)}
 	 * @param databaseObjectType The type of database object to search for
-	 * @return A list of matching results with "NAME" and "TEXT" as the map keys
+	 * @param isNameWanted predicate which determines whether an object with a particular name should be loaded
+	 * @return The wanted objects with "NAME" and "TEXT" as the map keys
 	 */
-	private static List<Map<String, Object>> getDatabaseObject(final ExecutionContext etk,
-			final DatabaseObjectType databaseObjectType) {
-
-		final List<Map<String, Object>> returnResults;
-
+	private static Stream<Map<String, Object>> getDatabaseObject(final ExecutionContext etk,
+			final DatabaseObjectType databaseObjectType, final Predicate<String> isNameWanted) {
 		final List<String> databaseIdentifiers = databaseObjectType.getDatabaseIdentifiers(etk);
 
 		if (Utility.isSqlServer(etk)) {
-			returnResults = etk.createSQL(
-					"SELECT objects.name NAME, modules.definition TEXT FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN(:databaseIdentifiers)")
-					.setParameter("databaseIdentifiers", databaseIdentifiers)
-					.fetchList();
+			return loadWantedObjects(etk,
+					"SELECT objects.name NAME FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN(:databaseIdentifiers)",
+					"SELECT objects.name NAME, modules.definition TEXT FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN(:databaseIdentifiers) AND objects.name IN(:names)",
+					Map.of("databaseIdentifiers", databaseIdentifiers),
+					isNameWanted);
 		} else if (Utility.isPostgreSQL(etk)) {
-			returnResults = etk.createSQL(
-					"SELECT proname \"NAME\", prosrc \"TEXT\" FROM pg_proc pg join pg_namespace n on pg.pronamespace = n.oid WHERE n.nspname not in ('pg_catalog', 'information_schema') AND pg.prokind::varchar(255) IN(:databaseIdentifiers)")
-					.setParameter("databaseIdentifiers", databaseIdentifiers)
-					.fetchList();
+			return loadWantedObjects(etk,
+					"SELECT proname \"NAME\" FROM pg_proc pg join pg_namespace n on pg.pronamespace = n.oid WHERE n.nspname not in ('pg_catalog', 'information_schema') AND pg.prokind::varchar(255) IN(:databaseIdentifiers)",
+					"SELECT proname \"NAME\", prosrc \"TEXT\" FROM pg_proc pg join pg_namespace n on pg.pronamespace = n.oid WHERE n.nspname not in ('pg_catalog', 'information_schema') AND pg.prokind::varchar(255) IN(:databaseIdentifiers) AND pg.proname IN(:names)",
+					Map.of("databaseIdentifiers", databaseIdentifiers),
+					isNameWanted);
 		} else {
-			final List<Map<String, Object>> rawQueryResults = etk.createSQL(
-					"SELECT NAME, TEXT FROM all_source allSource WHERE allSource.owner = USER AND allSource.type = :databaseIdentifiers AND EXISTS( SELECT * FROM all_source matchingSource WHERE matchingSource.owner = allSource.owner AND matchingSource.name = allSource.name AND matchingSource.type = allSource.type)")
-					.setParameter("databaseIdentifiers", databaseIdentifiers)
-					.fetchList();
-
-			returnResults = groupRawOracleQueryResults(rawQueryResults);
+			/* Each object's lines are in the same batch, so the batches can be grouped separately */
+			return groupRawOracleQueryResults(loadWantedObjects(etk,
+					"SELECT DISTINCT NAME FROM all_source WHERE owner = USER AND type IN(:databaseIdentifiers)",
+					"SELECT NAME, TEXT FROM all_source WHERE owner = USER AND type IN(:databaseIdentifiers) AND name IN(:names) ORDER BY NAME, LINE",
+					Map.of("databaseIdentifiers", databaseIdentifiers),
+					isNameWanted)
+					.collect(Collectors.toList()))
+					.stream();
 		}
-
-		return returnResults;
 	}
 
 	/**
-	 * Gets all database views which contain keyword in their definitions.
+	 * Loads the text of database views. The names are queried first, so that only the text of the views with the wanted
+	 * names is loaded. Repeated spaces in the text are collapsed into one.
 	 *
 	 * @param etk entellitrak execution context
-	 * @param isCaseSensitive whether the case should be case sensitive
-	 * @param keyword the keyword to search for
-	 * @return A list of matching results with "NAME" and "TEXT" keys for the maps
+	 * @param isNameWanted predicate which determines whether a view with a particular name should be loaded
+	 * @return The wanted views with "NAME" and "TEXT" keys for the maps
 	 */
-	private static List<Map<String, Object>> getDatabaseViews(final ExecutionContext etk, final boolean isCaseSensitive,
-			final String keyword) {
-		List<Map<String, Object>> rawQueryResults = null;
-		final List<Map<String, Object>> matchingResults = new ArrayList<>();
-		final String caseTypedKeyword = (isCaseSensitive ? keyword : keyword.toLowerCase()).trim().replaceAll(" +",
-				" ");
+	private static Stream<Map<String, Object>> getDatabaseViews(final ExecutionContext etk,
+			final Predicate<String> isNameWanted) {
+		final Stream<Map<String, Object>> rawQueryResults;
 
 		if (Utility.isSqlServer(etk)) {
-			rawQueryResults = etk.createSQL(
-					"SELECT objects.name NAME, modules.definition TEXT FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN('V') order by name")
-					.fetchList();
+			rawQueryResults = loadWantedObjects(etk,
+					"SELECT objects.name NAME FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN('V')",
+					"SELECT objects.name NAME, modules.definition TEXT FROM sys.sql_modules modules JOIN sys.objects objects ON modules.object_id = objects.object_id WHERE objects.type IN('V') AND objects.name IN(:names)",
+					Map.of(),
+					isNameWanted);
 		} else if (Utility.isPostgreSQL(etk)) {
-			rawQueryResults = etk.createSQL(
-					"select viewname as \"NAME\", definition as \"TEXT\" from pg_catalog.pg_views where schemaname NOT IN ('pg_catalog', 'information_schema') order by viewname")
-					.fetchList();
+			rawQueryResults = loadWantedObjects(etk,
+					"select viewname as \"NAME\" from pg_catalog.pg_views where schemaname NOT IN ('pg_catalog', 'information_schema')",
+					"select viewname as \"NAME\", definition as \"TEXT\" from pg_catalog.pg_views where schemaname NOT IN ('pg_catalog', 'information_schema') AND viewname IN(:names)",
+					Map.of(),
+					isNameWanted);
 		} else {
-			rawQueryResults = etk.createSQL("select VIEW_NAME as NAME, TEXT from user_views order by name").fetchList();
+			rawQueryResults = loadWantedObjects(etk,
+					"select VIEW_NAME as NAME from user_views",
+					"select VIEW_NAME as NAME, TEXT from user_views where VIEW_NAME IN(:names)",
+					Map.of(),
+					isNameWanted);
 		}
 
-		String text = null;
-
-		for (final Map<String, Object> aRawResult : rawQueryResults) {
-			if (aRawResult.get("TEXT") != null) {
-				text = (isCaseSensitive ? (String) aRawResult.get("TEXT")
-						: ((String) aRawResult.get("TEXT")).toLowerCase()).trim().replaceAll(" +", " ");
-				aRawResult.put("TEXT", text);
+		return rawQueryResults
+				.filter(aRawResult -> aRawResult.get("TEXT") != null)
+				.map(aRawResult -> new MapBuilder<String, Object>()
+						.put("NAME", aRawResult.get("NAME"))
+						.put("TEXT", ((String) aRawResult.get("TEXT")).trim().replaceAll(" +", " "))
+						.build());
+	}
 
-				if (text.contains(caseTypedKeyword)) {
-					matchingResults.add(aRawResult);
-				}
-			}
-		}
+	/**
+	 * Loads database objects in two steps: first the names of all the objects are queried, and then the text of only
+	 * the objects with the wanted names is queried, in batches so that database parameter limits are not exceeded.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param namesQuery query which returns the names of the objects in the NAME column
+	 * @param textQuery query which returns the NAME and TEXT of the objects whose names are in the :names parameter
+	 * @param parameters the parameters of the queries other than :names
+	 * @param isNameWanted predicate which determines whether an object with a particular name should be loaded
+	 * @return the rows of textQuery for the wanted objects
+	 */
+	private static Stream<Map<String, Object>> loadWantedObjects(final ExecutionContext etk,
+			final String namesQuery, final String textQuery, final Map<String, Object> parameters,
+			final Predicate<String> isNameWanted) {
+		final List<String> wantedNames = etk.createSQL(namesQuery)
+				.setParameter(parameters)
+				.fetchList()
+				.stream()
+				.map(row -> (String) row.get("NAME"))
+				.filter(isNameWanted)
+				.distinct()
+				.collect(Collectors.toList());
 
-		return groupRawOracleQueryResults(matchingResults);
+		return wantedNames.isEmpty()
+				? Stream.empty()
+				: QueryUtility.fetchListBatched(etk.createSQL(textQuery).setParameter(parameters), "names", wantedNames)
+						.stream();
 	}
 
 	/**
@@ -344,35 +401,234 @@ public class CodeSearchController implements PageController {
 	}
 
 	/**
-	 * Converts maps representing matching result records into an actual
-	 * {@link Result} objects.
+	 * Gets the code of a group which might contain the keyword, using the group's {@link CodeSearchIndex}.
+	 * If the fingerprint of the group has not changed since the index was last refreshed, only the code which the
+	 * index says may contain the keyword is loaded. Otherwise all of the code is loaded and the index is refreshed.
 	 *
-	 * @param objects List of objects where each entry represents a matched object.
-	 * @param nameKey The key in the Map which contains the name of the result
-	 * @param url The object which will determine the URL of the resource given an object
-	 * @param keyword The keyword which was searched for
-	 * @param codeKey The key in the objects maps which holds the code.
-	 * @param isCaseSensitive Whether the search is case sensitive
-	 * @return A list of results which represents the passed in list of objects.
+	 * @param etk entellitrak execution context
+	 * @param workspaceName the name of the workspace being searched
+	 * @param sourceGroup the group of code
+	 * @param keyword the keyword
+	 * @return the code which might contain the keyword
 	 */
-	private static List<Result> convertMapsToResults(final Stream<Map<String, Object>> objects, final String nameKey,
-			final String keyword, final String codeKey, final boolean isCaseSensitive) {
-		final List<Result> results = new ArrayList<>();
-		objects.forEach(object -> {
-			final Result result = new Result((String) object.get(nameKey), keyword,
-					(String) object.get(codeKey), isCaseSensitive);
-
-			if(!result.getMatches().isEmpty()) {
-				results.add(result);
+	private static List<Source> getCandidates(final ExecutionContext etk, final String workspaceName,
+			final SourceGroup sourceGroup, final String keyword) {
+		final CodeSearchIndexCacheable cacheable = new CodeSearchIndexCacheable(workspaceName, sourceGroup.getTitle());
+		final CodeSearchIndex codeSearchIndex = CacheManager.loadSerializable(etk, cacheable);
+
+		final List<Source> sources;
+
+		if (codeSearchIndex.isCurrent(sourceGroup.getFingerprint())) {
+			final Set<String> candidateNames = codeSearchIndex.getCandidateNames(keyword);
+
+			sources = candidateNames.isEmpty()
+					? List.of()
+					: sourceGroup.loadSources(candidateNames::contains);
+		} else {
+			sources = sourceGroup.loadSources(name -> true);
+
+			if (codeSearchIndex.refresh(sourceGroup.getFingerprint(), sources)) {
+				CacheManager.storeSerializable(etk, cacheable, codeSearchIndex);
 			}
-		});
+		}
 
-		return results
-				.stream()
+		return codeSearchIndex.getCandidates(sources, keyword);
+	}
+
+	/**
+	 * Runs queries which each return a single row of aggregates and combines the results into a fingerprint.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param queries the queries
+	 * @return the fingerprint
+	 */
+	private static String getQueryFingerprint(final ExecutionContext etk, final String... queries) {
+		return Arrays.stream(queries)
+				.flatMap(query -> etk.createSQL(query).fetchList().stream())
+				.map(row -> new TreeMap<>(row).toString())
+				.collect(Collectors.joining(";"));
+	}
+
+	/**
+	 * Gets a fingerprint of the reports which changes whenever a report is added, removed, renamed or edited. Oracle
+	 * records when rows were last changed, but SQL Server and PostgreSQL do not, so on those the database hashes the
+	 * names and designs instead.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the fingerprint
+	 */
+	private static String getReportFingerprint(final ExecutionContext etk) {
+		if (Utility.isSqlServer(etk)) {
+			return getQueryFingerprint(etk,
+					"SELECT COUNT(*) REPORT_COUNT, CHECKSUM_AGG(CHECKSUM(saved_report_id, name, HASHBYTES('SHA2_256', CAST(report AS NVARCHAR(MAX))))) REPORT_HASH FROM etk_saved_report");
+		} else if (Utility.isPostgreSQL(etk)) {
+			return getQueryFingerprint(etk,
+					"SELECT md5(string_agg(concat_ws(':', saved_report_id, name, report), ',' ORDER BY saved_report_id)) \"REPORTS\" FROM etk_saved_report");
+		} else {
+			return getQueryFingerprint(etk,
+					"SELECT COUNT(*) REPORT_COUNT, MAX(ORA_ROWSCN) LAST_CHANGE FROM etk_saved_report");
+		}
+	}
+
+	/**
+	 * Gets a fingerprint of the stored procedures, functions and views in the database. Oracle and SQL Server record
+	 * when objects were last changed, but PostgreSQL does not, so on PostgreSQL the database hashes the code instead.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the fingerprint
+	 */
+	private static String getDatabaseFingerprint(final ExecutionContext etk) {
+		if (Utility.isSqlServer(etk)) {
+			return getQueryFingerprint(etk,
+					"SELECT COUNT(*) OBJECT_COUNT, MAX(modify_date) LAST_MODIFIED FROM sys.objects WHERE type IN ('P', 'FN', 'TF', 'V')");
+		} else if (Utility.isPostgreSQL(etk)) {
+			return getQueryFingerprint(etk,
+					"SELECT md5(string_agg(pg.proname || pg.prosrc, ',' ORDER BY pg.oid)) \"FUNCTIONS\" FROM pg_proc pg JOIN pg_namespace n ON pg.pronamespace = n.oid WHERE n.nspname NOT IN ('pg_catalog', 'information_schema')",
+					"SELECT md5(string_agg(viewname || definition, ',' ORDER BY schemaname, viewname)) \"VIEWS\" FROM pg_catalog.pg_views WHERE schemaname NOT IN ('pg_catalog', 'information_schema')");
+		} else {
+			return getQueryFingerprint(etk,
+					"SELECT COUNT(*) OBJECT_COUNT, MAX(last_ddl_time) LAST_DDL_TIME FROM user_objects WHERE object_type IN ('PROCEDURE', 'FUNCTION', 'VIEW')");
+		}
+	}
+
+	/**
+	 * Converts maps representing code into {@link Source} objects which can be indexed.
+	 * Names are not necessarily unique within a group (for instance two data objects may have forms with the same
+	 * name), so the key of each source also includes the number of times its name has already appeared.
+	 *
+	 * @param groupTitle The title of the group the code belongs to
+	 * @param objects List of objects where each entry represents a piece of code.
+	 * @param nameKey The key in the Map which contains the name of the code
+	 * @param codeKey The key in the objects maps which holds the code.
+	 * @return A list of sources which represents the passed in list of objects.
+	 */
+	private static List<Source> convertMapsToSources(final String groupTitle, final Stream<Map<String, Object>> objects,
+			final String nameKey, final String codeKey) {
+		final Map<String, Integer> nameCounts = new HashMap<>();
+
+		return objects
+				.map(object -> {
+					final String name = (String) object.get(nameKey);
+					final int occurrence = nameCounts.merge(String.valueOf(name), 1, Integer::sum);
+
+					return new Source(String.format("%s/%s/%s", groupTitle, name, occurrence),
+							name,
+							(String) object.get(codeKey));
+				})
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Converts candidate sources into actual {@link Result} objects, discarding those which do not actually match.
+	 *
+	 * @param sources The sources which may contain the keyword.
+	 * @param keyword The keyword which was searched for
+	 * @param isCaseSensitive Whether the search is case sensitive
+	 * @return A list of results which represents the matching sources.
+	 */
+	private static List<Result> convertSourcesToResults(final List<Source> sources, final String keyword,
+			final boolean isCaseSensitive) {
+		return sources.stream()
+				.map(source -> new Result(source.getName(), keyword, source.getText(), isCaseSensitive))
+				.filter(result -> !result.getMatches().isEmpty())
 				.sorted(Comparator.comparing(Result::getName))
 				.collect(Collectors.toList());
 	}
 
+	/**
+	 * A group of code which can be searched, such as all of the Script Objects, along with how to load it.
+	 *
+	 * @author zmiller
+	 */
+	private static final class SourceGroup {
+
+		private final String title;
+		private final String fingerprint;
+		private final Function<Predicate<String>, Stream<Map<String, Object>>> loader;
+		private final String nameKey;
+		private final String codeKey;
+		private final UnaryOperator<String> keywordNormalizer;
+
+		/**
+		 * Constructor for a group which searches for the keyword as it was entered.
+		 *
+		 * @param theTitle the title of the group
+		 * @param theFingerprint something which is cheap to query and changes whenever the code of the group does, or
+		 *          null if there is no such thing, in which case the code is always loaded
+		 * @param theLoader function which is given a predicate on the names of the code and loads the code with
+		 *          those names. It should check the name before loading the code itself.
+		 * @param theNameKey the key in the loaded maps which contains the name of the code
+		 * @param theCodeKey the key in the loaded maps which contains the code
+		 */
+		SourceGroup(final String theTitle, final String theFingerprint,
+				final Function<Predicate<String>, Stream<Map<String, Object>>> theLoader,
+				final String theNameKey, final String theCodeKey) {
+			this(theTitle, theFingerprint, theLoader, theNameKey, theCodeKey, UnaryOperator.identity());
+		}
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theTitle the title of the group
+		 * @param theFingerprint something which is cheap to query and changes whenever the code of the group does, or
+		 *          null if there is no such thing, in which case the code is always loaded
+		 * @param theLoader function which is given a predicate on the names of the code and loads the code with
+		 *          those names. It should check the name before loading the code itself.
+		 * @param theNameKey the key in the loaded maps which contains the name of the code
+		 * @param theCodeKey the key in the loaded maps which contains the code
+		 * @param theKeywordNormalizer function which converts the keyword into the form it would have in the loaded
+		 *          code, for groups whose loader normalizes the code
+		 */
+		SourceGroup(final String theTitle, final String theFingerprint,
+				final Function<Predicate<String>, Stream<Map<String, Object>>> theLoader,
+				final String theNameKey, final String theCodeKey, final UnaryOperator<String> theKeywordNormalizer) {
+			title = theTitle;
+			fingerprint = theFingerprint;
+			loader = theLoader;
+			nameKey = theNameKey;
+			codeKey = theCodeKey;
+			keywordNormalizer = theKeywordNormalizer;
+		}
+
+		/**
+		 * Get the title.
+		 *
+		 * @return the title
+		 */
+		String getTitle() {
+			return title;
+		}
+
+		/**
+		 * Get the fingerprint.
+		 *
+		 * @return the fingerprint, or null if the group does not have one
+		 */
+		String getFingerprint() {
+			return fingerprint;
+		}
+
+		/**
+		 * Convert the keyword into the form it would have in the code of this group.
+		 *
+		 * @param keyword the keyword as it was entered
+		 * @return the keyword to search the group for
+		 */
+		String normalizeKeyword(final String keyword) {
+			return keywordNormalizer.apply(keyword);
+		}
+
+		/**
+		 * Load the code with particular names.
+		 *
+		 * @param isNameWanted predicate which determines whether code with a particular name should be loaded
+		 * @return the sources
+		 */
+		List<Source> loadSources(final Predicate<String> isNameWanted) {
+			return convertMapsToSources(title, loader.apply(isNameWanted), nameKey, codeKey);
+		}
+	}
+
 	/**
 	 * This class represents a group of results such as all results related to
 	 * Reports. This could instead be an interface that each result type could
@@ -0,0 +1,254 @@
+package net.micropact.aea.du.page.codeSearch;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import net.entellitrak.aea.gl.api.java.StringUtil;
+
+/**
+ * <p>
+ *  Trigram index over one group of the code which {@link CodeSearchController} searches (such as the Script Objects).
+ *  For every piece of code it stores the name, a hash of the code and the sorted, distinct trigrams of the lower-cased
+ *  code. A piece of code can only contain a keyword if it contains every trigram of the keyword, so the controller only
+ *  has to scan the (usually very few) pieces of code which pass that test.
+ * </p>
+ * <p>
+ *  The index is kept in the cache along with a fingerprint of the group, which is something cheap to query (such as
+ *  the workspace revision) that changes whenever the code of the group does. While the fingerprint is unchanged the
+ *  controller does not load the code at all, apart from the candidates returned by
+ *  {@link #getCandidateNames(String)}. When it has changed, the index is refreshed incrementally: only code whose hash
+ *  has changed is re-indexed, and code which no longer exists is dropped.
+ * </p>
+ * <p>
+ *  Trigrams are computed on lower-cased text, so the same index serves both case sensitive and case insensitive
+ *  searches. It only ever narrows down the candidates, the actual matches are still determined by
+ *  {@link CodeSearchController.Result}.
+ * </p>
+ *
+ * @author zmiller
+ */
+class CodeSearchIndex implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * The fingerprint of the group when the index was last refreshed, or null if the group does not have one.
+	 */
+	private String fingerprint;
+
+	/**
+	 * Map from {@link Source#getKey()} to the index of that source.
+	 */
+	private final Map<String, IndexEntry> entries = new HashMap<>();
+
+	/**
+	 * Determine whether the index was built from the code as it is now, so that the code does not need to be loaded.
+	 *
+	 * @param currentFingerprint the current fingerprint of the group, or null if the group does not have one
+	 * @return whether the index is up to date
+	 */
+	synchronized boolean isCurrent(final String currentFingerprint) {
+		return currentFingerprint != null && currentFingerprint.equals(fingerprint);
+	}
+
+	/**
+	 * Brings the index up to date with the current code.
+	 *
+	 * @param currentFingerprint the current fingerprint of the group, or null if the group does not have one
+	 * @param sources all of the code of the group
+	 * @return whether the index changed
+	 */
+	synchronized boolean refresh(final String currentFingerprint, final List<Source> sources) {
+		boolean isChanged = !Objects.equals(fingerprint, currentFingerprint);
+		fingerprint = currentFingerprint;
+
+		final Set<String> currentKeys = new HashSet<>();
+
+		for (final Source source : sources) {
+			currentKeys.add(source.getKey());
+
+			final IndexEntry existingEntry = entries.get(source.getKey());
+			final String text = source.getText();
+
+			if (existingEntry == null || !existingEntry.isSameContent(source.getName(), text)) {
+				entries.put(source.getKey(), new IndexEntry(source.getName(), text));
+				isChanged = true;
+			}
+		}
+
+		return entries.keySet().retainAll(currentKeys) || isChanged;
+	}
+
+	/**
+	 * Get the names of the indexed code which might contain the keyword. This does not require the code itself.
+	 *
+	 * @param keyword the keyword
+	 * @return the names of the code which might contain the keyword
+	 */
+	synchronized Set<String> getCandidateNames(final String keyword) {
+		final int[] keywordTrigrams = trigrams(keyword);
+
+		return entries.values()
+				.stream()
+				.filter(entry -> entry.containsAll(keywordTrigrams))
+				.map(IndexEntry::getName)
+				.collect(Collectors.toSet());
+	}
+
+	/**
+	 * Get the sources which might contain the keyword.
+	 *
+	 * @param sources the sources to check. Sources which are not in the index are always candidates.
+	 * @param keyword the keyword
+	 * @return the sources which might contain the keyword
+	 */
+	synchronized List<Source> getCandidates(final List<Source> sources, final String keyword) {
+		final int[] keywordTrigrams = trigrams(keyword);
+
+		return sources.stream()
+				.filter(source -> {
+					final IndexEntry entry = entries.get(source.getKey());
+					return entry == null || entry.containsAll(keywordTrigrams);
+				})
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get the sorted distinct trigrams of the lower-cased text.
+	 * Each trigram is packed into an int. Characters beyond the first 1024 may collide, which only means that a few
+	 * extra candidates will be checked.
+	 *
+	 * @param text the text
+	 * @return the trigrams
+	 */
+	private static int[] trigrams(final String text) {
+		final String lowerText = text.toLowerCase(Locale.ROOT);
+
+		return IntStream.range(0, Math.max(0, lowerText.length() - 2))
+				.map(i -> (lowerText.charAt(i) & 0x3FF) << 20
+						| (lowerText.charAt(i + 1) & 0x3FF) << 10
+						| lowerText.charAt(i + 2) & 0x3FF)
+				.sorted()
+				.distinct()
+				.toArray();
+	}
+
+	/**
+	 * The index of a single piece of code.
+	 *
+	 * @author zmiller
+	 */
+	private static final class IndexEntry implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final int length;
+		private final int contentHash;
+		private final int[] trigrams;
+
+		/**
+		 * Index a piece of code.
+		 *
+		 * @param theName the name of the code
+		 * @param text the code
+		 */
+		IndexEntry(final String theName, final String text) {
+			name = theName;
+			length = text.length();
+			contentHash = text.hashCode();
+			trigrams = trigrams(text);
+		}
+
+		/**
+		 * Get the name of the code.
+		 *
+		 * @return the name
+		 */
+		String getName() {
+			return name;
+		}
+
+		/**
+		 * Determine whether this entry was built from the given code.
+		 *
+		 * @param otherName the name of the code
+		 * @param text the text
+		 * @return whether the code appears to be the same as the indexed code
+		 */
+		boolean isSameContent(final String otherName, final String text) {
+			return Objects.equals(name, otherName) && length == text.length() && contentHash == text.hashCode();
+		}
+
+		/**
+		 * Determine whether the code contains all of the given trigrams.
+		 *
+		 * @param otherTrigrams the sorted trigrams to look for
+		 * @return whether all trigrams are in the code
+		 */
+		boolean containsAll(final int[] otherTrigrams) {
+			return Arrays.stream(otherTrigrams).allMatch(trigram -> Arrays.binarySearch(trigrams, trigram) >= 0);
+		}
+	}
+
+	/**
+	 * A piece of code which can be searched, such as a script object or the instructions of a form.
+	 *
+	 * @author zmiller
+	 */
+	static final class Source {
+
+		private final String key;
+		private final String name;
+		private final String text;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theKey a key which uniquely identifies the code across all groups and stays the same between searches
+		 * @param theName the name which is displayed to the user
+		 * @param theText the code
+		 */
+		Source(final String theKey, final String theName, final String theText) {
+			key = theKey;
+			name = theName;
+			text = StringUtil.toNonNullString(theText);
+		}
+
+		/**
+		 * Get the key.
+		 *
+		 * @return the key
+		 */
+		String getKey() {
+			return key;
+		}
+
+		/**
+		 * Get the name.
+		 *
+		 * @return the name
+		 */
+		String getName() {
+			return name;
+		}
+
+		/**
+		 * Get the code.
+		 *
+		 * @return the code
+		 */
+		String getText() {
+			return text;
+		}
+	}
+}
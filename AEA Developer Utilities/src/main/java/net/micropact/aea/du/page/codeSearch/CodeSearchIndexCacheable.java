@@ -0,0 +1,38 @@
+package net.micropact.aea.du.page.codeSearch;
+
+import net.entellitrak.aea.core.cache.AClassKeyCacheable;
+
+/**
+ * This class is an implementation of {@link net.entellitrak.aea.core.cache.ICacheable} for storing the
+ * {@link CodeSearchIndex} of one group of code in a workspace. Each group is stored separately so that a change to one
+ * group does not require the indexes of the others to be stored again. The index starts out empty and is filled in
+ * by {@link CodeSearchIndex#refresh(String, java.util.List)}.
+ *
+ * @author zmiller
+ */
+class CodeSearchIndexCacheable extends AClassKeyCacheable<CodeSearchIndex> {
+
+	private final String workspaceName;
+	private final String groupTitle;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param theWorkspaceName the name of the workspace which is being searched
+	 * @param theGroupTitle the title of the group of code, such as "Script Objects"
+	 */
+	CodeSearchIndexCacheable(final String theWorkspaceName, final String theGroupTitle) {
+		workspaceName = theWorkspaceName;
+		groupTitle = theGroupTitle;
+	}
+
+	@Override
+	public String getKey() {
+		return super.getKey() + "." + workspaceName + "." + groupTitle;
+	}
+
+	@Override
+	public CodeSearchIndex getValue() {
+		return new CodeSearchIndex();
+	}
+}
@@ -0,0 +1,82 @@
+package net.micropact.aea.du.page.dataHealthScanAjax;
+
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.page.ContentType;
+import com.entellitrak.page.PageController;
+import com.entellitrak.page.Parameters;
+import com.entellitrak.page.Response;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.pageUtility.PageUtility;
+import net.micropact.aea.du.utility.dataHealth.DataHealthScanEngine;
+import net.micropact.aea.du.utility.dataHealth.IDataHealthScanner;
+
+/**
+ * This page is used by the data health pages (such as Bad Dates) to scan from the page. The page first asks which data
+ * objects need to be scanned, and then keeps several requests running at once, each of which scans a single data
+ * object. This way the data objects are scanned at the same time without sharing an execution context between
+ * threads.
+ *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>scanner: the key of the {@link IDataHealthScanner}</li>
+ *  <li>action: either
+ *      <ul>
+ *          <li>list: returns the business keys of the data objects to scan. If changedOnly is 1, only the data
+ *              objects which have changed since they were last scanned are returned.</li>
+ *          <li>scan: scans the data object whose business key is dataObject</li>
+ *      </ul>
+ *  </li>
+ * </ul>
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = PageController.class)
+public class DataHealthScanAjaxController implements PageController {
+
+	@Override
+	public Response execute(final PageExecutionContext etk) throws ApplicationException {
+		PageUtility.validateCsrfToken(etk);
+
+		final Parameters parameters = etk.getParameters();
+		final IDataHealthScanner scanner = DataHealthScanEngine.getScanner(etk, parameters.getSingle("scanner"));
+		final String action = parameters.getSingle("action");
+
+		final TextResponse response = etk.createTextResponse();
+		response.setContentType(ContentType.JSON);
+
+		if ("list".equals(action)) {
+			response.put("out", new Gson().toJson(DataHealthScanEngine.getDataObjectsToScan(etk, scanner,
+					"1".equals(parameters.getSingle("changedOnly")))
+					.stream()
+					.map(DataObject::getBusinessKey)
+					.collect(Collectors.toList())));
+		} else if ("scan".equals(action)) {
+			final String dataObjectBusinessKey = parameters.getSingle("dataObject");
+			final DataObject dataObject = etk.getDataObjectService().getDataObjectByBusinessKey(dataObjectBusinessKey);
+
+			if (dataObject == null) {
+				throw new GeneralRuntimeException(String.format("\"%s\" is not the business key of a Data Object",
+						dataObjectBusinessKey));
+			}
+
+			DataHealthScanEngine.scan(etk, scanner, Collections.singletonList(dataObject));
+
+			response.put("out", new Gson().toJson(true));
+		} else {
+			throw new GeneralRuntimeException(String.format("Unknown action \"%s\"", action));
+		}
+
+		return response;
+	}
+}
@@ -16,7 +16,6 @@ import com.entellitrak.PageExecutionContext;
 import com.entellitrak.configuration.DataElement;
 import com.entellitrak.configuration.DataElementService;
 import com.entellitrak.configuration.DataObject;
-import com.entellitrak.configuration.DataObjectService;
 import com.entellitrak.configuration.DataType;
 import com.entellitrak.configuration.ObjectType;
 import com.entellitrak.handler.HandlerScript;
@@ -28,12 +27,14 @@ import com.google.gson.Gson;
 
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.pageUtility.BreadcrumbUtility;
+import net.micropact.aea.du.utility.dataHealth.DataHealthPageUtility;
 import net.micropact.aea.du.utility.page.DuBreadcrumbUtility;
 import net.micropact.aea.utility.Utility;
 
 /**
  * This page gets information about all records in the system which have a value in the code element which is the same
- * as another record of the same type.
+ * as another record of the same type. The checking itself is done by the {@link DuplicateCodeValuesScanner}, and this
+ * page displays its stored findings.
  *
  * @author zmiller
  */
@@ -52,56 +53,57 @@ public class DuplicateCodeValuesController implements PageController {
 						new SimpleBreadcrumb("Duplicate Code Values",
 								"page.request.do?page=du.page.duplicateCodeValues")));
 
-		response.put("dataObjects", new Gson().toJson(getDataObjects(etk)
+		response.put("dataObjects", new Gson().toJson(DataHealthPageUtility.getResults(etk, response, new DuplicateCodeValuesScanner())
+				.getFindings()
 				.stream()
-				.map(dataObjectDuplicate -> Utility.arrayToMap(String.class, Object.class, new Object[][]{
-					{"name", dataObjectDuplicate.getName()},
-					{"objectType", dataObjectDuplicate.getDataObjectType()},
-					{"duplicates", dataObjectDuplicate.getDuplicates()
-						.stream()
-						.map(duplicate ->
-						Utility.arrayToMap(String.class, Object.class, new Object[][]{
-							{"code", duplicate.getCode()},
-							{"duplicateObjects", duplicate.getDuplicateObjects()
-								.stream()
-								.map(duplicateObject -> Utility.arrayToMap(String.class, Object.class, new Object[][]{
-									{"id", duplicateObject.id},
-									{"url", duplicateObject.getUrl()},
-								}))
-								.collect(Collectors.toList())},
-						}))
-						.collect(Collectors.toList())},
-				}))
+				.sorted(Comparator.comparing((final Map<String, Object> dataObject) -> ((List<?>) dataObject.get("duplicates")).size())
+						.thenComparing((final Map<String, Object> dataObject) -> (String) dataObject.get("name")))
 				.collect(Collectors.toList())));
 
 		return response;
 	}
 
 	/**
-	 * Gets all of the objects which have duplicate values.
+	 * Find the code element of a data object.
 	 *
-	 * @param etk Entellitrak Execution Context
-	 * @return The list (sorted by # of duplicates and then by name) of duplicate data objects.
+	 * @param dataElementService data element service
+	 * @param dataObject the data object
+	 * @return the code element, if the data object has one
 	 */
-	public static List<DataObjectDuplicates> getDataObjects(final ExecutionContext etk) {
-		final DataObjectService dataObjectService = etk.getDataObjectService();
-		final DataElementService dataElementService = etk.getDataElementService();
+	static Optional<DataElement> findCodeElement(final DataElementService dataElementService, final DataObject dataObject) {
+		return dataElementService.getDataElements(dataObject)
+				.stream()
+				.filter(dataElement
+						-> "code".equals(dataElement.getPropertyName())
+						&& CODE_DATA_TYPES.contains(dataElement.getDataType()))
+				.findAny();
+	}
 
-		return dataObjectService.getDataObjects()
+	/**
+	 * Convert the duplicates of a data object to the representation used by the page.
+	 *
+	 * @param dataObjectDuplicate the duplicates of the data object
+	 * @return the representation of the duplicates
+	 */
+	static Map<String, Object> toMap(final DataObjectDuplicates dataObjectDuplicate) {
+		return Utility.arrayToMap(String.class, Object.class, new Object[][]{
+			{"name", dataObjectDuplicate.getName()},
+			{"objectType", dataObjectDuplicate.getDataObjectType()},
+			{"duplicates", dataObjectDuplicate.getDuplicates()
 				.stream()
-				.map(dataObject -> dataElementService.getDataElements(dataObject)
+				.map(duplicate ->
+				Utility.arrayToMap(String.class, Object.class, new Object[][]{
+					{"code", duplicate.getCode()},
+					{"duplicateObjects", duplicate.getDuplicateObjects()
 						.stream()
-						.filter(dataElement
-								-> "code".equals(dataElement.getPropertyName())
-								&& CODE_DATA_TYPES.contains(dataElement.getDataType()))
-						.findAny())
-				.filter(Optional::isPresent)
-				.map(Optional::get)
-				.map(dataElement -> new DataObjectDuplicates(etk, dataElement))
-				.filter(dataObjectDuplicates -> !dataObjectDuplicates.getDuplicates().isEmpty())
-				.sorted(Comparator.comparing((final DataObjectDuplicates dataObjectDuplicate) -> dataObjectDuplicate.getDuplicates().size())
-						.thenComparing(DataObjectDuplicates::getName))
-				.collect(Collectors.toList());
+						.map(duplicateObject -> Utility.arrayToMap(String.class, Object.class, new Object[][]{
+							{"id", duplicateObject.id},
+							{"url", duplicateObject.getUrl()},
+						}))
+						.collect(Collectors.toCollection(ArrayList::new))},
+				}))
+				.collect(Collectors.toCollection(ArrayList::new))},
+		});
 	}
 
 	/**
@@ -0,0 +1,47 @@
+package net.micropact.aea.du.page.duplicateCodeValues;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataObject;
+
+import net.micropact.aea.du.page.duplicateCodeValues.DuplicateCodeValuesController.DataObjectDuplicates;
+import net.micropact.aea.du.utility.dataHealth.IDataHealthScanner;
+
+/**
+ * Finds records which have a value in the code element which is the same as another record of the same type.
+ * There is at most one finding per data object, which contains all of its duplicates.
+ *
+ * @author zmiller
+ */
+public class DuplicateCodeValuesScanner implements IDataHealthScanner {
+
+	@Override
+	public String getKey() {
+		return "duplicateCodeValues";
+	}
+
+	@Override
+	public boolean appliesTo(final ExecutionContext etk, final DataObject dataObject) {
+		return DuplicateCodeValuesController.findCodeElement(etk.getDataElementService(), dataObject).isPresent();
+	}
+
+	@Override
+	public List<Map<String, Object>> scan(final ExecutionContext etk, final DataObject dataObject) {
+		final Optional<DataElement> codeElement = DuplicateCodeValuesController.findCodeElement(etk.getDataElementService(), dataObject);
+
+		if (codeElement.isPresent()) {
+			final DataObjectDuplicates dataObjectDuplicates = new DataObjectDuplicates(etk, codeElement.get());
+
+			if (!dataObjectDuplicates.getDuplicates().isEmpty()) {
+				return Collections.singletonList(DuplicateCodeValuesController.toMap(dataObjectDuplicates));
+			}
+		}
+
+		return Collections.emptyList();
+	}
+}
@@ -1,8 +1,22 @@
 package net.micropact.aea.du.page.logDownloader;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import com.entellitrak.ApplicationException;
 import com.entellitrak.PageExecutionContext;
@@ -13,36 +27,286 @@ import com.entellitrak.page.PageController;
 import com.entellitrak.page.Parameters;
 import com.entellitrak.page.Response;
 
+import net.entellitrak.aea.gl.api.java.io.TempFile;
+import net.entellitrak.aea.gl.api.java.io.TempFileBackedInputStream;
+import net.micropact.aea.du.utility.GzipCompressingInputStream;
 import net.micropact.aea.du.utility.LogUtility;
+import net.micropact.aea.utility.Utility;
 
 /**
- * Controller code for a page which downloads a file from the container's log directory.
+ * Controller code for a page which downloads files from the container's log directory.
+ *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>fileName/fileNames: the log file(s) to download. Compressed (rotated) log files may also be downloaded.</li>
+ *  <li>compression: "gzip" to compress a single file as it is downloaded, or "zip" to bundle the files into a single
+ *      archive. Multiple files are always bundled into a zip archive.</li>
+ *  <li>start/end: the (0-based, inclusive) range of bytes of the file to download. This is used to resume interrupted
+ *      downloads. When combined with gzip it is the range of the log file which is compressed.</li>
+ *  <li>lastBytes: download only the last lastBytes bytes of the file instead of specifying start/end.</li>
+ * </ul>
  *
  * @author zmiller
  */
 @HandlerScript(type = PageController.class)
 public class LogDownloaderController implements PageController {
 
+    private static final String COMPRESSION_GZIP = "gzip";
+    private static final String COMPRESSION_ZIP = "zip";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Override
     public Response execute(final PageExecutionContext etk) throws ApplicationException {
         try {
             final Parameters parameters = etk.getParameters();
 
-            final String fileName = parameters.getSingle("fileName");
+            final List<String> fileNames = getFileNames(parameters);
+            final String compression = parameters.getSingle("compression");
 
-            LogUtility.ensureFileNameIsValidLogFile(etk, fileName);
+            if(fileNames.isEmpty()){
+                throw new ApplicationException("No log file was specified.");
+            }
 
-            final File file = new File(LogUtility.getLogPath(etk), fileName);
+            fileNames.forEach(fileName -> LogUtility.ensureFileNameIsSearchableLogFile(etk, fileName));
 
-            final FileResponse fileResponse = etk.createFileResponse(fileName, new FileInputStream(file));
+            final String logPath = LogUtility.getLogPath(etk);
 
-            fileResponse.setContentType(ContentType.OCTET_STREAM);
-            fileResponse.setHeader("Content-disposition",
-                    String.format("attachment;filename=\"%s.txt\"", fileName));
+            if(fileNames.size() > 1 || COMPRESSION_ZIP.equals(compression)){
+                if(hasRange(parameters)){
+                    throw new ApplicationException("A byte range can not be requested when downloading a zip archive.");
+                }
 
-            return fileResponse;
-        } catch (final FileNotFoundException e) {
+                return createZipResponse(etk, logPath, fileNames);
+            }else{
+                return createFileResponse(etk,
+                        new File(logPath, fileNames.get(0)),
+                        COMPRESSION_GZIP.equals(compression));
+            }
+        } catch (final IOException e) {
             throw new ApplicationException(e);
         }
     }
+
+    /**
+     * Get the names of the files which were requested. Duplicates are removed.
+     *
+     * @param parameters the page parameters
+     * @return the file names
+     */
+    private static List<String> getFileNames(final Parameters parameters){
+        final Set<String> fileNames = new LinkedHashSet<>();
+
+        Optional.ofNullable(parameters.getSingle("fileName"))
+        .filter(fileName -> !Utility.isBlank(fileName))
+        .ifPresent(fileNames::add);
+
+        Optional.ofNullable(parameters.getField("fileNames"))
+        .ifPresent(fileNames::addAll);
+
+        return new ArrayList<>(fileNames);
+    }
+
+    /**
+     * Determine whether a byte range has been requested.
+     *
+     * @param parameters the page parameters
+     * @return whether a byte range has been requested
+     */
+    private static boolean hasRange(final Parameters parameters){
+        return !Utility.isBlank(parameters.getSingle("start"))
+                || !Utility.isBlank(parameters.getSingle("end"))
+                || !Utility.isBlank(parameters.getSingle("lastBytes"));
+    }
+
+    /**
+     * Create the response for downloading (part of) a single file, optionally compressing it with gzip.
+     * The file is streamed straight out of a {@link FileChannel} positioned at the beginning of the range, so nothing
+     * has to be copied before the download begins.
+     *
+     * @param etk entellitrak execution context
+     * @param file the file
+     * @param isGzip whether to compress the file. Files which are already compressed are not compressed again.
+     * @return the response
+     * @throws IOException If there was an underlying {@link IOException}
+     * @throws ApplicationException If the requested range is not valid
+     */
+    private static Response createFileResponse(final PageExecutionContext etk, final File file, final boolean isGzip)
+            throws IOException, ApplicationException {
+        final Parameters parameters = etk.getParameters();
+        final String fileName = file.getName();
+        final boolean isAlreadyCompressed = LogUtility.isCompressedLogFile(fileName);
+
+        final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+        try {
+            /* Log files are constantly growing, so we fix the size now so that the headers agree with the content. */
+            final long size = channel.size();
+
+            final long start;
+            final long end;
+
+            if(!Utility.isBlank(parameters.getSingle("lastBytes"))){
+                start = Math.max(0, size - Long.parseLong(parameters.getSingle("lastBytes")));
+                end = size - 1;
+            }else{
+                start = Utility.isBlank(parameters.getSingle("start")) ? 0 : Long.parseLong(parameters.getSingle("start"));
+                end = Utility.isBlank(parameters.getSingle("end"))
+                        ? size - 1
+                        : Math.min(size - 1, Long.parseLong(parameters.getSingle("end")));
+            }
+
+            if(start < 0 || start > size || end < start - 1){
+                throw new ApplicationException(String.format("Byte range %s-%s is not valid for file \"%s\" which is %s bytes long.",
+                        start, end, fileName, size));
+            }
+
+            final long length = end - start + 1;
+
+            final InputStream rangeStream = new RangeInputStream(Channels.newInputStream(channel.position(start)), length);
+
+            final FileResponse fileResponse;
+
+            if(isGzip && !isAlreadyCompressed){
+                fileResponse = etk.createFileResponse(fileName + ".gz", new GzipCompressingInputStream(rangeStream));
+                fileResponse.setContentType(ContentType.OCTET_STREAM);
+                fileResponse.setHeader("Content-disposition",
+                        String.format("attachment;filename=\"%s.txt.gz\"", fileName));
+            }else{
+                fileResponse = etk.createFileResponse(fileName, rangeStream);
+                fileResponse.setContentType(ContentType.OCTET_STREAM);
+                fileResponse.setHeader("Content-disposition",
+                        String.format(isAlreadyCompressed ? "attachment;filename=\"%s\"" : "attachment;filename=\"%s.txt\"",
+                                fileName));
+                fileResponse.setHeader("Content-Length", String.valueOf(length));
+            }
+
+            fileResponse.setHeader("Accept-Ranges", "bytes");
+            fileResponse.setHeader("Content-Range", String.format("bytes %s-%s/%s", start, end, size));
+
+            return fileResponse;
+        } catch (final IOException | ApplicationException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Create the response for downloading several files bundled into a single zip archive.
+     * The archive is built in a temporary file which is deleted once the download completes.
+     *
+     * @param etk entellitrak execution context
+     * @param logPath the log directory
+     * @param fileNames the names of the files
+     * @return the response
+     * @throws IOException If there was an underlying {@link IOException}
+     */
+    private static Response createZipResponse(final PageExecutionContext etk, final String logPath,
+            final List<String> fileNames) throws IOException {
+        final TempFile tempFile = new TempFile("logs", ".zip");
+
+        try {
+            try(OutputStream fileStream = Files.newOutputStream(tempFile.getPath());
+                    ZipOutputStream zipStream = new ZipOutputStream(fileStream)){
+                final byte[] buffer = new byte[BUFFER_SIZE];
+
+                for(final String fileName : fileNames){
+                    /* Compressing a file which is already compressed just wastes time. */
+                    zipStream.setLevel(LogUtility.isCompressedLogFile(fileName)
+                            ? Deflater.NO_COMPRESSION
+                            : Deflater.DEFAULT_COMPRESSION);
+                    zipStream.putNextEntry(new ZipEntry(fileName));
+
+                    try(InputStream inputStream = Files.newInputStream(new File(logPath, fileName).toPath())){
+                        int bytesRead;
+                        while((bytesRead = inputStream.read(buffer)) != -1){
+                            zipStream.write(buffer, 0, bytesRead);
+                        }
+                    }
+
+                    zipStream.closeEntry();
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            tempFile.close();
+            throw e;
+        }
+
+        final String zipName = fileNames.size() == 1 ? fileNames.get(0) + ".zip" : "logs.zip";
+
+        final FileResponse fileResponse = etk.createFileResponse(zipName,
+                TempFileBackedInputStream.createTempFileBackedInputStream(tempFile));
+
+        fileResponse.setContentType(ContentType.OCTET_STREAM);
+        fileResponse.setHeader("Content-disposition", String.format("attachment;filename=\"%s\"", zipName));
+        fileResponse.setHeader("Content-Length", String.valueOf(Files.size(tempFile.getPath())));
+
+        return fileResponse;
+    }
+
+    /**
+     * An {@link InputStream} which returns at most a fixed number of bytes from another {@link InputStream}.
+     *
+     * @author zmiller
+     */
+    private static final class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        /**
+         * Constructor.
+         *
+         * @param inputStream the underlying stream, positioned at the beginning of the range
+         * @param length the number of bytes in the range
+         */
+        RangeInputStream(final InputStream inputStream, final long length) {
+            super(inputStream);
+            remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if(remaining <= 0){
+                return -1;
+            }
+
+            final int result = super.read();
+            if(result != -1){
+                remaining--;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if(remaining <= 0){
+                return -1;
+            }
+
+            final int result = super.read(b, off, (int) Math.min(len, remaining));
+            if(result > 0){
+                remaining -= result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
 }
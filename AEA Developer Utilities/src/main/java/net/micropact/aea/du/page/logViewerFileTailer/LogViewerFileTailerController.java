@@ -9,9 +9,6 @@ package net.micropact.aea.du.page.logViewerFileTailer;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import com.entellitrak.ApplicationException;
@@ -24,6 +21,8 @@ import com.entellitrak.page.Response;
 import com.entellitrak.page.TextResponse;
 import com.google.gson.Gson;
 
+import net.micropact.aea.du.utility.LogFileReader;
+import net.micropact.aea.du.utility.LogFileReader.LogChunk;
 import net.micropact.aea.du.utility.LogUtility;
 import net.micropact.aea.utility.Utility;
 
@@ -34,6 +33,13 @@ import net.micropact.aea.utility.Utility;
  * If the starting position is null, it will begin and the END of the file and return no lines (however this is
  * not useless information because the caller now knows where the end of the file is for future requests).
  *
+ * <p>
+ *  Each response is limited by maxBytes and maxLines. If there is more to read, hasMore will be true and the caller
+ *  should make another request starting at finalPosition.
+ *  Instead of a position, the caller may pass lastLines to get the last lines of the file, or lineNumber to read from
+ *  a particular (0-based) line of the file.
+ * </p>
+ *
  * @author zmiller
  */
 @HandlerScript(type = PageController.class)
@@ -48,14 +54,33 @@ public class LogViewerFileTailerController implements PageController {
             response.setContentType(ContentType.JSON);
 
             final String positionString = parameters.getSingle("position");
+            final String lastLinesString = parameters.getSingle("lastLines");
+            final String lineNumberString = parameters.getSingle("lineNumber");
             final String fileName = parameters.getSingle("fileName");
 
             LogUtility.ensureFileNameIsValidLogFile(etk, fileName);
 
-            final Long position = Utility.isBlank(positionString) ? null : Long.parseLong(positionString);
+            final int maxBytes = getLimit(parameters.getSingle("maxBytes"), LogFileReader.DEFAULT_MAX_BYTES);
+            final int maxLines = getLimit(parameters.getSingle("maxLines"), LogFileReader.DEFAULT_MAX_LINES);
+
+            final File file = new File(LogUtility.getLogPath(etk), fileName);
 
-            response.put("out", new Gson().toJson(
-                    getTail(new File(LogUtility.getLogPath(etk), fileName), position)));
+            final LogChunk chunk;
+
+            if(!Utility.isBlank(lineNumberString)){
+                chunk = LogFileReader.readLinesFromLineNumber(etk, file, Long.parseLong(lineNumberString), maxBytes,
+                        maxLines);
+            }else if(!Utility.isBlank(lastLinesString)){
+                chunk = LogFileReader.readLastLines(file, Math.min(Integer.parseInt(lastLinesString), maxLines),
+                        maxBytes);
+            }else if(Utility.isBlank(positionString)){
+                final long length = file.length();
+                chunk = LogFileReader.readLines(file, length, 0, 0);
+            }else{
+                chunk = LogFileReader.readLines(file, Long.parseLong(positionString), maxBytes, maxLines);
+            }
+
+            response.put("out", new Gson().toJson(toMap(chunk)));
 
             return response;
         } catch (final IOException e) {
@@ -64,38 +89,39 @@ public class LogViewerFileTailerController implements PageController {
     }
 
     /**
-     * Gets information about the tail of a file.
+     * Parse a limit passed by the caller. The caller may lower the default limits, but not raise them.
+     *
+     * @param limitString the limit passed by the caller
+     * @param defaultLimit the default limit
+     * @return the limit
+     */
+    private static int getLimit(final String limitString, final int defaultLimit){
+        return Utility.isBlank(limitString)
+                ? defaultLimit
+                : Math.max(1, Math.min(defaultLimit, Integer.parseInt(limitString)));
+    }
+
+    /**
+     * Converts the lines which were read to the format expected by the view.
      *
-     * @param file The file to get the tail of
-     * @param beginPosition The position to begin tailing at. If it is null, it will begin tailing at the end
-     *          (which will return no lines)
+     * @param chunk The lines which were read
      * @return A Map of information of the form:
      *      <pre>
      *          [{  startingPosition: Number,
      *              finalPosition: Number,
+     *              hasMore: Boolean,
+     *              startingLine: Number,
+     *              lineCount: Number,
      *              lines: [String]}]
      *      </pre>
-     * @throws IOException
-     *      If there was an underlying IOException
      */
-    private static Map<String, Object> getTail(final File file, final Long beginPosition) throws IOException{
-        try(RandomAccessFile reader = new RandomAccessFile(file, "r")){
-            final long length = reader.length();
-            final long startingPosition = beginPosition == null ? length : beginPosition;
-            reader.seek(startingPosition);
-
-            final List<String> lines = new ArrayList<>();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
-
-            final long finalPosition = reader.getFilePointer();
-
-            return Utility.arrayToMap(String.class, Object.class, new Object[][]{
-                {"startingPosition", startingPosition},
-                {"finalPosition", finalPosition},
-                {"lines", lines}});
-        }
+    private static Map<String, Object> toMap(final LogChunk chunk){
+        return Utility.arrayToMap(String.class, Object.class, new Object[][]{
+            {"startingPosition", chunk.getStartingPosition()},
+            {"finalPosition", chunk.getFinalPosition()},
+            {"hasMore", chunk.hasMore()},
+            {"startingLine", chunk.getStartingLine()},
+            {"lineCount", chunk.getLineCount()},
+            {"lines", chunk.getLines()}});
     }
 }
@@ -0,0 +1,172 @@
+package net.micropact.aea.du.page.logViewerSearch;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.page.ContentType;
+import com.entellitrak.page.PageController;
+import com.entellitrak.page.Parameters;
+import com.entellitrak.page.Response;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
+
+import net.micropact.aea.du.utility.LogUtility;
+import net.micropact.aea.du.utility.logSearch.LogSearchCriteria;
+import net.micropact.aea.du.utility.logSearch.LogSearcher;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * Page controller code which searches one or more files in the container log directory (including compressed rotated
+ * logs) and returns a page of matching lines along with the lines around them.
+ *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>fileNames: the log files to search (multiple)</li>
+ *  <li>query: the text to search for</li>
+ *  <li>regex: "1" if query is a regular expression</li>
+ *  <li>caseSensitive: "1" if the search is case sensitive</li>
+ *  <li>from/to: only search entries logged within this window, in the format yyyy-MM-dd'T'HH:mm[:ss]</li>
+ *  <li>levels: only search entries logged at these levels, such as ERROR (multiple)</li>
+ *  <li>contextLines: the number of lines to return before and after each match</li>
+ *  <li>offset/pageSize: which page of matches to return</li>
+ * </ul>
+ * <p>
+ *  If a parameter is not valid, the response is an object with an errors property containing the messages instead of
+ *  the search results.
+ * </p>
+ * <p>
+ *  The Log Viewer page does not call this page; it is meant to be called directly, for example by scripts.
+ * </p>
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = PageController.class)
+public class LogViewerSearchController implements PageController {
+
+    private static final int DEFAULT_CONTEXT_LINES = 2;
+    private static final int MAX_CONTEXT_LINES = 50;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Override
+    public Response execute(final PageExecutionContext etk) throws ApplicationException {
+        final Parameters parameters = etk.getParameters();
+
+        final TextResponse response = etk.createTextResponse();
+        response.setContentType(ContentType.JSON);
+
+        final List<String> fileNames = Optional.ofNullable(parameters.getField("fileNames"))
+                .orElse(Collections.emptyList());
+
+        fileNames.forEach(fileName -> LogUtility.ensureFileNameIsSearchableLogFile(etk, fileName));
+
+        final String logPath = LogUtility.getLogPath(etk);
+
+        final List<File> files = fileNames.stream()
+                .distinct()
+                .map(fileName -> new File(logPath, fileName))
+                .collect(Collectors.toList());
+
+        final List<String> errors = new ArrayList<>();
+
+        final LocalDateTime from = parseDateTime(parameters.getSingle("from"), "from", errors);
+        final LocalDateTime to = parseDateTime(parameters.getSingle("to"), "to", errors);
+        final int contextLines = parseInt(parameters.getSingle("contextLines"), "contextLines", DEFAULT_CONTEXT_LINES,
+                0, MAX_CONTEXT_LINES, errors);
+        final int offset = parseInt(parameters.getSingle("offset"), "offset", 0, 0, Integer.MAX_VALUE - MAX_PAGE_SIZE,
+                errors);
+        final int pageSize = parseInt(parameters.getSingle("pageSize"), "pageSize", DEFAULT_PAGE_SIZE, 1, MAX_PAGE_SIZE,
+                errors);
+
+        if(from != null && to != null && from.isAfter(to)){
+            errors.add("from must not be after to");
+        }
+
+        LogSearchCriteria criteria = null;
+
+        if(errors.isEmpty()){
+            try {
+                criteria = new LogSearchCriteria(
+                        parameters.getSingle("query"),
+                        "1".equals(parameters.getSingle("regex")),
+                        "1".equals(parameters.getSingle("caseSensitive")),
+                        from,
+                        to,
+                        new HashSet<>(Optional.ofNullable(parameters.getField("levels")).orElse(Collections.emptyList())),
+                        contextLines,
+                        offset,
+                        pageSize);
+            } catch (final PatternSyntaxException e) {
+                errors.add(String.format("query is not a valid regular expression: %s", e.getDescription()));
+            }
+        }
+
+        response.put("out", new Gson().toJson(errors.isEmpty()
+                ? LogSearcher.search(files, criteria)
+                : Collections.singletonMap("errors", errors)));
+
+        return response;
+    }
+
+    /**
+     * Parse a date/time parameter.
+     *
+     * @param dateTimeString the parameter in ISO format
+     * @param parameterName the name of the parameter, for the error message
+     * @param errors the list which an error is added to if the parameter is not valid
+     * @return the date/time or null if the parameter is blank or not valid
+     */
+    private static LocalDateTime parseDateTime(final String dateTimeString, final String parameterName,
+            final List<String> errors){
+        if(Utility.isBlank(dateTimeString)){
+            return null;
+        }
+
+        try {
+            return LocalDateTime.parse(dateTimeString, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (final DateTimeParseException e) {
+            errors.add(String.format("%s must be in the format yyyy-MM-dd'T'HH:mm[:ss], but was \"%s\"",
+                    parameterName, dateTimeString));
+            return null;
+        }
+    }
+
+    /**
+     * Parse an integer parameter, restricting it to a range.
+     *
+     * @param intString the parameter
+     * @param parameterName the name of the parameter, for the error message
+     * @param defaultValue the value to use if the parameter is blank or not valid
+     * @param min the minimum allowed value
+     * @param max the maximum allowed value
+     * @param errors the list which an error is added to if the parameter is not valid
+     * @return the integer
+     */
+    private static int parseInt(final String intString, final String parameterName, final int defaultValue,
+            final int min, final int max, final List<String> errors){
+        if(Utility.isBlank(intString)){
+            return defaultValue;
+        }
+
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(intString.trim())));
+        } catch (final NumberFormatException e) {
+            errors.add(String.format("%s must be a whole number, but was \"%s\"", parameterName, intString));
+            return defaultValue;
+        }
+    }
+}
@@ -7,7 +7,6 @@ import java.util.stream.Collectors;
 
 import com.entellitrak.ApplicationException;
 import com.entellitrak.ExecutionContext;
-import com.entellitrak.IncorrectResultSizeDataAccessException;
 import com.entellitrak.PageExecutionContext;
 import com.entellitrak.configuration.LookupDefinition;
 import com.entellitrak.configuration.LookupDefinitionService;
@@ -18,12 +17,11 @@ import com.entellitrak.page.Response;
 import com.entellitrak.page.TextResponse;
 import com.google.gson.Gson;
 
-import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.entellitrak.aea.gl.api.java.map.MapBuilder;
 import net.micropact.aea.core.lookup.LookupMetadata;
 import net.micropact.aea.core.lookup.LookupMetadata.TableColumn;
+import net.micropact.aea.du.utility.DatabaseCatalog;
 import net.micropact.aea.utility.LookupSourceType;
-import net.micropact.aea.utility.Utility;
 
 /**
  * This page returns metadata surrounding lookups in JSON format. It is primarily concerned with returning the Table and
@@ -62,6 +60,7 @@ public class LookupColumnReferencesAjaxController implements PageController {
 	 */
 	private static List<Map<String, Object>> getLookupMetadata(final ExecutionContext etk) {
 		final LookupDefinitionService lookupDefinitionService = etk.getLookupDefinitionService();
+		final DatabaseCatalog databaseCatalog = DatabaseCatalog.getCatalog(etk);
 
 		return lookupDefinitionService.getLookupDefinitions()
 				.stream()
@@ -74,7 +73,7 @@ public class LookupColumnReferencesAjaxController implements PageController {
 					final Map<String, Object> tableColumnData = getTableColumnData(etk, lookupDefinition);
 					lookupData.putAll(tableColumnData);
 
-					lookupData.put("tableColumnExists", tableColumnExists(etk, (String) tableColumnData.get("tableName"), (String) tableColumnData.get("columnName")));
+					lookupData.put("tableColumnExists", tableColumnExists(databaseCatalog, (String) tableColumnData.get("tableName"), (String) tableColumnData.get("columnName")));
 					lookupData.put("lookupSourceTypeDisplay", LookupSourceType.getLookupSourceTypeByCoreLookupSourceType(lookupDefinition.getSourceType()).getDisplay());
 
 					return lookupData;
@@ -100,27 +99,18 @@ public class LookupColumnReferencesAjaxController implements PageController {
 	/**
 	 * This method checks to see whether a particular table and column exist within the database.
 	 *
-	 * @param etk entellitrak execution context
+	 * @param databaseCatalog the tables and columns of the database
 	 * @param tableName name of the table
 	 * @param columnName name of the column
 	 * @return null if tableName and columnName are null, otherwise true if the table/column exists in the database and false if it does not.
 	 */
-	private static Boolean tableColumnExists(final ExecutionContext etk,
+	private static Boolean tableColumnExists(final DatabaseCatalog databaseCatalog,
 			final String tableName,
 			final String columnName) {
-		try {
-			if (tableName == null || columnName == null) {
-				return null;
-			} else {
-				return 1 == etk.createSQL(Utility.isSqlServer(etk) || Utility.isPostgreSQL(etk)
-						? "SELECT COUNT(*) FROM information_schema.columns WHERE UPPER(table_name) = :tableName AND UPPER(column_name) = :columnName"
-								: "SELECT COUNT(*) FROM ALL_TAB_COLUMNS WHERE UPPER(table_name) = :tableName AND UPPER(column_name) = :columnName")
-						.setParameter("tableName", tableName)
-						.setParameter("columnName", columnName)
-						.fetchLong();
-			}
-		} catch (final IncorrectResultSizeDataAccessException e) {
-			throw new GeneralRuntimeException(e);
+		if (tableName == null || columnName == null) {
+			return null;
+		} else {
+			return databaseCatalog.columnExists(tableName, columnName);
 		}
 	}
 }
@@ -1,16 +1,18 @@
 package net.micropact.aea.du.page.mismatchedColumnTypes;
 
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.entellitrak.ApplicationException;
 import com.entellitrak.ExecutionContext;
 import com.entellitrak.PageExecutionContext;
 import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataObject;
 import com.entellitrak.handler.HandlerScript;
 import com.entellitrak.page.PageController;
 import com.entellitrak.page.Response;
@@ -19,6 +21,7 @@ import com.entellitrak.page.TextResponse;
 import com.entellitrak.platform.DatabasePlatform;
 import com.google.gson.Gson;
 
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.cache.AeaCoreConfiguration;
 import net.micropact.aea.core.pageUtility.BreadcrumbUtility;
 import net.micropact.aea.core.utility.EtkDataUtils;
@@ -38,6 +41,11 @@ import net.micropact.aea.utility.Utility;
  * this page makes no attempt to assist the user with correcting the problem, it only serves to point out where it
  * believes there is one.
  *
+ * <p>
+ *  By default every data element is checked. Passing a dataObjectBusinessKey parameter only checks the elements of that
+ *  data object, which is useful after changing a single data object's data model.
+ * </p>
+ *
  * @author zmiller
  */
 @HandlerScript(type = PageController.class)
@@ -56,7 +64,7 @@ public class MismatchedColumnTypesController implements PageController {
 		final IMismatchFinderPlatformConfig mismatchFinder = determineFinderConfig(etk);
 
 		response.put("elementMismatches",
-				new Gson().toJson(findMismatches(etk, mismatchFinder)));
+				new Gson().toJson(findMismatches(etk, mismatchFinder, getDataElementsToCheck(etk))));
 
 		return response;
 	}
@@ -77,25 +85,61 @@ public class MismatchedColumnTypesController implements PageController {
 	}
 
 	/**
-	 * Find all mismatches in the database.
+	 * Get the data elements which should be checked. This is either all data elements or the data elements of the data
+	 * object specified by the dataObjectBusinessKey parameter.
+	 *
+	 * @param etk
+	 *            entellitrak page execution context
+	 * @return the data elements
+	 */
+	private static List<DataElement> getDataElementsToCheck(final PageExecutionContext etk) {
+		final String dataObjectBusinessKey = etk.getParameters().getSingle("dataObjectBusinessKey");
+
+		if (Utility.isBlank(dataObjectBusinessKey)) {
+			return EtkDataUtils.getAllDataElements(etk).collect(Collectors.toList());
+		} else {
+			final DataObject dataObject = etk.getDataObjectService().getDataObjectByBusinessKey(dataObjectBusinessKey);
+
+			if (dataObject == null) {
+				throw new GeneralRuntimeException(String.format("Could not find data object with business key \"%s\"",
+						dataObjectBusinessKey));
+			}
+
+			return etk.getDataElementService().getDataElements(dataObject)
+					.stream()
+					.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Find the mismatches of some data elements. Only the columns of the tables which those data elements are stored
+	 * in are loaded from the database.
 	 *
 	 * @param etk
 	 *            entellitrak execution context
 	 * @param platformConfig
 	 *            the platform-specific configuration
+	 * @param dataElements
+	 *            the data elements to check
 	 * @return the mismatch data
 	 */
 	private static Object findMismatches(final ExecutionContext etk,
-			final IMismatchFinderPlatformConfig platformConfig) {
-		final AllDatabaseColumnsMetadata allTablesColumns = platformConfig.loadAllTablesColumns(etk);
-
-		final Stream<DataElement> dataElements = EtkDataUtils.getAllDataElements(etk);
+			final IMismatchFinderPlatformConfig platformConfig,
+			final List<DataElement> dataElements) {
+		final Set<String> exclusions = new HashSet<>(AeaCoreConfiguration.getDuMismatchColumnExclusions(etk));
 
-		final Stream<ElementAcceptableColumns> expectedColumns = dataElements
+		final List<ElementAcceptableColumns> expectedColumns = dataElements.stream()
 				.flatMap(platformConfig::getExpectedElementColumns)
-				.filter(elementAcceptableColumns -> !isExcluded(etk, elementAcceptableColumns));
+				.filter(elementAcceptableColumns -> !isExcluded(exclusions, elementAcceptableColumns))
+				.collect(Collectors.toList());
+
+		final AllDatabaseColumnsMetadata tablesColumns = platformConfig.loadTablesColumns(etk,
+				expectedColumns.stream()
+				.map(ElementAcceptableColumns::getTableName)
+				.collect(Collectors.toSet()));
 
-		return expectedColumns.map(elementColumns -> attemptColumnMatch(allTablesColumns, elementColumns))
+		return expectedColumns.stream()
+				.map(elementColumns -> attemptColumnMatch(tablesColumns, elementColumns))
 				.filter(Optional::isPresent)
 				.map(Optional::get)
 				.sorted(Comparator.comparing((final Map<String, Object> reason) -> (String) reason.get("dataObjectName"))
@@ -106,19 +150,16 @@ public class MismatchedColumnTypesController implements PageController {
 	/**
 	 * Determine whether a table/column has been excluded from the mismatch check by the aea core configuration.
 	 *
-	 * @param etk
-	 *            entellitrak execution context
+	 * @param exclusions
+	 *            the excluded table/columns, in TABLE.COLUMN format
 	 * @param elementAcceptableColumns
 	 *            the element/column
 	 * @return whether the column is excluded
 	 */
-	private static boolean isExcluded(final ExecutionContext etk,
+	private static boolean isExcluded(final Set<String> exclusions,
 			final ElementAcceptableColumns elementAcceptableColumns) {
-		final String concatenatedValue = String.format("%s.%s",
-				elementAcceptableColumns.getTableName(), elementAcceptableColumns.getColumnName());
-		return AeaCoreConfiguration.getDuMismatchColumnExclusions(etk)
-				.stream()
-				.anyMatch(concatenatedValue::equals);
+		return exclusions.contains(String.format("%s.%s",
+				elementAcceptableColumns.getTableName(), elementAcceptableColumns.getColumnName()));
 	}
 
 	/**
@@ -0,0 +1,343 @@
+package net.micropact.aea.du.page.rdoTextSearch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataType;
+
+import net.micropact.aea.core.query.EscapeLike;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * This class contains the logic for searching the textual columns of a single RDO for a piece of text. It is used by
+ * the RDO Text Search page, which searches the RDOs one at a time so that the results of each RDO can be displayed as
+ * soon as they are available and so that a long-running search can be cancelled.
+ *
+ * <p>
+ *  All of the searchable columns of an RDO are searched by a single query which ORs together a LIKE condition for
+ *  each column, so each RDO table is only scanned once. The number of records returned per RDO is capped.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class RdoTextSearchEngine {
+
+    /**
+     * The default maximum number of matching records which will be returned for a single RDO.
+     */
+    public static final int DEFAULT_MAX_ROWS_PER_TABLE = 500;
+
+    /**
+     * The largest value the client is allowed to request for the maximum number of records per RDO.
+     */
+    private static final int MAX_ROWS_PER_TABLE_LIMIT = 10000;
+
+    /**
+     * Utility classes do not need public constructors.
+     */
+    private RdoTextSearchEngine(){}
+
+    /**
+     * Parse the maximum number of records to return for each RDO from a request parameter. Values which are missing or
+     * are not numbers (including numbers too large to parse) get the default, and other values are clamped to a
+     * sensible range.
+     *
+     * @param maxRowsParameter the raw parameter
+     * @return the maximum number of rows
+     */
+    public static int parseMaxRows(final String maxRowsParameter) {
+        try {
+            return maxRowsParameter == null || maxRowsParameter.isEmpty()
+                ? DEFAULT_MAX_ROWS_PER_TABLE
+                : (int) Math.max(1, Math.min(MAX_ROWS_PER_TABLE_LIMIT, Long.parseLong(maxRowsParameter.trim())));
+        } catch (final NumberFormatException e) {
+            return DEFAULT_MAX_ROWS_PER_TABLE;
+        }
+    }
+
+    /**
+     * This method will look for all occurrences of searchText within a particular reference data object.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param searchText
+     *            text to be searched for
+     * @param selectedDataTypes
+     *            The data types which should be searched over
+     * @param dataObject
+     *            the data object
+     * @param maxRows
+     *            the maximum number of matching records to return
+     * @return A Map containing all the results for a particular RDO. Because of how the View code uses this result, the
+     *         returned Map includes information about the RDO itself such as its Label. The "truncated" key indicates
+     *         whether there were more than maxRows matching records.
+     */
+    public static Map<String, Object> getResultsForTable(final ExecutionContext etk,
+        final String searchText,
+        final Set<DataType> selectedDataTypes,
+        final DataObject dataObject,
+        final int maxRows) {
+
+        /*
+         * We only bring back the searchable columns of records where at least one of those columns matches. We then
+         * figure out in java which of the columns of each record actually matched.
+         */
+        final List<DataElement> textualDataElements = etk.getDataElementService().getDataElements(dataObject)
+            .stream()
+            .filter(dataElement -> selectedDataTypes.contains(dataElement.getDataType()))
+            .filter(dataElement -> !dataElement.isBoundToLookup())
+            .sorted(Comparator.comparing(DataElement::getName).thenComparing(DataElement::getBusinessKey))
+            .collect(Collectors.toList());
+
+        final Map<Long, List<Map<String, Object>>> matchingRecords = new LinkedHashMap<>();
+        boolean isTruncated = false;
+
+        if (!textualDataElements.isEmpty()) {
+            final List<Map<String, Object>> rows = etk.createSQL(buildSearchQuery(etk, dataObject, textualDataElements))
+                .setParameter("searchText", EscapeLike.escapeLike(etk, searchText))
+                .setParameter("escapeChar", EscapeLike.getEscapeCharString())
+                .setParameter("maxRows", maxRows + 1)
+                .fetchList();
+
+            isTruncated = rows.size() > maxRows;
+
+            /* The query upper-cases both sides (or uses the column's collation on SQL Server), so we fold case the same
+             * way here. */
+            final String upperSearchText = searchText.toUpperCase(Locale.ROOT);
+
+            rows.stream()
+                .limit(maxRows)
+                .forEach(row -> {
+                    final long id = ((Number) row.get("ID")).longValue();
+                    final List<Integer> nonNullIndexes = new ArrayList<>();
+                    boolean isAnyColumnMatched = false;
+
+                    for (int i = 0; i < textualDataElements.size(); i++) {
+                        final String value = (String) row.get(getValueAlias(i));
+
+                        if (value != null) {
+                            nonNullIndexes.add(i);
+
+                            if (value.toUpperCase(Locale.ROOT).contains(upperSearchText)) {
+                                isAnyColumnMatched = true;
+                                /* Add the matching id/element information to our Map that we're building up */
+                                addMatchingItem(searchText, matchingRecords, id, textualDataElements.get(i), value);
+                            }
+                        }
+                    }
+
+                    /* The database matched the record, but its collation may be more lenient than upper-casing (for
+                     * instance accent-insensitive). Rather than drop the record, we show every column we searched. */
+                    if (!isAnyColumnMatched) {
+                        nonNullIndexes.forEach(i -> addMatchingItem(searchText, matchingRecords, id,
+                            textualDataElements.get(i), (String) row.get(getValueAlias(i))));
+                    }
+                });
+        }
+
+        // Build the return value for this method
+        final Map<String, Object> tableResults = new HashMap<>();
+        tableResults.put("TABLE_NAME", dataObject.getTableName());
+        tableResults.put("BUSINESS_KEY", dataObject.getBusinessKey());
+        tableResults.put("LABEL", dataObject.getLabel());
+        tableResults.put("records", convertMatchingRecordsMapToList(matchingRecords));
+        tableResults.put("truncated", isTruncated);
+
+        return tableResults;
+    }
+
+    /**
+     * Builds a single query which returns the first :maxRows records (by ID) where any of the elements contain
+     * :searchText.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param dataObject
+     *            the data object
+     * @param textualDataElements
+     *            the elements to search
+     * @return the query
+     */
+    private static String buildSearchQuery(final ExecutionContext etk,
+        final DataObject dataObject,
+        final List<DataElement> textualDataElements) {
+        final List<String> selectColumns = new ArrayList<>();
+        final List<String> conditions = new ArrayList<>();
+
+        for (int i = 0; i < textualDataElements.size(); i++) {
+            final String columnName = textualDataElements.get(i).getColumnName();
+
+            selectColumns.add(String.format(Utility.isSqlServer(etk) ? "%s %s" : "%s as \"%s\"",
+                columnName,
+                getValueAlias(i)));
+            conditions.add(String.format(Utility.isSqlServer(etk)
+                ? "%s LIKE '%%' + :searchText + '%%' ESCAPE :escapeChar"
+                : "UPPER(%s) LIKE '%%' || UPPER(:searchText) || '%%' ESCAPE :escapeChar",
+                columnName));
+        }
+
+        return String.format("SELECT * FROM (SELECT ROW_NUMBER() OVER (ORDER BY ID) AEA_ROW_NUMBER, ID, %s FROM %s WHERE %s) matchingRecords WHERE AEA_ROW_NUMBER <= :maxRows ORDER BY AEA_ROW_NUMBER",
+            String.join(", ", selectColumns),
+            dataObject.getTableName(),
+            String.join(" OR ", conditions));
+    }
+
+    /**
+     * Columns are aliased by position so that the columns of the query do not depend on the names of the elements.
+     *
+     * @param index
+     *            the position of the element
+     * @return the alias of the element's column
+     */
+    private static String getValueAlias(final int index) {
+        return "VALUE_" + index;
+    }
+
+    /**
+     * This method adds a matching element/value to the map of matched objects. This method will add an id if it doesn't
+     * exist in the map, otherwise it will update the id with the additional match.
+     *
+     * @param searchText
+     *            The text which is being searched for
+     * @param matchingItems
+     *            The current map of ids to matched values
+     * @param id
+     *            The id of the item to be added
+     * @param dataElement
+     *            The element to add
+     * @param value
+     *            The value to add
+     */
+    private static void addMatchingItem(
+        final String searchText,
+        final Map<Long, List<Map<String, Object>>> matchingItems,
+        final Long id,
+        final DataElement dataElement,
+        final String value) {
+
+        matchingItems.computeIfAbsent(id, k -> new ArrayList<>())
+            .add(Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                { "COLUMN_NAME", dataElement.getColumnName() },
+                { "ELEMENT_NAME", dataElement.getName() },
+                { "VALUE", findAllMatches(searchText, value) },
+            }));
+    }
+
+    /**
+     * This method will convert a Map of matching results to a List of Maps. This is because internally, the Map is
+     * easier to construct originally, but the List is easier to work with in the View.
+     *
+     * @param matchingRecords
+     *            Map of tracking ids to search results
+     * @return List of search results
+     */
+    private static List<Map<String, Object>> convertMatchingRecordsMapToList(
+        final Map<Long, List<Map<String, Object>>> matchingRecords) {
+        return matchingRecords.entrySet()
+            .stream()
+            .map(matchingRecord -> Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                { "ID", matchingRecord.getKey() },
+                { "COLUMNS", matchingRecord.getValue() } }))
+            .sorted(Comparator.comparing(theRecord -> (Long) theRecord.get("ID")))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * This method adds a text fragment to an existing list of fragments if the fragment is not empty.
+     *
+     * @param fragments
+     *            The list of fragments to be added to
+     * @param fragment
+     *            The fragment which is to be added
+     * @param isMatch
+     *            Whether the fragment matches the search text
+     */
+    private static void addFragment(final List<Map<String, Object>> fragments, final String fragment,
+        final boolean isMatch) {
+        if (!fragment.isEmpty()) {
+            fragments.add(Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                { "fragment", fragment },
+                { "isMatch", isMatch },
+            }));
+        }
+    }
+
+    /**
+     * This method takes a block of text and a keyword. It will find matches in the following way: If a line has the
+     * keyword in it, we will return a list of fragments for that line, otherwise the line will thrown out. The
+     * fragments that we split the lines into will have a flag indicating whether the fragment matches the keyword, or
+     * does not match the keyword. This way the matching fragments can be highlighted in the View. If no line matches
+     * (because the database matched the text more leniently than we can), every line is returned without highlighting.
+     *
+     * @param keyword
+     *            The word to be searched for
+     * @param text
+     *            the text to be searched over
+     * @return A list of lines of fragments.
+     */
+    private static List<List<Map<String, Object>>> findAllMatches(final String keyword, final String text) {
+        // We want to search for the text case-insensitive
+        final Pattern pattern = Pattern.compile(Pattern.quote(keyword),
+            Pattern.CASE_INSENSITIVE);
+
+        // These will be the lines that contain a match
+        final List<List<Map<String, Object>>> lineMatches = new ArrayList<>();
+
+        final String[] lines = text.split("\r\n|\r|\n");
+        Stream.of(lines).forEach(line -> {
+            if (pattern.matcher(line).find()) {
+                // The line contains a match
+
+                // We are going to build a list of fragments
+                final List<Map<String, Object>> fragments = new ArrayList<>();
+
+                // We get a matcher
+                final Matcher matcher = pattern.matcher(line);
+
+                /* We store the index in the line where the matcher is going to start its next search */
+                int lastIndex = 0;
+
+                while (matcher.find(lastIndex)) {
+                    // The remainder of the line still contains a match
+                    // Get the indices of the matching fragment
+                    final int startIndex = matcher.start();
+                    final int endIndex = matcher.end();
+
+                    // everything between lastIndex and the beginning of the match is an unmatching fragment
+                    addFragment(fragments, line.substring(lastIndex, startIndex), false);
+                    // everything between the startIndex and endIndex of the match is a matching fragment
+                    addFragment(fragments, line.substring(startIndex, endIndex), true);
+                    // indicate that we will continue our search at the end of the current match
+                    lastIndex = endIndex;
+                }
+
+                // There are no more matches, so we add the remainder of the line as an unmatched fragment
+                addFragment(fragments, line.substring(lastIndex), false);
+
+                lineMatches.add(fragments);
+            }
+        });
+        if (lineMatches.isEmpty()) {
+            Stream.of(lines).forEach(line -> {
+                final List<Map<String, Object>> fragments = new ArrayList<>();
+                addFragment(fragments, line, false);
+                lineMatches.add(fragments);
+            });
+        }
+
+        return lineMatches;
+    }
+}
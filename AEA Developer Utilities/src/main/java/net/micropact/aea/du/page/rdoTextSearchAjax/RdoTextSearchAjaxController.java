@@ -0,0 +1,70 @@
+package net.micropact.aea.du.page.rdoTextSearchAjax;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataType;
+import com.entellitrak.configuration.ObjectType;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.page.ContentType;
+import com.entellitrak.page.PageController;
+import com.entellitrak.page.Parameters;
+import com.entellitrak.page.Response;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.GsonBuilder;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.du.page.rdoTextSearch.RdoTextSearchEngine;
+
+/**
+ * This page is used by the RDO Text Search page. It searches a single RDO and returns the results as JSON.
+ * The RDO Text Search page calls this page once for each selected RDO (a few at a time), which lets it display the
+ * results of each RDO as soon as they are available and lets the user cancel a search which is taking too long.
+ *
+ * @author zmiller
+ */
+@HandlerScript(type = PageController.class)
+public class RdoTextSearchAjaxController implements PageController {
+
+    @Override
+    public Response execute(final PageExecutionContext etk) throws ApplicationException {
+        final Parameters parameters = etk.getParameters();
+
+        final String searchText = parameters.getSingle("searchText");
+        final String dataObjectBusinessKey = parameters.getSingle("dataObject");
+        final Set<DataType> selectedDataTypes = Optional.ofNullable(parameters.getField("dataTypes"))
+            .orElse(Collections.emptyList())
+            .stream()
+            .flatMap(dataTypeName -> Stream.of(DataType.TEXT, DataType.LONG_TEXT)
+                .filter(dataType -> dataType.name().equals(dataTypeName)))
+            .collect(Collectors.toSet());
+        final int maxRows = RdoTextSearchEngine.parseMaxRows(parameters.getSingle("maxRowsPerTable"));
+
+        if (searchText == null || searchText.isEmpty()) {
+            throw new GeneralRuntimeException("You must enter Search Text");
+        }
+
+        final DataObject dataObject = etk.getDataObjectService().getDataObjectByBusinessKey(dataObjectBusinessKey);
+
+        if (dataObject == null || dataObject.getObjectType() != ObjectType.REFERENCE) {
+            throw new GeneralRuntimeException(String.format("\"%s\" is not the business key of a Reference Data Object",
+                dataObjectBusinessKey));
+        }
+
+        final TextResponse response = etk.createTextResponse();
+
+        response.setContentType(ContentType.JSON);
+
+        response.put("out", new GsonBuilder().serializeNulls().create()
+            .toJson(RdoTextSearchEngine.getResultsForTable(etk, searchText, selectedDataTypes, dataObject, maxRows)));
+
+        return response;
+    }
+}
@@ -9,12 +9,9 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import com.entellitrak.ApplicationException;
-import com.entellitrak.ExecutionContext;
 import com.entellitrak.PageExecutionContext;
 import com.entellitrak.RoleService;
-import com.entellitrak.configuration.DataObject;
 import com.entellitrak.configuration.DataObjectService;
-import com.entellitrak.configuration.NavigationService;
 import com.entellitrak.handler.HandlerScript;
 import com.entellitrak.page.PageController;
 import com.entellitrak.page.Parameters;
@@ -22,13 +19,15 @@ import com.entellitrak.page.Response;
 import com.entellitrak.page.SimpleBreadcrumb;
 import com.entellitrak.page.TextResponse;
 import com.entellitrak.permission.DataPermissionType;
-import com.entellitrak.permission.DataPermissions;
 import com.entellitrak.user.Role;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import net.entellitrak.aea.gl.api.java.map.MapBuilder;
+import net.micropact.aea.core.cache.TrackingConfigurationSnapshot;
+import net.micropact.aea.core.cache.TrackingConfigurationSnapshot.DataObjectInfo;
 import net.micropact.aea.core.pageUtility.BreadcrumbUtility;
+import net.micropact.aea.core.utility.RolePermissionMatrix;
 import net.micropact.aea.du.utility.page.DuBreadcrumbUtility;
 
 /**
@@ -76,7 +75,8 @@ public class RoleDataPermissionsController implements PageController {
 								"page.request.do?page=du.page.roleDataPermissions")));
 
 		// Roles
-		final List<Map<String, Object>> allRoles = roleService.getRoles()
+		final List<Role> roles = roleService.getRoles();
+		final List<Map<String, Object>> allRoles = roles
 				.stream()
 				.sorted(Comparator.comparing(Role::getName))
 				.map(role -> {
@@ -90,39 +90,34 @@ public class RoleDataPermissionsController implements PageController {
 				.collect(Collectors.toList());
 		addEnabled(allRoles, "ROLE_ID", selectedRoles);
 
-		final List<Map<String, Object>> allDataObjects = dataObjectService.getDataObjects()
+		final TrackingConfigurationSnapshot snapshot = TrackingConfigurationSnapshot.getSnapshot(etk);
+
+		final List<Map<String, Object>> allDataObjects = snapshot.getDataObjects()
 				.stream()
-				.sorted(Comparator.comparing((final DataObject dataObject) -> getListOrder(etk, dataObject))
-						.thenComparing(DataObject::getLabel))
-				.map((final DataObject dataObject) -> new MapBuilder<String, Object>()
+				.sorted(Comparator.comparingInt(DataObjectInfo::getListOrder)
+						.thenComparing(DataObjectInfo::getLabel))
+				.map(dataObject -> new MapBuilder<String, Object>()
 						.put("DATA_OBJECT_BUSINESS_KEY", dataObject.getBusinessKey())
-						.put("PARENT_OBJECT_BUSINESS_KEY", Optional.ofNullable(dataObjectService.getParent(dataObject)).map(DataObject::getBusinessKey).orElse(null))
+						.put("PARENT_OBJECT_BUSINESS_KEY", dataObject.getParentBusinessKey())
 						.put("LABEL", dataObject.getLabel())
 						.put("dataObjectType", dataObject.getObjectType())
 						.build())
 				.collect(Collectors.toList());
 		addEnabled(allDataObjects, "DATA_OBJECT_BUSINESS_KEY", selectedDataObjects);
 
-		final List<Map<Object, Object>> dataObjectPermissions = roleService.getRoles()
+		final List<Map<Object, Object>> dataObjectPermissions = RolePermissionMatrix.load(etk, roles, dataObjectService.getDataObjects())
+				.getEntries()
 				.stream()
-				.flatMap(role -> dataObjectService.getDataObjects()
-						.stream()
-						.map(dataObject -> {
-							final DataPermissions dataPermissions = roleService.getDataObjectPermissions(role, dataObject);
-
-							dataPermissions.getAccessLevel(DataPermissionType.CREATE);
-
-							return new MapBuilder<>()
-									.put("DATA_OBJECT_TYPE", dataObject.getBusinessKey())
-									.put("ROLE_ID", role.getId())
-									.put("CREATE_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.CREATE))
-									.put("READ_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.READ))
-									.put("UPDATE_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.UPDATE))
-									.put("DELETE_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.DELETE))
-									.put("ASSIGN_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.ASSIGN))
-									.put("SEARCHING_ACCESS_LEVEL", dataPermissions.getAccessLevel(DataPermissionType.SEARCH))
-									.build();
-						}))
+				.map(entry -> new MapBuilder<>()
+						.put("DATA_OBJECT_TYPE", entry.getDataObjectBusinessKey())
+						.put("ROLE_ID", entry.getRole().getId())
+						.put("CREATE_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.CREATE))
+						.put("READ_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.READ))
+						.put("UPDATE_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.UPDATE))
+						.put("DELETE_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.DELETE))
+						.put("ASSIGN_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.ASSIGN))
+						.put("SEARCHING_ACCESS_LEVEL", entry.getAccessLevel(DataPermissionType.SEARCH))
+						.build())
 				.collect(Collectors.toList());
 
 		final Gson gson = new GsonBuilder().serializeNulls().create();
@@ -135,18 +130,6 @@ public class RoleDataPermissionsController implements PageController {
 		return response;
 	}
 
-	private static long getListOrder(final ExecutionContext etk, final DataObject dataObject) {
-		final DataObjectService dataObjectService = etk.getDataObjectService();
-		final NavigationService navigationService = etk.getNavigationService();
-
-		final DataObject parentObject = dataObjectService.getParent(dataObject);
-		if(parentObject == null) {
-			return 0;
-		} else {
-			return navigationService.getOrderedChildObjects(parentObject).indexOf(dataObject);
-		}
-	}
-
 	/**
 	 * This method adds the enabled property to multiselects so that they can be persisted across page refreshes. Each
 	 * map in allValues will be given an enabled property. The property will be true, if the identifier's value (found
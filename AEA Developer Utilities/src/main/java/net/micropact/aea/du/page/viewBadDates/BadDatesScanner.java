@@ -0,0 +1,231 @@
+package net.micropact.aea.du.page.viewBadDates;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataType;
+
+import net.micropact.aea.du.utility.dataHealth.IDataHealthScanner;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * Finds Date fields which have a timestamp portion. Each table is only scanned once for all of its Date fields, and a
+ * second query is only run for tables which have bad records, to find the IDs of a few of them.
+ *
+ * @author zachary.miller
+ */
+public class BadDatesScanner implements IDataHealthScanner {
+
+    /**
+     * The maximum number of IDs of bad records which are returned for each element.
+     */
+    private static final int MAX_SAMPLE_IDS = 10;
+
+    @Override
+    public String getKey() {
+        return "badDates";
+    }
+
+    @Override
+    public boolean appliesTo(final ExecutionContext etk, final DataObject dataObject) {
+        return !getDateElements(etk, dataObject).isEmpty();
+    }
+
+    @Override
+    public List<Map<String, Object>> scan(final ExecutionContext etk, final DataObject dataObject) {
+        final List<DataElement> dateElements = getDateElements(etk, dataObject);
+        final String tableName = dataObject.getTableName();
+
+        /* A single pass over the table counts the bad records of every Date column at once. */
+        final Map<String, Object> totals = etk.createSQL(buildCountQuery(etk, tableName, dateElements))
+                .fetchMap();
+
+        final List<DataElement> badElements = new ArrayList<>();
+        final List<Long> badTotals = new ArrayList<>();
+
+        for (int i = 0; i < dateElements.size(); i++) {
+            final Number total = (Number) totals.get(getAlias("TOTAL_", i));
+
+            if (total != null && total.longValue() > 0) {
+                badElements.add(dateElements.get(i));
+                badTotals.add(total.longValue());
+            }
+        }
+
+        final List<Map<String, Object>> findings = new ArrayList<>();
+
+        if (!badElements.isEmpty()) {
+            final List<List<Long>> sampleIds = fetchSampleIds(etk, tableName, badElements);
+
+            for (int i = 0; i < badElements.size(); i++) {
+                final String columnName = badElements.get(i).getColumnName();
+
+                findings.add(Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                    { "elementBusinessKey", badElements.get(i).getBusinessKey() },
+                    { "total", badTotals.get(i) },
+                    { "sampleIds", sampleIds.get(i) },
+                    { "query", generateRecordsQuery(etk, tableName, columnName) },
+                }));
+            }
+        }
+
+        return findings;
+    }
+
+    /**
+     * Builds a query which returns a single row with the number of bad records of each Date element, using conditional
+     * aggregation so that the table is only scanned once regardless of how many Date elements it has.
+     *
+     * @param etk entellitrak execution context
+     * @param tableName the table name
+     * @param dateElements the Date elements of the table
+     * @return the query. The count of element i is aliased as TOTAL_i.
+     */
+    private static String buildCountQuery(final ExecutionContext etk, final String tableName,
+            final List<DataElement> dateElements) {
+        final List<String> sums = new ArrayList<>();
+
+        for (int i = 0; i < dateElements.size(); i++) {
+            sums.add(String.format(Utility.isSqlServer(etk) ? "%s %s" : "%s as \"%s\"",
+                    String.format("SUM(CASE WHEN %s THEN 1 ELSE 0 END)",
+                            generateHasTimeCondition(etk, dateElements.get(i).getColumnName())),
+                    getAlias("TOTAL_", i)));
+        }
+
+        return String.format("SELECT %s FROM %s", String.join(", ", sums), tableName);
+    }
+
+    /**
+     * Fetch the IDs of the first few bad records (by ID) of each element. This is done in a single query which numbers
+     * the bad records of each element separately.
+     *
+     * @param etk entellitrak execution context
+     * @param tableName the table name
+     * @param badElements the elements which are known to have bad records
+     * @return for each element (in the same order as badElements), the IDs of up to {@link #MAX_SAMPLE_IDS} of its
+     *          bad records
+     */
+    private static List<List<Long>> fetchSampleIds(final ExecutionContext etk, final String tableName,
+            final List<DataElement> badElements) {
+        final List<String> rowNumbers = new ArrayList<>();
+        final List<String> anyConditions = new ArrayList<>();
+        final List<String> sampleConditions = new ArrayList<>();
+
+        for (int i = 0; i < badElements.size(); i++) {
+            final String hasTimeCondition = generateHasTimeCondition(etk, badElements.get(i).getColumnName());
+            final String alias = getAlias("ROW_NUMBER_", i);
+
+            /* Records which are fine for this element get a null row number. */
+            rowNumbers.add(String.format(Utility.isSqlServer(etk) ? "%s %s" : "%s as \"%s\"",
+                    String.format("CASE WHEN %s THEN ROW_NUMBER() OVER (PARTITION BY %s ORDER BY ID) END",
+                            hasTimeCondition,
+                            String.format("CASE WHEN %s THEN 1 ELSE 0 END", hasTimeCondition)),
+                    alias));
+            anyConditions.add(String.format("(%s)", hasTimeCondition));
+            /* The alias is quoted in the select list (except on SQL Server), so it must be quoted here too. */
+            sampleConditions.add(String.format(Utility.isSqlServer(etk) ? "%s <= :maxSampleIds" : "\"%s\" <= :maxSampleIds",
+                    alias));
+        }
+
+        final List<Map<String, Object>> rows = etk.createSQL(String.format(
+                "SELECT * FROM (SELECT ID, %s FROM %s WHERE %s) sampleRecords WHERE %s ORDER BY ID",
+                String.join(", ", rowNumbers),
+                tableName,
+                String.join(" OR ", anyConditions),
+                String.join(" OR ", sampleConditions)))
+                .setParameter("maxSampleIds", MAX_SAMPLE_IDS)
+                .fetchList();
+
+        final List<List<Long>> sampleIds = new ArrayList<>();
+
+        for (int i = 0; i < badElements.size(); i++) {
+            final String alias = getAlias("ROW_NUMBER_", i);
+
+            sampleIds.add(rows.stream()
+                    .filter(row -> {
+                        final Number rowNumber = (Number) row.get(alias);
+                        return rowNumber != null && rowNumber.longValue() <= MAX_SAMPLE_IDS;
+                    })
+                    .map(row -> ((Number) row.get("ID")).longValue())
+                    .collect(Collectors.toCollection(ArrayList::new)));
+        }
+
+        return sampleIds;
+    }
+
+    /**
+     * Get the alias of a column which holds a value for one of several elements.
+     *
+     * @param prefix the prefix of the alias
+     * @param index the index of the element
+     * @return the alias
+     */
+    private static String getAlias(final String prefix, final int index) {
+        return prefix + index;
+    }
+
+    /**
+     * Get the Date elements of a data object.
+     *
+     * @param etk entellitrak execution context
+     * @param dataObject the data object
+     * @return the Date elements, ordered by business key
+     */
+    private static List<DataElement> getDateElements(final ExecutionContext etk, final DataObject dataObject) {
+        return etk.getDataElementService()
+                .getDataElements(dataObject)
+                .stream()
+                .filter(dataElement -> DataType.DATE == dataElement.getDataType())
+                .sorted(Comparator.comparing(DataElement::getBusinessKey))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Generates a SQL condition which is true when a date column has a timestamp portion.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param columnName
+     *            the column which holds the date field
+     * @return the SQL condition
+     */
+    private static String generateHasTimeCondition(final ExecutionContext etk, final String columnName) {
+        final String format;
+
+        if (Utility.isSqlServer(etk)) {
+            format = "%s != CAST(%s AS DATE)";
+        } else if (Utility.isPostgreSQL(etk)) {
+            format = "%s != %s::date";
+        } else {
+            format = "%s != trunc(%s)";
+        }
+
+        return String.format(format, columnName, columnName);
+    }
+
+    /**
+     * Generates a SQL query which will return the specific records which have an issue with a specific date field.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param tableName
+     *            table name of the table containing the date field
+     * @param columnName
+     *            the column which holds the date field
+     * @return the SQL query which will return the records.
+     */
+    private static String generateRecordsQuery(
+        final ExecutionContext etk,
+        final String tableName,
+        final String columnName) {
+        return String.format("SELECT * FROM %s WHERE %s ORDER BY id",
+            tableName,
+            generateHasTimeCondition(etk, columnName));
+    }
+}
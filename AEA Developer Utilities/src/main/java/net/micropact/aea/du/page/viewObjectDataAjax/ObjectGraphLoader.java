@@ -0,0 +1,280 @@
+package net.micropact.aea.du.page.viewObjectDataAjax;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataElementService;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataObjectService;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.query.QueryUtility;
+import net.micropact.aea.du.page.viewObjectDataAjax.ViewObjectDataAjaxController.TreeNode;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * Loads a record and its descendants a level at a time. For each level, the records of each child table are fetched
+ * with a single query (id_parent IN the ids of the level above) and the values of each multi-valued element are
+ * fetched with a single query (id_owner IN the ids of the records), so the number of queries depends on the number of
+ * tables in the tree instead of the number of records. The ids are split into batches of
+ * {@link QueryUtility#IN_CLAUSE_LIMIT} so that large levels do not exceed the databases' limits on the number of
+ * parameters in a query.
+ *
+ * <p>
+ *  To keep very large records responsive, loading stops once a maximum depth or number of records has been reached.
+ *  The nodes whose children were not loaded are marked so that they can be loaded later with another request.
+ * </p>
+ *
+ * @author zmiller
+ */
+final class ObjectGraphLoader {
+
+    private final ExecutionContext etk;
+    private final int maxDepth;
+    private final int maxRows;
+
+    private final Map<String, List<DataElement>> dataElementsByObject = new HashMap<>();
+
+    private int rowsLoaded;
+
+    /**
+     * Constructor.
+     *
+     * @param theEtk entellitrak execution context
+     * @param theMaxDepth the number of levels of descendants to load
+     * @param theMaxRows the maximum number of records to load
+     */
+    ObjectGraphLoader(final ExecutionContext theEtk, final int theMaxDepth, final int theMaxRows) {
+        etk = theEtk;
+        maxDepth = theMaxDepth;
+        maxRows = theMaxRows;
+    }
+
+    /**
+     * Load a record and its descendants.
+     *
+     * @param dataObject the data object of the record
+     * @param trackingId the tracking id of the record
+     * @return the record
+     */
+    TreeNode load(final DataObject dataObject, final long trackingId) {
+        final List<TreeNode> roots = loadNodes(dataObject, "id", Collections.singletonList(trackingId));
+
+        if (roots.isEmpty()) {
+            throw new GeneralRuntimeException(String.format("Could not find %s with trackingId %s",
+                    dataObject.getBusinessKey(),
+                    trackingId));
+        }
+
+        List<TreeNode> level = roots;
+
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            if (depth >= maxDepth) {
+                /* Nodes which can't have children don't need to be loaded later */
+                level.stream()
+                .filter(node -> etk.getDataObjectService().getChildren(node.getDataObject()).isEmpty())
+                .forEach(node -> node.markChildrenLoaded(Collections.emptyList()));
+                break;
+            }
+
+            level = loadNextLevel(level);
+        }
+
+        return roots.get(0);
+    }
+
+    /**
+     * Load the children of every node in a level. If loading the children of a type of object would exceed the
+     * maximum number of records, those nodes are left without their children.
+     *
+     * @param level the nodes of the level
+     * @return the children which were loaded
+     */
+    private List<TreeNode> loadNextLevel(final List<TreeNode> level) {
+        final DataObjectService dataObjectService = etk.getDataObjectService();
+
+        final Map<String, List<TreeNode>> nodesByObject = level.stream()
+                .collect(Collectors.groupingBy(node -> node.getDataObject().getBusinessKey(),
+                        LinkedHashMap::new,
+                        Collectors.toList()));
+
+        final List<TreeNode> nextLevel = new ArrayList<>();
+
+        for (final List<TreeNode> parentNodes : nodesByObject.values()) {
+            final DataObject parentObject = parentNodes.get(0).getDataObject();
+            final List<DataObject> childObjects = dataObjectService.getChildren(parentObject);
+            final List<Long> parentIds = parentNodes.stream()
+                    .map(TreeNode::getTrackingId)
+                    .collect(Collectors.toList());
+
+            if (rowsLoaded + countChildren(childObjects, parentIds) > maxRows) {
+                continue;
+            }
+
+            final Map<Long, TreeNode> parentsById = parentNodes.stream()
+                    .collect(Collectors.toMap(TreeNode::getTrackingId, node -> node));
+
+            parentNodes.forEach(node -> node.markChildrenLoaded(childObjects));
+
+            for (final DataObject childObject : childObjects) {
+                final List<TreeNode> childNodes = loadNodes(childObject, "id_parent", parentIds);
+
+                for (final TreeNode childNode : childNodes) {
+                    parentsById.get(childNode.getParentId()).addChild(childObject, childNode);
+                }
+
+                nextLevel.addAll(childNodes);
+            }
+        }
+
+        return nextLevel;
+    }
+
+    /**
+     * Count the children of several records.
+     *
+     * @param childObjects the child data objects
+     * @param parentIds the tracking ids of the parents
+     * @return the number of children
+     */
+    private long countChildren(final List<DataObject> childObjects, final List<Long> parentIds) {
+        long count = 0;
+
+        for (final DataObject childObject : childObjects) {
+            count += QueryUtility.fetchListBatched(
+                    etk.createSQL(String.format("SELECT COUNT(*) CHILD_COUNT FROM %s WHERE id_parent IN (:parentIds)",
+                            childObject.getTableName())),
+                    "parentIds",
+                    parentIds)
+                    .stream()
+                    .mapToLong(row -> ((Number) row.get("CHILD_COUNT")).longValue())
+                    .sum();
+        }
+
+        return count;
+    }
+
+    /**
+     * Load the records of a data object whose key column is one of a list of ids, along with all of their element
+     * values.
+     *
+     * @param dataObject the data object
+     * @param keyColumn the column to match the ids against (id or id_parent)
+     * @param ids the ids
+     * @return the records, ordered by tracking id
+     */
+    private List<TreeNode> loadNodes(final DataObject dataObject, final String keyColumn, final List<Long> ids) {
+        final boolean isChild = etk.getDataObjectService().getParent(dataObject) != null;
+        final List<DataElement> dataElements = getDataElements(dataObject);
+
+        final StringBuilder query = new StringBuilder("SELECT id \"ID\"");
+
+        if (isChild) {
+            query.append(", id_parent \"ID_PARENT\"");
+        }
+
+        for (final DataElement dataElement : dataElements) {
+            if (!dataElement.isMultiValued().booleanValue()) {
+                query.append(String.format(", %s \"%s\"",
+                        dataElement.getColumnName(),
+                        dataElement.getColumnName().toUpperCase()));
+            }
+        }
+
+        query.append(String.format(" FROM %s WHERE %s IN (:ids)", dataObject.getTableName(), keyColumn));
+
+        /* The batches are each ordered, but the records must be ordered across the batches */
+        final List<Map<String, Object>> rows = QueryUtility.fetchListBatched(etk.createSQL(query.toString()),
+                "ids",
+                ids)
+                .stream()
+                .sorted(Comparator.comparingLong(row -> ((Number) row.get("ID")).longValue()))
+                .collect(Collectors.toList());
+
+        rowsLoaded += rows.size();
+
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Long> trackingIds = rows.stream()
+                .map(row -> ((Number) row.get("ID")).longValue())
+                .collect(Collectors.toList());
+
+        final Map<String, Map<Long, List<Object>>> multiValuesByElement = new HashMap<>();
+        for (final DataElement dataElement : dataElements) {
+            if (dataElement.isMultiValued().booleanValue()) {
+                multiValuesByElement.put(dataElement.getBusinessKey(), loadMultiValues(dataElement, trackingIds));
+            }
+        }
+
+        return rows.stream()
+                .map(row -> {
+                    final long trackingId = ((Number) row.get("ID")).longValue();
+
+                    final List<Map<String, Object>> elements = dataElements.stream()
+                            .map(dataElement -> Utility.arrayToMap(String.class, Object.class, new Object[][]{
+                                {"elementBusinessKey", dataElement.getBusinessKey()},
+                                {"name", dataElement.getName()},
+                                {"value", dataElement.isMultiValued().booleanValue()
+                                        ? multiValuesByElement.get(dataElement.getBusinessKey())
+                                                .getOrDefault(trackingId, Collections.emptyList())
+                                        : row.get(dataElement.getColumnName().toUpperCase())},
+                            }))
+                            .collect(Collectors.toList());
+
+                    return new TreeNode(dataObject,
+                            trackingId,
+                            isChild ? ((Number) row.get("ID_PARENT")).longValue() : null,
+                            elements);
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Load the values of a multi-valued element for several records.
+     *
+     * @param dataElement the data element
+     * @param trackingIds the tracking ids of the records
+     * @return map from tracking id to the values of that record, in list order
+     */
+    private Map<Long, List<Object>> loadMultiValues(final DataElement dataElement, final List<Long> trackingIds) {
+        final Map<Long, List<Object>> valuesByOwner = new HashMap<>();
+
+        /* All of the values of an owner are in the same batch, so ordering each batch keeps them in list order */
+        QueryUtility.fetchListBatched(
+                etk.createSQL(String.format("SELECT id_owner \"ID_OWNER\", %s \"VALUE\" FROM %s WHERE id_owner IN (:trackingIds) ORDER BY id_owner, list_order, id",
+                        dataElement.getColumnName(),
+                        dataElement.getTableName())),
+                "trackingIds",
+                trackingIds)
+        .forEach(row -> valuesByOwner.computeIfAbsent(((Number) row.get("ID_OWNER")).longValue(), k -> new ArrayList<>())
+                .add(row.get("VALUE")));
+
+        return valuesByOwner;
+    }
+
+    /**
+     * Get the data elements of a data object in the order they should be displayed.
+     *
+     * @param dataObject the data object
+     * @return the data elements
+     */
+    private List<DataElement> getDataElements(final DataObject dataObject) {
+        final DataElementService dataElementService = etk.getDataElementService();
+
+        return dataElementsByObject.computeIfAbsent(dataObject.getBusinessKey(),
+                k -> dataElementService.getDataElements(dataObject)
+                .stream()
+                .sorted(Comparator.comparing(DataElement::getName).thenComparing(DataElement::getBusinessKey))
+                .collect(Collectors.toList()));
+    }
+}
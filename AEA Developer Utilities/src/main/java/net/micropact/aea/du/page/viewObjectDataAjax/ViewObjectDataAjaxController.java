@@ -1,17 +1,13 @@
 package net.micropact.aea.du.page.viewObjectDataAjax;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.entellitrak.ApplicationException;
 import com.entellitrak.ExecutionContext;
-import com.entellitrak.IncorrectResultSizeDataAccessException;
 import com.entellitrak.PageExecutionContext;
-import com.entellitrak.configuration.DataElement;
-import com.entellitrak.configuration.DataElementService;
 import com.entellitrak.configuration.DataObject;
 import com.entellitrak.configuration.DataObjectService;
 import com.entellitrak.handler.HandlerScript;
@@ -21,8 +17,6 @@ import com.entellitrak.page.Parameters;
 import com.entellitrak.page.Response;
 import com.entellitrak.page.TextResponse;
 
-import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
-import net.micropact.aea.core.query.QueryUtility;
 import net.micropact.aea.utility.IJson;
 import net.micropact.aea.utility.JsonUtilities;
 import net.micropact.aea.utility.Utility;
@@ -31,11 +25,27 @@ import net.micropact.aea.utility.Utility;
  * This class serves as the controller code for a JSON page which can fetch information about a BTO and all of its
  * descendants.
  *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>dataObjectKey: the business key of the data object. It does not have to be a root object, so this page is also
+ *      used to load the children of nodes which were not loaded the first time.</li>
+ *  <li>trackingId: the tracking id of the record</li>
+ *  <li>maxDepth: the number of levels of descendants to load</li>
+ *  <li>maxRows: the maximum number of records to load</li>
+ * </ul>
+ *
  * @author zachary.miller
+ * @see ObjectGraphLoader
  */
 @HandlerScript(type = PageController.class)
 public class ViewObjectDataAjaxController implements PageController {
 
+    private static final int DEFAULT_MAX_DEPTH = 20;
+    private static final int DEFAULT_MAX_ROWS = 2000;
+    private static final int MAX_MAX_ROWS = 20000;
+
     @Override
     public Response execute(final PageExecutionContext etk) throws ApplicationException {
         final Parameters parameters = etk.getParameters();
@@ -46,30 +56,36 @@ public class ViewObjectDataAjaxController implements PageController {
 
         final String objectBusinessKey = parameters.getSingle("dataObjectKey");
         final long trackingId = Long.parseLong(parameters.getSingle("trackingId"));
+        final int maxDepth = parseInt(parameters.getSingle("maxDepth"), DEFAULT_MAX_DEPTH, 0, DEFAULT_MAX_DEPTH);
+        final int maxRows = parseInt(parameters.getSingle("maxRows"), DEFAULT_MAX_ROWS, 1, MAX_MAX_ROWS);
 
         final DataObject dataObject = dataObjectService.getDataObjectByBusinessKey(objectBusinessKey);
 
-        response.put("out", JsonUtilities.encode(fetchBTO(etk, dataObject, trackingId)));
+        response.put("out", JsonUtilities.encode(fetchBTO(etk, dataObject, trackingId, maxDepth, maxRows)));
 
         return response;
     }
 
     /**
-     * Retrieves information about a single BTO and all of its descendants.
+     * Retrieves information about a single BTO and its descendants.
      *
      * @param etk entellitrak execution context
      * @param dataObject the data object
      * @param trackingId trackingId of the object
+     * @param maxDepth the number of levels of descendants to load
+     * @param maxRows the maximum number of records to load
      * @return A representation of the object and its descendants.
      */
     private static List<Map<String, Object>> fetchBTO(
             final ExecutionContext etk,
             final DataObject dataObject,
-            final long trackingId) {
+            final long trackingId,
+            final int maxDepth,
+            final int maxRows) {
         final List<Map<String, Object>> objectList = new ArrayList<>();
 
         final List<TreeNode> objectNodes = new ArrayList<>();
-        objectNodes.add(fetchTreeNode(etk, dataObject, trackingId));
+        objectNodes.add(new ObjectGraphLoader(etk, maxDepth, maxRows).load(dataObject, trackingId));
 
         objectList.add(Utility.arrayToMap(String.class, Object.class, new Object[][]{
             {"businessKey", dataObject.getBusinessKey()},
@@ -81,142 +97,103 @@ public class ViewObjectDataAjaxController implements PageController {
     }
 
     /**
-     * Gets information about a particular data object and all of its descendants.
-     *
-     * @param etk entellitrak execution context
-     * @param dataObject the data object
-     * @param trackingId trackingId of the object
-     * @return An object containing information about the object and all of its descendants.
-     */
-    private static TreeNode fetchTreeNode(
-            final ExecutionContext etk,
-            final DataObject dataObject,
-            final long trackingId) {
-        return new TreeNode(
-                dataObject,
-                trackingId,
-                fetchElements(etk, dataObject, trackingId),
-                fetchChildren(etk, dataObject, trackingId));
-    }
-
-    /**
-     * Gets the elements and their data for a particular data object.
-     *
-     * @param etk entellitrak execution context
-     * @param dataObject the data object
-     * @param trackingId trackingId of the object
-     * @return An object representing the elements and their data
-     */
-    private static List<Map<String, Object>> fetchElements(
-            final ExecutionContext etk,
-            final DataObject dataObject,
-            final long trackingId) {
-        final DataElementService dataElementService = etk.getDataElementService();
-
-        return dataElementService.getDataElements(dataObject)
-                .stream()
-                .sorted(Comparator.comparing(DataElement::getName).thenComparing(DataElement::getBusinessKey))
-                .map(dataElement -> Utility.arrayToMap(String.class, Object.class, new Object[][]{
-                    {"elementBusinessKey", dataElement.getBusinessKey()},
-                    {"name", dataElement.getName()},
-                    {"value", getDataElementValue(etk, dataElement, trackingId)},
-                }))
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * This method gets all of the descendants and their data for a particular parent object.
-     *
-     * @param etk entellitrak execution context
-     * @param dataObject the data object
-     * @param trackingId trackingId of the object
-     * @return An object representing all of the descendants of an object and their data
-     */
-    private static List<Map<String, Object>> fetchChildren(
-            final ExecutionContext etk,
-            final DataObject dataObject,
-            final long trackingId) {
-        final DataObjectService dataObjectService = etk.getDataObjectService();
-
-        return dataObjectService.getChildren(dataObject)
-                .stream()
-                .map(childObject -> {
-                    final List<TreeNode> childNodes = QueryUtility.mapsToLongs(etk.createSQL(String.format("SELECT ID FROM %s WHERE id_parent = :trackingId",
-                            childObject.getTableName()))
-                            .setParameter("trackingId", trackingId)
-                            .fetchList())
-                            .stream()
-                            .map(childTrackingId -> fetchTreeNode(etk, childObject, childTrackingId))
-                            .collect(Collectors.toList());
-                    return Utility.arrayToMap(String.class, Object.class, new Object[][]{
-                        {"businessKey", childObject.getBusinessKey()},
-                        {"name", childObject.getName()},
-                        {"objects", childNodes},
-                    });
-                })
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * This method gets the value of a particular element for a particular object.
+     * Parse an integer parameter, restricting it to a range.
      *
-     * @param etk entellitrak execution context
-     * @param dataElement data element the data is to be retrieved for
-     * @param trackingId trackingId of the object
-     * @return The value of the element
+     * @param intString the parameter
+     * @param defaultValue the value to use if the parameter is blank
+     * @param min the minimum allowed value
+     * @param max the maximum allowed value
+     * @return the integer
      */
-    private static Object getDataElementValue(
-            final ExecutionContext etk,
-            final DataElement dataElement,
-            final long trackingId) {
-        try {
-            final Object returnValue;
-            if(dataElement.isMultiValued().booleanValue()){
-                returnValue = QueryUtility.toSimpleList(etk.createSQL(String.format("SELECT %s FROM %s WHERE id_owner = :idOwner ORDER BY  list_order, id",
-                        dataElement.getColumnName(),
-                        dataElement.getTableName()))
-                        .setParameter("idOwner", trackingId)
-                        .fetchList());
-            }else{
-                returnValue = etk.createSQL(String.format("SELECT %s FROM %s WHERE id = :trackingId",
-                        dataElement.getColumnName(),
-                        dataElement.getDataObject().getTableName()))
-                        .setParameter("trackingId", trackingId)
-                        .fetchObject();
-            }
-            return returnValue;
-        } catch (final IncorrectResultSizeDataAccessException e) {
-            throw new GeneralRuntimeException(e);
-        }
+    private static int parseInt(final String intString, final int defaultValue, final int min, final int max){
+        return Utility.isBlank(intString)
+                ? defaultValue
+                : Math.max(min, Math.min(max, Integer.parseInt(intString)));
     }
 
     /**
-     * This class represents a data object's data and the data of all of its descendants.
+     * This class represents a data object's data and the data of its descendants.
      *
      * @author zachary.miller
      */
     static class TreeNode implements IJson{
         private final DataObject dataObject;
         private final long trackingId;
+        private final Long parentId;
         private final List<Map<String, Object>> elements;
-        private final List<Map<String, Object>> children;
+        private final Map<String, Map<String, Object>> childrenByType = new LinkedHashMap<>();
+        private boolean childrenLoaded;
 
         /**
-         * Constructs a new TreeNode.
+         * Constructs a new TreeNode. Its children are filled in later.
          *
          * @param theDataObject the data object
          * @param theTrackingId trackingId of the object
+         * @param theParentId trackingId of the parent object, or null if it is a root object
          * @param theElements the elements of this object
-         * @param theChildren object representing the descendants of the object.
          */
         TreeNode(final DataObject theDataObject,
                 final long theTrackingId,
-                final List<Map<String, Object>> theElements,
-                final List<Map<String, Object>> theChildren) {
+                final Long theParentId,
+                final List<Map<String, Object>> theElements) {
             dataObject = theDataObject;
             trackingId = theTrackingId;
+            parentId = theParentId;
             elements = theElements;
-            children = theChildren;
+        }
+
+        /**
+         * Get the data object.
+         *
+         * @return the data object
+         */
+        DataObject getDataObject() {
+            return dataObject;
+        }
+
+        /**
+         * Get the tracking id.
+         *
+         * @return the tracking id
+         */
+        long getTrackingId() {
+            return trackingId;
+        }
+
+        /**
+         * Get the tracking id of the parent.
+         *
+         * @return the tracking id of the parent, or null if it is a root object
+         */
+        Long getParentId() {
+            return parentId;
+        }
+
+        /**
+         * Record that the children of this node have been loaded.
+         *
+         * @param childObjects the child data objects, in the order they should be displayed
+         */
+        void markChildrenLoaded(final List<DataObject> childObjects) {
+            childrenLoaded = true;
+
+            childObjects.forEach(childObject -> childrenByType.put(childObject.getBusinessKey(),
+                    Utility.arrayToMap(String.class, Object.class, new Object[][]{
+                        {"businessKey", childObject.getBusinessKey()},
+                        {"name", childObject.getName()},
+                        {"objects", new ArrayList<TreeNode>()},
+                    })));
+        }
+
+        /**
+         * Add a child. {@link #markChildrenLoaded(List)} must have been called first.
+         *
+         * @param childObject the data object of the child
+         * @param child the child
+         */
+        @SuppressWarnings("unchecked")
+        void addChild(final DataObject childObject, final TreeNode child) {
+            ((List<TreeNode>) childrenByType.get(childObject.getBusinessKey()).get("objects")).add(child);
         }
 
         @Override
@@ -226,7 +203,8 @@ public class ViewObjectDataAjaxController implements PageController {
                 {"name", dataObject.getName()},
                 {"trackingId", trackingId},
                 {"elements", elements},
-                {"children", children},
+                {"children", new ArrayList<>(childrenByType.values())},
+                {"childrenLoaded", childrenLoaded},
             }));
         }
     }
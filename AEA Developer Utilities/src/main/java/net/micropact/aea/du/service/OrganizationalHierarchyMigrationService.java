@@ -1,14 +1,18 @@
 package net.micropact.aea.du.service;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -19,15 +23,20 @@ import com.entellitrak.ExecutionContext;
 import com.entellitrak.IncorrectResultSizeDataAccessException;
 import com.entellitrak.OrganizationInfo;
 import com.entellitrak.OrganizationTree;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import net.entellitrak.aea.du.service.IOrganizationalHierarchyMigrationService;
 import net.entellitrak.aea.du.service.organizationalHierarchy.IOrganizationalHierarchyImportResult;
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.entellitrak.aea.gl.api.java.io.TempFile;
+import net.entellitrak.aea.gl.api.java.io.TempFileBackedInputStream;
 import net.entellitrak.aea.gl.api.java.io.noisyinputstream.INoisyInputStream;
 import net.entellitrak.aea.gl.api.java.io.noisyinputstream.INoisyInputStream.IWrapRequest;
 import net.micropact.aea.core.gson.GsonUtility;
 import net.micropact.aea.core.query.Coersion;
 import net.micropact.aea.core.query.DatabaseSequence;
+import net.micropact.aea.core.query.StreamingQuery;
 import net.micropact.aea.du.utility.orgUnit.OrganizationalHierarchyImportResult;
 import net.micropact.aea.utility.Utility;
 
@@ -95,24 +104,36 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
     public InputStream exportToStream() throws Exception {
         ensureUniqueHierarchyCodes(etk);
 
-        /* The ORDER BY clause is currently important to the importer. */
-        final List<EtkHierarchyDTO> hierarchies = etk
-            .createSQL("SELECT NODE_ID, PARENT_ID, MAX_CHILD_ID, CODE, NAME FROM etk_hierarchy")
-            .fetchList()
-            .stream()
-            .map(queryResult -> new EtkHierarchyDTO(
-                Coersion.toLong(queryResult.get("NODE_ID")),
-                Coersion.toLong(queryResult.get("PARENT_ID")),
-                Coersion.toLong(queryResult.get("MAX_CHILD_ID")),
-                (String) queryResult.get("NAME"),
-                (String) queryResult.get("CODE")))
-            .sorted(Comparator.comparing(EtkHierarchyDTO::getNodeId))
-            .collect(Collectors.toList());
+        final Gson gson = GsonUtility.getStandardPrettyPrintingGson();
+
+        /* The JSON is written to a temporary file as the nodes are read so that large hierarchies are never held in
+         * memory. The nodes being sorted by node id is currently important to the importer. */
+        final TempFile tempFile = new TempFile("organizationalUnits", ".json");
+
+        try {
+            try (Writer writer = Files.newBufferedWriter(tempFile.getPath(), StandardCharsets.UTF_8);
+                    JsonWriter jsonWriter = gson.newJsonWriter(writer)) {
+                jsonWriter.beginArray();
+
+                new StreamingQuery(etk, "SELECT NODE_ID, PARENT_ID, MAX_CHILD_ID, CODE, NAME FROM etk_hierarchy", "NODE_ID")
+                    .streamMaps()
+                    .map(queryResult -> new EtkHierarchyDTO(
+                        Coersion.toLong(queryResult.get("NODE_ID")),
+                        Coersion.toLong(queryResult.get("PARENT_ID")),
+                        Coersion.toLong(queryResult.get("MAX_CHILD_ID")),
+                        (String) queryResult.get("NAME"),
+                        (String) queryResult.get("CODE")))
+                    .forEachOrdered(hierarchy -> gson.toJson(hierarchy, EtkHierarchyDTO.class, jsonWriter));
+
+                jsonWriter.endArray();
+            }
+        } catch (final IOException | RuntimeException e) {
+            tempFile.close();
+            throw e;
+        }
 
         return INoisyInputStream.wrap(IWrapRequest.builder(etk)
-        		.setInputStream(new ByteArrayInputStream(GsonUtility.getStandardPrettyPrintingGson()
-        	            .toJson(hierarchies)
-        	            .getBytes(StandardCharsets.UTF_8)))
+        		.setInputStream(TempFileBackedInputStream.createTempFileBackedInputStream(tempFile))
         		.build());
     }
 
@@ -131,6 +152,12 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
      */
     private static final class OrgUnitImportLogic {
 
+        /**
+         * The maximum number of bind parameters in a single statement. This keeps the statements below SQL Server's
+         * limit of 2100. Every occurrence of a named parameter in the SQL counts as a separate bind parameter.
+         */
+        private static final int MAX_PARAMETERS = 2000;
+
         /**
          * Utility classes do not need public constructors.
          */
@@ -228,6 +255,11 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
          * This will find all nodes which were orphaned, but did not exist in the import document. These are the nodes
          * which still have negative node ids. Their new parent will be the root node.
          *
+         * <p>
+         * The new node ids are assigned in memory, starting after the largest node id of the imported nodes, and the
+         * nodes are updated in batches.
+         * </p>
+         *
          * @param etk
          *            entellitrak execution context
          * @return The hierarchy nodes which were orphaned
@@ -235,22 +267,33 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
         private static Set<String> reparentOrphanNodes(final ExecutionContext etk) {
             final List<Map<String, Object>> orphanedHierarchies = etk
                 .createSQL("SELECT HIERARCHY_ID, NAME, CODE FROM etk_hierarchy WHERE node_id < 0 ORDER BY node_id DESC")
+                .returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
                 .fetchList();
 
-            orphanedHierarchies.forEach(hierarchy -> {
+            if (!orphanedHierarchies.isEmpty()) {
+                long nextNodeId;
                 try {
-                    final long newNodeId = 1 + etk.createSQL("SELECT MAX(node_id) FROM etk_hierarchy")
+                    nextNodeId = 1 + etk.createSQL("SELECT COALESCE(MAX(node_id), 0) FROM etk_hierarchy")
                         .fetchLong();
-
-                    etk.createSQL(
-                        "UPDATE etk_hierarchy SET node_id = :nodeId, parent_id = 0, max_child_id = :nodeId WHERE hierarchy_id = :hierarchyId")
-                        .setParameter("hierarchyId", hierarchy.get("HIERARCHY_ID"))
-                        .setParameter("nodeId", newNodeId)
-                        .execute();
                 } catch (final IncorrectResultSizeDataAccessException e) {
                     throw new GeneralRuntimeException(e);
                 }
-            });
+
+                final List<Map<String, Object>> updates = new ArrayList<>();
+
+                for (final Map<String, Object> hierarchy : orphanedHierarchies) {
+                    updates.add(Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                        { "HIERARCHY_ID", hierarchy.get("HIERARCHY_ID") },
+                        { "NODE_ID", nextNodeId },
+                        { "PARENT_ID", 0L },
+                        { "MAX_CHILD_ID", nextNodeId },
+                    }));
+
+                    nextNodeId++;
+                }
+
+                updateRows(etk, Arrays.asList("NODE_ID", "PARENT_ID", "MAX_CHILD_ID"), updates);
+            }
 
             return orphanedHierarchies
                 .stream()
@@ -262,6 +305,11 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
          * Imports the nodes into to the new system. If a node with the same code is found in this system, that node
          * will be updated (thus maintaining its hierarchy id).
          *
+         * <p>
+         * The existing codes are loaded with a single query, new hierarchy ids are allocated together and the
+         * inserts and updates are done in batches of as many nodes as fit within {@link #MAX_PARAMETERS}.
+         * </p>
+         *
          * @param etk
          *            entellitrak execution context
          * @param hierarchyNodes
@@ -269,64 +317,208 @@ public class OrganizationalHierarchyMigrationService implements IOrganizationalH
          */
         private static void importDocumentNodes(final ExecutionContext etk,
             final List<EtkHierarchyDTO> hierarchyNodes) {
-            hierarchyNodes.forEach(hierarchyNode -> {
-                try {
-                    final String code = hierarchyNode.getCode();
+            final Map<String, Long> existingHierarchyIds = new HashMap<>();
+
+            etk.createSQL("SELECT HIERARCHY_ID, CODE FROM etk_hierarchy")
+                .returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+                .fetchList()
+                .forEach(row -> existingHierarchyIds.put((String) row.get("CODE"),
+                    Coersion.toLong(row.get("HIERARCHY_ID"))));
+
+            final Set<String> documentCodes = new HashSet<>();
+            final List<Map<String, Object>> inserts = new ArrayList<>();
+            final List<Map<String, Object>> updates = new ArrayList<>();
+
+            for (final EtkHierarchyDTO hierarchyNode : hierarchyNodes) {
+                if (!documentCodes.add(hierarchyNode.getCode())) {
+                    throw new GeneralRuntimeException(String.format("The import contains more than one organizational unit with code \"%s\"",
+                        hierarchyNode.getCode()));
+                }
 
-                    final Long existingHierarchyId = etk
-                        .createSQL("SELECT hierarchy_id FROM etk_hierarchy WHERE code = :code")
-                        .setParameter("code", code)
-                        .returnEmptyResultSetAs(null)
-                        .fetchLong();
+                final Map<String, Object> newParams = Utility.arrayToMap(String.class, Object.class,
+                    new Object[][] {
+                        { "HIERARCHY_ID", existingHierarchyIds.get(hierarchyNode.getCode()) },
+                        { "NODE_ID", hierarchyNode.getNodeId() },
+                        { "PARENT_ID", hierarchyNode.getParentId() },
+                        { "MAX_CHILD_ID", hierarchyNode.getMaxChildId() },
+                        { "NAME", hierarchyNode.getName() },
+                        { "CODE", hierarchyNode.getCode() },
+                    });
+
+                if (newParams.get("HIERARCHY_ID") == null) {
+                    inserts.add(newParams);
+                } else {
+                    updates.add(newParams);
+                }
+            }
 
-                    final long newHierarchyId;
-                    final Map<String, Object> newParams = Utility.arrayToMap(String.class, Object.class,
-                        new Object[][] {
-                            { "CODE", hierarchyNode.getCode() },
-                            { "MAX_CHILD_ID", hierarchyNode.getMaxChildId() },
-                            { "NAME", hierarchyNode.getName() },
-                            { "NODE_ID", hierarchyNode.getNodeId() },
-                            { "PARENT_ID", hierarchyNode.getParentId() },
-                        });
-
-                    if (existingHierarchyId == null) {
-                        /* Insert into the ETK_HIERARCHY_ROOT table */
-                        if (Utility.isSqlServer(etk)) {
-                            newHierarchyId = etk.createSQL("INSERT INTO etk_hierarchy_root DEFAULT VALUES")
-                                .execute("HIERARCHY_ID");
-                        } else if (Utility.isPostgreSQL(etk)) {
-                            newHierarchyId = etk
-                                .createSQL("INSERT INTO etk_hierarchy_root DEFAULT VALUES returning HIERARCHY_ID")
-                                .execute("HIERARCHY_ID");
-                        } else {
-                            newHierarchyId = DatabaseSequence.HIBERNATE_SEQUENCE.getNextVal(etk);
-                            etk.createSQL("INSERT INTO etk_hierarchy_root(hierarchy_id) VALUES(:hierarchy_id)")
-                                .setParameter("hierarchy_id", newHierarchyId)
-                                .execute();
-                        }
+            updateRows(etk, Arrays.asList("NODE_ID", "PARENT_ID", "MAX_CHILD_ID", "NAME", "CODE"), updates);
 
-                        /* Insert into ETK_HIERARCHY */
-                        newParams.put("HIERARCHY_ID", newHierarchyId);
+            final List<Long> newHierarchyIds = createHierarchyRoots(etk, inserts.size());
+            for (int i = 0; i < inserts.size(); i++) {
+                inserts.get(i).put("HIERARCHY_ID", newHierarchyIds.get(i));
+            }
 
-                        etk.createSQL(
-                            "INSERT INTO etk_hierarchy(hierarchy_id, node_id, parent_id, max_child_id, name, code) VALUES(:HIERARCHY_ID, :NODE_ID, :PARENT_ID, :MAX_CHILD_ID, :NAME, :CODE)")
-                            .setParameter(newParams)
-                            .execute();
-                    } else {
-                        /* Update the existing ETK_HIERARCHY record */
-                        newHierarchyId = existingHierarchyId;
+            insertRows(etk, "etk_hierarchy",
+                Arrays.asList("HIERARCHY_ID", "NODE_ID", "PARENT_ID", "MAX_CHILD_ID", "NAME", "CODE"),
+                inserts);
+        }
 
-                        newParams.put("HIERARCHY_ID", newHierarchyId);
+        /**
+         * Creates new records in ETK_HIERARCHY_ROOT.
+         *
+         * <p>
+         * On Oracle the ids are allocated from the sequence with a single query and the records are inserted in
+         * batches. On SQL Server and PostgreSQL the ids are generated by the database when the record is inserted, so
+         * the records have to be inserted one at a time.
+         * </p>
+         *
+         * @param etk
+         *            entellitrak execution context
+         * @param count
+         *            the number of records to create
+         * @return the hierarchy ids of the new records
+         */
+        private static List<Long> createHierarchyRoots(final ExecutionContext etk, final int count) {
+            final List<Long> hierarchyIds;
+
+            if (Utility.isSqlServer(etk)) {
+                hierarchyIds = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    hierarchyIds.add(etk.createSQL("INSERT INTO etk_hierarchy_root DEFAULT VALUES")
+                        .execute("HIERARCHY_ID"));
+                }
+            } else if (Utility.isPostgreSQL(etk)) {
+                hierarchyIds = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    hierarchyIds.add(etk
+                        .createSQL("INSERT INTO etk_hierarchy_root DEFAULT VALUES returning HIERARCHY_ID")
+                        .execute("HIERARCHY_ID"));
+                }
+            } else {
+                hierarchyIds = DatabaseSequence.HIBERNATE_SEQUENCE.getNextVals(etk, count);
+
+                insertRows(etk, "etk_hierarchy_root",
+                    Collections.singletonList("HIERARCHY_ID"),
+                    hierarchyIds.stream()
+                        .map(hierarchyId -> Utility.arrayToMap(String.class, Object.class, new Object[][] {
+                            { "HIERARCHY_ID", hierarchyId },
+                        }))
+                        .collect(Collectors.toList()));
+            }
 
-                        etk.createSQL(
-                            "UPDATE etk_hierarchy SET node_id = :NODE_ID, parent_id = :PARENT_ID, max_child_id = :MAX_CHILD_ID, name = :NAME, code = :CODE WHERE hierarchy_id = :HIERARCHY_ID")
-                            .setParameter(newParams)
-                            .execute();
+            return hierarchyIds;
+        }
+
+        /**
+         * Inserts rows into a table in batches. Each batch is inserted with a single INSERT ... SELECT ... UNION ALL
+         * statement.
+         *
+         * @param etk
+         *            entellitrak execution context
+         * @param tableName
+         *            the table to insert into
+         * @param columns
+         *            the columns to insert
+         * @param rows
+         *            the rows to insert. The keys are the column names.
+         */
+        private static void insertRows(final ExecutionContext etk,
+            final String tableName,
+            final List<String> columns,
+            final List<Map<String, Object>> rows) {
+            final String fromDual = Utility.isOracle(etk) ? " FROM DUAL" : "";
+            final int batchSize = getBatchSize(columns.size());
+
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                final List<Map<String, Object>> batch = rows.subList(start, Math.min(rows.size(), start + batchSize));
+
+                final Map<String, Object> parameters = new HashMap<>();
+                final List<String> selects = new ArrayList<>();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    final List<String> values = new ArrayList<>();
+
+                    for (final String column : columns) {
+                        final String parameterName = String.format("%s_%s", column, i);
+                        parameters.put(parameterName, batch.get(i).get(column));
+                        values.add(":" + parameterName);
+                    }
+
+                    selects.add(String.format("SELECT %s%s", String.join(", ", values), fromDual));
+                }
+
+                etk.createSQL(String.format("INSERT INTO %s(%s) %s",
+                    tableName,
+                    String.join(", ", columns),
+                    String.join(" UNION ALL ", selects)))
+                    .setParameter(parameters)
+                    .execute();
+            }
+        }
+
+        /**
+         * Updates rows of ETK_HIERARCHY in batches. Each batch is updated with a single UPDATE statement which uses
+         * CASE expressions on the hierarchy id to give each row its own values. The hierarchy id of each row is bound
+         * once in every CASE expression and once in the IN list, so each row uses (2 * columns + 1) bind parameters.
+         *
+         * @param etk
+         *            entellitrak execution context
+         * @param columns
+         *            the columns to update
+         * @param rows
+         *            the rows to update. The keys are the column names and must include HIERARCHY_ID.
+         */
+        private static void updateRows(final ExecutionContext etk,
+            final List<String> columns,
+            final List<Map<String, Object>> rows) {
+            final int batchSize = getBatchSize(2 * columns.size() + 1);
+
+            for (int start = 0; start < rows.size(); start += batchSize) {
+                final List<Map<String, Object>> batch = rows.subList(start, Math.min(rows.size(), start + batchSize));
+
+                final Map<String, Object> parameters = new HashMap<>();
+                final List<String> hierarchyIdParameters = new ArrayList<>();
+
+                for (int i = 0; i < batch.size(); i++) {
+                    final String parameterName = "HIERARCHY_ID_" + i;
+                    parameters.put(parameterName, batch.get(i).get("HIERARCHY_ID"));
+                    hierarchyIdParameters.add(":" + parameterName);
+
+                    for (final String column : columns) {
+                        parameters.put(String.format("%s_%s", column, i), batch.get(i).get(column));
                     }
-                } catch (final IncorrectResultSizeDataAccessException e) {
-                    throw new GeneralRuntimeException(e);
                 }
-            });
+
+                final List<String> assignments = columns.stream()
+                    .map(column -> {
+                        final StringBuilder caseBuilder = new StringBuilder(String.format("%s = CASE hierarchy_id", column));
+
+                        for (int i = 0; i < batch.size(); i++) {
+                            caseBuilder.append(String.format(" WHEN :HIERARCHY_ID_%s THEN :%s_%s", i, column, i));
+                        }
+
+                        return caseBuilder.append(" END").toString();
+                    })
+                    .collect(Collectors.toList());
+
+                etk.createSQL(String.format("UPDATE etk_hierarchy SET %s WHERE hierarchy_id IN (%s)",
+                    String.join(", ", assignments),
+                    String.join(", ", hierarchyIdParameters)))
+                    .setParameter(parameters)
+                    .execute();
+            }
+        }
+
+        /**
+         * Determine how many rows can be written by a single statement.
+         *
+         * @param parametersPerRow
+         *            the number of bind parameters the statement uses for each row
+         * @return the number of rows
+         */
+        private static int getBatchSize(final int parametersPerRow) {
+            return Math.max(1, MAX_PARAMETERS / parametersPerRow);
         }
 
         /**
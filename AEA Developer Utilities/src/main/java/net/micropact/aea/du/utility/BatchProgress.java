@@ -0,0 +1,136 @@
+package net.micropact.aea.du.utility;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.entellitrak.logging.Logger;
+
+/**
+ * Keeps track of the progress of a long running batch operation (such as cleaning up hundreds of thousands of records)
+ * and periodically writes the progress and throughput to the log.
+ *
+ * <p>
+ *  It is safe to record progress from multiple threads.
+ * </p>
+ *
+ * @author zmiller
+ */
+public class BatchProgress {
+
+	/**
+	 * The minimum amount of time between progress messages being logged.
+	 */
+	private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+	private final Logger logger;
+	private final String description;
+	private final long total;
+	private final long startTime = System.nanoTime();
+
+	private final AtomicLong processed = new AtomicLong();
+	private final AtomicLong failed = new AtomicLong();
+	private final AtomicLong lastLogTime = new AtomicLong(startTime);
+
+	/**
+	 * Constructor.
+	 *
+	 * @param theLogger the logger progress will be written to
+	 * @param theDescription a description of the operation, used in the log messages
+	 * @param theTotal the total number of items which will be processed
+	 */
+	public BatchProgress(final Logger theLogger, final String theDescription, final long theTotal) {
+		logger = theLogger;
+		description = theDescription;
+		total = theTotal;
+	}
+
+	/**
+	 * Record that items were processed successfully.
+	 *
+	 * @param count the number of items
+	 */
+	public void addProcessed(final long count) {
+		processed.addAndGet(count);
+		logIfDue();
+	}
+
+	/**
+	 * Record that items failed to be processed.
+	 *
+	 * @param count the number of items
+	 */
+	public void addFailed(final long count) {
+		failed.addAndGet(count);
+		logIfDue();
+	}
+
+	/**
+	 * Log the final progress of the operation.
+	 */
+	public void finish() {
+		logger.info(String.format("%s: finished. %s", description, getSummary()));
+	}
+
+	/**
+	 * Get the number of items which have been processed successfully.
+	 *
+	 * @return the number of items
+	 */
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	/**
+	 * Get the number of items which failed to be processed.
+	 *
+	 * @return the number of items
+	 */
+	public long getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * Get the total number of items which will be processed.
+	 *
+	 * @return the number of items
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * Get the number of items processed (successfully or not) per second since the operation began.
+	 *
+	 * @return the throughput
+	 */
+	public double getItemsPerSecond() {
+		final long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+		return (processed.get() + failed.get()) * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	/**
+	 * Log the progress if enough time has passed since it was last logged.
+	 */
+	private void logIfDue() {
+		final long now = System.nanoTime();
+		final long lastLog = lastLogTime.get();
+
+		if (now - lastLog >= LOG_INTERVAL_NANOS && lastLogTime.compareAndSet(lastLog, now)) {
+			logger.info(String.format("%s: %s", description, getSummary()));
+		}
+	}
+
+	/**
+	 * Get a human readable summary of the progress.
+	 *
+	 * @return the summary
+	 */
+	private String getSummary() {
+		return String.format("%s of %s processed, %s failed, %.1f per second, %s seconds elapsed",
+				processed.get(),
+				total,
+				failed.get(),
+				getItemsPerSecond(),
+				TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime));
+	}
+}
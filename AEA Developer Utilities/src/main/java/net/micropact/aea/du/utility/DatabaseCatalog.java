@@ -0,0 +1,158 @@
+package net.micropact.aea.du.utility;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.entellitrak.ExecutionContext;
+
+import net.micropact.aea.utility.Utility;
+
+/**
+ * <p>
+ *  An in-memory snapshot of the tables and columns in the schema that entellitrak uses, for Developer Utilities which
+ *  need to check whether many columns exist. Reading the catalog once and checking the columns in memory is much
+ *  faster than querying the catalog for each column, especially on Oracle where the catalog views are slow.
+ * </p>
+ * <p>
+ *  Along with the names, the snapshot keeps the type information of each column (see {@link #getColumns(String)}),
+ *  so that pages which compare columns against the data elements can use the same snapshot.
+ * </p>
+ * <p>
+ *  The snapshot is shared by every page on this server and is read again once it is older than
+ *  {@link #MAX_AGE_MILLIS}, so columns which were just added or dropped may take that long to be noticed.
+ *  Table and column names are compared case-insensitively.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class DatabaseCatalog {
+
+	/**
+	 * How long a snapshot of the catalog is used before the catalog is read again.
+	 */
+	private static final long MAX_AGE_MILLIS = 60 * 1000;
+
+	private static volatile DatabaseCatalog currentCatalog;
+
+	private final long loadedAtMillis;
+	/** Map from upper-case table name to a map from the upper-case names of its columns to their catalog rows. */
+	private final Map<String, Map<String, Map<String, Object>>> columnsByTable;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param theLoadedAtMillis when the catalog was read
+	 * @param theColumnsByTable map from upper-case table name to a map from the upper-case names of its columns to
+	 *          their catalog rows
+	 */
+	private DatabaseCatalog(final long theLoadedAtMillis,
+			final Map<String, Map<String, Map<String, Object>>> theColumnsByTable) {
+		loadedAtMillis = theLoadedAtMillis;
+		columnsByTable = theColumnsByTable;
+	}
+
+	/**
+	 * Get a snapshot of the catalog, reading the catalog if the current snapshot is missing or too old.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the catalog
+	 */
+	public static DatabaseCatalog getCatalog(final ExecutionContext etk) {
+		final long now = System.currentTimeMillis();
+		final DatabaseCatalog catalog = currentCatalog;
+
+		if (catalog != null && now - catalog.loadedAtMillis < MAX_AGE_MILLIS) {
+			return catalog;
+		} else {
+			final DatabaseCatalog newCatalog = load(etk, now);
+			currentCatalog = newCatalog;
+			return newCatalog;
+		}
+	}
+
+	/**
+	 * Read every table and column of the schema in a single query.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param now the current time
+	 * @return the catalog
+	 */
+	private static DatabaseCatalog load(final ExecutionContext etk, final long now) {
+		final String query = Utility.isSqlServer(etk) || Utility.isPostgreSQL(etk)
+				? "SELECT table_name TABLE_NAME, column_name COLUMN_NAME, data_type DATA_TYPE, character_maximum_length CHARACTER_MAXIMUM_LENGTH, numeric_precision NUMERIC_PRECISION, numeric_scale NUMERIC_SCALE, datetime_precision DATETIME_PRECISION FROM information_schema.columns"
+				: "SELECT table_name TABLE_NAME, column_name COLUMN_NAME, data_type DATA_TYPE, data_length DATA_LENGTH, data_precision DATA_PRECISION, char_col_decl_length CHAR_COL_DECL_LENGTH, char_length CHAR_LENGTH, char_used CHAR_USED, data_scale DATA_SCALE FROM user_tab_columns";
+
+		final Map<String, Map<String, Map<String, Object>>> columnsByTable = new HashMap<>();
+
+		for (final Map<String, Object> row : etk.createSQL(query).fetchList()) {
+			columnsByTable.computeIfAbsent(toKey((String) row.get("TABLE_NAME")), tableName -> new HashMap<>())
+				.put(toKey((String) row.get("COLUMN_NAME")), Collections.unmodifiableMap(row));
+		}
+
+		return new DatabaseCatalog(now, columnsByTable);
+	}
+
+	/**
+	 * Convert a table or column name to the form it is stored in.
+	 *
+	 * @param name the name
+	 * @return the upper-case name
+	 */
+	private static String toKey(final String name) {
+		return name.toUpperCase(Locale.ROOT);
+	}
+
+	/**
+	 * Determine whether a table (or view) exists.
+	 *
+	 * @param tableName the table name
+	 * @return whether the table exists
+	 */
+	public boolean tableExists(final String tableName) {
+		return columnsByTable.containsKey(toKey(tableName));
+	}
+
+	/**
+	 * Determine whether a column exists.
+	 *
+	 * @param tableName the table name
+	 * @param columnName the column name
+	 * @return whether the table exists and has the column
+	 */
+	public boolean columnExists(final String tableName, final String columnName) {
+		return getColumnNames(tableName).contains(toKey(columnName));
+	}
+
+	/**
+	 * Get the columns of a table.
+	 *
+	 * @param tableName the table name
+	 * @return the upper-case names of the columns, or an empty set if the table does not exist
+	 */
+	public Set<String> getColumnNames(final String tableName) {
+		return Collections.unmodifiableSet(columnsByTable.getOrDefault(toKey(tableName), Collections.emptyMap())
+				.keySet());
+	}
+
+	/**
+	 * Get the catalog rows of the columns of a table. Each row has the TABLE_NAME and COLUMN_NAME as they are stored in
+	 * the catalog, along with the type information of the column:
+	 * <ul>
+	 *  <li>SQL Server and PostgreSQL: DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE and
+	 *      DATETIME_PRECISION from information_schema.columns</li>
+	 *  <li>Oracle: DATA_TYPE, DATA_LENGTH, DATA_PRECISION, CHAR_COL_DECL_LENGTH, CHAR_LENGTH, CHAR_USED and DATA_SCALE
+	 *      from user_tab_columns</li>
+	 * </ul>
+	 *
+	 * @param tableName the table name
+	 * @return the catalog rows, or an empty collection if the table does not exist
+	 */
+	public Collection<Map<String, Object>> getColumns(final String tableName) {
+		return Collections.unmodifiableCollection(columnsByTable.getOrDefault(toKey(tableName), Collections.emptyMap())
+				.values());
+	}
+}
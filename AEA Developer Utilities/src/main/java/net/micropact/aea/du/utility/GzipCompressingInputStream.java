@@ -0,0 +1,121 @@
+package net.micropact.aea.du.utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+
+/**
+ * An {@link InputStream} which reads another {@link InputStream} and returns its contents in gzip format.
+ *
+ * <p>
+ *  {@link java.util.zip.GZIPOutputStream} requires something to push data into it, but
+ *  {@link com.entellitrak.page.FileResponse} pulls data out of an {@link InputStream}. This class compresses the data
+ *  as it is pulled, so the compressed data never has to be written anywhere or held in memory.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class GzipCompressingInputStream extends SequenceInputStream {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final byte[] HEADER = {
+			(byte) 0x1f, (byte) 0x8b, // magic number
+			Deflater.DEFLATED, // compression method
+			0, // flags
+			0, 0, 0, 0, // modification time (not available)
+			0, // extra flags
+			(byte) 0xff, // operating system (unknown)
+	};
+
+	/**
+	 * Constructor.
+	 *
+	 * @param inputStream the uncompressed stream. It will be closed when this stream is closed.
+	 */
+	public GzipCompressingInputStream(final InputStream inputStream) {
+		super(new GzipParts(inputStream));
+	}
+
+	/**
+	 * Supplies the header, compressed body and trailer of the gzip stream. The trailer contains the checksum and size
+	 * of the uncompressed data, so it is not created until the body has been completely read.
+	 *
+	 * @author zmiller
+	 */
+	private static final class GzipParts implements Enumeration<InputStream> {
+
+		private final CRC32 crc = new CRC32();
+		private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		private final InputStream body;
+		private long uncompressedSize;
+		private int partsReturned;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param inputStream the uncompressed stream
+		 */
+		GzipParts(final InputStream inputStream) {
+			body = new DeflaterInputStream(new CheckedInputStream(inputStream, crc), deflater, BUFFER_SIZE) {
+				private boolean isClosed;
+
+				@Override
+				public void close() throws IOException {
+					if (!isClosed) {
+						isClosed = true;
+
+						try {
+							super.close();
+						} finally {
+							/* DeflaterInputStream only ends Deflaters which it created itself. */
+							uncompressedSize = deflater.getBytesRead();
+							deflater.end();
+						}
+					}
+				}
+			};
+		}
+
+		@Override
+		public boolean hasMoreElements() {
+			return partsReturned < 3;
+		}
+
+		@Override
+		public InputStream nextElement() {
+			switch (partsReturned++) {
+				case 0:
+					return new ByteArrayInputStream(HEADER);
+				case 1:
+					return body;
+				case 2:
+					return new ByteArrayInputStream(createTrailer());
+				default:
+					throw new NoSuchElementException();
+			}
+		}
+
+		/**
+		 * Create the gzip trailer. This must be called after the body has been read and closed.
+		 *
+		 * @return the CRC-32 and size (modulo 2^32) of the uncompressed data, both in little-endian order
+		 */
+		private byte[] createTrailer() {
+			final long checksum = crc.getValue();
+			final long size = uncompressedSize;
+
+			return new byte[] {
+					(byte) checksum, (byte) (checksum >> 8), (byte) (checksum >> 16), (byte) (checksum >> 24),
+					(byte) size, (byte) (size >> 8), (byte) (size >> 16), (byte) (size >> 24),
+			};
+		}
+	}
+}
@@ -0,0 +1,412 @@
+package net.micropact.aea.du.utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.entellitrak.ExecutionContext;
+
+import net.entellitrak.aea.core.cache.AClassKeyCacheable;
+import net.entellitrak.aea.core.cache.CacheManager;
+
+/**
+ * Utility functions for reading lines out of the App Server logs. The files are read through a {@link FileChannel} in
+ * large blocks and the lines are decoded as UTF-8. Every read is bounded both by a number of bytes and a number of
+ * lines, so reading a file which has grown a lot never returns an unbounded amount of data; the caller just asks again
+ * starting from {@link LogChunk#getFinalPosition()}.
+ *
+ * @author zmiller
+ */
+public final class LogFileReader {
+
+	/**
+	 * The default maximum number of bytes to read at a time.
+	 */
+	public static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+	/**
+	 * The default maximum number of lines to return at a time.
+	 */
+	public static final int DEFAULT_MAX_LINES = 2000;
+
+	/**
+	 * The size of blocks which are read when scanning the file.
+	 */
+	static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+	/** Hide constructor for Utility Class. */
+	private LogFileReader(){}
+
+	/**
+	 * Read the complete lines starting at a particular byte position.
+	 * If the file is shorter than the position (such as when the log has been rotated), reading starts over at the
+	 * beginning of the file. A trailing line which has not been terminated with a newline yet is not returned, unless
+	 * it is longer than maxBytes.
+	 *
+	 * @param file the file
+	 * @param position the byte offset to begin reading at. It should be the beginning of a line.
+	 * @param maxBytes the maximum number of bytes to read
+	 * @param maxLines the maximum number of lines to return
+	 * @return the lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	public static LogChunk readLines(final File file, final long position, final int maxBytes, final int maxLines)
+			throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			return readLines(channel, position, maxBytes, maxLines);
+		}
+	}
+
+	/**
+	 * Read the last lines of a file. If the lines are longer than maxBytes, fewer lines are returned, beginning with the
+	 * first complete line within the last maxBytes of the file.
+	 *
+	 * @param file the file
+	 * @param lineCount the number of lines to read
+	 * @param maxBytes the maximum number of bytes to read
+	 * @return the lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	public static LogChunk readLastLines(final File file, final int lineCount, final int maxBytes) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			final long size = channel.size();
+			final long linesStart = findStartOfLastLines(channel, size, lineCount);
+
+			final long start = linesStart >= size - maxBytes
+					? linesStart
+					: findNextLineStart(channel, size - maxBytes, size);
+
+			return readLines(channel, start, maxBytes, lineCount);
+		}
+	}
+
+	/**
+	 * Read the lines of a file starting at a particular line number.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param file the file
+	 * @param lineNumber the 0-based line number to start at
+	 * @param maxBytes the maximum number of bytes to read
+	 * @param maxLines the maximum number of lines to return
+	 * @return the lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	public static LogChunk readLinesFromLineNumber(final ExecutionContext etk, final File file, final long lineNumber,
+			final int maxBytes, final int maxLines) throws IOException {
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			final LogLineIndex lineIndex = getLineIndex(etk, file, channel);
+
+			final LogChunk chunk = readLines(channel, lineIndex.getLineOffset(channel, lineNumber), maxBytes, maxLines);
+
+			return new LogChunk(chunk.getStartingPosition(),
+					chunk.getFinalPosition(),
+					chunk.getLines(),
+					chunk.hasMore(),
+					Math.min(lineNumber, lineIndex.getLineCount()),
+					lineIndex.getLineCount());
+		}
+	}
+
+	/**
+	 * Get the line index of a file from the cache, bringing it up to date with the current contents of the file.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param file the file
+	 * @param channel a channel opened on the file
+	 * @return the line index
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static LogLineIndex getLineIndex(final ExecutionContext etk, final File file, final FileChannel channel)
+			throws IOException {
+		final LogLineIndexCacheable cacheable = new LogLineIndexCacheable(file);
+		final LogLineIndex lineIndex = CacheManager.loadSerializable(etk, cacheable);
+
+		final Object fileKey = Files.readAttributes(file.toPath(), BasicFileAttributes.class).fileKey();
+
+		if(lineIndex.update(channel, fileKey == null ? null : fileKey.toString())){
+			CacheManager.storeSerializable(etk, cacheable, lineIndex);
+		}
+
+		return lineIndex;
+	}
+
+	/**
+	 * Read the complete lines starting at a particular byte position.
+	 *
+	 * @param channel the channel to read from
+	 * @param position the byte offset to begin reading at
+	 * @param maxBytes the maximum number of bytes to read
+	 * @param maxLines the maximum number of lines to return
+	 * @return the lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static LogChunk readLines(final FileChannel channel, final long position, final int maxBytes,
+			final int maxLines) throws IOException {
+		final long size = channel.size();
+		final long start = position > size ? 0 : position;
+		final int length = (int) Math.min(maxBytes, size - start);
+
+		final ByteBuffer buffer = ByteBuffer.allocate(length);
+		while(buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0){
+			/* Keep reading until the buffer is full */
+		}
+
+		final byte[] bytes = buffer.array();
+		final int bytesRead = buffer.position();
+
+		final List<String> lines = new ArrayList<>();
+		int lineStart = 0;
+
+		for(int i = 0; i < bytesRead && lines.size() < maxLines; i++){
+			if(bytes[i] == '\n'){
+				lines.add(decodeLine(bytes, lineStart, i));
+				lineStart = i + 1;
+			}
+		}
+
+		/* If a single line is longer than maxBytes we return part of it, otherwise we would never make progress. */
+		if(lines.isEmpty() && bytesRead == maxBytes && bytesRead > 0){
+			int cut = bytesRead;
+			while(cut > 1 && (bytes[cut - 1] & 0xC0) == 0x80){
+				/* Don't split a multi-byte UTF-8 character */
+				cut--;
+			}
+			if(cut > 1 && (bytes[cut - 1] & 0xC0) == 0xC0){
+				cut--;
+			}
+			lines.add(decodeLine(bytes, 0, cut));
+			lineStart = cut;
+		}
+
+		final long finalPosition = start + lineStart;
+
+		return new LogChunk(start,
+				finalPosition,
+				lines,
+				finalPosition < size && (lines.size() == maxLines || start + bytesRead < size),
+				null,
+				null);
+	}
+
+	/**
+	 * Decode a line, dropping a trailing carriage return.
+	 *
+	 * @param bytes the bytes
+	 * @param from the index of the first byte of the line
+	 * @param to the index just after the last byte of the line
+	 * @return the line
+	 */
+	private static String decodeLine(final byte[] bytes, final int from, final int to){
+		final int end = to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+		return new String(bytes, from, end - from, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Find the byte offset at which the last lineCount lines of the file begin by reading the file backwards.
+	 *
+	 * @param channel the channel
+	 * @param size the size of the file
+	 * @param lineCount the number of lines
+	 * @return the offset of the first of the lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static long findStartOfLastLines(final FileChannel channel, final long size, final int lineCount)
+			throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BLOCK_SIZE);
+
+		long blockEnd = size;
+		int newlines = 0;
+
+		while(blockEnd > 0){
+			final long blockStart = Math.max(0, blockEnd - DEFAULT_BLOCK_SIZE);
+
+			buffer.clear();
+			buffer.limit((int) (blockEnd - blockStart));
+			while(buffer.hasRemaining() && channel.read(buffer, blockStart + buffer.position()) > 0){
+				/* Keep reading until the block is full */
+			}
+
+			for(int i = buffer.position() - 1; i >= 0; i--){
+				/* The newline which terminates the final line does not begin a new line */
+				if(buffer.get(i) == '\n' && blockStart + i != size - 1 && ++newlines == lineCount){
+					return blockStart + i + 1;
+				}
+			}
+
+			blockEnd = blockStart;
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Find the byte offset of the first line which begins at or after a position.
+	 * If there is no newline after the position (the rest of the file is part of a single line), the position itself
+	 * is returned so that part of the line can still be read.
+	 *
+	 * @param channel the channel
+	 * @param position the position, which may be in the middle of a line
+	 * @param size the size of the file
+	 * @return the offset of the first line beginning at or after position
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static long findNextLineStart(final FileChannel channel, final long position, final long size)
+			throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BLOCK_SIZE);
+
+		if(position <= 0){
+			return 0;
+		}
+
+		/* The position is already the beginning of a line if the byte before it is a newline */
+		long blockStart = position - 1;
+
+		while(blockStart < size){
+			buffer.clear();
+			buffer.limit((int) Math.min(DEFAULT_BLOCK_SIZE, size - blockStart));
+			while(buffer.hasRemaining() && channel.read(buffer, blockStart + buffer.position()) > 0){
+				/* Keep reading until the block is full */
+			}
+
+			for(int i = 0; i < buffer.position(); i++){
+				if(buffer.get(i) == '\n'){
+					return blockStart + i + 1;
+				}
+			}
+
+			if(buffer.position() == 0){
+				break;
+			}
+
+			blockStart += buffer.position();
+		}
+
+		return position;
+	}
+
+	/**
+	 * The lines which were read from a file along with where the reading started and stopped.
+	 *
+	 * @author zmiller
+	 */
+	public static final class LogChunk {
+
+		private final long startingPosition;
+		private final long finalPosition;
+		private final List<String> lines;
+		private final boolean more;
+		private final Long startingLine;
+		private final Long lineCount;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theStartingPosition the byte offset of the first line
+		 * @param theFinalPosition the byte offset just after the last line
+		 * @param theLines the lines
+		 * @param hasMore whether there were more lines available which were not returned because of the limits
+		 * @param theStartingLine the 0-based line number of the first line, if known
+		 * @param theLineCount the number of lines in the file, if known
+		 */
+		LogChunk(final long theStartingPosition, final long theFinalPosition, final List<String> theLines,
+				final boolean hasMore, final Long theStartingLine, final Long theLineCount){
+			startingPosition = theStartingPosition;
+			finalPosition = theFinalPosition;
+			lines = Collections.unmodifiableList(theLines);
+			more = hasMore;
+			startingLine = theStartingLine;
+			lineCount = theLineCount;
+		}
+
+		/**
+		 * Get the byte offset of the first line.
+		 *
+		 * @return the byte offset of the first line
+		 */
+		public long getStartingPosition(){
+			return startingPosition;
+		}
+
+		/**
+		 * Get the byte offset just after the last line. This is where the next read should begin.
+		 *
+		 * @return the byte offset just after the last line
+		 */
+		public long getFinalPosition(){
+			return finalPosition;
+		}
+
+		/**
+		 * Get the lines.
+		 *
+		 * @return the lines
+		 */
+		public List<String> getLines(){
+			return lines;
+		}
+
+		/**
+		 * Get whether more lines were available but not returned because of the byte or line limits.
+		 *
+		 * @return whether more lines were available
+		 */
+		public boolean hasMore(){
+			return more;
+		}
+
+		/**
+		 * Get the 0-based line number of the first line.
+		 *
+		 * @return the line number, or null if it is not known
+		 */
+		public Long getStartingLine(){
+			return startingLine;
+		}
+
+		/**
+		 * Get the number of lines in the file.
+		 *
+		 * @return the number of lines, or null if it is not known
+		 */
+		public Long getLineCount(){
+			return lineCount;
+		}
+	}
+
+	/**
+	 * {@link net.entellitrak.aea.core.cache.ICacheable} for the {@link LogLineIndex} of a single log file.
+	 *
+	 * @author zmiller
+	 */
+	private static final class LogLineIndexCacheable extends AClassKeyCacheable<LogLineIndex> {
+
+		private final File file;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theFile the log file
+		 */
+		LogLineIndexCacheable(final File theFile){
+			file = theFile;
+		}
+
+		@Override
+		public String getKey(){
+			return super.getKey() + "." + file.getName();
+		}
+
+		@Override
+		public LogLineIndex getValue(){
+			return new LogLineIndex();
+		}
+	}
+}
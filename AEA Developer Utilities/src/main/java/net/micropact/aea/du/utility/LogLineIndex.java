@@ -0,0 +1,205 @@
+package net.micropact.aea.du.utility;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A sparse index of the line offsets within a log file. It records the byte offset of every
+ * {@link #LINES_PER_CHECKPOINT}th line, so finding the offset of any line only requires reading from the nearest
+ * checkpoint instead of from the beginning of the file.
+ *
+ * <p>
+ *  Log files only ever grow (until they are rotated), so the index is built incrementally. Each time it is used it
+ *  only scans the bytes which have been appended since it was last used. The file is identified by its file key (the
+ *  inode on Unix) and by its first {@link #HEAD_SIZE} bytes rather than by timestamps, because the creation time that
+ *  Linux reports is usually just the modification time. If the file appears to have been replaced or truncated, the
+ *  index starts over.
+ * </p>
+ *
+ * @author zmiller
+ */
+public class LogLineIndex implements Serializable {
+
+	private static final long serialVersionUID = 2L;
+
+	/**
+	 * The number of lines between checkpoints.
+	 */
+	static final int LINES_PER_CHECKPOINT = 1000;
+
+	private static final int BLOCK_SIZE = 1024 * 1024;
+
+	/**
+	 * The number of bytes at the beginning of the file which are remembered to tell when it has been replaced.
+	 */
+	private static final int HEAD_SIZE = 256;
+
+	/**
+	 * The file key of the file which was indexed, or null if the file system does not provide one.
+	 */
+	private String fileKey;
+
+	/**
+	 * The first bytes of the file which was indexed. It is shorter than {@link #HEAD_SIZE} only while the file is.
+	 */
+	private byte[] head = {};
+
+	/**
+	 * checkpoints[i] is the byte offset of line i * {@link #LINES_PER_CHECKPOINT}.
+	 */
+	private long[] checkpoints = {0};
+	private int checkpointCount = 1;
+
+	/**
+	 * The byte offset just after the last newline which has been indexed.
+	 */
+	private long indexedPosition;
+
+	/**
+	 * The number of complete lines before {@link #indexedPosition}.
+	 */
+	private long indexedLines;
+
+	/**
+	 * Bring the index up to date with the current contents of the file.
+	 *
+	 * @param channel a channel opened on the log file
+	 * @param theFileKey the file key of the log file, or null if the file system does not provide one
+	 * @return whether the index changed
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	synchronized boolean update(final FileChannel channel, final String theFileKey) throws IOException {
+		final long size = channel.size();
+
+		boolean isChanged = false;
+
+		if (!Objects.equals(theFileKey, fileKey)
+				|| size < indexedPosition
+				|| !Arrays.equals(head, readHead(channel, head.length))) {
+			fileKey = theFileKey;
+			head = new byte[]{};
+			checkpoints = new long[]{0};
+			checkpointCount = 1;
+			indexedPosition = 0;
+			indexedLines = 0;
+			isChanged = true;
+		}
+
+		if (head.length < HEAD_SIZE && size > head.length) {
+			head = readHead(channel, (int) Math.min(HEAD_SIZE, size));
+			isChanged = true;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+		long readPosition = indexedPosition;
+
+		while (readPosition < size) {
+			buffer.clear();
+			final int bytesRead = channel.read(buffer, readPosition);
+
+			if (bytesRead <= 0) {
+				break;
+			}
+
+			for (int i = 0; i < bytesRead; i++) {
+				if (buffer.get(i) == '\n') {
+					indexedLines++;
+					indexedPosition = readPosition + i + 1;
+
+					if (indexedLines % LINES_PER_CHECKPOINT == 0) {
+						addCheckpoint(indexedPosition);
+					}
+				}
+			}
+
+			readPosition += bytesRead;
+			isChanged = true;
+		}
+
+		return isChanged;
+	}
+
+	/**
+	 * Get the byte offset of the beginning of a line. {@link #update(FileChannel, String)} should have been called first.
+	 *
+	 * @param channel a channel opened on the log file
+	 * @param lineNumber the 0-based line number
+	 * @return the byte offset of the line, or the offset just after the last complete line if the file does not have
+	 *          that many lines
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	synchronized long getLineOffset(final FileChannel channel, final long lineNumber) throws IOException {
+		if (lineNumber >= indexedLines) {
+			return indexedPosition;
+		}
+
+		final int checkpoint = (int) (lineNumber / LINES_PER_CHECKPOINT);
+		long linesToSkip = lineNumber % LINES_PER_CHECKPOINT;
+		long readPosition = checkpoints[checkpoint];
+
+		final ByteBuffer buffer = ByteBuffer.allocate(LogFileReader.DEFAULT_BLOCK_SIZE);
+
+		while (linesToSkip > 0) {
+			buffer.clear();
+			final int bytesRead = channel.read(buffer, readPosition);
+
+			if (bytesRead <= 0) {
+				break;
+			}
+
+			for (int i = 0; i < bytesRead; i++) {
+				if (buffer.get(i) == '\n' && --linesToSkip == 0) {
+					return readPosition + i + 1;
+				}
+			}
+
+			readPosition += bytesRead;
+		}
+
+		return readPosition;
+	}
+
+	/**
+	 * Get the number of complete lines in the file.
+	 *
+	 * @return the number of complete lines in the file
+	 */
+	synchronized long getLineCount() {
+		return indexedLines;
+	}
+
+	/**
+	 * Read the bytes at the beginning of the file.
+	 *
+	 * @param channel a channel opened on the log file
+	 * @param length the number of bytes to read
+	 * @return the bytes, which are fewer than length if the file is shorter than that
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static byte[] readHead(final FileChannel channel, final int length) throws IOException {
+		final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+		while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+			/* Keep reading until the buffer is full */
+		}
+
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	/**
+	 * Record the position of a checkpoint.
+	 *
+	 * @param position the position of the beginning of the line
+	 */
+	private void addCheckpoint(final long position) {
+		if (checkpointCount == checkpoints.length) {
+			checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+		}
+
+		checkpoints[checkpointCount++] = position;
+	}
+}
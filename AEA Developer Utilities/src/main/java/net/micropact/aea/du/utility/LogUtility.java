@@ -32,6 +32,11 @@ public final class LogUtility {
 	 */
 	private static final String[] LOG_EXTENSIONS = {"log", "out", "txt"};
 
+	/**
+	 * The file extensions which are used by rotated log files which have been compressed.
+	 */
+	private static final String[] COMPRESSED_LOG_EXTENSIONS = {"gz"};
+
 	/** Hide constructor for Utility Class. */
 	private LogUtility(){}
 
@@ -150,13 +155,44 @@ public final class LogUtility {
 	 *      </pre>
 	 */
 	public static Collection<Map<String, Object>> getLogFileInfos(final ExecutionContext etk) {
+		return getFileInfos(etk, LOG_EXTENSIONS);
+	}
+
+	/**
+	 * Gets data about the compressed (rotated) log files. These cannot be tailed, but they can be searched.
+	 *
+	 * @param etk entellitrak execution context.
+	 * @return Map of file information in the same format as {@link #getLogFileInfos(ExecutionContext)}
+	 */
+	public static Collection<Map<String, Object>> getCompressedLogFileInfos(final ExecutionContext etk) {
+		return getFileInfos(etk, COMPRESSED_LOG_EXTENSIONS);
+	}
+
+	/**
+	 * Determine whether a log file is compressed.
+	 *
+	 * @param fileName the name of the log file
+	 * @return whether the log file is compressed
+	 */
+	public static boolean isCompressedLogFile(final String fileName) {
+		return fileName.endsWith(".gz");
+	}
+
+	/**
+	 * Gets data about the files in the log directory which have particular file extensions.
+	 *
+	 * @param etk entellitrak execution context.
+	 * @param extensions the file extensions
+	 * @return Map of file information in the same format as {@link #getLogFileInfos(ExecutionContext)}
+	 */
+	private static Collection<Map<String, Object>> getFileInfos(final ExecutionContext etk, final String[] extensions) {
 		final String path = getLogPath(etk);
 		final File dir = new File(path);
 
 		final Collection<Map<String, Object>> fileInfos;
 
 		if (dir.exists() && dir.isDirectory()) {
-			fileInfos = FileUtils.listFiles(dir, LOG_EXTENSIONS)
+			fileInfos = FileUtils.listFiles(dir, extensions)
 					.stream()
 					.sorted()
 					.map(file
@@ -201,4 +237,22 @@ public final class LogUtility {
 					fileName));
 		}
 	}
+
+	/**
+	 * Ensures that a file name is a valid log file or compressed log file.
+	 *
+	 * <p>
+	 *  Throws an exception of the file name is not a valid log file.
+	 * </p>
+	 *
+	 * @param etk entellitrak execution context
+	 * @param fileName the file name to validate
+	 */
+	public static void ensureFileNameIsSearchableLogFile(final ExecutionContext etk, final String fileName) {
+		if(!getValidLogFileNames(etk).contains(fileName)
+				&& getCompressedLogFileInfos(etk).stream().noneMatch(fileInfo -> fileInfo.get("name").equals(fileName))) {
+			throw new GeneralRuntimeException(String.format("File \"%s\" is not currently recognized as a valid log file.",
+					fileName));
+		}
+	}
 }
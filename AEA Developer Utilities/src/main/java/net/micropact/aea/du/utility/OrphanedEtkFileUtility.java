@@ -2,11 +2,13 @@ package net.micropact.aea.du.utility;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.entellitrak.ExecutionContext;
 import com.entellitrak.WorkExecutionException;
+import com.entellitrak.configuration.DataObject;
 import com.entellitrak.configuration.DataObjectService;
 
 import net.micropact.aea.core.query.QueryUtility;
@@ -28,6 +30,11 @@ public final class OrphanedEtkFileUtility {
     private OrphanedEtkFileUtility() {
     }
 
+    /**
+     * The default number of files which are deleted in a single transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     /**
      * Clean the orphaned files in the etk_file table.
      *
@@ -36,19 +43,70 @@ public final class OrphanedEtkFileUtility {
      * @return a summary of the cleaned files
      */
     public static List<OrphanedFile> cleanOrphanedFiles(final ExecutionContext etk) {
+        return cleanOrphanedFiles(etk, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Clean the orphaned files in the etk_file table. The files are deleted batchSize files per transaction, so if
+     * cleaning is interrupted the files which were already deleted stay deleted and running it again picks up where it
+     * left off. Progress is written to the log.
+     *
+     * <p>
+     *  The files are deleted through the file services instead of directly from etk_file because their content may be
+     *  stored outside of the database.
+     * </p>
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param batchSize
+     *            the number of files to delete in each transaction
+     * @return a summary of the cleaned files
+     */
+    public static List<OrphanedFile> cleanOrphanedFiles(final ExecutionContext etk, final int batchSize) {
         final List<OrphanedFile> orphanedFiles = findOrphanedFiles(etk);
 
-        orphanedFiles.forEach(orphanedFile -> {
-        	try {
-				etk.doWork(etk2 -> FileUtility.deleteFile(etk2, orphanedFile.getFileId()));
-			} catch (final WorkExecutionException e) {
-				etk.getLogger().error(String.format("Problem deleting file %s", orphanedFile), e);
-			}
-        });
+        final BatchProgress progress = new BatchProgress(etk.getLogger(),
+                "Deleting orphaned files",
+                orphanedFiles.size());
+
+        for (int i = 0; i < orphanedFiles.size(); i += batchSize) {
+            final List<OrphanedFile> batch = orphanedFiles.subList(i, Math.min(i + batchSize, orphanedFiles.size()));
+
+            try {
+                etk.doWork(etk2 -> batch.forEach(orphanedFile -> FileUtility.deleteFile(etk2, orphanedFile.getFileId())));
+                progress.addProcessed(batch.size());
+            } catch (final WorkExecutionException e) {
+                // Something in the batch failed, so fall back to deleting the files one at a time
+                batch.forEach(orphanedFile -> deleteOrphanedFile(etk, orphanedFile, progress));
+            }
+        }
+
+        progress.finish();
 
         return orphanedFiles;
     }
 
+    /**
+     * Delete a single orphaned file in its own transaction, logging any errors.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param orphanedFile
+     *            the orphaned file
+     * @param progress
+     *            the progress of the cleanup
+     */
+    private static void deleteOrphanedFile(final ExecutionContext etk, final OrphanedFile orphanedFile,
+            final BatchProgress progress) {
+        try {
+            etk.doWork(etk2 -> FileUtility.deleteFile(etk2, orphanedFile.getFileId()));
+            progress.addProcessed(1);
+        } catch (final WorkExecutionException e) {
+            etk.getLogger().error(String.format("Problem deleting file %s", orphanedFile), e);
+            progress.addFailed(1);
+        }
+    }
+
     /**
      * Finds orphaned files within entellitrak.
      *
@@ -62,6 +120,8 @@ public final class OrphanedEtkFileUtility {
             .createSQL("SELECT DISTINCT OBJECT_TYPE \"OBJECT_TYPE\" FROM etk_file ORDER BY object_type")
             .fetchList();
 
+        final Set<String> trackingConfigTableNames = getTrackingConfigTableNames(etk);
+
         return objectTypeInfos.stream()
             .flatMap(objectTypeInfo -> {
                 final Stream<Long> returnValue;
@@ -69,7 +129,7 @@ public final class OrphanedEtkFileUtility {
                 final String objectType = (String) objectTypeInfo.get("OBJECT_TYPE");
 
                 // Check if the table actually exists in entellitrak
-                if (doesTableExistInTrackingConfig(etk, objectType)) {
+                if (trackingConfigTableNames.contains(objectType)) {
                     // The table exists so delete all files which are in etk_file but do not have a matching reference id
                 	// We do not delete items with a null reference_id. core should be deleting these as scanned files.
                     returnValue = QueryUtility.mapsToLongs(etk.createSQL(
@@ -92,18 +152,17 @@ public final class OrphanedEtkFileUtility {
     }
 
     /**
-     * Determine whether a table exists as a table for a data object in the tracking configuration.
+     * Get the tables of all data objects in the tracking configuration.
      *
      * @param etk
      *            entellitrak execution context
-     * @param tableName
-     *            the table name
-     * @return whether the table exists
+     * @return the table names
      */
-    private static boolean doesTableExistInTrackingConfig(final ExecutionContext etk, final String tableName) {
+    private static Set<String> getTrackingConfigTableNames(final ExecutionContext etk) {
         final DataObjectService dataObjectService = etk.getDataObjectService();
         return dataObjectService.getDataObjects()
             .stream()
-            .anyMatch(dataObject -> dataObject.getTableName().equals(tableName));
+            .map(DataObject::getTableName)
+            .collect(Collectors.toSet());
     }
 }
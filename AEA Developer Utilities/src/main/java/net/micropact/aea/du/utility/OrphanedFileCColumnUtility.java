@@ -1,12 +1,17 @@
 package net.micropact.aea.du.utility;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.entellitrak.ExecutionContext;
+import com.entellitrak.WorkExecutionException;
 import com.entellitrak.configuration.DataElement;
 
 import net.micropact.aea.core.query.QueryUtility;
+import net.micropact.aea.utility.Utility;
 
 /**
  * Utility class containing functionality for finding and clearing data elements of type file which reference file ids
@@ -21,6 +26,11 @@ public final class OrphanedFileCColumnUtility {
      */
     private OrphanedFileCColumnUtility(){}
 
+    /**
+     * The default number of records which are cleared in a single statement and transaction.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
     /**
      * Clean the orphaned "C_" columns which reference non-existent files.
      *
@@ -28,8 +38,46 @@ public final class OrphanedFileCColumnUtility {
      * @return the cleared records
      */
     public static List<OrphanedCColumnRecord> cleanOrphanedCColumns(final ExecutionContext etk) {
-        final List<OrphanedCColumnRecord> orphanedRecords = findOrphanedCColumns(etk);
-        orphanedRecords.forEach(orphanedRecord -> clearOrphanedRecord(etk, orphanedRecord));
+        return cleanOrphanedCColumns(etk, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Clean the orphaned "C_" columns which reference non-existent files. The records of each data element are cleared
+     * with a single UPDATE statement per batch of batchSize records, and each batch is committed separately, so if
+     * cleaning is interrupted running it again picks up where it left off. Progress is written to the log.
+     *
+     * @param etk entellitrak execution context
+     * @param batchSize the number of records to clear in each transaction
+     * @return the cleared records
+     */
+    public static List<OrphanedCColumnRecord> cleanOrphanedCColumns(final ExecutionContext etk, final int batchSize) {
+        final Map<DataElement, List<Long>> orphanedIdsByDataElement = new LinkedHashMap<>();
+        final List<OrphanedCColumnRecord> orphanedRecords = new ArrayList<>();
+
+        FileUtility.getFileDataElements(etk)
+            .forEach(dataElement -> {
+                final List<Long> trackingIds = findOrphanedFilesForDataElement(etk, dataElement);
+                if(!trackingIds.isEmpty()){
+                    orphanedIdsByDataElement.put(dataElement, trackingIds);
+                    trackingIds.forEach(trackingId -> orphanedRecords.add(new OrphanedCColumnRecord(dataElement, trackingId)));
+                }
+            });
+
+        final BatchProgress progress = new BatchProgress(etk.getLogger(),
+                "Clearing orphaned file references",
+                orphanedRecords.size());
+
+        orphanedIdsByDataElement.forEach((dataElement, trackingIds) -> {
+            for(int i = 0; i < trackingIds.size(); i += batchSize){
+                clearOrphanedRecords(etk,
+                        dataElement,
+                        trackingIds.subList(i, Math.min(i + batchSize, trackingIds.size())),
+                        progress);
+            }
+        });
+
+        progress.finish();
+
         return orphanedRecords;
     }
 
@@ -67,22 +115,41 @@ public final class OrphanedFileCColumnUtility {
     }
 
     /**
-     * This method updates (to null) all instances of a particular data element's column which are currently storing
-     * values of files which cannot be found in etk_file.
+     * This method updates (to null) a particular data element's column for a batch of records which are currently
+     * storing values of files which cannot be found in etk_file. The batch is committed in its own transaction.
      *
      * @param etk entellitrak execution context
-     * @param orphanedRecord the orphaned record
+     * @param dataElement the data element
+     * @param trackingIds the tracking ids of the records
+     * @param progress the progress of the cleanup
      */
-    private static void clearOrphanedRecord(final ExecutionContext etk, final OrphanedCColumnRecord orphanedRecord) {
-        final DataElement dataElement = orphanedRecord.getDataElement();
-
+    private static void clearOrphanedRecords(final ExecutionContext etk, final DataElement dataElement,
+            final List<Long> trackingIds, final BatchProgress progress) {
         final String tableName = dataElement.getDataObject().getTableName();
         final String columnName = dataElement.getColumnName();
-        etk.createSQL(String.format("UPDATE %s SET %s = NULL WHERE id = :trackingId",
+
+        final StringBuilder query = new StringBuilder(String.format("UPDATE %s SET %s = NULL WHERE",
                 tableName,
-                columnName))
-            .setParameter("trackingId", orphanedRecord.getTrackingId())
-            .execute();
+                columnName));
+        final Map<String, Object> parameters = new HashMap<>();
+        Utility.addLargeInClause("id", query, parameters, trackingIds);
+        /* Don't clear the column if the file has been re-attached since we looked for orphans */
+        query.append(String.format("AND NOT EXISTS(SELECT * FROM etk_file f WHERE f.id = %s.%s)",
+                tableName,
+                columnName));
+
+        try {
+            etk.doWork(etk2 -> etk2.createSQL(query.toString())
+                    .setParameter(parameters)
+                    .execute());
+            progress.addProcessed(trackingIds.size());
+        } catch (final WorkExecutionException e) {
+            etk.getLogger().error(String.format("Problem clearing orphaned files from %s.%s for tracking ids %s",
+                    tableName,
+                    columnName,
+                    trackingIds), e);
+            progress.addFailed(trackingIds.size());
+        }
     }
 
     /**
@@ -0,0 +1,22 @@
+package net.micropact.aea.du.utility.bulkDelete;
+
+/**
+ * The ways in which {@link BulkDeleter} can delete records.
+ *
+ * @author zmiller
+ */
+public enum BulkDeleteMode {
+
+	/**
+	 * Delete each record through core's delete operation, several records per transaction.
+	 * This is slow, but it runs the same event handlers and cleanup that deleting the record in the application does.
+	 */
+	RECORDS,
+
+	/**
+	 * Delete the records directly from the object tables (along with their child objects, M_ tables and files) using
+	 * set-based statements. This is much faster than {@link #RECORDS} but bypasses core entirely, so event handlers
+	 * are not run and workflow and audit records are left behind. It is intended for clearing out test data.
+	 */
+	FAST;
+}
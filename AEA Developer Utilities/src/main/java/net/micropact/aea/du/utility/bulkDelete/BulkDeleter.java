@@ -0,0 +1,444 @@
+package net.micropact.aea.du.utility.bulkDelete;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.IncorrectResultSizeDataAccessException;
+import com.entellitrak.InputValidationException;
+import com.entellitrak.WorkExecutionException;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataElementService;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataObjectService;
+import com.entellitrak.dynamic.DataObjectInstance;
+import com.entellitrak.dynamic.DynamicObjectService;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.query.QueryUtility;
+import net.micropact.aea.core.query.StreamingQuery;
+import net.micropact.aea.core.utility.DynamicObjectConfigurationUtils;
+import net.micropact.aea.core.utility.EtkDataUtils;
+import net.micropact.aea.du.utility.BatchProgress;
+import net.micropact.aea.du.utility.FileUtility;
+import net.micropact.aea.utility.UserUtility;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * Deletes all records of a root data object in batches. See {@link BulkDeleteMode} for the ways the records can be
+ * deleted.
+ *
+ * <p>
+ *  Each batch is committed in its own transaction. Records are always deleted in order of their id, and the caller
+ *  passes in the last id of the previous batch, so in {@link BulkDeleteMode#RECORDS} mode records which could not be
+ *  deleted are skipped instead of being attempted over and over. A {@link BulkDeleteMode#FAST} batch which fails
+ *  throws an exception instead, because none of its records were deleted. Since the records which remain in the database are exactly the ones which still need to be
+ *  deleted, an interrupted delete can be resumed by just starting it again.
+ * </p>
+ * <p>
+ *  The ids can also be split into partitions (by id modulo the number of partitions) so that several requests can
+ *  delete the records of the same data object at the same time without stepping on each other.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class BulkDeleter {
+
+	/**
+	 * The default number of records deleted per transaction in {@link BulkDeleteMode#RECORDS} mode.
+	 */
+	public static final int DEFAULT_RECORDS_BATCH_SIZE = 50;
+
+	/**
+	 * The default number of records deleted per transaction in {@link BulkDeleteMode#FAST} mode.
+	 */
+	public static final int DEFAULT_FAST_BATCH_SIZE = 1000;
+
+	/**
+	 * The largest number of records deleted per transaction. {@link BulkDeleteMode#FAST} binds every id of the batch
+	 * as a parameter, so this keeps the statements under SQL Server's limit of about 2100 parameters.
+	 */
+	public static final int MAX_BATCH_SIZE = (int) QueryUtility.IN_CLAUSE_LIMIT;
+
+	/** Hide constructor for Utility Class. */
+	private BulkDeleter(){}
+
+	/**
+	 * Get the default batch size for a mode.
+	 *
+	 * @param mode the mode
+	 * @return the default batch size
+	 */
+	public static int getDefaultBatchSize(final BulkDeleteMode mode){
+		return mode == BulkDeleteMode.FAST ? DEFAULT_FAST_BATCH_SIZE : DEFAULT_RECORDS_BATCH_SIZE;
+	}
+
+	/**
+	 * Delete all records of a root data object, one batch after another, writing the progress to the log.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @param mode how to delete the records
+	 * @param batchSize the number of records to delete per transaction
+	 * @return the progress of the delete once it has finished
+	 */
+	public static BatchProgress deleteAll(final ExecutionContext etk, final DataObject rootObject,
+			final BulkDeleteMode mode, final int batchSize){
+		final BatchProgress progress = new BatchProgress(etk.getLogger(),
+				String.format("Bulk deleting %s", rootObject.getBusinessKey()),
+				countRemaining(etk, rootObject, 1, 0));
+
+		long afterId = 0;
+		BulkDeleteBatchResult result;
+
+		do {
+			result = deleteBatch(etk, rootObject, mode, batchSize, afterId, 1, 0);
+			progress.addProcessed(result.getDeleted());
+			progress.addFailed(result.getFailed());
+			afterId = result.getLastId();
+		} while(result.hasMore());
+
+		progress.finish();
+
+		return progress;
+	}
+
+	/**
+	 * Delete the next batch of records of a root data object.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @param mode how to delete the records
+	 * @param batchSize the maximum number of records to delete. It is reduced to {@link #MAX_BATCH_SIZE} if it is larger.
+	 * @param afterId only records with an id greater than this will be deleted. Pass the last id of the previous batch.
+	 * @param partitionCount the number of partitions the ids are split into
+	 * @param partition the 0-based partition to delete records from
+	 * @return the result of deleting the batch
+	 */
+	public static BulkDeleteBatchResult deleteBatch(final ExecutionContext etk, final DataObject rootObject,
+			final BulkDeleteMode mode, final int batchSize, final long afterId, final int partitionCount,
+			final int partition){
+		if(!EtkDataUtils.isRootDataObject(etk, rootObject)){
+			throw new GeneralRuntimeException(String.format("%s is not a root data object", rootObject.getBusinessKey()));
+		}
+
+		final int limitedBatchSize = Math.min(batchSize, MAX_BATCH_SIZE);
+
+		final List<Long> trackingIds = QueryUtility.mapsToLongs(new StreamingQuery(etk,
+				String.format("SELECT id FROM %s WHERE id > :afterId AND %s",
+						rootObject.getTableName(),
+						getPartitionCondition(etk, "id")),
+				"ID")
+				.setParameter("afterId", afterId)
+				.setParameter("partitionCount", partitionCount)
+				.setParameter("partition", partition)
+				.setFetchSize(limitedBatchSize)
+				.streamMaps()
+				.limit(limitedBatchSize)
+				.collect(Collectors.toList()));
+
+		if(trackingIds.isEmpty()){
+			return new BulkDeleteBatchResult(0, 0, afterId, false);
+		}
+
+		final int deleted = mode == BulkDeleteMode.FAST
+				? deleteBatchFast(etk, rootObject, trackingIds)
+				: deleteBatchRecords(etk, rootObject, trackingIds);
+
+		return new BulkDeleteBatchResult(deleted,
+				trackingIds.size() - deleted,
+				trackingIds.get(trackingIds.size() - 1),
+				trackingIds.size() == limitedBatchSize);
+	}
+
+	/**
+	 * Count the records of a root data object which have not been deleted yet.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @param partitionCount the number of partitions the ids are split into
+	 * @param partition the 0-based partition to count
+	 * @return the number of records
+	 */
+	public static long countRemaining(final ExecutionContext etk, final DataObject rootObject,
+			final int partitionCount, final int partition){
+		try {
+			return etk.createSQL(String.format("SELECT COUNT(*) FROM %s WHERE %s",
+					rootObject.getTableName(),
+					getPartitionCondition(etk, "id")))
+					.setParameter("partitionCount", partitionCount)
+					.setParameter("partition", partition)
+					.fetchLong();
+		} catch (final IncorrectResultSizeDataAccessException e) {
+			throw new GeneralRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Get the SQL condition which restricts a column to the :partition parameter modulo :partitionCount.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param columnName the column
+	 * @return the condition
+	 */
+	private static String getPartitionCondition(final ExecutionContext etk, final String columnName){
+		return Utility.isSqlServer(etk)
+				? String.format("%s %% :partitionCount = :partition", columnName)
+				: String.format("MOD(%s, :partitionCount) = :partition", columnName);
+	}
+
+	/**
+	 * Delete records through core's delete operation. All of the records are deleted in a single transaction, but if
+	 * that fails they are deleted one at a time so that a single bad record does not prevent the others from being
+	 * deleted.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @param trackingIds the ids of the records
+	 * @return the number of records which were deleted
+	 */
+	private static int deleteBatchRecords(final ExecutionContext etk, final DataObject rootObject,
+			final List<Long> trackingIds){
+		final Class<? extends DataObjectInstance> objectClass;
+
+		try {
+			objectClass = DynamicObjectConfigurationUtils.getDynamicClass(etk, rootObject);
+		} catch (final ClassNotFoundException e) {
+			throw new GeneralRuntimeException(e);
+		}
+
+		try {
+			etk.doWork(etkWork -> {
+				for(final Long trackingId : trackingIds){
+					deleteRecord(etk, etkWork, objectClass, trackingId);
+				}
+			});
+
+			return trackingIds.size();
+		} catch (final WorkExecutionException e) {
+			int deleted = 0;
+
+			for(final Long trackingId : trackingIds){
+				try {
+					etk.doWork(etkWork -> deleteRecord(etk, etkWork, objectClass, trackingId));
+					deleted++;
+				} catch (final WorkExecutionException e2) {
+					etk.getLogger().error(String.format("Error attempting to delete object of type %s with trackingId %s",
+							rootObject.getBusinessKey(),
+							trackingId), e2);
+				}
+			}
+
+			return deleted;
+		}
+	}
+
+	/**
+	 * Delete a single record through core's delete operation.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param etkWork the execution context of the current transaction
+	 * @param objectClass the dynamic class of the record
+	 * @param trackingId the id of the record
+	 * @throws ApplicationException If the record could not be deleted
+	 */
+	private static void deleteRecord(final ExecutionContext etk, final ExecutionContext etkWork,
+			final Class<? extends DataObjectInstance> objectClass, final Long trackingId) throws ApplicationException{
+		final DynamicObjectService objectService = etkWork.getDynamicObjectService();
+		try {
+			objectService.createDeleteOperation(objectService.get(objectClass, trackingId))
+			.setUser(UserUtility.getCurrentUserOrServiceAccount(etk))
+			.delete();
+		} catch (final InputValidationException e) {
+			throw new ApplicationException(e);
+		}
+	}
+
+	/**
+	 * Delete records directly from the database. Children are deleted before their parents, and for each object the
+	 * M_ tables and files are deleted before the object's own table. Every statement deletes the rows for the whole
+	 * batch at once. If anything fails the whole batch is rolled back and an exception is thrown, so that the caller
+	 * does not move on past records which are still in the database.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @param trackingIds the ids of the records
+	 * @return the number of records which were deleted
+	 */
+	private static int deleteBatchFast(final ExecutionContext etk, final DataObject rootObject,
+			final List<Long> trackingIds){
+		final DataElementService dataElementService = etk.getDataElementService();
+		final List<DataObject> objectTree = getObjectTreeChildrenFirst(etk, rootObject);
+
+		try {
+			etk.doWork(etkWork -> {
+				for(final DataObject dataObject : objectTree){
+					final String tableName = dataObject.getTableName();
+
+					final Map<String, Object> parameters = new HashMap<>();
+					final StringBuilder selector = new StringBuilder();
+					Utility.addLargeInClause(Objects.equals(dataObject.getBusinessKey(), rootObject.getBusinessKey())
+							? "id"
+							: "id_base",
+							selector,
+							parameters,
+							trackingIds);
+
+					final String objectIds = String.format("SELECT id FROM %s WHERE %s", tableName, selector);
+
+					for(final DataElement dataElement : dataElementService.getDataElements(dataObject)){
+						if(dataElement.isMultiValued().booleanValue()){
+							etkWork.createSQL(String.format("DELETE FROM %s WHERE id_owner IN (%s)",
+									dataElement.getTableName(),
+									objectIds))
+							.setParameter(parameters)
+							.execute();
+						}
+					}
+
+					deleteFiles(etkWork, tableName, objectIds, parameters);
+
+					etkWork.createSQL(String.format("DELETE FROM %s WHERE %s", tableName, selector))
+					.setParameter(parameters)
+					.execute();
+				}
+			});
+
+			return trackingIds.size();
+		} catch (final WorkExecutionException e) {
+			throw new GeneralRuntimeException(String.format("Error attempting to delete objects of type %s with trackingIds %s through %s",
+					rootObject.getBusinessKey(),
+					trackingIds.get(0),
+					trackingIds.get(trackingIds.size() - 1)), e);
+		}
+	}
+
+	/**
+	 * Delete the files attached to records of a data object. Files stored in Document Management have to go through
+	 * the Document Management service, the rest are deleted directly from etk_file.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param tableName the table of the data object
+	 * @param objectIds a query which selects the ids of the records
+	 * @param parameters the parameters of objectIds
+	 */
+	private static void deleteFiles(final ExecutionContext etk, final String tableName, final String objectIds,
+			final Map<String, Object> parameters){
+		final Map<String, Object> fileParameters = new HashMap<>(parameters);
+		fileParameters.put("objectType", tableName);
+
+		QueryUtility.mapsToLongs(etk.createSQL(String.format("SELECT id FROM etk_file WHERE object_type = :objectType AND etk_dm_resource_id IS NOT NULL AND reference_id IN (%s) ORDER BY id",
+				objectIds))
+				.setParameter(fileParameters)
+				.fetchList())
+		.forEach(fileId -> FileUtility.deleteFile(etk, fileId));
+
+		etk.createSQL(String.format("DELETE FROM etk_file WHERE object_type = :objectType AND etk_dm_resource_id IS NULL AND reference_id IN (%s)",
+				objectIds))
+		.setParameter(fileParameters)
+		.execute();
+	}
+
+	/**
+	 * Get a root data object and all of its descendants, with every child ordered before its parent.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param rootObject the root data object
+	 * @return the data objects
+	 */
+	private static List<DataObject> getObjectTreeChildrenFirst(final ExecutionContext etk, final DataObject rootObject){
+		final DataObjectService dataObjectService = etk.getDataObjectService();
+
+		final Map<String, Integer> depths = new HashMap<>();
+		final List<DataObject> dataObjects = new ArrayList<>();
+
+		for(final DataObject dataObject : dataObjectService.getDataObjects()){
+			int depth = 0;
+			DataObject current = dataObject;
+
+			while(!EtkDataUtils.isRootDataObject(etk, current)){
+				current = dataObjectService.getParent(current);
+				depth++;
+			}
+
+			if(Objects.equals(current.getBusinessKey(), rootObject.getBusinessKey())){
+				depths.put(dataObject.getBusinessKey(), depth);
+				dataObjects.add(dataObject);
+			}
+		}
+
+		dataObjects.sort(Comparator.comparing((final DataObject dataObject) -> depths.get(dataObject.getBusinessKey()))
+				.reversed());
+		return dataObjects;
+	}
+
+	/**
+	 * The result of deleting a single batch.
+	 *
+	 * @author zmiller
+	 */
+	public static final class BulkDeleteBatchResult {
+
+		private final int deleted;
+		private final int failed;
+		private final long lastId;
+		private final boolean more;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theDeleted the number of records which were deleted
+		 * @param theFailed the number of records which could not be deleted
+		 * @param theLastId the largest id in the batch. The next batch should start after it.
+		 * @param hasMore whether there may be more records after this batch
+		 */
+		BulkDeleteBatchResult(final int theDeleted, final int theFailed, final long theLastId, final boolean hasMore){
+			deleted = theDeleted;
+			failed = theFailed;
+			lastId = theLastId;
+			more = hasMore;
+		}
+
+		/**
+		 * Get the number of records which were deleted.
+		 *
+		 * @return the number of records
+		 */
+		public int getDeleted(){
+			return deleted;
+		}
+
+		/**
+		 * Get the number of records which could not be deleted.
+		 *
+		 * @return the number of records
+		 */
+		public int getFailed(){
+			return failed;
+		}
+
+		/**
+		 * Get the largest id in the batch.
+		 *
+		 * @return the id
+		 */
+		public long getLastId(){
+			return lastId;
+		}
+
+		/**
+		 * Get whether there may be more records after this batch.
+		 *
+		 * @return whether there may be more records
+		 */
+		public boolean hasMore(){
+			return more;
+		}
+	}
+}
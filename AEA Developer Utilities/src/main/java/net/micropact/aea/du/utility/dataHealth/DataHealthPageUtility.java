@@ -0,0 +1,74 @@
+package net.micropact.aea.du.utility.dataHealth;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
+
+import net.micropact.aea.core.cache.AeaCoreConfiguration;
+
+/**
+ * Functionality shared by pages which display the findings of an {@link IDataHealthScanner}.
+ *
+ * <p>
+ *  The pages only display the stored findings; scanning is normally left to the
+ *  {@link net.micropact.aea.du.job.DataHealthScanJob}. The pages can also start a scan, which is done by the
+ *  DataHealthScanJavascript public resource sending a separate request for each data object to
+ *  {@link net.micropact.aea.du.page.dataHealthScanAjax.DataHealthScanAjaxController}.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class DataHealthPageUtility {
+
+    /**
+     * Utility classes do not need public constructors.
+     */
+    private DataHealthPageUtility() {
+    }
+
+    /**
+     * Get the stored findings to display on a page.
+     * Also puts the information needed to start a scan from the page into the response (all in JSON format): the time
+     * of the oldest finding as scannedAt, the scanner key as scannerKey, the CSRF token as csrfToken and the maximum
+     * number of data objects to scan at the same time as maxConcurrentScans.
+     *
+     * @param etk entellitrak page execution context
+     * @param response the response
+     * @param scanner the scanner
+     * @return the findings
+     */
+    public static DataHealthScanResults getResults(final PageExecutionContext etk,
+            final TextResponse response,
+            final IDataHealthScanner scanner) {
+        final DataHealthScanResults results = DataHealthScanEngine.getResults(etk, scanner);
+
+        final Gson gson = new Gson();
+        final Date scannedAt = results.getOldestScannedAt();
+        response.put("scannedAt", gson.toJson(scannedAt == null
+                ? null
+                : new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(scannedAt)));
+        response.put("scannerKey", gson.toJson(scanner.getKey()));
+        response.put("csrfToken", gson.toJson(etk.getCSRFToken()));
+        response.put("maxConcurrentScans", gson.toJson(getMaxConcurrentScans(etk)));
+
+        return results;
+    }
+
+    /**
+     * Get the maximum number of data objects to scan at the same time, as configured by the
+     * du.dataHealth.maxConcurrentScans AEA CORE Configuration.
+     *
+     * @param etk entellitrak page execution context
+     * @return the maximum number of data objects to scan at the same time
+     */
+    private static long getMaxConcurrentScans(final PageExecutionContext etk) {
+        final Long maxConcurrentScans = AeaCoreConfiguration.getDuDataHealthMaxConcurrentScans(etk);
+
+        return maxConcurrentScans == null || maxConcurrentScans < 1
+                ? 1
+                : maxConcurrentScans;
+    }
+}
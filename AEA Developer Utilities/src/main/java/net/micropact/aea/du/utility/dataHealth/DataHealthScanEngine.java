@@ -0,0 +1,434 @@
+package net.micropact.aea.du.utility.dataHealth;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.IncorrectResultSizeDataAccessException;
+import com.entellitrak.WorkExecutionException;
+import com.entellitrak.configuration.DataObject;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.reflection.InterfaceImplementationUtility;
+import net.micropact.aea.core.utility.SqlUtils;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * Runs {@link IDataHealthScanner}s and stores their findings.
+ *
+ * <p>
+ *  The findings are stored in the AEA_DATA_HEALTH_FINDING table (created by the AEA Utility Bundle's component setup),
+ *  with one row per scanner and data object, so pages can show the most recent findings without querying the data
+ *  again and the findings survive cache clears and restarts. The row of each data object is replaced in its own unit
+ *  of work as soon as that data object has been scanned, so a scan which fails part way through keeps the findings of
+ *  the data objects before it, and scans running at the same time only replace the findings of the data objects which
+ *  they scanned.
+ * </p>
+ * <p>
+ *  This class scans data objects one after another on the calling thread, since an {@link ExecutionContext} must not
+ *  be shared between threads. The data health pages scan several data objects at the same time by sending a separate
+ *  request for each data object (see {@link net.micropact.aea.du.page.dataHealthScanAjax.DataHealthScanAjaxController}).
+ * </p>
+ * <p>
+ *  Each row also stores a change marker: the deployed tracking configuration and a value read from the database which
+ *  changes when the data object's table is modified. A scan of only the changed data objects skips the data objects
+ *  whose marker is the same as when they were last scanned.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class DataHealthScanEngine {
+
+    /**
+     * Utility classes do not need public constructors.
+     */
+    private DataHealthScanEngine() {
+    }
+
+    /**
+     * Get every scanner in the system.
+     *
+     * @param etk entellitrak execution context
+     * @return the scanners
+     */
+    public static List<IDataHealthScanner> getScanners(final ExecutionContext etk) {
+        final List<IDataHealthScanner> scanners = new ArrayList<>();
+
+        for (final Class<? extends IDataHealthScanner> scannerClass
+                : InterfaceImplementationUtility.getInterfaceImplementations(etk, IDataHealthScanner.class)) {
+            try {
+                scanners.add(scannerClass.getConstructor().newInstance());
+            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
+                    | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+                throw new GeneralRuntimeException(e);
+            }
+        }
+
+        return scanners;
+    }
+
+    /**
+     * Get a scanner by its key.
+     *
+     * @param etk entellitrak execution context
+     * @param scannerKey the key of the scanner
+     * @return the scanner
+     */
+    public static IDataHealthScanner getScanner(final ExecutionContext etk, final String scannerKey) {
+        return getScanners(etk)
+                .stream()
+                .filter(scanner -> Objects.equals(scannerKey, scanner.getKey()))
+                .findAny()
+                .orElseThrow(() -> new GeneralRuntimeException(String.format("Could not find data health scanner with key \"%s\"",
+                        scannerKey)));
+    }
+
+    /**
+     * Get the stored findings of a scanner without scanning anything.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @return the findings
+     */
+    public static DataHealthScanResults getResults(final ExecutionContext etk, final IDataHealthScanner scanner) {
+        final DataHealthScanResults results = new DataHealthScanResults();
+
+        for (final Map<String, Object> row : etk.createSQL("SELECT DATA_OBJECT_KEY, SCANNED_AT, FINDINGS FROM aea_data_health_finding WHERE scanner_key = :scannerKey")
+                .setParameter("scannerKey", scanner.getKey())
+                .fetchList()) {
+            results.putScan((String) row.get("DATA_OBJECT_KEY"),
+                    ((Date) row.get("SCANNED_AT")).getTime(),
+                    parseFindings(SqlUtils.clobToString(row.get("FINDINGS"))));
+        }
+
+        return results;
+    }
+
+    /**
+     * Get the data objects which need to be scanned, and delete the findings of data objects which no longer exist
+     * (or which the scanner no longer applies to).
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @param changedOnly whether to only return data objects which have never been scanned, or whose change marker is
+     *          different from when they were last scanned. Otherwise every data object the scanner applies to is
+     *          returned.
+     * @return the data objects to scan
+     */
+    public static List<DataObject> getDataObjectsToScan(final ExecutionContext etk, final IDataHealthScanner scanner,
+            final boolean changedOnly) {
+        final List<DataObject> dataObjects = etk.getDataObjectService()
+                .getDataObjects()
+                .stream()
+                .filter(dataObject -> scanner.appliesTo(etk, dataObject))
+                .collect(Collectors.toList());
+
+        deleteOtherFindings(etk, scanner, dataObjects.stream()
+                .map(DataObject::getBusinessKey)
+                .collect(Collectors.toSet()));
+
+        if (!changedOnly) {
+            return dataObjects;
+        } else {
+            final Map<String, String> storedChangeMarkers = getStoredChangeMarkers(etk, scanner);
+            final long trackingConfigId = getTrackingConfigId(etk);
+
+            return dataObjects.stream()
+                    .filter(dataObject -> {
+                        final String changeMarker = getChangeMarker(etk, trackingConfigId, dataObject);
+
+                        return changeMarker == null
+                                || !changeMarker.equals(storedChangeMarkers.get(dataObject.getBusinessKey()));
+                    })
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Scan every data object that the scanner applies to. Findings of data objects which no longer exist (or which
+     * the scanner no longer applies to) are deleted.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @return the findings
+     */
+    public static DataHealthScanResults scanAll(final ExecutionContext etk, final IDataHealthScanner scanner) {
+        scanAndStore(etk, scanner, getDataObjectsToScan(etk, scanner, false));
+
+        return getResults(etk, scanner);
+    }
+
+    /**
+     * Scan only the data objects which have changed since they were last scanned, including data objects which have
+     * never been scanned. Findings of data objects which no longer exist (or which the scanner no longer applies to)
+     * are deleted.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @return the findings
+     */
+    public static DataHealthScanResults scanChanged(final ExecutionContext etk, final IDataHealthScanner scanner) {
+        scanAndStore(etk, scanner, getDataObjectsToScan(etk, scanner, true));
+
+        return getResults(etk, scanner);
+    }
+
+    /**
+     * Scan specific data objects. The findings of other data objects are kept.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @param dataObjects the data objects. Data objects which the scanner does not apply to are skipped.
+     */
+    public static void scan(final ExecutionContext etk, final IDataHealthScanner scanner,
+            final Collection<DataObject> dataObjects) {
+        scanAndStore(etk, scanner,
+                dataObjects.stream()
+                .filter(dataObject -> scanner.appliesTo(etk, dataObject))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Delete the findings of every data object which is not in a collection.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @param dataObjectBusinessKeys the business keys of the data objects whose findings should be kept
+     */
+    private static void deleteOtherFindings(final ExecutionContext etk, final IDataHealthScanner scanner,
+            final Set<String> dataObjectBusinessKeys) {
+        final List<String> keysToDelete = etk.createSQL("SELECT DATA_OBJECT_KEY FROM aea_data_health_finding WHERE scanner_key = :scannerKey")
+                .setParameter("scannerKey", scanner.getKey())
+                .fetchList()
+                .stream()
+                .map(row -> (String) row.get("DATA_OBJECT_KEY"))
+                .filter(dataObjectBusinessKey -> !dataObjectBusinessKeys.contains(dataObjectBusinessKey))
+                .collect(Collectors.toList());
+
+        if (!keysToDelete.isEmpty()) {
+            final Map<String, Object> parameters = new HashMap<>();
+            parameters.put("scannerKey", scanner.getKey());
+
+            final StringBuilder query = new StringBuilder("DELETE FROM aea_data_health_finding WHERE scanner_key = :scannerKey AND");
+            Utility.addLargeInClause("data_object_key", query, parameters, keysToDelete);
+
+            try {
+                etk.doWork(workEtk -> workEtk.createSQL(query.toString())
+                        .setParameter(parameters)
+                        .execute());
+            } catch (final WorkExecutionException e) {
+                throw new GeneralRuntimeException(String.format("Could not delete old findings of scanner %s",
+                        scanner.getKey()),
+                        e);
+            }
+        }
+    }
+
+    /**
+     * Scan data objects one after another, replacing the stored findings of each data object as soon as it has been
+     * scanned. If a data object fails, the remaining data objects are still scanned before the first failure is
+     * thrown.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @param dataObjects the data objects to scan
+     */
+    private static void scanAndStore(final ExecutionContext etk, final IDataHealthScanner scanner,
+            final List<DataObject> dataObjects) {
+        final long trackingConfigId = getTrackingConfigId(etk);
+        GeneralRuntimeException failure = null;
+
+        for (final DataObject dataObject : dataObjects) {
+            /* The timestamp and change marker are taken before scanning, since the data may change while it runs. */
+            final Date scannedAt = new Date();
+            final String changeMarker = getChangeMarker(etk, trackingConfigId, dataObject);
+
+            try {
+                final String findings = new Gson().toJson(scanner.scan(etk, dataObject));
+
+                etk.doWork(workEtk -> {
+                    workEtk.createSQL("DELETE FROM aea_data_health_finding WHERE scanner_key = :scannerKey AND data_object_key = :dataObjectKey")
+                    .setParameter("scannerKey", scanner.getKey())
+                    .setParameter("dataObjectKey", dataObject.getBusinessKey())
+                    .execute();
+
+                    workEtk.createSQL("INSERT INTO aea_data_health_finding(scanner_key, data_object_key, scanned_at, change_marker, findings) VALUES(:scannerKey, :dataObjectKey, :scannedAt, :changeMarker, :findings)")
+                    .setParameter("scannerKey", scanner.getKey())
+                    .setParameter("dataObjectKey", dataObject.getBusinessKey())
+                    .setParameter("scannedAt", scannedAt)
+                    .setParameter("changeMarker", changeMarker)
+                    .setParameter("findings", findings)
+                    .execute();
+                });
+            } catch (final WorkExecutionException | RuntimeException e) {
+                etk.getLogger().error(String.format("Scanner %s failed to scan %s",
+                        scanner.getKey(),
+                        dataObject.getBusinessKey()),
+                        e);
+
+                if (failure == null) {
+                    failure = new GeneralRuntimeException(String.format("Scanner %s failed to scan %s",
+                            scanner.getKey(),
+                            dataObject.getBusinessKey()),
+                            e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Get the change markers which were stored when the data objects were last scanned.
+     *
+     * @param etk entellitrak execution context
+     * @param scanner the scanner
+     * @return map from data object business key to its stored change marker
+     */
+    private static Map<String, String> getStoredChangeMarkers(final ExecutionContext etk,
+            final IDataHealthScanner scanner) {
+        final Map<String, String> changeMarkers = new HashMap<>();
+
+        for (final Map<String, Object> row : etk.createSQL("SELECT DATA_OBJECT_KEY, CHANGE_MARKER FROM aea_data_health_finding WHERE scanner_key = :scannerKey")
+                .setParameter("scannerKey", scanner.getKey())
+                .fetchList()) {
+            changeMarkers.put((String) row.get("DATA_OBJECT_KEY"), (String) row.get("CHANGE_MARKER"));
+        }
+
+        return changeMarkers;
+    }
+
+    /**
+     * Get the id of the deployed tracking configuration. It is part of every change marker so that data objects are
+     * scanned again after apply changes, since their elements may have changed even if their data has not.
+     *
+     * @param etk entellitrak execution context
+     * @return the deployed tracking configuration id
+     */
+    private static long getTrackingConfigId(final ExecutionContext etk) {
+        try {
+            return Utility.getTrackingConfigIdCurrent(etk);
+        } catch (final IncorrectResultSizeDataAccessException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get a value which changes whenever the table of a data object is modified. The value comes from:
+     * <ul>
+     *  <li>SQL Server: the last time the table was modified, from sys.dm_db_index_usage_stats. This is cleared when
+     *      the database restarts.</li>
+     *  <li>PostgreSQL: the number of rows inserted, updated and deleted, from pg_stat_user_tables.</li>
+     *  <li>Oracle: the number of rows and the highest ORA_ROWSCN of the table. This reads the whole table, but is
+     *      still much cheaper than the scans.</li>
+     * </ul>
+     *
+     * @param etk entellitrak execution context
+     * @param trackingConfigId the deployed tracking configuration id
+     * @param dataObject the data object
+     * @return the change marker, or null if it could not be determined, in which case the data object must always be
+     *          treated as changed
+     */
+    private static String getChangeMarker(final ExecutionContext etk, final long trackingConfigId,
+            final DataObject dataObject) {
+        final String tableName = dataObject.getTableName();
+        final AtomicReference<String> tableMarker = new AtomicReference<>();
+
+        /* The marker is read in its own unit of work so that a failure (such as a missing permission on SQL Server's
+         * dynamic management views) can not affect the rest of the transaction. */
+        try {
+            etk.doWork(workEtk -> {
+                if (Utility.isSqlServer(workEtk)) {
+                    tableMarker.set(workEtk.createSQL("SELECT CONVERT(VARCHAR(30), MAX(last_user_update), 126) FROM sys.dm_db_index_usage_stats WHERE database_id = DB_ID() AND object_id = OBJECT_ID(:tableName)")
+                            .setParameter("tableName", tableName)
+                            .fetchString());
+                } else if (Utility.isPostgreSQL(workEtk)) {
+                    tableMarker.set(workEtk.createSQL("SELECT CAST(n_tup_ins + n_tup_upd + n_tup_del AS VARCHAR) FROM pg_stat_user_tables WHERE schemaname = current_schema() AND relname = LOWER(:tableName)")
+                            .setParameter("tableName", tableName)
+                            .fetchString());
+                } else {
+                    tableMarker.set(workEtk.createSQL(String.format("SELECT COUNT(*) || ':' || MAX(ORA_ROWSCN) FROM %s",
+                            tableName))
+                            .fetchString());
+                }
+            });
+        } catch (final WorkExecutionException e) {
+            etk.getLogger().warn(String.format("Could not determine whether table %s has changed, it will be scanned again",
+                    tableName),
+                    e);
+        }
+
+        return tableMarker.get() == null
+                ? null
+                : String.format("%s:%s", trackingConfigId, tableMarker.get());
+    }
+
+    /**
+     * Convert the stored JSON of the findings of a data object back into the form returned by
+     * {@link IDataHealthScanner#scan(ExecutionContext, DataObject)}.
+     *
+     * @param json the JSON
+     * @return the findings
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> parseFindings(final String json) {
+        return (List<Map<String, Object>>) fromJsonElement(new Gson().fromJson(json, JsonArray.class));
+    }
+
+    /**
+     * Convert a JSON element to Maps, Lists, Strings, Booleans and Numbers. Numbers are kept exactly as they were
+     * written, so IDs do not turn into Doubles.
+     *
+     * @param element the JSON element
+     * @return the value
+     */
+    private static Object fromJsonElement(final JsonElement element) {
+        if (element == null || element.isJsonNull()) {
+            return null;
+        } else if (element.isJsonArray()) {
+            final List<Object> list = new ArrayList<>();
+
+            for (final JsonElement item : element.getAsJsonArray()) {
+                list.add(fromJsonElement(item));
+            }
+
+            return list;
+        } else if (element.isJsonObject()) {
+            final JsonObject jsonObject = element.getAsJsonObject();
+            final Map<String, Object> map = new LinkedHashMap<>();
+
+            for (final Map.Entry<String, JsonElement> entry : jsonObject.entrySet()) {
+                map.put(entry.getKey(), fromJsonElement(entry.getValue()));
+            }
+
+            return map;
+        } else {
+            final JsonPrimitive primitive = element.getAsJsonPrimitive();
+
+            if (primitive.isBoolean()) {
+                return primitive.getAsBoolean();
+            } else if (primitive.isNumber()) {
+                return primitive.getAsNumber();
+            } else {
+                return primitive.getAsString();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package net.micropact.aea.du.utility.dataHealth;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * The stored findings of a single {@link IDataHealthScanner}. Each data object is scanned (and therefore timestamped)
+ * separately, so that some data objects can be re-scanned without re-scanning all of them.
+ *
+ * @author zmiller
+ */
+public final class DataHealthScanResults {
+
+    /** Map from data object business key to the most recent scan of that data object. */
+    private final TreeMap<String, DataObjectScan> scansByDataObject = new TreeMap<>();
+
+    /**
+     * Get whether any data object has been scanned.
+     *
+     * @return whether any data object has been scanned
+     */
+    public boolean isEmpty() {
+        return scansByDataObject.isEmpty();
+    }
+
+    /**
+     * Get the findings of every data object, ordered by data object business key.
+     *
+     * @return the findings
+     */
+    public List<Map<String, Object>> getFindings() {
+        final List<Map<String, Object>> findings = new ArrayList<>();
+
+        for (final DataObjectScan scan : scansByDataObject.values()) {
+            findings.addAll(scan.findings);
+        }
+
+        return findings;
+    }
+
+    /**
+     * Get when a data object was last scanned.
+     *
+     * @param dataObjectBusinessKey the business key of the data object
+     * @return when the data object was last scanned, or null if it has not been scanned
+     */
+    public Date getScannedAt(final String dataObjectBusinessKey) {
+        final DataObjectScan scan = scansByDataObject.get(dataObjectBusinessKey);
+
+        return scan == null ? null : new Date(scan.scannedAtMillis);
+    }
+
+    /**
+     * Get when the least recently scanned data object was scanned. Every finding is at least this recent.
+     *
+     * @return when the least recently scanned data object was scanned, or null if nothing has been scanned
+     */
+    public Date getOldestScannedAt() {
+        final OptionalLong oldest = scansByDataObject.values()
+                .stream()
+                .mapToLong(scan -> scan.scannedAtMillis)
+                .min();
+
+        return oldest.isPresent() ? new Date(oldest.getAsLong()) : null;
+    }
+
+    /**
+     * Replace the findings of a data object.
+     *
+     * @param dataObjectBusinessKey the business key of the data object
+     * @param scannedAtMillis when the data object was scanned
+     * @param findings the findings
+     */
+    void putScan(final String dataObjectBusinessKey, final long scannedAtMillis,
+            final List<Map<String, Object>> findings) {
+        scansByDataObject.put(dataObjectBusinessKey, new DataObjectScan(scannedAtMillis, findings));
+    }
+
+    /**
+     * The findings of a single data object.
+     *
+     * @author zmiller
+     */
+    private static final class DataObjectScan {
+
+        private final long scannedAtMillis;
+        private final List<Map<String, Object>> findings;
+
+        /**
+         * Simple constructor.
+         *
+         * @param theScannedAtMillis when the data object was scanned
+         * @param theFindings the findings
+         */
+        DataObjectScan(final long theScannedAtMillis, final List<Map<String, Object>> theFindings) {
+            scannedAtMillis = theScannedAtMillis;
+            findings = new ArrayList<>(theFindings);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package net.micropact.aea.du.utility.dataHealth;
+
+import java.util.List;
+import java.util.Map;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataObject;
+
+/**
+ * A check of the data of a data object, such as finding Date fields which contain a time. Scanners are run by the
+ * {@link DataHealthScanEngine}, which stores their findings so that pages do not have to query every table each time
+ * they are opened.
+ *
+ * <p>
+ *  Implementations must have a public no-argument constructor. They are found automatically by
+ *  {@link DataHealthScanEngine#getScanners(ExecutionContext)}, so adding a new check only requires implementing this
+ *  interface.
+ * </p>
+ *
+ * @author zmiller
+ */
+public interface IDataHealthScanner {
+
+    /**
+     * Get a key which uniquely identifies this scanner. It is used to store the findings.
+     *
+     * @return the key
+     */
+    String getKey();
+
+    /**
+     * Determine whether this scanner has anything to check for a data object. Data objects which it does not apply
+     * to are never scanned.
+     *
+     * @param etk entellitrak execution context
+     * @param dataObject the data object
+     * @return whether the data object should be scanned
+     */
+    boolean appliesTo(ExecutionContext etk, DataObject dataObject);
+
+    /**
+     * Scan the data of a single data object. Implementations must not keep any state between calls.
+     *
+     * @param etk entellitrak execution context
+     * @param dataObject the data object
+     * @return the findings. The findings are stored as JSON, so they must only contain Strings, numbers, booleans,
+     *          {@link List}s and {@link Map}s. When they are read back numbers are only guaranteed to be
+     *          {@link Number}s, not the same class that was stored.
+     */
+    List<Map<String, Object>> scan(ExecutionContext etk, DataObject dataObject);
+}
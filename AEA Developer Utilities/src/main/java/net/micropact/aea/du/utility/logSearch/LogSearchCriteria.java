@@ -0,0 +1,103 @@
+package net.micropact.aea.du.utility.logSearch;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The criteria for a search performed by {@link LogSearcher}.
+ *
+ * @author zmiller
+ */
+public class LogSearchCriteria {
+
+	private final Pattern pattern;
+	private final LocalDateTime from;
+	private final LocalDateTime to;
+	private final Set<String> levels;
+	private final int contextLines;
+	private final int offset;
+	private final int pageSize;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param query the text to search for. If it is blank, all lines (which meet the other criteria) match
+	 * @param isRegex whether query is a regular expression or literal text
+	 * @param isCaseSensitive whether the search is case sensitive
+	 * @param theFrom only lines logged at or after this time will match. May be null
+	 * @param theTo only lines logged at or before this time will match. May be null
+	 * @param theLevels only lines logged at these levels (such as ERROR) will match. If empty, all levels match
+	 * @param theContextLines the number of lines before and after each match to return
+	 * @param theOffset the number of matches to skip
+	 * @param thePageSize the maximum number of matches to return
+	 */
+	public LogSearchCriteria(final String query,
+			final boolean isRegex,
+			final boolean isCaseSensitive,
+			final LocalDateTime theFrom,
+			final LocalDateTime theTo,
+			final Set<String> theLevels,
+			final int theContextLines,
+			final int theOffset,
+			final int thePageSize) {
+		pattern = query == null || query.isEmpty()
+				? null
+				: Pattern.compile(isRegex ? query : Pattern.quote(query),
+						isCaseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+		from = theFrom;
+		to = theTo;
+		levels = theLevels == null ? Collections.emptySet() : theLevels;
+		contextLines = theContextLines;
+		offset = theOffset;
+		pageSize = thePageSize;
+	}
+
+	/**
+	 * Determine whether a line meets the criteria.
+	 *
+	 * @param line the line
+	 * @param entryTime the time of the log entry the line belongs to. May be null if it is not known
+	 * @param entryLevel the level of the log entry the line belongs to. May be null if it is not known
+	 * @return whether the line matches
+	 */
+	boolean matches(final String line, final LocalDateTime entryTime, final String entryLevel) {
+		if (from != null && (entryTime == null || entryTime.isBefore(from))) {
+			return false;
+		} else if (to != null && (entryTime == null || entryTime.isAfter(to))) {
+			return false;
+		} else if (!levels.isEmpty() && !levels.contains(entryLevel)) {
+			return false;
+		} else {
+			return pattern == null || pattern.matcher(line).find();
+		}
+	}
+
+	/**
+	 * Get the number of lines of context to return before and after each match.
+	 *
+	 * @return the number of lines of context
+	 */
+	int getContextLines() {
+		return contextLines;
+	}
+
+	/**
+	 * Get the number of matches to skip.
+	 *
+	 * @return the number of matches to skip
+	 */
+	int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * Get the maximum number of matches to return.
+	 *
+	 * @return the maximum number of matches to return
+	 */
+	int getPageSize() {
+		return pageSize;
+	}
+}
@@ -0,0 +1,351 @@
+package net.micropact.aea.du.utility.logSearch;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.du.utility.LogUtility;
+
+/**
+ * Searches log files for lines matching a {@link LogSearchCriteria}.
+ *
+ * <p>
+ *  Each file is read a line at a time, so the files are never loaded into memory, and compressed (.gz) files are
+ *  decompressed as they are read. The files are searched one after another so that the matches before the requested
+ *  page can be counted and skipped without being kept; only the matches on the page (and their context lines) are ever
+ *  held in memory.
+ * </p>
+ * <p>
+ *  Lines which do not begin with a timestamp and level (such as the lines of a stack trace) are considered to belong
+ *  to the log entry above them, so searching for ERRORs will find the lines of a stack trace.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class LogSearcher {
+
+	/**
+	 * Matches the beginning of a line written by the entellitrak logger in either the current or the old format.
+	 */
+	private static final Pattern ENTRY_START_PATTERN = Pattern.compile(
+			"^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2})[.,]\\d{3} \\[?ETK +(ERROR|WARN|INFO|DEBUG|TRACE)\\b");
+
+	private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+	/** Hide constructor for Utility Class. */
+	private LogSearcher(){}
+
+	/**
+	 * Search log files.
+	 *
+	 * @param files the files to search. Matches are ordered by the order of the files and then by line number.
+	 * @param criteria the search criteria
+	 * @return the requested page of matches along with the total number of matches
+	 */
+	public static LogSearchResult search(final List<File> files, final LogSearchCriteria criteria) {
+		if (files.isEmpty()) {
+			return new LogSearchResult(0, Collections.emptyMap(), Collections.emptyList());
+		}
+
+		final Map<String, Long> matchesPerFile = new LinkedHashMap<>();
+		final List<LogMatch> pageMatches = new ArrayList<>();
+		long totalMatches = 0;
+
+		for (final File file : files) {
+			final FileResult fileResult;
+
+			try {
+				fileResult = searchFile(file,
+						criteria,
+						Math.max(0, criteria.getOffset() - totalMatches),
+						criteria.getPageSize() - pageMatches.size());
+			} catch (final IOException e) {
+				throw new GeneralRuntimeException("Error searching log file " + file.getName(), e);
+			}
+
+			matchesPerFile.put(fileResult.fileName, fileResult.matchCount);
+			totalMatches += fileResult.matchCount;
+			pageMatches.addAll(fileResult.matches);
+		}
+
+		return new LogSearchResult(totalMatches, matchesPerFile, pageMatches);
+	}
+
+	/**
+	 * Search a single file.
+	 *
+	 * @param file the file
+	 * @param criteria the search criteria
+	 * @param matchesToSkip the number of matches at the beginning of the file which are counted but not returned
+	 * @param matchesToKeep the maximum number of matches to return after the skipped ones (all matches are still
+	 *          counted)
+	 * @return the matches in the file
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static FileResult searchFile(final File file, final LogSearchCriteria criteria, final long matchesToSkip,
+			final int matchesToKeep) throws IOException {
+		final int contextLines = criteria.getContextLines();
+
+		final Deque<String> previousLines = new ArrayDeque<>();
+		final List<LogMatch> matchesNeedingContext = new ArrayList<>();
+		final List<LogMatch> matches = new ArrayList<>();
+		long matchCount = 0;
+
+		LocalDateTime entryTime = null;
+		String entryLevel = null;
+
+		try (BufferedReader reader = openReader(file)) {
+			long lineNumber = 0;
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+
+				final Matcher entryStartMatcher = ENTRY_START_PATTERN.matcher(line);
+				if (entryStartMatcher.lookingAt()) {
+					entryTime = parseTimestamp(entryStartMatcher.group(1));
+					entryLevel = entryStartMatcher.group(2);
+				}
+
+				for (final Iterator<LogMatch> iterator = matchesNeedingContext.iterator(); iterator.hasNext();) {
+					final LogMatch match = iterator.next();
+					match.after.add(line);
+
+					if (match.after.size() >= contextLines) {
+						iterator.remove();
+					}
+				}
+
+				if (criteria.matches(line, entryTime, entryLevel)) {
+					matchCount++;
+
+					if (matchCount > matchesToSkip && matches.size() < matchesToKeep) {
+						final LogMatch match = new LogMatch(file.getName(), lineNumber, line, new ArrayList<>(previousLines));
+						matches.add(match);
+
+						if (contextLines > 0) {
+							matchesNeedingContext.add(match);
+						}
+					}
+				}
+
+				if (contextLines > 0) {
+					previousLines.addLast(line);
+
+					if (previousLines.size() > contextLines) {
+						previousLines.removeFirst();
+					}
+				}
+			}
+		}
+
+		return new FileResult(file.getName(), matchCount, matches);
+	}
+
+	/**
+	 * Open a reader on a log file, decompressing it if necessary.
+	 *
+	 * @param file the file
+	 * @return the reader
+	 * @throws IOException If there was an underlying {@link IOException}
+	 */
+	private static BufferedReader openReader(final File file) throws IOException {
+		final InputStream fileStream = Files.newInputStream(file.toPath());
+
+		try {
+			final InputStream inputStream = LogUtility.isCompressedLogFile(file.getName())
+					? new GZIPInputStream(fileStream, 64 * 1024)
+					: fileStream;
+
+			return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 64 * 1024);
+		} catch (final IOException e) {
+			fileStream.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Parse the timestamp at the beginning of a log entry.
+	 *
+	 * @param timestamp the timestamp
+	 * @return the time, or null if it could not be parsed
+	 */
+	private static LocalDateTime parseTimestamp(final String timestamp) {
+		try {
+			return LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
+		} catch (final DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The result of searching a single file.
+	 *
+	 * @author zmiller
+	 */
+	private static final class FileResult {
+
+		private final String fileName;
+		private final long matchCount;
+		private final List<LogMatch> matches;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theFileName the name of the file
+		 * @param theMatchCount the total number of matches in the file
+		 * @param theMatches the matches in the file which are on the requested page
+		 */
+		FileResult(final String theFileName, final long theMatchCount, final List<LogMatch> theMatches) {
+			fileName = theFileName;
+			matchCount = theMatchCount;
+			matches = theMatches;
+		}
+	}
+
+	/**
+	 * A single matching line along with the lines around it.
+	 *
+	 * @author zmiller
+	 */
+	public static final class LogMatch {
+
+		private final String fileName;
+		private final long lineNumber;
+		private final String line;
+		private final List<String> before;
+		private final List<String> after = new ArrayList<>();
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theFileName the name of the file
+		 * @param theLineNumber the 1-based line number of the match
+		 * @param theLine the matching line
+		 * @param theBefore the lines before the match
+		 */
+		LogMatch(final String theFileName, final long theLineNumber, final String theLine, final List<String> theBefore) {
+			fileName = theFileName;
+			lineNumber = theLineNumber;
+			line = theLine;
+			before = theBefore;
+		}
+
+		/**
+		 * Get the name of the file.
+		 *
+		 * @return the name of the file
+		 */
+		public String getFileName() {
+			return fileName;
+		}
+
+		/**
+		 * Get the 1-based line number of the match.
+		 *
+		 * @return the line number
+		 */
+		public long getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Get the matching line.
+		 *
+		 * @return the matching line
+		 */
+		public String getLine() {
+			return line;
+		}
+
+		/**
+		 * Get the lines before the match.
+		 *
+		 * @return the lines before the match
+		 */
+		public List<String> getBefore() {
+			return before;
+		}
+
+		/**
+		 * Get the lines after the match.
+		 *
+		 * @return the lines after the match
+		 */
+		public List<String> getAfter() {
+			return after;
+		}
+	}
+
+	/**
+	 * A page of matches.
+	 *
+	 * @author zmiller
+	 */
+	public static final class LogSearchResult {
+
+		private final long totalMatches;
+		private final Map<String, Long> matchesPerFile;
+		private final List<LogMatch> matches;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theTotalMatches the total number of matches in all files
+		 * @param theMatchesPerFile the number of matches in each file
+		 * @param theMatches the requested page of matches
+		 */
+		LogSearchResult(final long theTotalMatches, final Map<String, Long> theMatchesPerFile,
+				final List<LogMatch> theMatches) {
+			totalMatches = theTotalMatches;
+			matchesPerFile = theMatchesPerFile;
+			matches = theMatches;
+		}
+
+		/**
+		 * Get the total number of matches in all files.
+		 *
+		 * @return the total number of matches
+		 */
+		public long getTotalMatches() {
+			return totalMatches;
+		}
+
+		/**
+		 * Get the number of matches in each file.
+		 *
+		 * @return map from file name to number of matches
+		 */
+		public Map<String, Long> getMatchesPerFile() {
+			return matchesPerFile;
+		}
+
+		/**
+		 * Get the requested page of matches.
+		 *
+		 * @return the matches
+		 */
+		public List<LogMatch> getMatches() {
+			return matches;
+		}
+	}
+}
@@ -1,18 +1,26 @@
 package net.micropact.aea.du.utility.mismatchedColumnTypes;
 
 import java.util.Collection;
-import java.util.Objects;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * Class representing all database column metadata in the database (for instance all records in SQL Server
+ * Class representing the database column metadata of a set of tables (for instance records in SQL Server
  * information_schema.columns).
  *
+ * <p>
+ *  The columns are indexed by table and column name when the object is constructed, so looking up a column does not
+ *  depend on how many columns there are. Table and column names are compared case-insensitively.
+ * </p>
+ *
  * @author Zachary.Miller
  */
 public class AllDatabaseColumnsMetadata {
 
-    private final Collection<IDatabaseColumnMetadata> tableColumns;
+    /** Map from case-folded table name to case-folded column name to the column. */
+    private final Map<String, Map<String, IDatabaseColumnMetadata>> columnsByTable;
 
     /**
      * Simple constructor.
@@ -21,7 +29,12 @@ public class AllDatabaseColumnsMetadata {
      *            the table columns
      */
     public AllDatabaseColumnsMetadata(final Collection<IDatabaseColumnMetadata> theTableColumns) {
-        tableColumns = theTableColumns;
+        columnsByTable = new HashMap<>();
+
+        for (final IDatabaseColumnMetadata tableColumn : theTableColumns) {
+            columnsByTable.computeIfAbsent(foldCase(tableColumn.getTableName()), tableName -> new HashMap<>())
+                .putIfAbsent(foldCase(tableColumn.getColumnName()), tableColumn);
+        }
     }
 
     /**
@@ -34,9 +47,18 @@ public class AllDatabaseColumnsMetadata {
      * @return the matching metadata
      */
     public Optional<IDatabaseColumnMetadata> getByTableColumn(final String tableName, final String columnName) {
-        return tableColumns.stream()
-            .filter(tableColumn -> Objects.equals(tableName, tableColumn.getTableName())
-                && Objects.equals(columnName.toLowerCase(), tableColumn.getColumnName().toLowerCase()))
-            .findAny();
+        return Optional.ofNullable(columnsByTable.get(foldCase(tableName)))
+            .map(tableColumns -> tableColumns.get(foldCase(columnName)));
+    }
+
+    /**
+     * Normalize the case of a table or column name so that names can be compared case-insensitively.
+     *
+     * @param name
+     *            the name
+     * @return the case-folded name
+     */
+    private static String foldCase(final String name) {
+        return name == null ? null : name.toUpperCase(Locale.ROOT);
     }
 }
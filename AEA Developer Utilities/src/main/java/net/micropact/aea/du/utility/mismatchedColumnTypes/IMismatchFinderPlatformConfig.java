@@ -1,5 +1,6 @@
 package net.micropact.aea.du.utility.mismatchedColumnTypes;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 
 import com.entellitrak.ExecutionContext;
@@ -14,13 +15,14 @@ import com.entellitrak.configuration.DataElement;
 public interface IMismatchFinderPlatformConfig {
 
     /**
-     * Loads metadata for all of the columns actually in the database. For instance from information_schema.columns
-     * in SQL Server or user_tab_cols in Oracle.
+     * Loads metadata for the columns of some tables which are actually in the database. For instance from
+     * information_schema.columns in SQL Server or user_tab_cols in Oracle.
      *
      * @param etk entellitrak execution context
+     * @param tableNames the names of the tables to load the columns of. Tables which do not exist are ignored.
      * @return the database columns metadata
      */
-    AllDatabaseColumnsMetadata loadAllTablesColumns(ExecutionContext etk);
+    AllDatabaseColumnsMetadata loadTablesColumns(ExecutionContext etk, Collection<String> tableNames);
 
     /**
      * For a given data element returns the expected acceptable columns expected to be in the database.
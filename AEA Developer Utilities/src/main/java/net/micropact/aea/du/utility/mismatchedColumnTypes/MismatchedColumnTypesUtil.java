@@ -1,10 +1,18 @@
 package net.micropact.aea.du.utility.mismatchedColumnTypes;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import com.entellitrak.ExecutionContext;
 import com.entellitrak.configuration.DataElement;
 
+import net.micropact.aea.du.utility.DatabaseCatalog;
+
 public class MismatchedColumnTypesUtil {
 
 	private MismatchedColumnTypesUtil() {}
@@ -17,4 +25,22 @@ public class MismatchedColumnTypesUtil {
     	final String numberOfDigitsAsString = matcher.group("numberOfDigits");
 		return Long.parseLong(numberOfDigitsAsString);
 	}
+
+	/**
+	 * Get the catalog rows of the columns of some tables from the shared {@link DatabaseCatalog}.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param tableNames the names of the tables
+	 * @return the catalog rows, see {@link DatabaseCatalog#getColumns(String)}
+	 */
+	public static List<Map<String, Object>> getCatalogColumns(final ExecutionContext etk,
+			final Collection<String> tableNames) {
+		final DatabaseCatalog databaseCatalog = DatabaseCatalog.getCatalog(etk);
+
+		return tableNames.stream()
+				.map(tableName -> tableName.toUpperCase(Locale.ROOT))
+				.distinct()
+				.flatMap(tableName -> databaseCatalog.getColumns(tableName).stream())
+				.collect(Collectors.toList());
+	}
 }
@@ -179,10 +179,10 @@ public class OracleMismatchFinderConfig implements IMismatchFinderPlatformConfig
     }
 
     @Override
-    public AllDatabaseColumnsMetadata loadAllTablesColumns(final ExecutionContext etk) {
-        final Collection<IDatabaseColumnMetadata> tableColumns = etk.createSQL(
-            "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, DATA_LENGTH, DATA_PRECISION, CHAR_COL_DECL_LENGTH, CHAR_LENGTH, CHAR_USED, DATA_SCALE FROM user_tab_cols")
-            .fetchList()
+    public AllDatabaseColumnsMetadata loadTablesColumns(final ExecutionContext etk,
+            final Collection<String> tableNames) {
+        final Collection<IDatabaseColumnMetadata> tableColumns = MismatchedColumnTypesUtil.getCatalogColumns(etk,
+            tableNames)
             .stream()
             .map(queryResultRow -> new OracleColumnMetadata(
                 (String) queryResultRow.get("TABLE_NAME"),
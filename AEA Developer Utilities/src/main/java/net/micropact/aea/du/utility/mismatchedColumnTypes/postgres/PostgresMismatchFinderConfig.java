@@ -150,10 +150,10 @@ public class PostgresMismatchFinderConfig implements IMismatchFinderPlatformConf
     }
 
     @Override
-    public AllDatabaseColumnsMetadata loadAllTablesColumns(final ExecutionContext etk) {
-        final Collection<IDatabaseColumnMetadata> tableColumns = etk.createSQL(
-            "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE, DATETIME_PRECISION FROM information_schema.columns")
-            .fetchList()
+    public AllDatabaseColumnsMetadata loadTablesColumns(final ExecutionContext etk,
+            final Collection<String> tableNames) {
+        final Collection<IDatabaseColumnMetadata> tableColumns = MismatchedColumnTypesUtil.getCatalogColumns(etk,
+            tableNames)
             .stream()
             .map(queryResultRow -> new PostgresColumnMetadata(
                 ((String) queryResultRow.get("TABLE_NAME")).toUpperCase(),
@@ -149,10 +149,10 @@ public class SqlServerMismatchFinderConfig implements IMismatchFinderPlatformCon
     }
 
     @Override
-    public AllDatabaseColumnsMetadata loadAllTablesColumns(final ExecutionContext etk) {
-        final Collection<IDatabaseColumnMetadata> tableColumns = etk.createSQL(
-            "SELECT TABLE_NAME, COLUMN_NAME, DATA_TYPE, CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE, DATETIME_PRECISION FROM information_schema.columns")
-            .fetchList()
+    public AllDatabaseColumnsMetadata loadTablesColumns(final ExecutionContext etk,
+            final Collection<String> tableNames) {
+        final Collection<IDatabaseColumnMetadata> tableColumns = MismatchedColumnTypesUtil.getCatalogColumns(etk,
+            tableNames)
             .stream()
             .map(queryResultRow -> new SqlServerColumnMetadata(
                 (String) queryResultRow.get("TABLE_NAME"),
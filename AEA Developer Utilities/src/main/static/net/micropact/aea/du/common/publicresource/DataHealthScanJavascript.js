@@ -0,0 +1,193 @@
+/* public-resource */
+
+"use strict";
+
+/* Shared by the pages which display the findings of a data health scanner (such as Bad Dates).
+ * A scan is started by asking du.page.dataHealthScan.ajax which data objects need to be scanned, and then keeping up to
+ * maxConcurrentScans requests running, each of which scans a single data object. */
+window.AeaDataHealthScan = (function() {
+
+	const E = React.createElement
+
+	var scan = {
+		running: false,
+		cancelled: false,
+		total: 0,
+		scanned: 0,
+		outstandingRequests: [],
+		errors: [],
+		listeners: []
+	}
+
+	function callListeners() {
+		scan.listeners.forEach(function(listener) {
+			listener()
+		})
+	}
+
+	function postScanRequest(props, data) {
+		var request = jQuery.ajax({
+			url: "page.request.do?page=du.page.dataHealthScan.ajax",
+			method: "POST",
+			data: jQuery.extend({
+				csrfToken: props.csrfToken,
+				scanner: props.scannerKey
+			}, data)
+		})
+
+		scan.outstandingRequests.push(request)
+
+		request.always(function() {
+			scan.outstandingRequests.splice(scan.outstandingRequests.indexOf(request), 1)
+			callListeners()
+		})
+
+		return request
+	}
+
+	function startScan(props, changedOnly) {
+		scan.running = true
+		scan.cancelled = false
+		scan.total = 0
+		scan.scanned = 0
+		scan.errors = []
+		callListeners()
+
+		postScanRequest(props, {
+				action: "list",
+				changedOnly: changedOnly ? "1" : "0"
+			})
+			.done(function(dataObjectKeys) {
+				var remaining = dataObjectKeys.slice()
+				var workerCount = Math.min(props.maxConcurrentScans, remaining.length)
+				var workersRunning = workerCount
+
+				scan.total = remaining.length
+
+				if (workerCount == 0) {
+					finishScan(props)
+				}
+
+				for (var i = 0; i < workerCount; i++) {
+					scanNext(props, remaining, function() {
+						workersRunning--
+						if (workersRunning == 0) {
+							finishScan(props)
+						}
+					})
+				}
+			})
+			.fail(function(jqXHR, textStatus) {
+				if (textStatus !== "abort") {
+					scan.errors.push("There was an error finding the data objects to scan.")
+				}
+				finishScan(props)
+			})
+	}
+
+	/* Keep scanning data objects until there are none left, then call onDone */
+	function scanNext(props, remaining, onDone) {
+		if (scan.cancelled || remaining.length == 0) {
+			onDone()
+			return
+		}
+
+		var dataObjectKey = remaining.shift()
+
+		postScanRequest(props, {
+				action: "scan",
+				dataObject: dataObjectKey
+			})
+			.done(function() {
+				scan.scanned++
+			})
+			.fail(function(jqXHR, textStatus) {
+				if (textStatus !== "abort") {
+					scan.errors.push("There was an error scanning " + dataObjectKey + ". See the log for details.")
+				}
+			})
+			.always(function() {
+				scanNext(props, remaining, onDone)
+			})
+	}
+
+	function cancelScan() {
+		scan.cancelled = true
+		scan.outstandingRequests.slice().forEach(function(request) {
+			request.abort()
+		})
+	}
+
+	function finishScan(props) {
+		scan.running = false
+		callListeners()
+
+		if (scan.errors.length == 0 && !scan.cancelled) {
+			/* Reload the page so that it displays the new findings */
+			window.location = props.pageUrl
+		}
+	}
+
+	/* Displays when the findings were scanned and lets the user scan again.
+	 * props: scannerKey, scannedAt, csrfToken, maxConcurrentScans, pageUrl */
+	function ScanInfo(props) {
+
+		const [state, setState] = React.useState({})
+
+		React.useEffect(function() {
+			scan.listeners.push(function() {
+				setState({})
+			})
+		}, [])
+
+		return E("div", null,
+			E("p", null,
+				props.scannedAt
+					? "These results were found by a scan on " + props.scannedAt + ". "
+					: "Nothing has been scanned yet. ",
+				"The Data Health Scan job scans the data objects which have changed in the background. ",
+				"Scanning every data object may take a while on a large system."),
+			E("div", null,
+				E("input", {
+					type: "button",
+					className: "formButton",
+					value: "Scan changed",
+					disabled: scan.running,
+					onClick: function() {
+						startScan(props, true)
+					}
+				}),
+				" ",
+				E("input", {
+					type: "button",
+					className: "formButton",
+					value: "Scan all",
+					disabled: scan.running,
+					onClick: function() {
+						startScan(props, false)
+					}
+				}),
+				" ",
+				scan.running ? E("input", {
+					type: "button",
+					className: "formButton",
+					value: "Cancel",
+					onClick: cancelScan
+				}) : null),
+			scan.running || scan.cancelled || scan.errors.length > 0
+				? E("p", null,
+					(scan.cancelled ? "Scan cancelled. " : "")
+					+ "Scanned " + scan.scanned + " of " + scan.total + " data objects.")
+				: null,
+			scan.errors.map(function(error, i) {
+				return E("div", {
+					key: i,
+					className: "error"
+				}, error)
+			}))
+	}
+
+	return {
+		ScanInfo: ScanInfo
+	}
+}())
@@ -58,6 +58,27 @@ public final class CacheManager {
 		return value;
 	}
 
+	/**
+	 * This method will replace the value represented by the cacheable in the cache. It is intended for values which
+	 * are maintained incrementally, where the caller has loaded the value with
+	 * {@link #loadSerializable(ExecutionContext, ICacheable)} and then updated it.
+	 *
+	 * @param <T> The type of the object being cached
+	 * @param etk entellitrak execution context
+	 * @param cacheable A specification of what should be stored in the cache
+	 * @param value The new value
+	 */
+	public static <T extends Serializable> void storeSerializable(final ExecutionContext etk,
+			final ICacheable<T> cacheable,
+			final T value) {
+		if(value == null){
+			throw new GeneralRuntimeException(String.format("Attempted to store a null value in the cache under key \"%s\". You should never attempt to store a null value in the cache.",
+					cacheable.getKey()));
+		}
+
+		etk.getSerializableCache().store(cacheable.getKey(), value);
+	}
+
 	/**
 	 * This method will remove a single item from the cache.
 	 * <em>
@@ -3,6 +3,7 @@ package net.micropact.aea.core.cache;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import com.entellitrak.ExecutionContext;
@@ -20,6 +21,28 @@ import net.micropact.aea.core.enums.AeaCoreConfigurationItem;
  */
 public final class AeaCoreConfiguration{
 
+	/**
+	 * How long the configuration version read from the database is trusted before it is read again.
+	 * Configuration changes made on any server become visible on this server within this many milliseconds.
+	 */
+	private static final long VERSION_CHECK_INTERVAL_MILLIS = 1000;
+
+	/**
+	 * The most recent configuration version read from the database by this server.
+	 * A version read by a thread whose transaction changed the version is not recorded here (see
+	 * {@link #changedVersion}), so that other requests do not cache the old values under a version which has not been
+	 * committed.
+	 */
+	private static volatile VersionCheck lastVersionCheck;
+
+	/**
+	 * The version which the current thread changed the configuration to, if its transaction may not have committed
+	 * yet. While this is set the thread always reads the version from the database, and does not share it through
+	 * {@link #lastVersionCheck} until it is known to have been committed. It is cleared as soon as the version has
+	 * been committed and published (or has been rolled back or replaced), since threads are reused for later requests.
+	 */
+	private static final ThreadLocal<String> changedVersion = new ThreadLocal<>();
+
 	/**
 	 * This is a Utility class and does not need a constructor.
 	 */
@@ -33,7 +56,94 @@ public final class AeaCoreConfiguration{
 	 * @return Map
 	 */
 	private static Map<String, Object> getMap(final ExecutionContext etk) {
-		return CacheManager.loadSerializable(etk, new AeaCoreConfigurationCacheable(etk));
+		return CacheManager.loadSerializable(etk, new AeaCoreConfigurationCacheable(etk, getVersion(etk)));
+	}
+
+	/**
+	 * Get the current version of the configuration. The version is read from the database at most once every
+	 * {@link #VERSION_CHECK_INTERVAL_MILLIS} milliseconds, unless the current thread has changed the version.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the version
+	 */
+	private static String getVersion(final ExecutionContext etk) {
+		final long now = System.currentTimeMillis();
+		final VersionCheck versionCheck = lastVersionCheck;
+		final String uncommittedVersion = changedVersion.get();
+
+		if (uncommittedVersion == null
+				&& versionCheck != null
+				&& now - versionCheck.checkedAtMillis < VERSION_CHECK_INTERVAL_MILLIS) {
+			return versionCheck.version;
+		}
+
+		final String version = AeaCoreConfigurationCacheable.loadVersion(etk);
+
+		if (uncommittedVersion != null) {
+			/* If another thread has published our version it must have been committed. Otherwise check whether it has
+			 * been committed yet. If we read a different version, ours has either been rolled back or replaced. */
+			if (Objects.equals(version, uncommittedVersion)
+					&& (versionCheck == null || !Objects.equals(versionCheck.version, uncommittedVersion))
+					&& !AeaCoreConfigurationCacheable.isVersionCommitted(etk, uncommittedVersion)) {
+				return version;
+			}
+
+			changedVersion.remove();
+		}
+
+		publishVersion(etk, versionCheck, version, now);
+		return version;
+	}
+
+	/**
+	 * Share a version which has been read from the database with the other requests on this server.
+	 * The first time a newer version is published, the values cached under the previous version are removed, since they
+	 * will not be looked up again.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param previousVersionCheck the version check which was current when the version was read
+	 * @param version the version
+	 * @param checkedAtMillis when the version was read
+	 */
+	private static void publishVersion(final ExecutionContext etk, final VersionCheck previousVersionCheck,
+			final String version, final long checkedAtMillis) {
+		lastVersionCheck = new VersionCheck(version, checkedAtMillis);
+
+		if (previousVersionCheck != null && !Objects.equals(previousVersionCheck.version, version)) {
+			CacheManager.removeSerializable(etk, new AeaCoreConfigurationCacheable(etk, previousVersionCheck.version));
+		}
+	}
+
+	/**
+	 * Record that the current thread's transaction has changed the version of the configuration.
+	 * This must be called by {@link AeaCoreConfigurationCacheable#changeVersion(ExecutionContext)}.
+	 *
+	 * @param version the new version
+	 */
+	static void versionChanged(final String version) {
+		changedVersion.set(version);
+	}
+
+	/**
+	 * A configuration version and when it was read from the database.
+	 *
+	 * @author zmiller
+	 */
+	private static final class VersionCheck {
+
+		private final String version;
+		private final long checkedAtMillis;
+
+		/**
+		 * Simple constructor.
+		 *
+		 * @param theVersion the version
+		 * @param theCheckedAtMillis when the version was read
+		 */
+		VersionCheck(final String theVersion, final long theCheckedAtMillis) {
+			version = theVersion;
+			checkedAtMillis = theCheckedAtMillis;
+		}
 	}
 
 	/**
@@ -342,6 +452,16 @@ public final class AeaCoreConfiguration{
 		return typedValue;
 	}
 
+	/**
+	 * The maximum number of data objects the DU data health pages (such as Bad Dates) will scan at the same time.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return Maximum number of scan requests which will be running at the same time.
+	 */
+	public static Long getDuDataHealthMaxConcurrentScans(final ExecutionContext etk) {
+		return (Long) getCacheValue(etk, AeaCoreConfigurationItem.DU_DATA_HEALTH_MAX_CONCURRENT_SCANS);
+	}
+
 	/**
 	 * Returns a list of Strings representing the regular expressions of object names that should be skipped by code search.
 	 *
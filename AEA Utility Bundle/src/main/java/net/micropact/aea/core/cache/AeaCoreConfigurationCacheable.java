@@ -1,50 +1,98 @@
 package net.micropact.aea.core.cache;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
-import com.entellitrak.ApplicationException;
 import com.entellitrak.ExecutionContext;
+import com.entellitrak.IncorrectResultSizeDataAccessException;
+import com.entellitrak.WorkExecutionException;
 import com.entellitrak.logging.Logger;
 
 import net.entellitrak.aea.core.cache.AClassKeyCacheable;
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.enums.AeaCoreConfigurationItem;
-import net.micropact.aea.utility.DynamicObjectUtility;
+import net.micropact.aea.core.utility.SqlUtils;
+import net.micropact.aea.utility.Utility;
 
 /**
  * This class is an implementation of {@link net.entellitrak.aea.core.cache.ICacheable} for storing the values of
  * AEA_CORE_CONFIGURATION.
  *
+ * <p>
+ *  The values are cached under the current version of the configuration (see
+ *  {@link AeaCoreConfigurationItem#AEA_CORE_CONFIGURATION_VERSION}). Saving a configuration record changes the version
+ *  in the same transaction, so once that transaction commits every server will look for the values under a new key
+ *  and load them again. A transaction which has not seen the new version can only store values under the old key,
+ *  so it is not possible for old values to end up cached under the new version.
+ * </p>
+ *
  * @author zachary.miller
  */
 public class AeaCoreConfigurationCacheable extends AClassKeyCacheable<HashMap<String, Object>> {
 
+	/**
+	 * The description of the configuration record which holds the version.
+	 */
+	public static final String VERSION_DESCRIPTION = "Maintained automatically. This value changes whenever an AEA CORE Configuration record is saved so that the cached configuration values are reloaded. It should not be edited.";
+
 	private final ExecutionContext etk;
+	private final String version;
 
 	/**
 	 * Constructor for AeaConfigurationCacheable.
 	 *
 	 * @param executionContext
 	 *            entellitrak execution context
+	 * @param theVersion
+	 *            the version of the configuration, see {@link #loadVersion(ExecutionContext)}
 	 */
-	public AeaCoreConfigurationCacheable(final ExecutionContext executionContext) {
+	public AeaCoreConfigurationCacheable(final ExecutionContext executionContext, final String theVersion) {
 		etk = executionContext;
+		version = theVersion;
 	}
 
 	@Override
-	public HashMap<String, Object> getValue() throws ApplicationException {
+	public String getKey() {
+		return super.getKey() + "." + version;
+	}
+
+	@Override
+	public HashMap<String, Object> getValue() {
 		final Logger logger = etk.getLogger();
 
+		final Map<String, String> valuesByCode = new HashMap<>();
+		final Set<String> duplicateCodes = new HashSet<>();
+
+		etk.createSQL("SELECT c_code C_CODE, c_value C_VALUE FROM t_aea_core_configuration")
+		.fetchList()
+		.forEach(row -> {
+			final String code = (String) row.get("C_CODE");
+
+			if (valuesByCode.containsKey(code)) {
+				duplicateCodes.add(code);
+			} else {
+				valuesByCode.put(code, SqlUtils.clobToString(row.get("C_VALUE")));
+			}
+		});
+
 		final HashMap<String, Object> map = new HashMap<>();
 
 		Stream.of(AeaCoreConfigurationItem.values())
 		.filter(AeaCoreConfigurationItem::isCacheable)
 		.forEach(configurationItem -> {
-			final String value = DynamicObjectUtility.getPropertyFromObjectWithBusinessKey(etk,
-					"object.aeaCoreConfiguration.element.code",
-					configurationItem.getCode(),
-					"value");
+			if (duplicateCodes.contains(configurationItem.getCode())) {
+				throw new GeneralRuntimeException(
+						String.format("Found multiple AEA Core Configuration records with code \"%s\". Only one record may exist for each code.",
+								configurationItem.getCode()));
+			}
+
+			final String value = valuesByCode.get(configurationItem.getCode());
 
 			if (Objects.isNull(value)) {
 				/*
@@ -63,4 +111,80 @@ public class AeaCoreConfigurationCacheable extends AClassKeyCacheable<HashMap<St
 
 		return map;
 	}
+
+	/**
+	 * Load the current version of the configuration from the database.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the version, or null if the version record has not been created yet
+	 */
+	public static String loadVersion(final ExecutionContext etk) {
+		try {
+			return etk.createSQL("SELECT c_value FROM t_aea_core_configuration WHERE c_code = :c_code")
+					.setParameter("c_code", AeaCoreConfigurationItem.AEA_CORE_CONFIGURATION_VERSION.getCode())
+					.returnEmptyResultSetAs(null)
+					.fetchString();
+		} catch (final IncorrectResultSizeDataAccessException e) {
+			throw new GeneralRuntimeException(
+					String.format("Got multiple t_aea_core_configuration records with code %s",
+							AeaCoreConfigurationItem.AEA_CORE_CONFIGURATION_VERSION.getCode()),
+					e);
+		}
+	}
+
+	/**
+	 * Determine whether a version of the configuration has been committed. The version is read in its own unit of work,
+	 * which only sees committed changes. On SQL Server locked rows are skipped instead of waited for, since the row may
+	 * be locked by the current thread's own transaction.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param version the version
+	 * @return whether the committed version is the given version. If this can not be determined, false is returned.
+	 */
+	static boolean isVersionCommitted(final ExecutionContext etk, final String version) {
+		final AtomicReference<String> committedVersion = new AtomicReference<>();
+
+		try {
+			etk.doWork(workEtk -> committedVersion.set(workEtk.createSQL(Utility.isSqlServer(workEtk)
+					? "SELECT c_value FROM t_aea_core_configuration WITH (READCOMMITTEDLOCK, READPAST) WHERE c_code = :c_code"
+					: "SELECT c_value FROM t_aea_core_configuration WHERE c_code = :c_code")
+					.setParameter("c_code", AeaCoreConfigurationItem.AEA_CORE_CONFIGURATION_VERSION.getCode())
+					.returnEmptyResultSetAs(null)
+					.fetchString()));
+		} catch (final WorkExecutionException e) {
+			etk.getLogger().warn("Could not determine whether the AEA Core Configuration version has been committed", e);
+			return false;
+		}
+
+		return Objects.equals(version, committedVersion.get());
+	}
+
+	/**
+	 * Change the version of the configuration so that the cached values will be reloaded once the current
+	 * transaction commits. This creates the version record if it does not exist. Until the new version is known to
+	 * be committed, it is not shared with the other requests on this server (see {@link AeaCoreConfiguration}).
+	 *
+	 * @param etk entellitrak execution context
+	 */
+	public static void changeVersion(final ExecutionContext etk) {
+		final String code = AeaCoreConfigurationItem.AEA_CORE_CONFIGURATION_VERSION.getCode();
+		final String newVersion = UUID.randomUUID().toString();
+
+		if (loadVersion(etk) == null) {
+			etk.createSQL(Utility.isSqlServer(etk) || Utility.isPostgreSQL(etk)
+					? "INSERT INTO t_aea_core_configuration(c_code, c_description, c_value) VALUES(:c_code, :description, :value)"
+							: "INSERT INTO t_aea_core_configuration(id, c_code, c_description, c_value) VALUES(OBJECT_ID.NEXTVAL, :c_code, :description, :value)")
+			.setParameter("c_code", code)
+			.setParameter("description", VERSION_DESCRIPTION)
+			.setParameter("value", newVersion)
+			.execute();
+		} else {
+			etk.createSQL("UPDATE t_aea_core_configuration SET c_value = :value WHERE c_code = :c_code")
+			.setParameter("value", newVersion)
+			.setParameter("c_code", code)
+			.execute();
+		}
+
+		AeaCoreConfiguration.versionChanged(newVersion);
+	}
 }
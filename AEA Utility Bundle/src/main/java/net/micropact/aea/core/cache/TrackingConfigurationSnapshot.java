@@ -0,0 +1,426 @@
+package net.micropact.aea.core.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.IncorrectResultSizeDataAccessException;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.configuration.DataObjectService;
+import com.entellitrak.configuration.DataObjectType;
+import com.entellitrak.configuration.NavigationService;
+import com.entellitrak.configuration.ObjectType;
+import com.entellitrak.configuration.ServiceBundleService;
+
+import net.entellitrak.aea.core.cache.CacheManager;
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.utility.Utility;
+
+/**
+ * An immutable view of the data objects of the currently deployed tracking configuration. Pages which need the parent,
+ * depth, list order, bundle or table of many data objects would otherwise have to walk the configuration API for each
+ * object (which is quadratic for things like the ancestors or the list order). The snapshot computes all of this once
+ * and is cached per tracking configuration, so a new snapshot is built as soon as changes are applied.
+ *
+ * <p>
+ *  Because the snapshot is stored in the cache, it only contains serializable information about the data objects, not
+ *  the {@link DataObject}s themselves.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class TrackingConfigurationSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long trackingConfigId;
+	private final List<DataObjectInfo> dataObjects;
+	private final Map<String, DataObjectInfo> dataObjectsByBusinessKey;
+	private final Map<String, DataObjectInfo> dataObjectsByTableName;
+	private final Map<String, List<DataObjectInfo>> childrenByBusinessKey;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param theTrackingConfigId the tracking config id the snapshot was built from
+	 * @param theDataObjects information about all of the data objects
+	 */
+	private TrackingConfigurationSnapshot(final long theTrackingConfigId, final List<DataObjectInfo> theDataObjects) {
+		trackingConfigId = theTrackingConfigId;
+		dataObjects = Collections.unmodifiableList(theDataObjects);
+
+		final Map<String, DataObjectInfo> byBusinessKey = new HashMap<>();
+		final Map<String, DataObjectInfo> byTableName = new HashMap<>();
+		final Map<String, List<DataObjectInfo>> children = new HashMap<>();
+
+		for(final DataObjectInfo dataObject : theDataObjects){
+			byBusinessKey.put(dataObject.getBusinessKey(), dataObject);
+			byTableName.put(dataObject.getTableName().toUpperCase(), dataObject);
+
+			if(dataObject.getParentBusinessKey() != null){
+				children.computeIfAbsent(dataObject.getParentBusinessKey(), k -> new ArrayList<>()).add(dataObject);
+			}
+		}
+
+		children.replaceAll((parentBusinessKey, childList) -> Collections.unmodifiableList(childList.stream()
+				.sorted(Comparator.comparingInt(DataObjectInfo::getListOrder))
+				.collect(Collectors.toList())));
+
+		dataObjectsByBusinessKey = Collections.unmodifiableMap(byBusinessKey);
+		dataObjectsByTableName = Collections.unmodifiableMap(byTableName);
+		childrenByBusinessKey = Collections.unmodifiableMap(children);
+	}
+
+	/**
+	 * Get the snapshot of the currently deployed tracking configuration. The snapshot is loaded from the cache if it has
+	 * already been built for the current tracking configuration.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the snapshot
+	 */
+	public static TrackingConfigurationSnapshot getSnapshot(final ExecutionContext etk) {
+		try {
+			return CacheManager.loadSerializable(etk,
+					new TrackingConfigurationSnapshotCacheable(etk, Utility.getTrackingConfigIdCurrent(etk)));
+		} catch (final IncorrectResultSizeDataAccessException e) {
+			throw new GeneralRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Build a new snapshot from the configuration API. Most code should use {@link #getSnapshot(ExecutionContext)}
+	 * instead.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param trackingConfigId the tracking config id of the configuration the API is returning
+	 * @return the snapshot
+	 */
+	static TrackingConfigurationSnapshot build(final ExecutionContext etk, final long trackingConfigId) {
+		final DataObjectService dataObjectService = etk.getDataObjectService();
+		final NavigationService navigationService = etk.getNavigationService();
+		final ServiceBundleService serviceBundleService = etk.getServiceBundleService();
+
+		final List<DataObject> allDataObjects = dataObjectService.getDataObjects();
+
+		final Set<String> trackedBusinessKeys = dataObjectService.getDataObjectsByType(DataObjectType.TRACKED)
+				.stream()
+				.map(DataObject::getBusinessKey)
+				.collect(Collectors.toSet());
+
+		final Map<String, String> parentKeys = new HashMap<>();
+		final Map<String, Integer> listOrders = new HashMap<>();
+
+		for(final DataObject dataObject : allDataObjects){
+			final DataObject parent = dataObjectService.getParent(dataObject);
+			parentKeys.put(dataObject.getBusinessKey(), parent == null ? null : parent.getBusinessKey());
+		}
+
+		/* Each parent's ordered children are only requested once */
+		for(final DataObject dataObject : allDataObjects){
+			if(!dataObjectService.getChildren(dataObject).isEmpty()){
+				final List<DataObject> orderedChildren = navigationService.getOrderedChildObjects(dataObject);
+
+				for(int i = 0; i < orderedChildren.size(); i++){
+					listOrders.put(orderedChildren.get(i).getBusinessKey(), i);
+				}
+			}
+		}
+
+		final Map<String, Integer> depths = new HashMap<>();
+		final Set<String> visiting = new HashSet<>();
+
+		final List<DataObjectInfo> infos = allDataObjects.stream()
+				.map(dataObject -> new DataObjectInfo(dataObject.getBusinessKey(),
+						parentKeys.get(dataObject.getBusinessKey()),
+						getDepth(dataObject.getBusinessKey(), parentKeys, depths, visiting),
+						listOrders.getOrDefault(dataObject.getBusinessKey(), 0),
+						dataObject.getName(),
+						dataObject.getObjectName(),
+						dataObject.getLabel(),
+						dataObject.getDefaultLabel(),
+						dataObject.getTableName(),
+						Optional.ofNullable(serviceBundleService.getServiceBundle(dataObject))
+						.map(bundle -> bundle.getName())
+						.orElse(null),
+						dataObject.getObjectType(),
+						trackedBusinessKeys.contains(dataObject.getBusinessKey())))
+				.collect(Collectors.toList());
+
+		return new TrackingConfigurationSnapshot(trackingConfigId, infos);
+	}
+
+	/**
+	 * Get the depth of a data object, memoizing the depths of it and its ancestors. Root data objects have a depth
+	 * of 1.
+	 *
+	 * @param businessKey the business key of the data object
+	 * @param parentKeys map from business key to the business key of the parent
+	 * @param depths the depths which have already been computed
+	 * @param visiting the business keys whose depth is currently being computed
+	 * @return the depth
+	 */
+	private static int getDepth(final String businessKey,
+			final Map<String, String> parentKeys,
+			final Map<String, Integer> depths,
+			final Set<String> visiting){
+		final Integer knownDepth = depths.get(businessKey);
+
+		if(knownDepth != null){
+			return knownDepth;
+		}
+
+		if(!visiting.add(businessKey)){
+			throw new GeneralRuntimeException(String.format("The data object \"%s\" is its own ancestor", businessKey));
+		}
+
+		final String parentKey = parentKeys.get(businessKey);
+		final int depth = parentKey == null ? 1 : 1 + getDepth(parentKey, parentKeys, depths, visiting);
+
+		visiting.remove(businessKey);
+		depths.put(businessKey, depth);
+
+		return depth;
+	}
+
+	/**
+	 * Get the tracking config id the snapshot was built from.
+	 *
+	 * @return the tracking config id
+	 */
+	public long getTrackingConfigId() {
+		return trackingConfigId;
+	}
+
+	/**
+	 * Get all of the data objects.
+	 *
+	 * @return the data objects
+	 */
+	public List<DataObjectInfo> getDataObjects() {
+		return dataObjects;
+	}
+
+	/**
+	 * Get the tracked data objects (the tracking objects and their descendants).
+	 *
+	 * @return the tracked data objects
+	 */
+	public List<DataObjectInfo> getTrackedDataObjects() {
+		return dataObjects.stream()
+				.filter(DataObjectInfo::isTracked)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Get a data object by its business key.
+	 *
+	 * @param businessKey the business key
+	 * @return the data object, or null if there is no such data object
+	 */
+	public DataObjectInfo getDataObjectByBusinessKey(final String businessKey) {
+		return dataObjectsByBusinessKey.get(businessKey);
+	}
+
+	/**
+	 * Get a data object by its table name. The table name is not case-sensitive.
+	 *
+	 * @param tableName the table name
+	 * @return the data object, or null if there is no such data object
+	 */
+	public DataObjectInfo getDataObjectByTableName(final String tableName) {
+		return dataObjectsByTableName.get(tableName.toUpperCase());
+	}
+
+	/**
+	 * Get the children of a data object in the order that they are displayed in the navigation.
+	 *
+	 * @param businessKey the business key of the parent
+	 * @return the children
+	 */
+	public List<DataObjectInfo> getChildren(final String businessKey) {
+		return childrenByBusinessKey.getOrDefault(businessKey, Collections.emptyList());
+	}
+
+	/**
+	 * The information about a single data object which is stored in the snapshot.
+	 *
+	 * @author zmiller
+	 */
+	public static final class DataObjectInfo implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String businessKey;
+		private final String parentBusinessKey;
+		private final int depth;
+		private final int listOrder;
+		private final String name;
+		private final String objectName;
+		private final String label;
+		private final String defaultLabel;
+		private final String tableName;
+		private final String bundleName;
+		private final ObjectType objectType;
+		private final boolean tracked;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theBusinessKey business key
+		 * @param theParentBusinessKey business key of the parent, or null for root data objects
+		 * @param theDepth the number of data objects from the root to this one (inclusive)
+		 * @param theListOrder the position of the data object among its siblings
+		 * @param theName name
+		 * @param theObjectName object name
+		 * @param theLabel label
+		 * @param theDefaultLabel default label
+		 * @param theTableName table name
+		 * @param theBundleName name of the service bundle the data object is in
+		 * @param theObjectType object type
+		 * @param isTracked whether the data object is a tracked data object
+		 */
+		DataObjectInfo(final String theBusinessKey,
+				final String theParentBusinessKey,
+				final int theDepth,
+				final int theListOrder,
+				final String theName,
+				final String theObjectName,
+				final String theLabel,
+				final String theDefaultLabel,
+				final String theTableName,
+				final String theBundleName,
+				final ObjectType theObjectType,
+				final boolean isTracked) {
+			businessKey = theBusinessKey;
+			parentBusinessKey = theParentBusinessKey;
+			depth = theDepth;
+			listOrder = theListOrder;
+			name = theName;
+			objectName = theObjectName;
+			label = theLabel;
+			defaultLabel = theDefaultLabel;
+			tableName = theTableName;
+			bundleName = theBundleName;
+			objectType = theObjectType;
+			tracked = isTracked;
+		}
+
+		/**
+		 * Get the business key.
+		 *
+		 * @return the business key
+		 */
+		public String getBusinessKey() {
+			return businessKey;
+		}
+
+		/**
+		 * Get the business key of the parent.
+		 *
+		 * @return the business key of the parent, or null for root data objects
+		 */
+		public String getParentBusinessKey() {
+			return parentBusinessKey;
+		}
+
+		/**
+		 * Get the depth. Root data objects have a depth of 1.
+		 *
+		 * @return the depth
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Get the position of the data object among the children of its parent. Root data objects have a list order
+		 * of 0.
+		 *
+		 * @return the list order
+		 */
+		public int getListOrder() {
+			return listOrder;
+		}
+
+		/**
+		 * Get the name.
+		 *
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Get the object name.
+		 *
+		 * @return the object name
+		 */
+		public String getObjectName() {
+			return objectName;
+		}
+
+		/**
+		 * Get the label.
+		 *
+		 * @return the label
+		 */
+		public String getLabel() {
+			return label;
+		}
+
+		/**
+		 * Get the default label.
+		 *
+		 * @return the default label
+		 */
+		public String getDefaultLabel() {
+			return defaultLabel;
+		}
+
+		/**
+		 * Get the table name.
+		 *
+		 * @return the table name
+		 */
+		public String getTableName() {
+			return tableName;
+		}
+
+		/**
+		 * Get the name of the service bundle.
+		 *
+		 * @return the name of the service bundle
+		 */
+		public String getBundleName() {
+			return bundleName;
+		}
+
+		/**
+		 * Get the object type.
+		 *
+		 * @return the object type
+		 */
+		public ObjectType getObjectType() {
+			return objectType;
+		}
+
+		/**
+		 * Get whether the data object is a tracked data object.
+		 *
+		 * @return whether the data object is tracked
+		 */
+		public boolean isTracked() {
+			return tracked;
+		}
+	}
+}
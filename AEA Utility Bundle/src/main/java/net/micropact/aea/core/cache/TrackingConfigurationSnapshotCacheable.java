@@ -0,0 +1,39 @@
+package net.micropact.aea.core.cache;
+
+import com.entellitrak.ExecutionContext;
+
+import net.entellitrak.aea.core.cache.AClassKeyCacheable;
+
+/**
+ * This class is an implementation of {@link net.entellitrak.aea.core.cache.ICacheable} for storing the
+ * {@link TrackingConfigurationSnapshot} of a tracking configuration. The tracking config id is part of the key, so
+ * applying changes causes a new snapshot to be built instead of the old one being used.
+ *
+ * @author zmiller
+ */
+class TrackingConfigurationSnapshotCacheable extends AClassKeyCacheable<TrackingConfigurationSnapshot> {
+
+	private final ExecutionContext etk;
+	private final long trackingConfigId;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executionContext entellitrak execution context
+	 * @param theTrackingConfigId the currently deployed tracking config id
+	 */
+	TrackingConfigurationSnapshotCacheable(final ExecutionContext executionContext, final long theTrackingConfigId) {
+		etk = executionContext;
+		trackingConfigId = theTrackingConfigId;
+	}
+
+	@Override
+	public String getKey() {
+		return super.getKey() + "." + trackingConfigId;
+	}
+
+	@Override
+	public TrackingConfigurationSnapshot getValue() {
+		return TrackingConfigurationSnapshot.build(etk, trackingConfigId);
+	}
+}
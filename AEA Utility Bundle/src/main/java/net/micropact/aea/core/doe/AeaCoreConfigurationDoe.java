@@ -5,10 +5,8 @@ import com.entellitrak.ReferenceObjectEventContext;
 import com.entellitrak.dynamic.AeaCoreConfiguration;
 import com.entellitrak.dynamic.DynamicObjectService;
 import com.entellitrak.handler.HandlerScript;
-import com.entellitrak.legacy.workflow.WorkflowResult;
 import com.entellitrak.tracking.ReferenceObjectEventHandler;
 
-import net.entellitrak.aea.core.cache.CacheManager;
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.cache.AeaCoreConfigurationCacheable;
 import net.micropact.aea.core.utility.StringUtils;
@@ -51,14 +49,13 @@ public class AeaCoreConfigurationDoe extends AReferenceObjectEventHandler {
 	}
 
 	/**
-	 * Clears the caches which may have been invalidated by saving of the AEA Core Configuration object.
+	 * Invalidates the caches which may have been invalidated by saving of the AEA Core Configuration object.
+	 * Rather than removing the cached values, this changes the configuration version so that the values are
+	 * reloaded once this transaction commits.
 	 *
 	 * @param etk entellitrak execution context.
 	 */
 	private static void clearRelevantCache(final ReferenceObjectEventContext etk) {
-		final WorkflowResult result = etk.getResult();
-
-		result.addMessage("The values within the AEA CORE Configuration reference table are cached. Although the cache has just been cleared it is possible that another user has loaded old values back into the cache. If the site appears to continue to use the old value, you must manually clear the cache for the changes to take effect.");
-		CacheManager.removeSerializable(etk, new AeaCoreConfigurationCacheable(etk));
+		AeaCoreConfigurationCacheable.changeVersion(etk);
 	}
 }
@@ -24,6 +24,8 @@ public enum AeaCoreConfigurationItem{
 
     /** AEA_CORE_CACHE_STATIC_CONTENT. */
     AEA_CORE_CACHE_STATIC_CONTENT("aea.core.cacheStaticContent", true, new NotZeroDeserializer()),
+    /** AEA_CORE_CONFIGURATION_VERSION. Changes whenever the configuration is saved, so it is never cached itself. */
+    AEA_CORE_CONFIGURATION_VERSION("aea.core.configurationVersion", false, new IdentityDeserializer()),
     /** AEA_CORE_WRITE_DEBUG_TO_LOG. */
     AEA_CORE_WRITE_DEBUG_TO_LOG("writeDebugToLog", true, new TrueDeserializer()),
     /** AEA_CORE_ADVANCED_RECURSIVE_DEBUG. */
@@ -35,6 +37,8 @@ public enum AeaCoreConfigurationItem{
     /** DU_MISMATCHED_COLUMN_TYPE_EXCLUSIONS. */
     DU_MISMATCHED_COLUMN_TYPE_EXCLUSIONS("du.mismatchedColumnTypeExclusions",
             true, new NewlineTrimmedNoBlanksDeserializer()),
+    /** DU_DATA_HEALTH_MAX_CONCURRENT_SCANS. */
+    DU_DATA_HEALTH_MAX_CONCURRENT_SCANS("du.dataHealth.maxConcurrentScans", true, new LongDeserializer(4L)),
 
     /** DASHBOARD_TOOLS_ENHANCED_INBOX_ENABLED. */
     DASHBOARD_TOOLS_ENHANCED_INBOX_ENABLED("dt.enhancedInboxEnabled", true, new TrueDeserializer()),
@@ -7,14 +7,21 @@
 
 package net.micropact.aea.core.lookup;
 
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -41,6 +48,7 @@ import com.micropact.entellitrak.web.RequestContextHolder;
 import com.micropact.entellitrak.workflow.service.WorkflowContext;
 import com.micropact.internal.page.PageExecutionContextImpl;
 
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.core.dataTypePlugin.DataTypePluginClassUtility;
 import net.micropact.aea.utility.DataElementType;
 import net.micropact.aea.utility.SystemObjectDisplayFormat;
@@ -57,6 +65,13 @@ public class LookupValueFinder {
 	private final com.micropact.entellitrak.cfg.model.TrackingConfig trackingConfig;
 	private final com.micropact.entellitrak.data.service.DataService dataService;
 
+	/**
+	 * The lookup SQL does not depend on the value being looked up, so we only build it once per lookup definition
+	 * (and, for lookups whose SQL depends on the data element, once per data element).
+	 * See {@link #getLookupSqlTemplateKey(TrackedDataElement)}.
+	 */
+	private final Map<String, LookupSqlTemplate> lookupSqlTemplates = new HashMap<>();
+
 	public LookupValueFinder(final ExecutionContext etkTmp) {
 		this.etk = (PageExecutionContextImpl) etkTmp;
 		this.userContainer = RequestContextHolder.getUserContainer();
@@ -139,8 +154,6 @@ public class LookupValueFinder {
 	 *             If a problem is encountered
 	 **/
 	private List<String> getLookupValue(final TrackedDataElement tde) throws ApplicationException {
-		final DataElementService dataElementService = etk.getDataElementService();
-
 		final List<String> returnValList = new ArrayList<>();
 
 		// Fatal Error, return.
@@ -151,147 +164,29 @@ public class LookupValueFinder {
 		final StringBuilder val = new StringBuilder("");
 
 		if (tde.getDataElement().isBoundToLookup()) {
-
-			final StringBuilder lookupSql = new StringBuilder("");
-
 			if (tde.getDataElement().getLookupDefinition().isListBasedScriptLookup()) {
-				final List<String> stringValues;
-
-				if (tde.isMultiValued()) {
-					final List<String> rawValues = tde.getValues();
-					if (rawValues == null) {
-						stringValues = Collections.emptyList();
-					} else {
-						stringValues = rawValues;
-					}
-
-				} else {
-					final String rawValue = tde.getValue();
-					if (Utility.isBlank(rawValue)) {
-						stringValues = Collections.emptyList();
-					} else {
-						stringValues = Arrays.asList(rawValue);
-					}
-				}
-
-				final DataElement dataElement = dataElementService.getDataElementByBusinessKey(tde.getBusinessKey());
-
-				final Class<?> valueClass = DataElementType.getDataElementType(dataElement.getDataType())
-						.getUnderlyingClass();
-
-				List<?> values = null;
-
-				if (valueClass.equals(Integer.class)) {
-					values = stringValues
-							.stream()
-							.filter(StringUtility::isNotBlank)
-							.map(Integer::valueOf)
-							.collect(Collectors.toList());
-				} else if (valueClass.equals(Long.class)) {
-					values = stringValues
-							.stream()
-							.filter(StringUtility::isNotBlank)
-							.map(Long::valueOf)
-							.collect(Collectors.toList());
-				} else {
-					values = stringValues
-							.stream()
-							.filter(StringUtility::isNotBlank)
-							.collect(Collectors.toList());
-				}
-
-				return getListBasedScriptLookup(etk, dataElement, values);
-			} else if (tde.getDataElement().getLookupDefinition().isDataObjectBased()) {
-
-				// Initialize local variables
-				final LookupDefinition ld = tde.getDataElement().getLookupDefinition();
-				final String valColumn = ld.getValueElement() != null ? ld.getValueElement().getColumnName() : "ID";
-				final String dispColumn = ld.getDisplayElement() != null ? ld.getDisplayElement().getColumnName()
-						: "ID";
-
-				lookupSql.append("select DISPLAY from (select ");
-				lookupSql.append(valColumn);
-				lookupSql.append(" as VALUE, ");
-				lookupSql.append(dispColumn);
-				lookupSql.append(" as DISPLAY from ");
-				lookupSql.append(ld.getDataObject().getTableName());
-			} else if (tde.getDataElement().getLookupDefinition().isSystemObjectBased()) {
-				final int objectType = tde.getDataElement().getLookupDefinition().getSystemObjectTypeId().intValue();
-				final int formatId = tde.getDataElement().getLookupDefinition().getSystemObjectDisplayFormatId()
-						.intValue();
-
-				lookupSql.append("select DISPLAY from (");
-				lookupSql.append(LookupDataUtility.getSystemObjectQuery(etk,
-						SystemObjectType.getById(objectType),
-						SystemObjectDisplayFormat.getById(formatId)));
-
-			} else {
-				lookupSql.append("select DISPLAY from (");
-				lookupSql.append(dataService.getLookupDataViewSql(tde.getDataElement(), userContainer));
+				return getListBasedScriptLookupValue(tde);
 			}
 
-			if ("".equals(lookupSql.toString())) {
-				return returnValList;
-			}
+			final LookupSqlTemplate lookupSqlTemplate = getLookupSqlTemplate(tde);
 
-			DataType lookupValueType = null;
+			final List<Object> typedValues = getTypedValues(tde, lookupSqlTemplate.getValueType());
 
-			if (tde.getDataElement().getLookupDefinition()
-					.isSystemObjectBased()) {
-				lookupValueType = DataType.LONG;
-			} else if (tde.getDataElement().getLookupDefinition().isDataObjectBased()) {
-				if (tde.getDataElement().getLookupDefinition().getValueElement() == null) {
-					lookupValueType = DataType.LONG;
-				} else {
-					lookupValueType = tde.getDataElement().getLookupDefinition().getValueElement().getDataType();
-				}
-			} else {
-				lookupValueType = tde.getDataElement().getLookupDefinition()
-						.getValueReturnType();
-			}
-
-			if (lookupValueType == null) {
-				etk.getLogger().error(
-						String.format("Lookup with business key %s does not have a return type set, setting to TEXT.",
-								tde.getDataElement().getLookupDefinition().getBusinessKey()));
-
-				lookupValueType = DataType.TEXT;
+			if (typedValues.isEmpty()) {
+				return returnValList;
 			}
 
+			final StringBuilder lookupSql = new StringBuilder(lookupSqlTemplate.getQueryPrefix());
 			List<Map<String, Object>> lookupReturn = null;
 
 			// Ensure the query executed correctly.
 			try {
-				if (tde.getDataElement().isMultiValued()) {
-					if (tde.getValues() == null || tde.getValues().isEmpty()) {
-						return returnValList;
-					} else {
-						final Map<String, Object> paramMap = new HashMap<>();
-						final ArrayList<Object> typedValueArray = new ArrayList<>();
-
-						for (final String aValue : tde.getValues()) {
-							typedValueArray
-							.add(LookupDataUtility.convertStringToTypedObject(etk, aValue, lookupValueType));
-						}
-
-						lookupSql.append(") var_rep_inside_query where ");
-						Utility.addLargeInClause("VALUE", lookupSql, paramMap, typedValueArray);
+				final Map<String, Object> paramMap = new HashMap<>();
+				Utility.addLargeInClause("VALUE", lookupSql, paramMap, typedValues);
 
-						lookupReturn = etk.createSQL(peformSelectReplacements(lookupSql.toString()))
-								.setParameter(paramMap)
-								.fetchList();
-					}
-				} else {
-					if (tde.getValue() == null) {
-						return returnValList;
-					} else {
-						lookupSql.append(") var_rep_inside_query where VALUE = :aValue");
-						lookupReturn = etk.createSQL(peformSelectReplacements(lookupSql.toString()))
-								.setParameter("aValue",
-										LookupDataUtility.convertStringToTypedObject(etk, tde.getValue(), lookupValueType))
-								.fetchList();
-					}
-				}
+				lookupReturn = etk.createSQL(lookupSql.toString())
+						.setParameter(paramMap)
+						.fetchList();
 			} catch (final Exception e) {
 				etk.getLogger().error(String.format("Error executing query %s", lookupSql.toString()), e);
 			}
@@ -352,6 +247,315 @@ public class LookupValueFinder {
 		return returnValList;
 	}
 
+	/**
+	 * Returns the display values of every element of a BTO/CTO. This is considerably faster than calling
+	 * {@link #getLookupValueByBusinessKey(DataElement, String)} for each element because all elements bound to the
+	 * same lookup definition are resolved with a single query.
+	 *
+	 * @param dataObjectBusinessKey
+	 *            The business key of the data object
+	 * @param trackingId
+	 *            The ID of the BTO/CTO.
+	 * @return Map from data element business key to the display values of that element.
+	 * @throws ApplicationException
+	 *             If a problem is encountered
+	 */
+	public Map<String, List<String>> getLookupValues(final String dataObjectBusinessKey, final String trackingId)
+			throws ApplicationException {
+		return getLookupValues(dataObjectBusinessKey, Arrays.asList(trackingId))
+				.getOrDefault(trackingId, Collections.emptyMap());
+	}
+
+	/**
+	 * Returns the display values of every element of many BTOs/CTOs of the same data object.
+	 * All elements (of all records) which are bound to the same lookup definition are resolved with a single
+	 * (batched) query, so the number of queries depends on the number of lookup definitions rather than the number
+	 * of elements.
+	 *
+	 * @param dataObjectBusinessKey
+	 *            The business key of the data object
+	 * @param trackingIds
+	 *            The IDs of the BTOs/CTOs.
+	 * @return Map from tracking id to a map from data element business key to the display values of that element.
+	 * @throws ApplicationException
+	 *             If a problem is encountered
+	 */
+	public Map<String, Map<String, List<String>>> getLookupValues(final String dataObjectBusinessKey,
+			final Collection<String> trackingIds) throws ApplicationException {
+		final DataObject dataObject = trackingConfig.getDataObjectByBusinessKey(dataObjectBusinessKey);
+
+		final Map<String, Map<String, List<String>>> returnMap = new LinkedHashMap<>();
+		final Map<String, List<TrackedDataElement>> elementsByLookup = new LinkedHashMap<>();
+		final Map<TrackedDataElement, String> trackingIdsByElement = new HashMap<>();
+
+		for (final String trackingId : trackingIds) {
+			final TrackedDataObject tdo = dataService.getTrackedDataObject(dataObject, Long.valueOf(trackingId),
+					userContainer);
+			final Map<String, List<String>> elementValues = new LinkedHashMap<>();
+
+			returnMap.put(trackingId, elementValues);
+
+			for (final TrackedDataElement tde : Optional.ofNullable(tdo.getElements())
+					.orElse(Collections.emptyList())) {
+				if (tde == null || tde.getDataElement() == null) {
+					continue;
+				}
+
+				if (tde.getDataElement().isBoundToLookup()
+						&& !tde.getDataElement().getLookupDefinition().isListBasedScriptLookup()) {
+					elementsByLookup.computeIfAbsent(getLookupSqlTemplateKey(tde), k -> new ArrayList<>())
+						.add(tde);
+					trackingIdsByElement.put(tde, trackingId);
+				} else {
+					elementValues.put(tde.getBusinessKey(), getLookupValue(tde));
+				}
+			}
+		}
+
+		for (final List<TrackedDataElement> lookupElements : elementsByLookup.values()) {
+			final Map<TrackedDataElement, List<String>> lookupValues = getLookupValues(lookupElements);
+
+			lookupElements.forEach(tde -> returnMap.get(trackingIdsByElement.get(tde))
+					.put(tde.getBusinessKey(), lookupValues.get(tde)));
+		}
+
+		return returnMap;
+	}
+
+	/**
+	 * Resolves the display values of many elements which all have the same lookup SQL with a single query.
+	 *
+	 * @param lookupElements
+	 *            The elements, all with the same {@link #getLookupSqlTemplateKey(TrackedDataElement)}
+	 * @return Map from element to its display values
+	 */
+	private Map<TrackedDataElement, List<String>> getLookupValues(final List<TrackedDataElement> lookupElements) {
+		final LookupSqlTemplate lookupSqlTemplate = getLookupSqlTemplate(lookupElements.get(0));
+
+		final Map<TrackedDataElement, List<Object>> typedValuesByElement = new LinkedHashMap<>();
+		final Set<Object> allTypedValues = new LinkedHashSet<>();
+
+		for (final TrackedDataElement tde : lookupElements) {
+			final List<Object> typedValues = getTypedValues(tde, lookupSqlTemplate.getValueType());
+
+			typedValuesByElement.put(tde, typedValues);
+			allTypedValues.addAll(typedValues);
+		}
+
+		final Map<String, List<String>> displaysByValue = new HashMap<>();
+
+		if (!allTypedValues.isEmpty()) {
+			final StringBuilder lookupSql = new StringBuilder(lookupSqlTemplate.getQueryPrefix());
+
+			try {
+				final Map<String, Object> paramMap = new HashMap<>();
+				Utility.addLargeInClause("VALUE", lookupSql, paramMap, new ArrayList<>(allTypedValues));
+
+				for (final Map<String, Object> lookupReturnVal : etk.createSQL(lookupSql.toString())
+						.setParameter(paramMap)
+						.fetchList()) {
+					if (lookupReturnVal.get("DISPLAY") == null) {
+						continue;
+					}
+
+					displaysByValue.computeIfAbsent(toValueKey(lookupReturnVal.get("VALUE")), k -> new ArrayList<>())
+						.add(lookupReturnVal.get("DISPLAY") + "");
+				}
+			} catch (final Exception e) {
+				etk.getLogger().error(String.format("Error executing query %s", lookupSql.toString()), e);
+			}
+		}
+
+		final Map<TrackedDataElement, List<String>> returnMap = new HashMap<>();
+
+		typedValuesByElement.forEach((tde, typedValues) -> returnMap.put(tde, typedValues.stream()
+				.flatMap(typedValue -> displaysByValue.getOrDefault(toValueKey(typedValue), Collections.emptyList())
+						.stream())
+				.collect(Collectors.toList())));
+
+		return returnMap;
+	}
+
+	/**
+	 * Gets the key which the SQL template of a tracked data element's lookup is cached by. Data object and system
+	 * object lookups produce the same SQL for every element, but the SQL of other lookups is built from the data
+	 * element, so those are cached per element.
+	 *
+	 * @param tde
+	 *            The tracked data element which is bound to a lookup
+	 * @return The key
+	 */
+	private static String getLookupSqlTemplateKey(final TrackedDataElement tde) {
+		final LookupDefinition ld = tde.getDataElement().getLookupDefinition();
+
+		return ld.isDataObjectBased() || ld.isSystemObjectBased()
+				? ld.getBusinessKey()
+				: ld.getBusinessKey() + "." + tde.getBusinessKey();
+	}
+
+	/**
+	 * Gets the cached SQL for the lookup definition of a tracked data element, building it if necessary.
+	 *
+	 * @param tde
+	 *            The tracked data element which is bound to a lookup
+	 * @return The SQL template for the element's lookup definition
+	 */
+	private LookupSqlTemplate getLookupSqlTemplate(final TrackedDataElement tde) {
+		final LookupDefinition ld = tde.getDataElement().getLookupDefinition();
+
+		return lookupSqlTemplates.computeIfAbsent(getLookupSqlTemplateKey(tde), templateKey -> {
+			try {
+				final String innerSql;
+
+				if (ld.isDataObjectBased()) {
+					final String valColumn = ld.getValueElement() != null ? ld.getValueElement().getColumnName() : "ID";
+					final String dispColumn = ld.getDisplayElement() != null ? ld.getDisplayElement().getColumnName()
+							: "ID";
+
+					innerSql = "select " + valColumn + " as VALUE, " + dispColumn + " as DISPLAY from "
+							+ ld.getDataObject().getTableName();
+				} else if (ld.isSystemObjectBased()) {
+					final int objectType = ld.getSystemObjectTypeId().intValue();
+					final int formatId = ld.getSystemObjectDisplayFormatId().intValue();
+
+					innerSql = LookupDataUtility.getSystemObjectQuery(etk,
+							SystemObjectType.getById(objectType),
+							SystemObjectDisplayFormat.getById(formatId));
+				} else {
+					innerSql = dataService.getLookupDataViewSql(tde.getDataElement(), userContainer);
+				}
+
+				DataType lookupValueType = null;
+
+				if (ld.isSystemObjectBased()) {
+					lookupValueType = DataType.LONG;
+				} else if (ld.isDataObjectBased()) {
+					if (ld.getValueElement() == null) {
+						lookupValueType = DataType.LONG;
+					} else {
+						lookupValueType = ld.getValueElement().getDataType();
+					}
+				} else {
+					lookupValueType = ld.getValueReturnType();
+				}
+
+				if (lookupValueType == null) {
+					etk.getLogger().error(
+							String.format("Lookup with business key %s does not have a return type set, setting to TEXT.",
+									ld.getBusinessKey()));
+
+					lookupValueType = DataType.TEXT;
+				}
+
+				return new LookupSqlTemplate(
+						peformSelectReplacements("select VALUE, DISPLAY from (" + innerSql + ") var_rep_inside_query where "),
+						lookupValueType);
+			} catch (final ApplicationException e) {
+				throw new GeneralRuntimeException(e);
+			}
+		});
+	}
+
+	/**
+	 * Gets the non-null values of a tracked data element converted to the type of the lookup's value.
+	 *
+	 * @param tde
+	 *            The tracked data element
+	 * @param lookupValueType
+	 *            The type of the lookup's value
+	 * @return The typed values
+	 */
+	private List<Object> getTypedValues(final TrackedDataElement tde, final DataType lookupValueType) {
+		final List<String> rawValues;
+
+		if (tde.isMultiValued()) {
+			rawValues = Optional.ofNullable(tde.getValues()).orElse(Collections.emptyList());
+		} else {
+			rawValues = tde.getValue() == null ? Collections.emptyList() : Arrays.asList(tde.getValue());
+		}
+
+		return rawValues.stream()
+				.map(aValue -> LookupDataUtility.convertStringToTypedObject(etk, aValue, lookupValueType))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Normalizes a lookup value so that a value read from the database can be matched with a value converted by
+	 * {@link LookupDataUtility#convertStringToTypedObject(ExecutionContext, String, DataType)}.
+	 *
+	 * @param value
+	 *            The value
+	 * @return A key which is equal for equal values regardless of their java type
+	 */
+	private static String toValueKey(final Object value) {
+		if (value instanceof Number) {
+			return new BigDecimal(value.toString()).stripTrailingZeros().toPlainString();
+		} else if (value instanceof Date) {
+			return String.valueOf(((Date) value).getTime());
+		} else {
+			return String.valueOf(value);
+		}
+	}
+
+	/**
+	 * Get the display value of a tracked data element bound to a list-based script lookup.
+	 *
+	 * @param tde
+	 *            The tracked data element
+	 * @return The display values
+	 */
+	private List<String> getListBasedScriptLookupValue(final TrackedDataElement tde) {
+		final DataElementService dataElementService = etk.getDataElementService();
+
+		final List<String> stringValues;
+
+		if (tde.isMultiValued()) {
+			final List<String> rawValues = tde.getValues();
+			if (rawValues == null) {
+				stringValues = Collections.emptyList();
+			} else {
+				stringValues = rawValues;
+			}
+
+		} else {
+			final String rawValue = tde.getValue();
+			if (Utility.isBlank(rawValue)) {
+				stringValues = Collections.emptyList();
+			} else {
+				stringValues = Arrays.asList(rawValue);
+			}
+		}
+
+		final DataElement dataElement = dataElementService.getDataElementByBusinessKey(tde.getBusinessKey());
+
+		final Class<?> valueClass = DataElementType.getDataElementType(dataElement.getDataType())
+				.getUnderlyingClass();
+
+		List<?> values = null;
+
+		if (valueClass.equals(Integer.class)) {
+			values = stringValues
+					.stream()
+					.filter(StringUtility::isNotBlank)
+					.map(Integer::valueOf)
+					.collect(Collectors.toList());
+		} else if (valueClass.equals(Long.class)) {
+			values = stringValues
+					.stream()
+					.filter(StringUtility::isNotBlank)
+					.map(Long::valueOf)
+					.collect(Collectors.toList());
+		} else {
+			values = stringValues
+					.stream()
+					.filter(StringUtility::isNotBlank)
+					.collect(Collectors.toList());
+		}
+
+		return getListBasedScriptLookup(etk, dataElement, values);
+	}
+
 	public static List<String> getListBasedScriptLookup(final ExecutionContext etk, final DataElement dataElement,
 			final List<?> values) {
 		final LookupService lookupService = etk.getLookupService();
@@ -374,4 +578,34 @@ public class LookupValueFinder {
 				.map(LookupResult::getDisplay)
 				.collect(Collectors.toList());
 	}
+
+	/**
+	 * The SQL needed to look up the display values of a particular lookup definition.
+	 */
+	private static final class LookupSqlTemplate {
+
+		private final String queryPrefix;
+		private final DataType valueType;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theQueryPrefix
+		 *            query selecting VALUE and DISPLAY which ends in a WHERE so that a VALUE condition can be appended
+		 * @param theValueType
+		 *            the type of the lookup's value
+		 */
+		LookupSqlTemplate(final String theQueryPrefix, final DataType theValueType) {
+			queryPrefix = theQueryPrefix;
+			valueType = theValueType;
+		}
+
+		String getQueryPrefix() {
+			return queryPrefix;
+		}
+
+		DataType getValueType() {
+			return valueType;
+		}
+	}
 }
@@ -1,5 +1,9 @@
 package net.micropact.aea.core.query;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import com.entellitrak.ExecutionContext;
 import com.entellitrak.IncorrectResultSizeDataAccessException;
 
@@ -50,4 +54,25 @@ public enum DatabaseSequence {
         }
     }
 
+    /**
+     * Get several values from the sequence with a single query. This is much faster than calling
+     * {@link #getNextVal(ExecutionContext)} repeatedly when ids are needed for many new records.
+     *
+     * @param etk
+     *            entellitrak execution context
+     * @param count
+     *            the number of values to get
+     * @return the values
+     */
+    public List<Long> getNextVals(final ExecutionContext etk, final int count) {
+        if (count <= 0) {
+            return new ArrayList<>();
+        }
+
+        return QueryUtility.mapsToLongs(etk.createSQL(String.format("SELECT %s.nextval \"ID\" FROM DUAL CONNECT BY LEVEL <= :count",
+                oracleSequenceName))
+                .setParameter("count", count)
+                .returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+                .fetchList());
+    }
 }
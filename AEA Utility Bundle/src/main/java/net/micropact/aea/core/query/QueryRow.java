@@ -0,0 +1,142 @@
+package net.micropact.aea.core.query;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single row returned by a {@link StreamingQuery}.
+ *
+ * <p>
+ *  Unlike the rows returned by {@link com.entellitrak.SQLFacade#fetchList()}, a row does not have its own
+ *  {@link java.util.HashMap}. All rows of the same query share a single {@link Columns} index and each row only stores
+ *  an array of its values, so holding on to many rows is considerably cheaper.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class QueryRow {
+
+    private final Columns columns;
+    private final Object[] values;
+
+    /**
+     * Construct a new row.
+     *
+     * @param theColumns the column index shared by all rows of the query
+     * @param theValues the values of the row, in the same order as the columns
+     */
+    QueryRow(final Columns theColumns, final Object[] theValues){
+        columns = theColumns;
+        values = theValues;
+    }
+
+    /**
+     * Get the value of a column by name. Like {@link com.entellitrak.SQLFacade#fetchList()}, column names are upper
+     * case.
+     *
+     * @param columnName the name of the column
+     * @return the value of the column
+     * @throws IllegalArgumentException if the query does not have a column with the given name
+     */
+    public Object get(final String columnName){
+        return values[columns.indexOf(columnName)];
+    }
+
+    /**
+     * Get the value of a column by its (0-based) index. The columns are only in the SELECT order if they were listed
+     * with {@link StreamingQuery#setColumnNames(String...)}.
+     *
+     * @param columnIndex the index of the column
+     * @return the value of the column
+     */
+    public Object get(final int columnIndex){
+        return values[columnIndex];
+    }
+
+    /**
+     * Get the names of the columns of the row.
+     *
+     * @return the names of the columns of the row
+     */
+    public List<String> getColumnNames(){
+        return columns.getNames();
+    }
+
+    /**
+     * Converts this row to a Map in the same format as the rows of {@link com.entellitrak.SQLFacade#fetchList()}
+     * for code which has not been converted to use {@link QueryRow}.
+     *
+     * @return a new map from column name to value
+     */
+    public Map<String, Object> toMap(){
+        final Map<String, Object> map = new LinkedHashMap<>();
+
+        for(int i = 0; i < values.length; i++){
+            map.put(columns.getNames().get(i), values[i]);
+        }
+
+        return map;
+    }
+
+    @Override
+    public String toString(){
+        return toMap().toString();
+    }
+
+    /**
+     * The column names of a query along with an index from column name to position.
+     * A single instance is shared by every {@link QueryRow} of a query.
+     *
+     * @author zmiller
+     */
+    static final class Columns {
+
+        private final List<String> names;
+        private final Map<String, Integer> indexes;
+
+        /**
+         * Construct a new column index.
+         *
+         * @param theNames the names of the columns in order
+         */
+        Columns(final String[] theNames){
+            names = Collections.unmodifiableList(Arrays.asList(theNames));
+            indexes = new LinkedHashMap<>();
+
+            for(int i = 0; i < theNames.length; i++){
+                indexes.put(theNames[i], i);
+            }
+        }
+
+        /**
+         * Get the names of the columns in order.
+         *
+         * @return the names of the columns
+         */
+        List<String> getNames(){
+            return names;
+        }
+
+        /**
+         * Get the position of a column.
+         *
+         * @param columnName the name of the column
+         * @return the position of the column
+         * @throws IllegalArgumentException if there is no column with that name
+         */
+        int indexOf(final String columnName){
+            final Integer index = indexes.get(columnName);
+
+            if(index == null){
+                throw new IllegalArgumentException(String.format("Query does not have a column named \"%s\". Columns are %s",
+                        columnName,
+                        names));
+            }
+
+            return index;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import com.entellitrak.SQLFacade;
 
@@ -83,13 +85,68 @@ public final class QueryUtility {
             final SQLFacade sqlFacade,
             final String parameterName,
             final List<?> parameterValues) {
-        return StreamUtils.chunk(IN_CLAUSE_LIMIT, parameterValues.stream())
+        return fetchStreamBatched(sqlFacade, parameterName, parameterValues)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * This is the lazy equivalent of {@link #fetchListBatched(SQLFacade, String, List)}. The query for a batch of
+     * parameter values is only run once the rows of the previous batch have been consumed, so callers which process
+     * the rows as they go only need to hold one batch of results in memory at a time.
+     *
+     * <p>
+     *  The same restrictions as {@link #fetchListBatched(SQLFacade, String, List)} apply. Because the
+     *  {@link SQLFacade} is reused for every batch, the returned stream is always sequential.
+     * </p>
+     *
+     * @param sqlFacade the sql facade containing the query to be executed multiple times and all parameters set with
+     *      the exception of parameterName
+     * @param parameterName the name of the parameter which is is being split into smaller batches
+     * @param parameterValues the values of the parameter which is being batched
+     * @return a lazy stream of the combined query results
+     */
+    public static Stream<Map<String, Object>> fetchStreamBatched(
+            final SQLFacade sqlFacade,
+            final String parameterName,
+            final List<?> parameterValues) {
+        return StreamUtils.chunkToLists(IN_CLAUSE_LIMIT, parameterValues.stream())
                 .flatMap(parameterValuesChunk
                     -> sqlFacade
-                    .setParameter(parameterName, parameterValuesChunk.collect(Collectors.toList()))
+                    .setParameter(parameterName, parameterValuesChunk)
                     .fetchList()
-                    .stream())
-                .collect(Collectors.toList());
+                    .stream());
+    }
+
+    /**
+     * This is the streaming equivalent of {@link #fetchListBatched(SQLFacade, String, List)}. The parameter values are
+     * split into batches of {@link #IN_CLAUSE_LIMIT} and the query is run for one batch at a time, only when the
+     * previous batch has been consumed. Within each batch the rows are themselves fetched lazily by the
+     * {@link StreamingQuery}.
+     *
+     * <p>
+     *  The same restrictions as {@link #fetchListBatched(SQLFacade, String, List)} apply. In addition, the rows are
+     *  only ordered by the key column within each batch.
+     * </p>
+     *
+     * @param streamingQuery the query to be executed multiple times and all parameters set with the exception of
+     *      parameterName
+     * @param parameterName the name of the parameter which is is being split into smaller batches
+     * @param parameterValues the values of the parameter which is being batched
+     * @return a lazy stream of the combined query results
+     */
+    public static Stream<QueryRow> streamBatched(
+            final StreamingQuery streamingQuery,
+            final String parameterName,
+            final List<?> parameterValues) {
+        final int batchSize = (int) IN_CLAUSE_LIMIT;
+
+        return IntStream.range(0, (parameterValues.size() + batchSize - 1) / batchSize)
+                .mapToObj(batchIndex -> parameterValues.subList(batchIndex * batchSize,
+                        Math.min((batchIndex + 1) * batchSize, parameterValues.size())))
+                .flatMap(parameterValuesBatch
+                    -> streamingQuery
+                    .setParameter(parameterName, parameterValuesBatch)
+                    .stream());
     }
 
     /**
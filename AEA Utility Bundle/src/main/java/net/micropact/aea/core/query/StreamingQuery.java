@@ -0,0 +1,280 @@
+package net.micropact.aea.core.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.entellitrak.ExecutionContext;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+
+/**
+ * <p>
+ *  This class runs a query and hands out its rows lazily instead of loading the entire result into memory the way
+ *  {@link com.entellitrak.SQLFacade#fetchList()} does. It is intended for queries which may return a very large number
+ *  of rows (such as queries against etk_file, R-Data tables or the database's source code) where the rows can be
+ *  processed one at a time.
+ * </p>
+ * <p>
+ *  entellitrak does not give us access to a JDBC cursor, so the rows are fetched in pages of {@link #setFetchSize(int)}
+ *  rows, ordered by a key column. Each page seeks past the last key of the previous page
+ *  (<code>WHERE key &gt; :lastKey ORDER BY key FETCH NEXT n ROWS ONLY</code>) rather than using an offset or numbering
+ *  the remaining rows, so with an index on the key every page costs the same no matter how deep into the results it
+ *  is. At most one page is held in memory at a time.
+ * </p>
+ * <p>
+ *  entellitrak does not tell us the order of the columns of a query. If {@link QueryRow#get(int)} or
+ *  {@link QueryRow#getColumnNames()} is going to be used, the columns should be listed with
+ *  {@link #setColumnNames(String...)} so that they are in the SELECT order.
+ * </p>
+ * <p>
+ *  The key column must be a column of the query which is unique and never null, typically <code>ID</code>.
+ *  The query must not have its own ORDER BY clause, since the rows are always returned in key order.
+ * </p>
+ * <p>
+ *  Large IN clauses can be handled either by binding an {@link InClauseInfo} with {@link #setInClause(InClauseInfo)}
+ *  or by {@link QueryUtility#streamBatched(StreamingQuery, String, List)}.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class StreamingQuery {
+
+    /**
+     * The number of rows fetched per page if {@link #setFetchSize(int)} is not called.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final ExecutionContext etk;
+    private final String query;
+    private final String keyColumn;
+    private final Map<String, Object> parameters = new HashMap<>();
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private String[] columnNames;
+
+    /**
+     * Construct a new streaming query.
+     *
+     * @param theEtk entellitrak execution context
+     * @param theQuery the query. It must not contain an ORDER BY
+     * @param theKeyColumn a unique, non-null column of the query which will be used to page through the results
+     */
+    public StreamingQuery(final ExecutionContext theEtk, final String theQuery, final String theKeyColumn){
+        etk = theEtk;
+        query = theQuery;
+        keyColumn = theKeyColumn;
+    }
+
+    /**
+     * Bind a parameter of the query.
+     *
+     * @param name the name of the parameter
+     * @param value the value of the parameter
+     * @return this query
+     */
+    public StreamingQuery setParameter(final String name, final Object value){
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * Bind multiple parameters of the query.
+     *
+     * @param parameterMap map from parameter name to value
+     * @return this query
+     */
+    public StreamingQuery setParameter(final Map<String, ?> parameterMap){
+        parameters.putAll(parameterMap);
+        return this;
+    }
+
+    /**
+     * Bind the parameters of an IN clause. The query must contain {@link InClauseInfo#getQueryFragment()}.
+     *
+     * @param inClauseInfo the IN clause
+     * @return this query
+     */
+    public StreamingQuery setInClause(final InClauseInfo inClauseInfo){
+        return setParameter(inClauseInfo.getParameterMap());
+    }
+
+    /**
+     * Set the number of rows which will be fetched from the database at a time.
+     *
+     * @param theFetchSize the number of rows per page
+     * @return this query
+     */
+    public StreamingQuery setFetchSize(final int theFetchSize){
+        if(theFetchSize < 1){
+            throw new IllegalArgumentException(String.format("Fetch size must be positive but was %s", theFetchSize));
+        }
+
+        fetchSize = theFetchSize;
+        return this;
+    }
+
+    /**
+     * Set the columns which each row will have, in the order that {@link QueryRow#get(int)} will return them.
+     * Like {@link com.entellitrak.SQLFacade#fetchList()}, column names should be upper case.
+     * If this is not called, every column of the query is returned, but in no particular order.
+     *
+     * @param theColumnNames the names of the columns. They must include the key column.
+     * @return this query
+     */
+    public StreamingQuery setColumnNames(final String... theColumnNames){
+        if(Arrays.stream(theColumnNames).noneMatch(keyColumn::equalsIgnoreCase)){
+            throw new IllegalArgumentException(String.format("Columns %s do not include the key column \"%s\"",
+                    Arrays.toString(theColumnNames),
+                    keyColumn));
+        }
+
+        columnNames = theColumnNames.clone();
+        return this;
+    }
+
+    /**
+     * Get an iterator over the rows of the query. No query is run until the first call to
+     * {@link Iterator#hasNext()}.
+     * The parameters which are bound at the time this method is called are the ones which will be used.
+     *
+     * @return an iterator over the rows of the query
+     */
+    public Iterator<QueryRow> iterator(){
+        return new PageIterator(new HashMap<>(parameters), columnNames == null
+                ? null
+                : new QueryRow.Columns(columnNames));
+    }
+
+    /**
+     * Get a sequential stream of the rows of the query. No query is run until the stream is consumed.
+     * The parameters which are bound at the time this method is called are the ones which will be used.
+     *
+     * @return a stream of the rows of the query
+     */
+    public Stream<QueryRow> stream(){
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Get a stream of the rows of the query in the same format as {@link com.entellitrak.SQLFacade#fetchList()}.
+     * Prefer {@link #stream()} unless the rows are being passed to existing code which expects maps.
+     *
+     * @return a stream of the rows of the query
+     */
+    public Stream<Map<String, Object>> streamMaps(){
+        return stream().map(QueryRow::toMap);
+    }
+
+    /**
+     * Build the query for a single page. OFFSET/FETCH is supported by every database entellitrak supports.
+     *
+     * @param isFirstPage whether this is the first page, in which case there is no previous key to seek past
+     * @return the query
+     */
+    private String getPageQuery(final boolean isFirstPage){
+        return String.format("SELECT %s FROM (%s) aea_streamed %s ORDER BY aea_streamed.%s OFFSET 0 ROWS FETCH NEXT :aeaStreamFetchSize ROWS ONLY",
+                columnNames == null
+                    ? "aea_streamed.*"
+                    : Arrays.stream(columnNames)
+                        .map(columnName -> "aea_streamed." + columnName)
+                        .collect(Collectors.joining(", ")),
+                query,
+                isFirstPage ? "" : String.format("WHERE aea_streamed.%s > :aeaStreamLastKey", keyColumn),
+                keyColumn);
+    }
+
+    /**
+     * Iterator which fetches the rows a page at a time.
+     *
+     * @author zmiller
+     */
+    private final class PageIterator implements Iterator<QueryRow> {
+
+        private final Map<String, Object> pageParameters;
+        private Iterator<Map<String, Object>> page = Collections.emptyIterator();
+        private QueryRow.Columns columns;
+        private Object lastKey;
+        private boolean isFirstPage = true;
+        private boolean isExhausted;
+
+        /**
+         * Construct a new iterator.
+         *
+         * @param theParameters the parameters of the query
+         * @param theColumns the columns of the query, or null if they should be taken from the first row
+         */
+        PageIterator(final Map<String, Object> theParameters, final QueryRow.Columns theColumns){
+            pageParameters = theParameters;
+            columns = theColumns;
+        }
+
+        @Override
+        public boolean hasNext(){
+            if(!page.hasNext() && !isExhausted){
+                fetchPage();
+            }
+
+            return page.hasNext();
+        }
+
+        @Override
+        public QueryRow next(){
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+
+            final Map<String, Object> row = page.next();
+
+            if(columns == null){
+                columns = new QueryRow.Columns(row.keySet().toArray(new String[0]));
+            }
+
+            final Object[] values = new Object[columns.getNames().size()];
+            for(int i = 0; i < values.length; i++){
+                values[i] = row.get(columns.getNames().get(i));
+            }
+
+            lastKey = row.get(keyColumn);
+
+            if(lastKey == null){
+                throw new GeneralRuntimeException(String.format("Key column \"%s\" was null. Streaming queries must be keyed on a unique, non-null column.",
+                        keyColumn));
+            }
+
+            return new QueryRow(columns, values);
+        }
+
+        /**
+         * Fetch the next page of rows from the database.
+         */
+        private void fetchPage(){
+            final Map<String, Object> queryParameters = new HashMap<>(pageParameters);
+            queryParameters.put("aeaStreamFetchSize", fetchSize);
+
+            if(!isFirstPage){
+                queryParameters.put("aeaStreamLastKey", lastKey);
+            }
+
+            final List<Map<String, Object>> rows = etk.createSQL(getPageQuery(isFirstPage))
+                    .setParameter(queryParameters)
+                    .returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+                    .fetchList();
+
+            isFirstPage = false;
+            isExhausted = rows.size() < fetchSize;
+            page = rows.iterator();
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package net.micropact.aea.core.reflection;
 
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.entellitrak.ExecutionContext;
-import com.entellitrak.configuration.LanguageType;
-import com.entellitrak.configuration.Script;
-import com.entellitrak.configuration.Workspace;
-import com.entellitrak.configuration.WorkspaceService;
+
+import net.entellitrak.aea.gl.api.etk.reflection.InterfaceImplementationIndex;
 
 /**
  * This class contains utility functionality for determining what Script Objects implement a particular interface.
@@ -24,7 +21,8 @@ public final class InterfaceImplementationUtility {
 
 	/**
 	 * This method finds all Classes which are defined as top-level types in their Script Object files and implement a
-	 * particular interface.
+	 * particular interface in the system workspace. The results are read from the
+	 * {@link InterfaceImplementationIndex} of the system workspace, which is only rebuilt when the workspace changes.
 	 *
 	 * @param <I> the interface
 	 * @param etk entellitrak execution context
@@ -32,30 +30,8 @@ public final class InterfaceImplementationUtility {
 	 * @return The list of classes which implement the interface
 	 */
 	public static <I> List<Class<? extends I>> getInterfaceImplementations(final ExecutionContext etk, final Class<I> theInterface){
-		final WorkspaceService workspaceService = etk.getWorkspaceService();
-		final Workspace workspace = workspaceService.getSystemWorkspace();
-
-		final List<Class<? extends I>> implementations = new ArrayList<>();
-
-		for(final Script script : workspaceService.getScriptsByLanguageType(workspace, LanguageType.JAVA)){
-			final String name = script.getFullyQualifiedName();
-			try {
-				final Class<?> currentClass = Class.forName(name);
-
-				if(doesClassImplementInterface(currentClass, theInterface)){
-					@SuppressWarnings("unchecked")
-					final Class<I> currentClassI = (Class<I>) currentClass;
-					implementations.add(currentClassI);
-				}
-			} catch (final ClassNotFoundException e) {
-				etk.getLogger().error(
-						String.format("ClassUtility could not determine whether class \"%s\" implements interface \"%s\"",
-								name,
-								theInterface.getName()),
-						e);
-			}
-		}
-		return implementations;
+		return InterfaceImplementationIndex.getIndex(etk, etk.getWorkspaceService().getSystemWorkspace())
+				.getImplementations(theInterface);
 	}
 
 	/**
@@ -10,6 +10,7 @@ import com.entellitrak.IncorrectResultSizeDataAccessException;
 import net.entellitrak.aea.core.service.IDeploymentResult;
 import net.entellitrak.aea.core.service.IDeploymentService;
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.cache.AeaCoreConfigurationCacheable;
 import net.micropact.aea.core.exceptionTools.ExceptionUtility;
 import net.micropact.aea.core.utility.StringUtils;
 import net.micropact.aea.utility.Utility;
@@ -66,7 +67,7 @@ public class DeploymentService implements IDeploymentService {
 	}
 
 	/**
-	 * Generate database objects (functions/procedures/views).
+	 * Generate database objects (functions/procedures/views/tables).
 	 *
 	 * @param etk entellitrak execution context
 	 * @param deploymentResult deployment result
@@ -74,6 +75,7 @@ public class DeploymentService implements IDeploymentService {
 	private static void generateDatabaseArtifacts(final ExecutionContext etk, final DeploymentResult deploymentResult) {
 		createScriptPackageView(etk, deploymentResult);
 		createScriptPackageViewSysOnly(etk, deploymentResult);
+		createDataHealthFindingTable(etk, deploymentResult);
 		dropAeaUpdateFileReferenceId(etk, deploymentResult);
 		dropAddJbpmLogEntry(etk, deploymentResult);
 		dropAddJbpm(etk, deploymentResult);
@@ -151,6 +153,46 @@ public class DeploymentService implements IDeploymentService {
 		deploymentResult.addMessage("Successfully created view AEA_SCRIPT_PKG_VIEW_SYS_ONLY");
 	}
 
+	/**
+	 * Creates the AEA_DATA_HEALTH_FINDING table if it does not exist. The data health Developer Utilities (such as Bad
+	 * Dates and Duplicate Code Values) store the findings of their most recent scan of each data object in it, one row
+	 * per scanner and data object, with the findings stored as JSON. CHANGE_MARKER records the state of the data object's
+	 * table when it was scanned, so that data objects which have not changed do not need to be scanned again.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param deploymentResult deployment result
+	 */
+	private static void createDataHealthFindingTable(final ExecutionContext etk,
+			final DeploymentResult deploymentResult) {
+		try {
+			final long existingCount = etk.createSQL(Utility.isOracle(etk)
+					? "SELECT COUNT(*) FROM user_tables WHERE table_name = 'AEA_DATA_HEALTH_FINDING'"
+							: "SELECT COUNT(*) FROM information_schema.tables WHERE UPPER(table_name) = 'AEA_DATA_HEALTH_FINDING'")
+					.fetchLong();
+
+			if (existingCount > 0) {
+				deploymentResult.addMessage("AEA_DATA_HEALTH_FINDING already exists.");
+			} else {
+				final String createTable;
+
+				if (Utility.isSqlServer(etk)) {
+					createTable = "CREATE TABLE AEA_DATA_HEALTH_FINDING (SCANNER_KEY VARCHAR(100) NOT NULL, DATA_OBJECT_KEY VARCHAR(255) NOT NULL, SCANNED_AT DATETIME2 NOT NULL, CHANGE_MARKER VARCHAR(255), FINDINGS NVARCHAR(MAX) NOT NULL, CONSTRAINT PK_AEA_DATA_HEALTH_FINDING PRIMARY KEY (SCANNER_KEY, DATA_OBJECT_KEY))";
+				} else if (Utility.isPostgreSQL(etk)) {
+					createTable = "CREATE TABLE AEA_DATA_HEALTH_FINDING (SCANNER_KEY VARCHAR(100) NOT NULL, DATA_OBJECT_KEY VARCHAR(255) NOT NULL, SCANNED_AT TIMESTAMP NOT NULL, CHANGE_MARKER VARCHAR(255), FINDINGS TEXT NOT NULL, CONSTRAINT PK_AEA_DATA_HEALTH_FINDING PRIMARY KEY (SCANNER_KEY, DATA_OBJECT_KEY))";
+				} else {
+					createTable = "CREATE TABLE AEA_DATA_HEALTH_FINDING (SCANNER_KEY VARCHAR2(100) NOT NULL, DATA_OBJECT_KEY VARCHAR2(255) NOT NULL, SCANNED_AT DATE NOT NULL, CHANGE_MARKER VARCHAR2(255), FINDINGS CLOB NOT NULL, CONSTRAINT PK_AEA_DATA_HEALTH_FINDING PRIMARY KEY (SCANNER_KEY, DATA_OBJECT_KEY))";
+				}
+
+				etk.createSQL(createTable).execute();
+
+				deploymentResult.addMessage("Successfully created table AEA_DATA_HEALTH_FINDING");
+			}
+		} catch (final Exception e) {
+			deploymentResult.addMessage("Error creating AEA_DATA_HEALTH_FINDING.");
+			deploymentResult.addMessage(ExceptionUtility.getFullStackTrace(e));
+		}
+	}
+
 	/**
 	 * Configure values for the T_AEA_CORE_CONFIGURATION table.
 	 *
@@ -355,6 +397,8 @@ public class DeploymentService implements IDeploymentService {
 		A_45("writeDebugToLog", "true", "Enables advanced AEA Debug Logging"),
 		A_46("ls.charactersNeededForSearch", "3", "Number of characters a user must enter before live search performs a search. Must be a positive integer between 1 and 10, otherwise the system will default to a value of 3."),
 		A_47("ls.debugMode", "false", "Valid values are \"true\", \"t\" and \"1\". All others evaluate to false."),
+		A_48("aea.core.configurationVersion", "0", AeaCoreConfigurationCacheable.VERSION_DESCRIPTION),
+		A_49("du.dataHealth.maxConcurrentScans", "4", "The maximum number of data objects the data health Developer Utilities (such as Bad Dates and Duplicate Code Values) will scan at the same time when a scan is started from the page. Each data object is scanned by its own request. Higher values finish sooner but put more load on the database."),
 		;
 
 		private String code;
@@ -27,7 +27,9 @@ public class AeaUtilitySetupService {
 		final List<String> messages = new ArrayList<>();
 
 		messages.add("Setting up Role Data Permissions");
-		ConfigureDataPermissionsService.updateDataPermissions(etk, getDesiredPermissions(etk, messages));
+		messages.add(ConfigureDataPermissionsService
+				.updateDataPermissions(etk, getDesiredPermissions(etk, messages), false)
+				.getSummaryString());
 
 		messages.add(CoreServiceFactory
 				.getDeploymentService(etk)
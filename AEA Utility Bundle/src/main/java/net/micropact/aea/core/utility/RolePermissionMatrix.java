@@ -0,0 +1,172 @@
+package net.micropact.aea.core.utility;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.RoleService;
+import com.entellitrak.configuration.DataObject;
+import com.entellitrak.permission.DataPermissionType;
+import com.entellitrak.permission.DataPermissions;
+import com.entellitrak.permission.PermissionAccessLevelType;
+import com.entellitrak.user.Role;
+
+/**
+ * The data object permissions of every role for every data object. The matrix is loaded in a single pass over the
+ * roles and data objects (each of which is only requested from core once) so that pages displaying the permissions
+ * can look them up instead of walking the configuration API for each combination.
+ * The entries can either be listed, or looked up by role and data object with {@link #get(Role, DataObject)}.
+ *
+ * @author zmiller
+ */
+public final class RolePermissionMatrix {
+
+	private final List<Entry> entries;
+	/** Map from role business key to a map from data object business key to the entry. */
+	private final Map<String, Map<String, Entry>> entriesByRoleAndDataObject = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param theEntries the entries
+	 */
+	private RolePermissionMatrix(final List<Entry> theEntries) {
+		entries = Collections.unmodifiableList(theEntries);
+
+		for(final Entry entry : theEntries){
+			entriesByRoleAndDataObject.computeIfAbsent(entry.getRole().getBusinessKey(), roleBusinessKey -> new HashMap<>())
+				.put(entry.getDataObjectBusinessKey(), entry);
+		}
+	}
+
+	/**
+	 * Load the permissions of all roles for all data objects.
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the matrix
+	 */
+	public static RolePermissionMatrix load(final ExecutionContext etk) {
+		return load(etk, etk.getRoleService().getRoles(), etk.getDataObjectService().getDataObjects());
+	}
+
+	/**
+	 * Load the permissions of some roles for some data objects.
+	 *
+	 * @param etk entellitrak execution context
+	 * @param roles the roles
+	 * @param dataObjects the data objects
+	 * @return the matrix
+	 */
+	public static RolePermissionMatrix load(final ExecutionContext etk,
+			final List<Role> roles,
+			final List<DataObject> dataObjects) {
+		final RoleService roleService = etk.getRoleService();
+		final List<Entry> entries = new ArrayList<>(roles.size() * dataObjects.size());
+
+		for(final Role role : roles){
+			for(final DataObject dataObject : dataObjects){
+				final DataPermissions dataPermissions = roleService.getDataObjectPermissions(role, dataObject);
+
+				final Map<DataPermissionType, PermissionAccessLevelType> accessLevels = new EnumMap<>(DataPermissionType.class);
+				for(final DataPermissionType permissionType : DataPermissionType.values()){
+					accessLevels.put(permissionType, dataPermissions.getAccessLevel(permissionType));
+				}
+
+				entries.add(new Entry(role, dataObject.getBusinessKey(), accessLevels));
+			}
+		}
+
+		return new RolePermissionMatrix(entries);
+	}
+
+	/**
+	 * Get the entries of the matrix. There is one entry for each combination of role and data object, grouped by role.
+	 *
+	 * @return the entries
+	 */
+	public List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * Get the permissions of a role for a data object.
+	 *
+	 * @param roleBusinessKey the business key of the role
+	 * @param dataObjectBusinessKey the business key of the data object
+	 * @return the entry, or null if the role or data object was not loaded into the matrix
+	 */
+	public Entry get(final String roleBusinessKey, final String dataObjectBusinessKey) {
+		return entriesByRoleAndDataObject.getOrDefault(roleBusinessKey, Collections.emptyMap())
+				.get(dataObjectBusinessKey);
+	}
+
+	/**
+	 * Get the permissions of a role for a data object.
+	 *
+	 * @param role the role
+	 * @param dataObject the data object
+	 * @return the entry, or null if the role or data object was not loaded into the matrix
+	 */
+	public Entry get(final Role role, final DataObject dataObject) {
+		return get(role.getBusinessKey(), dataObject.getBusinessKey());
+	}
+
+	/**
+	 * The permissions of a single role for a single data object.
+	 *
+	 * @author zmiller
+	 */
+	public static final class Entry {
+
+		private final Role role;
+		private final String dataObjectBusinessKey;
+		private final Map<DataPermissionType, PermissionAccessLevelType> accessLevels;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theRole the role
+		 * @param theDataObjectBusinessKey the business key of the data object
+		 * @param theAccessLevels the access level of each permission type
+		 */
+		Entry(final Role theRole,
+				final String theDataObjectBusinessKey,
+				final Map<DataPermissionType, PermissionAccessLevelType> theAccessLevels) {
+			role = theRole;
+			dataObjectBusinessKey = theDataObjectBusinessKey;
+			accessLevels = Collections.unmodifiableMap(theAccessLevels);
+		}
+
+		/**
+		 * Get the role.
+		 *
+		 * @return the role
+		 */
+		public Role getRole() {
+			return role;
+		}
+
+		/**
+		 * Get the business key of the data object.
+		 *
+		 * @return the business key of the data object
+		 */
+		public String getDataObjectBusinessKey() {
+			return dataObjectBusinessKey;
+		}
+
+		/**
+		 * Get the access level the role has for a type of permission.
+		 *
+		 * @param permissionType the type of permission
+		 * @return the access level
+		 */
+		public PermissionAccessLevelType getAccessLevel(final DataPermissionType permissionType) {
+			return accessLevels.get(permissionType);
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package net.micropact.aea.core.utility;
 
+import java.sql.Clob;
+import java.sql.SQLException;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.entellitrak.ExecutionContext;
 
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 import net.micropact.aea.utility.Utility;
 
 /**
@@ -78,4 +81,24 @@ public final class SqlUtils {
             }
         }
     }
+
+    /**
+     * Convert the value of a text column to a String. Depending on the database, large text columns may be returned
+     * as a {@link Clob} instead of a String.
+     *
+     * @param value the value returned by the database
+     * @return the value as a String
+     */
+    public static String clobToString(final Object value) {
+        if (value instanceof Clob) {
+            try {
+                final Clob clob = (Clob) value;
+                return clob.getSubString(1, (int) clob.length());
+            } catch (final SQLException e) {
+                throw new GeneralRuntimeException(e);
+            }
+        } else {
+            return (String) value;
+        }
+    }
 }
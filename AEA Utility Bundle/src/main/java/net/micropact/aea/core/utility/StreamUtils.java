@@ -1,13 +1,17 @@
 package net.micropact.aea.core.utility;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
 
@@ -26,6 +30,7 @@ public final class StreamUtils {
 
     /**
      * Splits/Partitions a stream into separate streams each of a maximum size.
+     * See {@link #chunkToLists(long, Stream)} for how the stream is consumed.
      *
      * @param <T>
      *            the type of the stream
@@ -36,11 +41,34 @@ public final class StreamUtils {
      * @return the chunked stream
      */
     public static <T> Stream<Stream<T>> chunk(final long chunkSize, final Stream<T> stream) {
-        final AtomicLong counter = new AtomicLong();
-        return stream.collect(Collectors.groupingBy(x -> counter.getAndIncrement() / chunkSize))
-            .values()
-            .stream()
-            .map(List::stream);
+        return chunkToLists(chunkSize, stream).map(List::stream);
+    }
+
+    /**
+     * Splits/Partitions a stream into separate lists each of a maximum size.
+     *
+     * <p>
+     *  The chunks are produced lazily as the returned stream is consumed, so only one chunk needs to be in memory at a
+     *  time. The chunks are in the same order as the source stream and every chunk except the last one is full.
+     *  If the source stream is parallel, the returned stream is too: chunks are still read from the source in order,
+     *  but groups of chunks can then be processed in parallel.
+     * </p>
+     *
+     * @param <T>
+     *            the type of the stream
+     * @param chunkSize
+     *            the chunk size
+     * @param stream
+     *            the stream
+     * @return the chunked stream
+     */
+    public static <T> Stream<List<T>> chunkToLists(final long chunkSize, final Stream<T> stream) {
+        if (chunkSize < 1) {
+            throw new GeneralRuntimeException(String.format("Chunk size must be positive but was %s", chunkSize));
+        }
+
+        return StreamSupport.stream(new ChunkingSpliterator<>(chunkSize, stream.spliterator()), stream.isParallel())
+            .onClose(stream::close);
     }
 
     public static <T> Collector<T, ?, T> toSingletonCollector() {
@@ -63,4 +91,62 @@ public final class StreamUtils {
 				(v1,v2) -> { throw new GeneralRuntimeException(String.format("Duplicate key for values %s and %s", v1, v2));},
 		        TreeMap::new);
 	}
+
+    /**
+     * Spliterator which groups the elements of another spliterator into lists.
+     * Parallel splitting is handled by {@link Spliterators.AbstractSpliterator}, which splits off batches of whole
+     * chunks, so chunks never span a split.
+     *
+     * @author Zachary.Miller
+     *
+     * @param <T> the type of the elements
+     */
+    private static final class ChunkingSpliterator<T> extends Spliterators.AbstractSpliterator<List<T>> {
+
+        private final long chunkSize;
+        private final Spliterator<T> source;
+
+        /**
+         * Constructor.
+         *
+         * @param theChunkSize the maximum size of each chunk
+         * @param theSource the elements to chunk
+         */
+        ChunkingSpliterator(final long theChunkSize, final Spliterator<T> theSource) {
+            super(estimateChunks(theSource.estimateSize(), theChunkSize),
+                Spliterator.ORDERED | Spliterator.NONNULL);
+            chunkSize = theChunkSize;
+            source = theSource;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super List<T>> action) {
+            final List<T> chunk = new ArrayList<>();
+
+            boolean hasMore = true;
+            while (hasMore && chunk.size() < chunkSize) {
+                hasMore = source.tryAdvance(chunk::add);
+            }
+
+            if (chunk.isEmpty()) {
+                return false;
+            } else {
+                action.accept(chunk);
+                return true;
+            }
+        }
+
+        /**
+         * Estimate the number of chunks that a number of elements will be split into.
+         *
+         * @param size the estimated number of elements
+         * @param chunkSize the chunk size
+         * @return the estimated number of chunks
+         */
+        private static long estimateChunks(final long size, final long chunkSize) {
+            return size == Long.MAX_VALUE
+                ? Long.MAX_VALUE
+                : (size + chunkSize - 1) / chunkSize;
+        }
+    }
 }
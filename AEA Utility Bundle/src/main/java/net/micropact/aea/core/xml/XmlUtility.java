@@ -8,6 +8,7 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -98,6 +99,20 @@ public final class XmlUtility {
         }
     }
 
+    /**
+     * Get an {@link XMLInputFactory} with DTDs and external entities disabled.
+     *
+     * @return the xml input factory
+     */
+    public static XMLInputFactory getSecureXmlInputFactory() {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return xmlInputFactory;
+    }
+
     /**
      * Get an XML Transformer.
      *
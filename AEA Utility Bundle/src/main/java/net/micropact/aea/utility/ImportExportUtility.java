@@ -41,10 +41,26 @@ import org.w3c.dom.NodeList;
  *  }
  * </pre>
  *
+ * <p>
+ *  The DOM based methods in this class require the entire document to be in memory. Large exports and imports should
+ *  use {@link ImportExportXmlWriter} and {@link ImportExportXmlReader} instead, and imports which look up many rows
+ *  should use {@link IndexedRows} instead of the linear lookups in this class.
+ * </p>
+ *
  * @author zmiller
  */
 public final class ImportExportUtility {
 
+    /**
+     * The name of the root element of the document.
+     */
+    public static final String ROOT_ELEMENT = "objects";
+
+    /**
+     * The name of the element which represents a row of a table.
+     */
+    public static final String ROW_ELEMENT = "row";
+
     /**
      * There is no reason to instantiate an {@link ImportExportUtility}.
      */
@@ -99,6 +115,7 @@ public final class ImportExportUtility {
      * @param valueKey
      *            The key of the property we wish to extract the final value from
      * @return The value we are searching for. Returns null if no matching value was found.
+     * @see IndexedRows#lookupValue(Object, Object)
      */
     public static <K, V> V lookupValueInListOfMaps(final List<Map<K, V>> objects,
         final K searchKey,
@@ -126,6 +143,7 @@ public final class ImportExportUtility {
      * @param searchValue
      *            The value of the key we wish to find
      * @return The object we were searchnig for. Returns null if no value was found.
+     * @see IndexedRows#lookupMap(Object)
      */
     public static <K, V> Map<K, V> lookupMapByKey(final List<Map<K, V>> objects,
         final K searchKey,
@@ -136,6 +154,23 @@ public final class ImportExportUtility {
             .orElse(null);
     }
 
+    /**
+     * Index a list of maps on the value of one of their keys so that they can be looked up in constant time.
+     *
+     * @param <K>
+     *            the type of the key
+     * @param <V>
+     *            the type of the value
+     * @param objects
+     *            The objects to index
+     * @param searchKey
+     *            The key the objects will be looked up by
+     * @return the index
+     */
+    public static <K, V> IndexedRows<K, V> indexByKey(final List<Map<K, V>> objects, final K searchKey) {
+        return new IndexedRows<>(objects, searchKey);
+    }
+
     /**
      * Will create a new node with a text-node inside and append it to another node.
      *
@@ -188,7 +223,7 @@ public final class ImportExportUtility {
         parent.appendChild(group);
 
         rows.forEach(row -> {
-            final Element element = document.createElement("row");
+            final Element element = document.createElement(ROW_ELEMENT);
             group.appendChild(element);
             row.keySet().forEach(key -> addSimpleElement(document, element, key, row.get(key)));
         });
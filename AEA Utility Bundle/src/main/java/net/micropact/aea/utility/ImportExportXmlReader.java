@@ -0,0 +1,147 @@
+package net.micropact.aea.utility;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.micropact.aea.core.xml.XmlUtility;
+
+/**
+ * Reads an import/export XML document (see {@link ImportExportUtility}) from an input stream a row at a time. Unlike
+ * {@link ImportExportUtility#getTable(org.w3c.dom.Document, String)} the document is never parsed into a DOM tree, so
+ * an import only needs to hold the rows that it actually keeps.
+ *
+ * <p>
+ *  Because the stream can only be read once, the rows of every table are passed to a single {@link RowHandler} in the
+ *  order they appear in the document. Imports which need a table as a whole can use {@link #readTables(InputStream)}.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class ImportExportXmlReader {
+
+    /**
+     * There is no reason to instantiate an {@link ImportExportXmlReader}.
+     */
+    private ImportExportXmlReader() {
+    }
+
+    /**
+     * Receives the rows of an import/export XML document.
+     *
+     * @author zmiller
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+
+        /**
+         * Handle a single row.
+         *
+         * @param tableName the name of the table the row belongs to
+         * @param row the row, where the keys are the column names. Empty columns have a null value.
+         */
+        void handleRow(String tableName, Map<String, String> row);
+
+        /**
+         * Called when a table starts, before any of its rows. This is called even if the table has no rows.
+         *
+         * @param tableName the name of the table
+         */
+        default void startTable(final String tableName) {
+        }
+    }
+
+    /**
+     * Read every row of an import/export XML document.
+     *
+     * @param inputStream the XML
+     * @param rowHandler the handler which will be called for each row
+     */
+    public static void readRows(final InputStream inputStream, final RowHandler rowHandler) {
+        XMLStreamReader reader = null;
+
+        try {
+            reader = XmlUtility.getSecureXmlInputFactory().createXMLStreamReader(inputStream);
+
+            /* depth 1 is the root element, 2 is a table, 3 is a row and 4 is a column */
+            int depth = 0;
+            String tableName = null;
+            Map<String, String> row = null;
+
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        depth++;
+
+                        if (depth == 2) {
+                            tableName = reader.getLocalName();
+                            rowHandler.startTable(tableName);
+                        } else if (depth == 3) {
+                            row = new HashMap<>();
+                        } else if (depth == 4) {
+                            final String columnName = reader.getLocalName();
+                            final String text = reader.getElementText();
+                            row.put(columnName, text.isEmpty() ? null : text);
+
+                            /* getElementText consumes the end of the column */
+                            depth--;
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (depth == 3) {
+                            rowHandler.handleRow(tableName, row);
+                            row = null;
+                        }
+
+                        depth--;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (final XMLStreamException e) {
+            throw new GeneralRuntimeException(e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (final XMLStreamException e) {
+                    throw new GeneralRuntimeException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read every table of an import/export XML document.
+     *
+     * @param inputStream the XML
+     * @return map from table name to the rows of the table, in the order they appear in the document
+     */
+    public static Map<String, List<Map<String, String>>> readTables(final InputStream inputStream) {
+        final Map<String, List<Map<String, String>>> tables = new LinkedHashMap<>();
+
+        readRows(inputStream, new RowHandler() {
+
+            @Override
+            public void startTable(final String tableName) {
+                tables.putIfAbsent(tableName, new ArrayList<>());
+            }
+
+            @Override
+            public void handleRow(final String tableName, final Map<String, String> row) {
+                tables.get(tableName).add(row);
+            }
+        });
+
+        return tables;
+    }
+}
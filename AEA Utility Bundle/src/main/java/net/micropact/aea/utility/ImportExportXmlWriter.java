@@ -0,0 +1,153 @@
+package net.micropact.aea.utility;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.codec.binary.Base64;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+
+/**
+ * Writes an import/export XML document (see {@link ImportExportUtility}) directly to an output stream. Unlike
+ * {@link ImportExportUtility#addListToXml(org.w3c.dom.Document, org.w3c.dom.Element, String, java.util.List)} the rows
+ * are written as they are added instead of being built into a DOM tree first, so exports of large tables can be
+ * produced without holding them in memory (for instance by writing the rows of a
+ * {@link net.micropact.aea.core.query.StreamingQuery}).
+ *
+ * <p>
+ *  Typical usage:
+ * </p>
+ *
+ * <pre>
+ * {@code
+ *  try(ImportExportXmlWriter writer = new ImportExportXmlWriter(outputStream)){
+ *      writer.startTable("ETK_USER");
+ *      rows.forEach(writer::writeRow);
+ *      writer.endTable();
+ *  }
+ * }
+ * </pre>
+ *
+ * <p>
+ *  Closing the writer finishes the document but does not close the underlying stream.
+ * </p>
+ *
+ * @author zmiller
+ */
+public final class ImportExportXmlWriter implements AutoCloseable {
+
+    private final XMLStreamWriter writer;
+    private boolean isClosed;
+
+    /**
+     * Constructor. Writes the start of the document.
+     *
+     * @param outputStream the stream to write the XML to
+     */
+    public ImportExportXmlWriter(final OutputStream outputStream) {
+        try {
+            writer = XMLOutputFactory.newInstance()
+                    .createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeStartElement(ImportExportUtility.ROOT_ELEMENT);
+        } catch (final XMLStreamException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * Start a new table. The rows which are written until {@link #endTable()} is called will belong to this table.
+     *
+     * @param tableName the name of the table
+     */
+    public void startTable(final String tableName) {
+        try {
+            writer.writeStartElement(tableName);
+        } catch (final XMLStreamException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * Write a row of the current table. The keys of the map will be the tag names and the values will be the text
+     * content, encoded the same way as
+     * {@link ImportExportUtility#addSimpleElement(org.w3c.dom.Document, org.w3c.dom.Element, String, Object)}.
+     *
+     * @param row the row
+     */
+    public void writeRow(final Map<String, ?> row) {
+        try {
+            writer.writeStartElement(ImportExportUtility.ROW_ELEMENT);
+
+            for (final Map.Entry<String, ?> column : row.entrySet()) {
+                writer.writeStartElement(column.getKey().toUpperCase());
+                writer.writeCharacters(toText(column.getValue()));
+                writer.writeEndElement();
+            }
+
+            writer.writeEndElement();
+        } catch (final XMLStreamException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * End the current table.
+     */
+    public void endTable() {
+        try {
+            writer.writeEndElement();
+        } catch (final XMLStreamException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * Write an entire table.
+     *
+     * @param tableName the name of the table
+     * @param rows the rows of the table
+     */
+    public void writeTable(final String tableName, final Iterable<? extends Map<String, ?>> rows) {
+        startTable(tableName);
+        rows.forEach(this::writeRow);
+        endTable();
+    }
+
+    /**
+     * Convert a value to the text which will be written to the XML.
+     *
+     * @param value the value
+     * @return the text
+     */
+    private static String toText(final Object value) {
+        if (value == null) {
+            return "";
+        } else if (value instanceof byte[]) {
+            return new String(Base64.encodeBase64((byte[]) value), StandardCharsets.UTF_8);
+        } else {
+            return value.toString();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!isClosed) {
+            isClosed = true;
+
+            try {
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.flush();
+                writer.close();
+            } catch (final XMLStreamException e) {
+                throw new GeneralRuntimeException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.micropact.aea.utility;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hash index of a list of rows (maps) on the value of one of their keys. This is the indexed equivalent of
+ * {@link ImportExportUtility#lookupMapByKey(List, Object, Object)} and
+ * {@link ImportExportUtility#lookupValueInListOfMaps(List, Object, Object, Object)}, which scan the whole list for each
+ * lookup. Imports which remap the ids of every row should build an index once and use it instead.
+ *
+ * <p>
+ *  Like the linear lookups, if several rows have the same value only the first one is found.
+ * </p>
+ *
+ * @author zmiller
+ *
+ * @param <K> the type of the keys of the rows
+ * @param <V> the type of the values of the rows
+ */
+public final class IndexedRows<K, V> {
+
+    private final Map<V, Map<K, V>> rowsByValue;
+
+    /**
+     * Constructor.
+     *
+     * @param rows the rows to index
+     * @param searchKey the key whose value the rows will be looked up by
+     */
+    public IndexedRows(final List<Map<K, V>> rows, final K searchKey) {
+        final Map<V, Map<K, V>> index = new HashMap<>();
+
+        for (final Map<K, V> row : rows) {
+            index.putIfAbsent(row.get(searchKey), row);
+        }
+
+        rowsByValue = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Get the row whose search key has a particular value.
+     *
+     * @param searchValue the value of the search key
+     * @return the row, or null if there is no such row
+     */
+    public Map<K, V> lookupMap(final V searchValue) {
+        return rowsByValue.get(searchValue);
+    }
+
+    /**
+     * Get the value of a key of the row whose search key has a particular value.
+     *
+     * @param searchValue the value of the search key
+     * @param valueKey the key of the value to return
+     * @return the value, or null if there is no such row
+     */
+    public V lookupValue(final V searchValue, final K valueKey) {
+        final Map<K, V> row = rowsByValue.get(searchValue);
+
+        return row == null ? null : row.get(valueKey);
+    }
+}
@@ -0,0 +1,28 @@
+package net.micropact.aea.utility.rdoutils;
+
+/**
+ * This enum describes how {@link RdoSearchPageUtility#performSearch(boolean)} determines the total number of
+ * records which match the search criteria.
+ *
+ * @author aclee
+ *
+ */
+public enum RdoSearchCountMode {
+
+	/**
+	 * Run a <code>select count(*)</code> for every request. This is the original behavior.
+	 */
+	EXACT,
+
+	/**
+	 * Run a <code>select count(*)</code> only when the search criteria change. While the user is paging through the
+	 * results of the same search, the row count which was posted back with the page is reused.
+	 */
+	CACHED,
+
+	/**
+	 * Behaves like {@link #CACHED}, except that when no search criteria have been entered the row count is estimated
+	 * from the database's table statistics instead of being counted.
+	 */
+	APPROXIMATE;
+}
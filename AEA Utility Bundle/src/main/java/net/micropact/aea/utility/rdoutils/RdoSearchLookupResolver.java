@@ -0,0 +1,271 @@
+package net.micropact.aea.utility.rdoutils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.configuration.DataElement;
+import com.entellitrak.configuration.DataObjectLookupDefinition;
+import com.entellitrak.configuration.LookupDefinition;
+import com.entellitrak.configuration.LookupDefinitionService;
+import com.entellitrak.configuration.LookupSourceType;
+import com.entellitrak.configuration.SystemObjectLookupDefinition;
+import com.entellitrak.legacy.util.StringUtility;
+import com.entellitrak.lookup.For;
+import com.entellitrak.lookup.LookupResult;
+
+import net.micropact.aea.core.query.QueryUtility;
+import net.micropact.aea.utility.SystemObjectDisplayFormat;
+import net.micropact.aea.utility.SystemObjectType;
+
+/**
+ * This class resolves the display values of the lookup columns of a single page of RDO search results.
+ * It is created for each table that is built and is not shared between requests.
+ *
+ * <p>
+ *  The values which actually appear on the page are collected up front. Data Object and System Object lookups are
+ *  then resolved with one query per lookup which only fetches those values, and M-Table values are loaded with one
+ *  query per M-Table for every record on the page. Other lookups (SQL, script and list-based script) cannot be
+ *  restricted to particular values, so their For.VIEW results are loaded once.
+ *  Either way, the displays are indexed by value so that each cell is a single map lookup.
+ * </p>
+ *
+ * @author aclee
+ *
+ */
+class RdoSearchLookupResolver {
+
+	private final ExecutionContext etk;
+
+	/**
+	 * Lookup business key to lookup value to lookup display.
+	 */
+	private final Map<String, Map<String, String>> displaysByLookup = new HashMap<>();
+
+	/**
+	 * M-Table name and column to ID_OWNER to the values of the M-Table.
+	 */
+	private final Map<String, Map<String, List<String>>> mTableValues = new HashMap<>();
+
+	/**
+	 * Resolves all lookup values which appear in the result set.
+	 *
+	 * @param theEtk entellitrak execution context
+	 * @param resultSet the rows of the page
+	 * @param rowAttributeList the columns of the page
+	 */
+	RdoSearchLookupResolver(final ExecutionContext theEtk,
+			final List<Map<String, Object>> resultSet,
+			final List<RdoDataElement> rowAttributeList) {
+		etk = theEtk;
+
+		final List<Object> trackingIds = resultSet.stream()
+				.map(aRow -> aRow.get("ID"))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+
+		final Map<String, Set<Object>> valuesByLookup = new HashMap<>();
+
+		for (final RdoDataElement aRowAttribute : rowAttributeList) {
+			final String lookupBusinessKey = aRowAttribute.getLookupBusinessKey();
+
+			if (StringUtility.isBlank(lookupBusinessKey)) {
+				continue;
+			}
+
+			final Set<Object> lookupValues = valuesByLookup.computeIfAbsent(lookupBusinessKey, k -> new LinkedHashSet<>());
+
+			if (StringUtility.isBlank(aRowAttribute.getMTableName())) {
+				for (final Map<String, Object> aRow : resultSet) {
+					final Object value = aRow.get(aRowAttribute.getColumnName());
+
+					if (value != null) {
+						lookupValues.add(value);
+					}
+				}
+			} else {
+				lookupValues.addAll(loadMTableValues(aRowAttribute, trackingIds));
+			}
+		}
+
+		if (!valuesByLookup.isEmpty()) {
+			final LookupDefinitionService lookupDefinitionService = etk.getLookupDefinitionService();
+
+			final Map<String, LookupDefinition> lookupDefinitions = lookupDefinitionService.getLookupDefinitions()
+					.stream()
+					.filter(lookupDefinition -> valuesByLookup.containsKey(lookupDefinition.getBusinessKey()))
+					.collect(Collectors.toMap(LookupDefinition::getBusinessKey, Function.identity()));
+
+			valuesByLookup.forEach((lookupBusinessKey, values) ->
+				displaysByLookup.put(lookupBusinessKey,
+						resolveLookup(lookupBusinessKey, lookupDefinitions.get(lookupBusinessKey), values)));
+		}
+	}
+
+	/**
+	 * Get the display of a lookup value.
+	 *
+	 * @param lookupBusinessKey the business key of the lookup
+	 * @param value the value
+	 * @return the display, or null if the value is not a valid lookup value
+	 */
+	String getDisplay(final String lookupBusinessKey, final Object value) {
+		return value == null
+				? null
+				: displaysByLookup.getOrDefault(lookupBusinessKey, Collections.emptyMap()).get(value.toString());
+	}
+
+	/**
+	 * Get the values stored in an M-Table for a particular record.
+	 *
+	 * @param aRowAttribute the multi-valued column
+	 * @param trackingId the ID of the record
+	 * @return the values in the order they were inserted
+	 */
+	List<String> getMTableValues(final RdoDataElement aRowAttribute, final Object trackingId) {
+		return trackingId == null
+				? Collections.emptyList()
+				: mTableValues.getOrDefault(getMTableKey(aRowAttribute), Collections.emptyMap())
+				.getOrDefault(trackingId.toString(), Collections.emptyList());
+	}
+
+	/**
+	 * Loads the M-Table values of every record on the page in a single (batched) query.
+	 *
+	 * @param aRowAttribute the multi-valued column
+	 * @param trackingIds the IDs of the records on the page
+	 * @return the distinct values which were found
+	 */
+	private Set<Object> loadMTableValues(final RdoDataElement aRowAttribute, final List<Object> trackingIds) {
+		final Map<String, List<String>> valuesByOwner = new HashMap<>();
+		final Set<Object> distinctValues = new LinkedHashSet<>();
+
+		mTableValues.put(getMTableKey(aRowAttribute), valuesByOwner);
+
+		if (trackingIds.isEmpty()) {
+			return distinctValues;
+		}
+
+		try {
+			final List<Map<String, Object>> rows = QueryUtility.fetchListBatched(
+					etk.createSQL(" select ID_OWNER, " + aRowAttribute.getColumnName() + " as VALUE, ID from "
+							+ aRowAttribute.getMTableName()
+							+ " where id_owner in (:idOwners) ")
+					.returnEmptyResultSetAs(new ArrayList<Map<String, Object>>()),
+					"idOwners",
+					trackingIds);
+
+			rows.stream()
+				.sorted((row1, row2) -> Long.compare(((Number) row1.get("ID")).longValue(),
+						((Number) row2.get("ID")).longValue()))
+				.filter(row -> row.get("VALUE") != null)
+				.forEach(row -> {
+					distinctValues.add(row.get("VALUE"));
+					valuesByOwner.computeIfAbsent(row.get("ID_OWNER").toString(), k -> new ArrayList<>())
+						.add(row.get("VALUE").toString());
+				});
+		} catch (final Exception e) {
+			etk.getLogger().error("MTABLE Lookup value retrieval error.", e);
+		}
+
+		return distinctValues;
+	}
+
+	/**
+	 * Resolves the displays for a set of values of a single lookup.
+	 *
+	 * @param lookupBusinessKey the business key of the lookup
+	 * @param lookupDefinition the lookup definition, may be null
+	 * @param values the values which need to be displayed
+	 * @return a map from the string representation of each value to its display
+	 */
+	private Map<String, String> resolveLookup(final String lookupBusinessKey,
+			final LookupDefinition lookupDefinition,
+			final Set<Object> values) {
+		final Map<String, String> displays = new HashMap<>();
+
+		if (values.isEmpty()) {
+			return displays;
+		}
+
+		try {
+			final String valueQuery = lookupDefinition == null ? null : getValueQuery(lookupDefinition);
+
+			if (valueQuery == null) {
+				for (final LookupResult aResult : etk.getLookupService().getLookup(lookupBusinessKey).execute(For.VIEW)) {
+					displays.putIfAbsent(aResult.getValue(), aResult.getDisplay());
+				}
+			} else {
+				for (final Map<String, Object> aRow : QueryUtility.fetchListBatched(
+						etk.createSQL(valueQuery).returnEmptyResultSetAs(new ArrayList<Map<String, Object>>()),
+						"lookupValues",
+						new ArrayList<>(values))) {
+					if (aRow.get("VALUE") != null) {
+						displays.putIfAbsent(aRow.get("VALUE").toString(),
+								aRow.get("DISPLAY") == null ? null : aRow.get("DISPLAY").toString());
+					}
+				}
+			}
+		} catch (final Exception e) {
+			etk.getLogger().error(String.format("Problem resolving values of lookup %s", lookupBusinessKey), e);
+		}
+
+		return displays;
+	}
+
+	/**
+	 * Builds a query which selects the VALUE and DISPLAY of the lookup for the values bound to :lookupValues.
+	 *
+	 * @param lookupDefinition the lookup definition
+	 * @return the query, or null if the lookup cannot be queried directly
+	 */
+	private String getValueQuery(final LookupDefinition lookupDefinition) {
+		final LookupDefinitionService lookupDefinitionService = etk.getLookupDefinitionService();
+
+		if (LookupSourceType.DATA_OBJECT == lookupDefinition.getSourceType()) {
+			final DataObjectLookupDefinition dataObjectLookup = lookupDefinitionService
+					.getDataObjectLookupDefinitionByBusinessKey(lookupDefinition.getBusinessKey());
+			final String valueColumn = getColumnName(dataObjectLookup.getValueElement());
+
+			return "select " + valueColumn + " as VALUE, "
+				+ getColumnName(dataObjectLookup.getDisplayElement()) + " as DISPLAY from "
+				+ dataObjectLookup.getDataObject().getTableName()
+				+ " where " + valueColumn + " in (:lookupValues)";
+		} else if (LookupSourceType.SYSTEM_OBJECT == lookupDefinition.getSourceType()) {
+			final SystemObjectLookupDefinition systemObjectLookup = lookupDefinitionService
+					.getSystemObjectLookupDefinitionByBusinessKey(lookupDefinition.getBusinessKey());
+			final SystemObjectType systemObjectType = SystemObjectType
+					.getByLookupSystemObjectType(systemObjectLookup.getSystemObjectType());
+
+			// Only the account name format can be resolved without the formatting logic of the lookup itself.
+			final SystemObjectDisplayFormat displayFormat = SystemObjectDisplayFormat
+					.getBySystemObjectDisplayFormat(systemObjectLookup.getSystemObjectDisplayFormat());
+
+			return SystemObjectType.USER == systemObjectType
+					&& SystemObjectDisplayFormat.ACCOUNT_NAME == displayFormat
+					? "select USER_ID as VALUE, USERNAME as DISPLAY from ETK_USER where USER_ID in (:lookupValues)"
+					: null;
+		} else {
+			return null;
+		}
+	}
+
+	private static String getColumnName(final DataElement dataElement) {
+		return Optional.ofNullable(dataElement)
+				.map(DataElement::getColumnName)
+				.orElse("ID");
+	}
+
+	private static String getMTableKey(final RdoDataElement aRowAttribute) {
+		return aRowAttribute.getMTableName() + "." + aRowAttribute.getColumnName();
+	}
+}
@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import com.entellitrak.DataAccessException;
@@ -36,6 +38,8 @@ import com.entellitrak.lookup.LookupResult;
 
 import net.entellitrak.aea.exception.FormValidationException;
 import net.micropact.aea.core.dataTypePlugin.DataTypePluginClassUtility;
+import net.micropact.aea.core.query.Coersion;
+import net.micropact.aea.core.query.QueryUtility;
 import net.micropact.aea.core.utility.StringEscapeUtils;
 import net.micropact.aea.utility.Utility;
 
@@ -57,6 +61,8 @@ public class RdoSearchPageUtility {
 	private final Map<String, List<String>> formParameters;
 	private final boolean militaryTimeMode;
 	private final boolean linkToRdo;
+	private boolean keysetPagination;
+	private RdoSearchCountMode countMode = RdoSearchCountMode.EXACT;
 
 	/**
 	 * Default constructor.
@@ -81,6 +87,30 @@ public class RdoSearchPageUtility {
 		this.linkToRdo = isLinkToRdo;
 	}
 
+	/**
+	 * Enables keyset (seek) pagination for {@link #performSearch(boolean)}. Instead of numbering every matching row
+	 * and discarding the ones before the requested page, the IDs of the first and last rows of the page are stored in
+	 * the form parameters ("keysetPage", "keysetFirstId", "keysetLastId" and "keysetSignature") and the next or
+	 * previous page is fetched by seeking from those rows. These parameters must be posted back along with the other
+	 * paging parameters for the seek to take place. Jumping to an arbitrary page falls back to skipping the rows
+	 * before the requested page with an offset.
+	 *
+	 * @param isKeysetPagination whether keyset pagination should be used
+	 */
+	public void setKeysetPagination(final boolean isKeysetPagination) {
+		this.keysetPagination = isKeysetPagination;
+	}
+
+	/**
+	 * Sets how {@link #performSearch(boolean)} determines the total number of matching records.
+	 * The default is {@link RdoSearchCountMode#EXACT}.
+	 *
+	 * @param theCountMode the count mode
+	 */
+	public void setCountMode(final RdoSearchCountMode theCountMode) {
+		this.countMode = Objects.requireNonNull(theCountMode);
+	}
+
 	/**
 	 * Returns an HTML standard search type form (in a table tag) containing all form inputs
 	 * defined in the dataFormBusinessKey entered in the main constructor.
@@ -489,16 +519,15 @@ public class RdoSearchPageUtility {
             }
 		}
 
-		etk.getLogger().error("COUNT QUERY = select count(*) " + sq.toString());
-
+		final boolean hasSearchCriteria = paramNumber > 0 || filterByOrgHierarchy;
+		final String searchSignature = getSearchSignature(sq.toString(), parameterMap);
 
 		//Determine the total number of rows that meet the user input search criteria and store that parameter in the
 		//map of parameters.
-		final long rowCount = etk.createSQL("select count(*) " + sq.toString())
-				.setParameter(parameterMap)
-				.fetchLong();
+		final long rowCount = getRowCount(tableName, sq.toString(), parameterMap, searchSignature, hasSearchCriteria);
 		etk.getLogger().error("rowCount = " + rowCount);
 		addParameter("rowCount", rowCount);
+		addParameter("searchSignature", searchSignature);
 
 
 		//Retrieve how many records per page a user should see (this is between 1 and 500) - this is a user input
@@ -557,33 +586,46 @@ public class RdoSearchPageUtility {
 			orderByClause = StringEscapeUtils.escapeSql(orderByClause);
 		}
 
-		//This logs the completed query.
-		etk.getLogger().error("QUERY = select * from (select row_number() over (partition by null "
-				+ orderByClause
-				+ ") aea_row_number, "
-				+ columnList.toString()
-				+ sq.toString()
-				+ ") tempQuery where aea_row_number > "
-				+ startIndex
-				+ " and aea_row_number <= "
-				+ endIndex
-				);
-
-		//Runs the query and returns a list of results to be printed per the configured view.
-		final List<Map<String, Object>> resultSet = etk.createSQL(
-				"select * from (select row_number() over (partition by null "
-						+ orderByClause
-						+ ") aea_row_number, "
-						+ columnList.toString()
-						+ sq.toString()
-						+ ") tempQuery where aea_row_number > "
-						+ startIndex
-						+ " and aea_row_number <= "
-						+ endIndex
-				)
-				.returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
-				.setParameter(parameterMap)
-				.fetchList();
+		final List<Map<String, Object>> resultSet;
+
+		if (keysetPagination && isKeysetSortable(dataViewColumnList)) {
+			resultSet = performKeysetSearch(tableName,
+					columnList.toString(),
+					sq.toString(),
+					parameterMap,
+					searchSignature,
+					recordsPerPage,
+					currentPage,
+					startIndex);
+		} else {
+			//This logs the completed query.
+			etk.getLogger().error("QUERY = select * from (select row_number() over (partition by null "
+					+ orderByClause
+					+ ") aea_row_number, "
+					+ columnList.toString()
+					+ sq.toString()
+					+ ") tempQuery where aea_row_number > "
+					+ startIndex
+					+ " and aea_row_number <= "
+					+ endIndex
+					);
+
+			//Runs the query and returns a list of results to be printed per the configured view.
+			resultSet = etk.createSQL(
+					"select * from (select row_number() over (partition by null "
+							+ orderByClause
+							+ ") aea_row_number, "
+							+ columnList.toString()
+							+ sq.toString()
+							+ ") tempQuery where aea_row_number > "
+							+ startIndex
+							+ " and aea_row_number <= "
+							+ endIndex
+					)
+					.returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+					.setParameter(parameterMap)
+					.fetchList();
+		}
 
 		//Builds the auditLogResultTable.
 		final RdoSearchPagedTableBuilder ptb = new RdoSearchPagedTableBuilder(etk, formParameters, militaryTimeMode, linkToRdo);
@@ -594,6 +636,338 @@ public class RdoSearchPageUtility {
 	}
 
 
+	/**
+	 * Determines the total number of records matching the search according to the configured
+	 * {@link RdoSearchCountMode}.
+	 *
+	 * @param tableName the table being searched
+	 * @param fromWhereClause the from and where clauses of the search query
+	 * @param parameterMap the parameters of the search query
+	 * @param searchSignature the signature of the current search criteria
+	 * @param hasSearchCriteria whether the search query filters the table at all
+	 * @return the total number of matching records (possibly estimated)
+	 * @throws IncorrectResultSizeDataAccessException
+	 *         If there was an underlying {@link IncorrectResultSizeDataAccessException}
+	 */
+	private long getRowCount(final String tableName,
+			final String fromWhereClause,
+			final Map<String, Object> parameterMap,
+			final String searchSignature,
+			final boolean hasSearchCriteria) throws IncorrectResultSizeDataAccessException {
+		//The row count posted back with the page is still valid as long as the criteria have not changed.
+		if (countMode != RdoSearchCountMode.EXACT && searchSignature.equals(getSingleParameter("searchSignature"))) {
+			final Long postedRowCount = parseLong(getSingleParameter("rowCount"));
+
+			if (postedRowCount != null) {
+				return postedRowCount;
+			}
+		}
+
+		if (countMode == RdoSearchCountMode.APPROXIMATE && !hasSearchCriteria) {
+			final Long estimatedRowCount = getEstimatedRowCount(tableName);
+
+			if (estimatedRowCount != null) {
+				return estimatedRowCount;
+			}
+		}
+
+		etk.getLogger().error("COUNT QUERY = select count(*) " + fromWhereClause);
+
+		return etk.createSQL("select count(*) " + fromWhereClause)
+				.setParameter(parameterMap)
+				.fetchLong();
+	}
+
+	/**
+	 * Estimates the number of rows in a table from the database's statistics.
+	 *
+	 * @param tableName the table
+	 * @return the estimated number of rows, or null if the statistics are not available
+	 */
+	private Long getEstimatedRowCount(final String tableName) {
+		final String statisticsQuery;
+
+		if (Utility.isSqlServer(etk)) {
+			statisticsQuery = "SELECT SUM(p.rows) FROM sys.partitions p WHERE p.object_id = OBJECT_ID(:tableName) AND p.index_id IN (0, 1)";
+		} else if (Utility.isPostgreSQL(etk)) {
+			statisticsQuery = "SELECT CAST(c.reltuples AS BIGINT) FROM pg_class c WHERE c.oid = to_regclass(LOWER(:tableName)) AND c.reltuples >= 0";
+		} else {
+			statisticsQuery = "SELECT num_rows FROM user_tables WHERE table_name = UPPER(:tableName)";
+		}
+
+		try {
+			return Coersion.toLong(etk.createSQL(statisticsQuery)
+					.setParameter("tableName", tableName)
+					.returnEmptyResultSetAs(null)
+					.fetchObject());
+		} catch (final Exception e) {
+			etk.getLogger().warn(String.format("Could not estimate the number of rows in %s, the rows will be counted instead.", tableName), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Fetches a page of search results using keyset pagination. If the requested page is directly after or before the
+	 * page whose bounds were posted back, the page is found by seeking from the last (or first) row of that page.
+	 * Otherwise the page is found with an offset, using the same ordering so that later pages can seek from it.
+	 *
+	 * <p>
+	 *  The keyset order is: the rows whose sort value is not null, ordered by the sort column and then ID, followed by
+	 *  the rows whose sort value is null, ordered by ID. ID is sorted in the same direction as the sort column. When
+	 *  seeking, the rows with and without a sort value are queried separately, so that each query has a plain
+	 *  ORDER BY on the columns and a predicate which the database can use an index on the sort column for.
+	 * </p>
+	 *
+	 * @param tableName the table being searched
+	 * @param columnList the columns to select
+	 * @param fromWhereClause the from and where clauses of the search query
+	 * @param parameterMap the parameters of the search query
+	 * @param searchSignature the signature of the current search criteria
+	 * @param recordsPerPage the number of records on a page
+	 * @param currentPage the page being requested
+	 * @param startIndex the number of records before the requested page
+	 * @return the records on the requested page
+	 */
+	private List<Map<String, Object>> performKeysetSearch(final String tableName,
+			final String columnList,
+			final String fromWhereClause,
+			final Map<String, Object> parameterMap,
+			final String searchSignature,
+			final int recordsPerPage,
+			final int currentPage,
+			final long startIndex) {
+		final String sortColumn = getKeysetSortColumn();
+		final boolean descending = "desc".equalsIgnoreCase(getSingleParameter("sortOrder"));
+		final String keysetSignature = searchSignature + "_" + sortColumn + "_" + descending + "_" + recordsPerPage;
+
+		final Map<String, Object> keysetParameters = new HashMap<>(parameterMap);
+		final Long previousPage = parseLong(getSingleParameter("keysetPage"));
+
+		List<KeysetRange> seekRanges = null;
+		boolean seekBackward = false;
+
+		if (previousPage != null && keysetSignature.equals(getSingleParameter("keysetSignature"))) {
+			if (currentPage == previousPage + 1) {
+				seekRanges = getSeekRanges(tableName, sortColumn, descending, false,
+						parseLong(getSingleParameter("keysetLastId")), keysetParameters);
+			} else if (currentPage == previousPage - 1) {
+				seekBackward = true;
+				seekRanges = getSeekRanges(tableName, sortColumn, descending, true,
+						parseLong(getSingleParameter("keysetFirstId")), keysetParameters);
+			}
+		}
+
+		final List<Map<String, Object>> resultSet = new ArrayList<>();
+
+		if (seekRanges != null) {
+			for (final KeysetRange seekRange : seekRanges) {
+				if (resultSet.size() >= recordsPerPage) {
+					break;
+				}
+
+				resultSet.addAll(fetchKeysetPage("select "
+						+ columnList
+						+ fromWhereClause
+						+ " and "
+						+ seekRange.getPredicate()
+						+ " order by "
+						+ seekRange.getOrderBy()
+						+ " offset 0 rows fetch next "
+						+ (recordsPerPage - resultSet.size())
+						+ " rows only",
+						keysetParameters));
+			}
+		} else {
+			seekBackward = false;
+			resultSet.addAll(fetchKeysetPage("select "
+					+ columnList
+					+ fromWhereClause
+					+ " order by "
+					+ getKeysetOrderBy(sortColumn, descending)
+					+ " offset "
+					+ startIndex
+					+ " rows fetch next "
+					+ recordsPerPage
+					+ " rows only",
+					keysetParameters));
+		}
+
+		if (seekBackward) {
+			Collections.reverse(resultSet);
+		}
+
+		if (resultSet.isEmpty()) {
+			formParameters.remove("keysetPage");
+		} else {
+			addParameter("keysetPage", currentPage);
+			addParameter("keysetFirstId", resultSet.get(0).get("ID"));
+			addParameter("keysetLastId", resultSet.get(resultSet.size() - 1).get("ID"));
+			addParameter("keysetSignature", keysetSignature);
+		}
+
+		return resultSet;
+	}
+
+	/**
+	 * Runs one of the queries of {@link #performKeysetSearch(String, String, String, Map, String, int, int, long)}.
+	 *
+	 * @param query the query
+	 * @param keysetParameters the parameters of the query
+	 * @return the rows
+	 */
+	private List<Map<String, Object>> fetchKeysetPage(final String query, final Map<String, Object> keysetParameters) {
+		etk.getLogger().error("QUERY = " + query);
+
+		return etk.createSQL(query)
+				.returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+				.setParameter(keysetParameters)
+				.fetchList();
+	}
+
+	/**
+	 * Builds the ranges of rows which follow (or precede) an anchor row in keyset order, in the order in which they
+	 * should be read. Each range is read with its own query, so a range only needs to be read if the ranges before it
+	 * did not fill the page.
+	 *
+	 * @param tableName the table being searched
+	 * @param sortColumn the column being sorted on, null if sorting by ID only
+	 * @param descending whether the sort column is sorted descending
+	 * @param backward whether to select the rows before the anchor instead of after it
+	 * @param anchorId the ID of the anchor row
+	 * @param keysetParameters the query parameters which the anchor parameters will be added to
+	 * @return the ranges, or null if the anchor row no longer exists
+	 */
+	private List<KeysetRange> getSeekRanges(final String tableName,
+			final String sortColumn,
+			final boolean descending,
+			final boolean backward,
+			final Long anchorId,
+			final Map<String, Object> keysetParameters) {
+		if (anchorId == null) {
+			return null;
+		}
+
+		/* Moving forward through an ascending sort and backward through a descending one both read increasing values */
+		final boolean increasing = descending == backward;
+		final String operator = increasing ? ">" : "<";
+		final String direction = increasing ? " asc" : " desc";
+
+		keysetParameters.put("aeaKeysetId", anchorId);
+
+		if (sortColumn == null) {
+			return List.of(new KeysetRange("ID " + operator + " :aeaKeysetId", "ID" + direction));
+		}
+
+		final List<Map<String, Object>> anchorRows = etk.createSQL("select " + sortColumn
+				+ " AEA_KEYSET_VALUE from " + tableName + " where ID = :aeaKeysetId")
+				.setParameter("aeaKeysetId", anchorId)
+				.returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
+				.fetchList();
+
+		//The anchor row has been deleted since the previous page was displayed.
+		if (anchorRows.isEmpty()) {
+			return null;
+		}
+
+		final Object anchorValue = QueryUtility.toSimpleList(anchorRows).get(0);
+
+		final String nullOrderBy = "ID" + direction;
+		final String valueOrderBy = sortColumn + direction + ", ID" + direction;
+
+		if (anchorValue == null) {
+			final KeysetRange nullRange = new KeysetRange(sortColumn + " is null and ID " + operator + " :aeaKeysetId",
+					nullOrderBy);
+
+			/* The rows with a value all come before the rows without one */
+			return backward
+					? List.of(nullRange, new KeysetRange(sortColumn + " is not null", valueOrderBy))
+					: List.of(nullRange);
+		} else {
+			keysetParameters.put("aeaKeysetValue", anchorValue);
+
+			/* This is (sortColumn, ID) > (:aeaKeysetValue, :aeaKeysetId), written so that every database can seek on
+			 * an index on the sort column. */
+			final KeysetRange valueRange = new KeysetRange(sortColumn + " " + operator + "= :aeaKeysetValue and ("
+					+ sortColumn + " " + operator + " :aeaKeysetValue or ID " + operator + " :aeaKeysetId)",
+					valueOrderBy);
+
+			return backward
+					? List.of(valueRange)
+					: List.of(valueRange, new KeysetRange(sortColumn + " is null", nullOrderBy));
+		}
+	}
+
+	/**
+	 * Builds the order by expression for the keyset order when a page is found with an offset instead of by seeking.
+	 * ID is always included so that the order is total.
+	 *
+	 * @param sortColumn the column being sorted on, null if sorting by ID only
+	 * @param descending whether the sort column is sorted descending
+	 * @return the order by expression
+	 */
+	private static String getKeysetOrderBy(final String sortColumn, final boolean descending) {
+		final String direction = descending ? " desc" : " asc";
+
+		if (sortColumn == null) {
+			return " ID" + direction + " ";
+		}
+
+		return " case when " + sortColumn + " is null then 1 else 0 end, "
+				+ sortColumn + direction + ", ID" + direction + " ";
+	}
+
+	/**
+	 * Gets the column which the user has chosen to sort on.
+	 *
+	 * @return the sort column, or null if the results are not being sorted by a column
+	 */
+	private String getKeysetSortColumn() {
+		final String sortColumn = getSingleParameter("sortColumn");
+
+		return StringUtility.isBlank(sortColumn) || StringUtility.isBlank(getSingleParameter("sortOrder"))
+				? null
+				: sortColumn;
+	}
+
+	/**
+	 * Keyset pagination can only be used when the sort column is one of the view's single-valued, sortable columns.
+	 * Since the column name ends up in the query, this also ensures that it is not arbitrary user input.
+	 *
+	 * @param dataViewColumnList the columns of the view
+	 * @return whether keyset pagination can be used for the requested sort
+	 */
+	private boolean isKeysetSortable(final List<RdoDataElement> dataViewColumnList) {
+		final String sortColumn = getKeysetSortColumn();
+		final String sortOrder = getSingleParameter("sortOrder");
+
+		return sortColumn == null
+				|| ("asc".equalsIgnoreCase(sortOrder) || "desc".equalsIgnoreCase(sortOrder))
+				&& dataViewColumnList.stream()
+				.anyMatch(anElement -> sortColumn.equals(anElement.getColumnName())
+						&& StringUtility.isBlank(anElement.getMTableName())
+						&& DataType.LONG_TEXT != anElement.getDataType());
+	}
+
+	/**
+	 * Generates a signature of the search criteria so that we can tell whether information posted back with the page
+	 * (such as the row count) still applies to the current search.
+	 *
+	 * @param fromWhereClause the from and where clauses of the search query
+	 * @param parameterMap the parameters of the search query
+	 * @return the signature
+	 */
+	private static String getSearchSignature(final String fromWhereClause, final Map<String, Object> parameterMap) {
+		return Integer.toHexString((fromWhereClause + new TreeMap<>(parameterMap)).hashCode());
+	}
+
+	private static Long parseLong(final String value) {
+		try {
+			return StringUtility.isBlank(value) ? null : Long.valueOf(value);
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
 	private String getBooleanSearchField(final String aLabel, final String aFormPrefix, final String aFieldName) {
 	    return "<tr>"
 			 + "<td valign=\"top\">"
@@ -1415,4 +1789,43 @@ public class RdoSearchPageUtility {
 		return sdf.parse(aMilitaryTimeString);
     }
 
+	/**
+	 * A range of rows in keyset order which is read by a single query.
+	 *
+	 * @author zmiller
+	 */
+	private static final class KeysetRange {
+
+		private final String predicate;
+		private final String orderBy;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param thePredicate the predicate which selects the rows of the range
+		 * @param theOrderBy the order by expression which reads the range in the wanted direction
+		 */
+		KeysetRange(final String thePredicate, final String theOrderBy) {
+			predicate = thePredicate;
+			orderBy = theOrderBy;
+		}
+
+		/**
+		 * Get the predicate.
+		 *
+		 * @return the predicate which selects the rows of the range
+		 */
+		String getPredicate() {
+			return predicate;
+		}
+
+		/**
+		 * Get the order by expression.
+		 *
+		 * @return the order by expression
+		 */
+		String getOrderBy() {
+			return orderBy;
+		}
+	}
 }
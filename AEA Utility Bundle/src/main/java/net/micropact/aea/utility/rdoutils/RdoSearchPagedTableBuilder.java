@@ -11,22 +11,17 @@ package net.micropact.aea.utility.rdoutils;
 import java.security.SecureRandom;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
-import com.entellitrak.DataAccessException;
 import com.entellitrak.ExecutionContext;
 import com.entellitrak.SQLFacade;
 import com.entellitrak.configuration.DataType;
 import com.entellitrak.legacy.util.DateUtility;
 import com.entellitrak.legacy.util.StringUtility;
 import com.entellitrak.localization.Localizations;
-import com.entellitrak.lookup.For;
-import com.entellitrak.lookup.LookupResult;
 
 import net.micropact.aea.core.utility.StringEscapeUtils;
 import net.micropact.aea.utility.Utility;
@@ -41,11 +36,11 @@ public class RdoSearchPagedTableBuilder {
 
     List<Map<String, Object>> resultSet = null;
     List<RdoDataElement> rowAttributeList = null;
-    List<String> cachedKeys = new ArrayList<>();
 
     private StringBuilder tableBuilder = null;
     private String dataObjectKey = null;
     private SecureRandom randomGenerator = null;
+    private RdoSearchLookupResolver lookupResolver = null;
     private final ExecutionContext etk;
     private final Map<String, List<String>> pageParameters;
     private final boolean militaryTimeMode;
@@ -114,16 +109,14 @@ public class RdoSearchPagedTableBuilder {
         tableBuilder.append(StringEscapeUtils.escapeHtml(tableName));
         tableBuilder.append("\" class=\""+className+"\">");
 
+        //Resolve the lookup values which appear on this page up front so that each cell is a simple map lookup.
+        lookupResolver = new RdoSearchLookupResolver(etk, resultSet, rowAttributeList);
+
         buildHeader();
         buildBody();
 
         tableBuilder.append("</table>");
 
-        //Clean up cache of forView LookupResults.
-        for (final String cachedQuery : cachedKeys) {
-        	etk.getCache().remove(cachedQuery);
-        }
-
         return tableBuilder.toString();
      }
 
@@ -322,93 +315,32 @@ public class RdoSearchPagedTableBuilder {
     	if (StringUtility.isBlank(lookupBusinessKey = aRowAttribute.getLookupBusinessKey())) {
     		//If the row's data is not attached to a lookup, just return the value of the row.
     		return getEscVal(aRow.get(aRowAttribute.getColumnName()), aRowAttribute.getDataType());
-    	} else {
-    		//Otherwise, lookup the forView lookup results for the given row.
-    		final List<LookupResult> results = getLookupResults(lookupBusinessKey);
-
-    		String mTableName;
-    		Object key;
-
-
-    		if (StringUtility.isBlank(mTableName = aRowAttribute.getMTableName())) {
-    			//For non M-Table values, we will return the first display value from the lookup
-    			//result with a matching value key.
-    			key = aRow.get(aRowAttribute.getColumnName());
-
-    			if (key != null) {
-	    			for (final LookupResult aResult : results) {
-	    				if (aResult.getValue().equals(key.toString())) {
-	    					return getEscVal(aResult.getDisplay(), DataType.TEXT);
-	    				}
-	    			}
-    			}
-    		} else {
-    			//Form M-Table values, we need to first lookup all the possible key values
-    			//based on the ID Owner, then we can match each of those values to a lookup
-    			//result and return the display value of all combined M-Table values.
-
-    			key = aRow.get("ID");
-    			List<Map<String, Object>> lookupValues = new ArrayList<>();
-
-    			//Get full key value list from M-Table
-    			if (key != null) {
-	    			try {
-						lookupValues =
-								etk.createSQL(" select " + aRowAttribute.getColumnName() +
-										      " as VALUE from " + mTableName +
-										      " where id_owner = :idOwner ")
-							    .setParameter("idOwner", key)
-							    .returnEmptyResultSetAs(new ArrayList<Map<String, Object>>())
-							    .fetchList();
-					} catch (final DataAccessException e) {
-						etk.getLogger().error("MTABLE Lookup value retrieval error.", e);
-					}
-    			}
-
-    			if (key != null && !lookupValues.isEmpty()) {
-    				final StringBuilder outBuilder = new StringBuilder();
+    	} else if (StringUtility.isBlank(aRowAttribute.getMTableName())) {
+    		//For non M-Table values, we will return the display value from the lookup
+    		//result with a matching value key.
+    		final String display = lookupResolver.getDisplay(lookupBusinessKey, aRow.get(aRowAttribute.getColumnName()));
 
-    				//Store value keys in a temp map for O(1) retrieval
-    				final Map<String, Object> validKeys = new HashMap<>();
-    				for (final Map<String, Object> aValue : lookupValues) {
-    					validKeys.put(aValue.get("VALUE") + "", null);
-    				}
+    		if (display != null) {
+    			return getEscVal(display, DataType.TEXT);
+    		}
+    	} else {
+    		//For M-Table values, the values of every record on the page were loaded by the resolver,
+    		//so we just need to combine the display values of this record's values.
+    		final StringBuilder outBuilder = new StringBuilder();
 
-    				//Loop through LookupResult list and append all selected values to the lookup list.
-	    			for (final LookupResult aResult : results) {
-	    				if (validKeys.containsKey(aResult.getValue())) {
-	    					outBuilder.append(getEscVal(aResult.getDisplay(), DataType.TEXT));
-	    					outBuilder.append("<br>");
-	    				}
-	    			}
+    		for (final String aValue : lookupResolver.getMTableValues(aRowAttribute, aRow.get("ID"))) {
+    			final String display = lookupResolver.getDisplay(lookupBusinessKey, aValue);
 
-	    			return outBuilder.toString();
+    			if (display != null) {
+    				outBuilder.append(getEscVal(display, DataType.TEXT));
+    				outBuilder.append("<br>");
     			}
     		}
-    	}
-
-    	return "";
-    }
 
-    /**
-     * Temporary cache for forView LookupResult lists. This prevent's the system from re-loading
-     * all R-data values for every single row in the table. The cached keys are stored in the
-     * cachedKeys map and then cleared when buildTable is called.
-     *
-     * @param lookupBusinessKey The business key of the lookup whose data will be fetched
-     * @return The lookup results
-     */
-    @SuppressWarnings("unchecked")
-	private List<LookupResult> getLookupResults (final String lookupBusinessKey) {
-    	List<LookupResult> resultList;
-
-    	if ((resultList = (List<LookupResult>) etk.getCache().load("AEA_LOOKUP_CACHE_" + lookupBusinessKey)) == null) {
-    		resultList = etk.getLookupService().getLookup(lookupBusinessKey).execute(For.VIEW);
-    		etk.getCache().store("AEA_LOOKUP_CACHE_" + lookupBusinessKey, resultList);
-    		cachedKeys.add("AEA_LOOKUP_CACHE_" + lookupBusinessKey);
+    		return outBuilder.toString();
     	}
 
-    	return resultList;
+    	return "";
     }
 
     private static String toMilitaryDate (final Date aMilitaryDate) {
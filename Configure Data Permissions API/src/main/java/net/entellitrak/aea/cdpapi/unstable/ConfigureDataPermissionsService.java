@@ -1,6 +1,11 @@
 package net.entellitrak.aea.cdpapi.unstable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import com.entellitrak.ApplicationException;
 import com.entellitrak.ExecutionContext;
@@ -11,6 +16,7 @@ import com.entellitrak.permission.DataPermissionType;
 import com.entellitrak.permission.DataPermissions;
 import com.entellitrak.permission.DataPermissionsFeatureType;
 import com.entellitrak.permission.DataPermissionsService;
+import com.entellitrak.permission.PermissionAccessLevelType;
 import com.entellitrak.user.Role;
 
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
@@ -22,6 +28,19 @@ import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
  */
 public class ConfigureDataPermissionsService {
 
+	/**
+	 * The permission types which are configured by {@link DataPermissionsDto}.
+	 */
+	private static final DataPermissionType[] PERMISSION_TYPES = {
+			DataPermissionType.CREATE,
+			DataPermissionType.READ,
+			DataPermissionType.UPDATE,
+			DataPermissionType.DELETE,
+			DataPermissionType.ASSIGN,
+			DataPermissionType.SEARCH,
+			DataPermissionType.READ_CONTENT,
+	};
+
 	private ConfigureDataPermissionsService() {
 	}
 
@@ -36,61 +55,281 @@ public class ConfigureDataPermissionsService {
 	 * @param desiredDataObjectPermissions the desired permissions
 	 */
 	public static void updateDataPermissions(final ExecutionContext etk, final Collection<DataObjectPermissions> desiredDataObjectPermissions) {
+		updateDataPermissions(etk, desiredDataObjectPermissions, false);
+	}
+
+	/**
+	 * Update the permissions for the specified object/elements, only saving the permissions which are not already
+	 * correct.
+	 *
+	 * The end result is the same as {@link #updateDataPermissions(ExecutionContext, Collection)}: every data element of
+	 * the data object ends up with the data object's permissions unless it has been specified separately.
+	 * However the current permissions are all read before anything is saved, and then only what differs is saved:
+	 * <ul>
+	 *  <li>If the data object's permissions differ, or any data element which is not specified separately has drifted
+	 *      from them, the data object is saved once with cascade. Only the separately specified data elements whose
+	 *      permissions differ from the data object's are then saved on their own.</li>
+	 *  <li>Otherwise only the separately specified data elements whose current permissions differ are saved.</li>
+	 * </ul>
+	 * Re-applying permissions which are already in place does not write anything. The data elements which are not
+	 * specified separately are only read when the data object itself is unchanged, since a cascade replaces them anyway.
+	 *
+	 * @param etk execution context
+	 * @param desiredDataObjectPermissions the desired permissions
+	 * @param dryRun whether to only report the changes which would be made, without saving them
+	 * @return the changes which were (or would have been) made
+	 */
+	public static DataPermissionsChangeReport updateDataPermissions(final ExecutionContext etk,
+			final Collection<DataObjectPermissions> desiredDataObjectPermissions,
+			final boolean dryRun) {
 		final RoleService roleService = etk.getRoleService();
 		final DataPermissionsService dataPermissionsService = etk.getDataPermissionsService();
 
-		desiredDataObjectPermissions.forEach(desiredPermission -> {
-			try {
-				final Role role = desiredPermission.getRole();
+		final List<PendingSave> pendingSaves = new ArrayList<>();
+		final List<DataPermissionsChangeReport.Change> changes = new ArrayList<>();
+		int unchangedCount = 0;
 
-				final DataObject dataObject = desiredPermission.getDataObject();
+		for(final DataObjectPermissions desiredPermission : desiredDataObjectPermissions) {
+			final Role role = desiredPermission.getRole();
+			final DataObject dataObject = desiredPermission.getDataObject();
+			final DataPermissionsDto desiredObjectPermissions = desiredPermission.getDataPermissions();
 
-				final DataPermissionsDto desiredObjectPermissions = desiredPermission.getDataPermissions();
+			/* What a data element's permissions will be right after the data object is saved with cascade */
+			final DataPermissions cascadedElementPermissions = createDataPermissions(dataPermissionsService,
+					desiredObjectPermissions,
+					false);
 
-				final DataPermissions dataObjectPermissions = dataPermissionsService.createDataPermissions();
+			String objectDifferences = describeDifferences(roleService.getDataObjectPermissions(role, dataObject),
+					desiredObjectPermissions,
+					true);
 
-				if(desiredPermission.getDataPermissions().getInboxEnabled()) {
-					dataObjectPermissions.enableDataPermissionsFeatureType(DataPermissionsFeatureType.INBOX);
-				}
-				dataObjectPermissions.setAccessLevel(DataPermissionType.CREATE, desiredObjectPermissions.getCreatePermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.READ, desiredObjectPermissions.getReadPermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.UPDATE, desiredObjectPermissions.getUpdatePermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.DELETE, desiredObjectPermissions.getDeletePermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.ASSIGN, desiredObjectPermissions.getAssignPermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.SEARCH, desiredObjectPermissions.getSearchPermission());
-				dataObjectPermissions.setAccessLevel(DataPermissionType.READ_CONTENT, desiredObjectPermissions.getReadContentPermission());
-
-				roleService.saveDataObjectPermissions(role, dataObject, dataObjectPermissions, true);
-
-				desiredPermission.getDataElementPermissions()
-				.forEach(desiredElementPermission -> {
-					try {
-						final DataElement dataElement = desiredElementPermission.getDataElement();
-						final DataPermissionsDto desiredDataElementPermissons = desiredElementPermission.getDataPermissions();
-
-						final DataPermissions elementDataPermissions = dataPermissionsService.createDataPermissions();
-						elementDataPermissions.setAccessLevel(DataPermissionType.CREATE, desiredDataElementPermissons.getCreatePermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.READ, desiredDataElementPermissons.getReadPermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.UPDATE, desiredDataElementPermissons.getUpdatePermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.DELETE, desiredDataElementPermissons.getDeletePermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.ASSIGN, desiredDataElementPermissons.getAssignPermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.SEARCH, desiredDataElementPermissons.getSearchPermission());
-						elementDataPermissions.setAccessLevel(DataPermissionType.READ_CONTENT, desiredDataElementPermissons.getReadContentPermission());
-
-						roleService.saveDataElementPermissions(role, dataElement, elementDataPermissions);
-					} catch (final ApplicationException e) {
-						throw new GeneralRuntimeException(
-								String.format("Problem updating data element permissions %s",
-										desiredElementPermission),
-								e);
+			if(objectDifferences.isEmpty()) {
+				final List<String> driftedElements = new ArrayList<>();
+
+				for(final DataElement dataElement : getInheritingDataElements(etk, desiredPermission)) {
+					if(!describeDifferences(roleService.getDataElementPermissions(role, dataElement),
+							desiredObjectPermissions,
+							false).isEmpty()) {
+						driftedElements.add(dataElement.getBusinessKey());
 					}
-				});
-			} catch (final ApplicationException e) {
-				throw new GeneralRuntimeException(
-						String.format("Problem updating permissions for object %s",
-								desiredPermission),
-						e);
+				}
+
+				if(!driftedElements.isEmpty()) {
+					objectDifferences = String.format("cascade to data elements %s", String.join(", ", driftedElements));
+				}
+			}
+
+			final boolean isCascaded = !objectDifferences.isEmpty();
+
+			if(isCascaded) {
+				pendingSaves.add(new PendingSave(desiredPermission, null, desiredObjectPermissions));
+				changes.add(new DataPermissionsChangeReport.Change(role.getBusinessKey(), dataObject.getBusinessKey(), null, objectDifferences));
+			} else {
+				unchangedCount++;
+			}
+
+			for(final DataElementPermissions desiredElementPermission : desiredPermission.getDataElementPermissions()) {
+				final DataElement dataElement = desiredElementPermission.getDataElement();
+
+				final String elementDifferences = describeDifferences(isCascaded
+						? cascadedElementPermissions
+						: roleService.getDataElementPermissions(role, dataElement),
+						desiredElementPermission.getDataPermissions(),
+						false);
+
+				if(elementDifferences.isEmpty()) {
+					unchangedCount++;
+				} else {
+					pendingSaves.add(new PendingSave(desiredPermission, desiredElementPermission, desiredElementPermission.getDataPermissions()));
+					changes.add(new DataPermissionsChangeReport.Change(role.getBusinessKey(),
+							dataObject.getBusinessKey(),
+							dataElement.getBusinessKey(),
+							elementDifferences));
+				}
+			}
+		}
+
+		if(!dryRun) {
+			for(final PendingSave pendingSave : pendingSaves) {
+				pendingSave.save(roleService, dataPermissionsService);
+			}
+		}
+
+		return new DataPermissionsChangeReport(dryRun, unchangedCount, changes);
+	}
+
+	/**
+	 * Get the data elements of a data object which were not specified separately, and therefore should have the data
+	 * object's permissions.
+	 *
+	 * @param etk execution context
+	 * @param desiredPermission the desired permissions of the data object
+	 * @return the data elements
+	 */
+	private static List<DataElement> getInheritingDataElements(final ExecutionContext etk,
+			final DataObjectPermissions desiredPermission) {
+		final Set<String> specifiedBusinessKeys = new HashSet<>();
+
+		for(final DataElementPermissions elementPermission : desiredPermission.getDataElementPermissions()) {
+			specifiedBusinessKeys.add(elementPermission.getDataElement().getBusinessKey());
+		}
+
+		final List<DataElement> dataElements = new ArrayList<>();
+
+		for(final DataElement dataElement : etk.getDataElementService().getDataElements(desiredPermission.getDataObject())) {
+			if(!specifiedBusinessKeys.contains(dataElement.getBusinessKey())) {
+				dataElements.add(dataElement);
+			}
+		}
+
+		return dataElements;
+	}
+
+	/**
+	 * Describe how the current permissions differ from the desired permissions.
+	 *
+	 * @param currentPermissions the current permissions
+	 * @param desiredPermissions the desired permissions
+	 * @param compareInbox whether the inbox setting should be compared. Inbox only applies to data objects.
+	 * @return a description of the differences, or the empty string if there are none
+	 */
+	private static String describeDifferences(final DataPermissions currentPermissions,
+			final DataPermissionsDto desiredPermissions,
+			final boolean compareInbox) {
+		final List<String> differences = new ArrayList<>();
+
+		if(compareInbox) {
+			final boolean currentInbox = currentPermissions.isDataPermissionsFeatureTypeEnabled(DataPermissionsFeatureType.INBOX);
+
+			if(currentInbox != desiredPermissions.getInboxEnabled()) {
+				differences.add(String.format("INBOX: %s -> %s", currentInbox, desiredPermissions.getInboxEnabled()));
+			}
+		}
+
+		for(final DataPermissionType permissionType : PERMISSION_TYPES) {
+			final PermissionAccessLevelType currentLevel = currentPermissions.getAccessLevel(permissionType);
+			final PermissionAccessLevelType desiredLevel = getAccessLevel(desiredPermissions, permissionType);
+
+			if(!Objects.equals(currentLevel, desiredLevel)) {
+				differences.add(String.format("%s: %s -> %s", permissionType, currentLevel, desiredLevel));
+			}
+		}
+
+		return String.join(", ", differences);
+	}
+
+	/**
+	 * Get the access level of a particular permission type.
+	 *
+	 * @param permissions the permissions
+	 * @param permissionType the permission type
+	 * @return the access level
+	 */
+	private static PermissionAccessLevelType getAccessLevel(final DataPermissionsDto permissions, final DataPermissionType permissionType) {
+		switch(permissionType) {
+			case CREATE:
+				return permissions.getCreatePermission();
+			case READ:
+				return permissions.getReadPermission();
+			case UPDATE:
+				return permissions.getUpdatePermission();
+			case DELETE:
+				return permissions.getDeletePermission();
+			case ASSIGN:
+				return permissions.getAssignPermission();
+			case SEARCH:
+				return permissions.getSearchPermission();
+			case READ_CONTENT:
+				return permissions.getReadContentPermission();
+			default:
+				throw new GeneralRuntimeException(String.format("Unsupported data permission type %s", permissionType));
+		}
+	}
+
+	/**
+	 * Create the entellitrak representation of a set of permissions.
+	 *
+	 * @param dataPermissionsService data permissions service
+	 * @param desiredPermissions the permissions
+	 * @param includeInbox whether the inbox setting should be included. Inbox only applies to data objects.
+	 * @return the permissions
+	 */
+	private static DataPermissions createDataPermissions(final DataPermissionsService dataPermissionsService,
+			final DataPermissionsDto desiredPermissions,
+			final boolean includeInbox) {
+		final DataPermissions dataPermissions = dataPermissionsService.createDataPermissions();
+
+		if(includeInbox && desiredPermissions.getInboxEnabled()) {
+			dataPermissions.enableDataPermissionsFeatureType(DataPermissionsFeatureType.INBOX);
+		}
+
+		for(final DataPermissionType permissionType : PERMISSION_TYPES) {
+			dataPermissions.setAccessLevel(permissionType, getAccessLevel(desiredPermissions, permissionType));
+		}
+
+		return dataPermissions;
+	}
+
+	/**
+	 * A data object or data element whose permissions need to be saved.
+	 *
+	 * @author Zachary.Miller
+	 */
+	private static class PendingSave {
+
+		private final DataObjectPermissions dataObjectPermissions;
+		private final DataElementPermissions dataElementPermissions;
+		private final DataPermissionsDto desiredPermissions;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param theDataObjectPermissions the desired permissions of the data object
+		 * @param theDataElementPermissions the desired permissions of the data element, or null if this is the data object itself
+		 * @param theDesiredPermissions the permissions to save
+		 */
+		PendingSave(final DataObjectPermissions theDataObjectPermissions,
+				final DataElementPermissions theDataElementPermissions,
+				final DataPermissionsDto theDesiredPermissions) {
+			dataObjectPermissions = theDataObjectPermissions;
+			dataElementPermissions = theDataElementPermissions;
+			desiredPermissions = theDesiredPermissions;
+		}
+
+		/**
+		 * Save the permissions. Data object permissions are cascaded to the data elements, so this must be done before
+		 * the {@link PendingSave}s of the data object's separately specified data elements.
+		 *
+		 * @param roleService role service
+		 * @param dataPermissionsService data permissions service
+		 */
+		void save(final RoleService roleService, final DataPermissionsService dataPermissionsService) {
+			final Role role = dataObjectPermissions.getRole();
+
+			if(dataElementPermissions == null) {
+				try {
+					roleService.saveDataObjectPermissions(role,
+							dataObjectPermissions.getDataObject(),
+							createDataPermissions(dataPermissionsService, desiredPermissions, true),
+							true);
+				} catch (final ApplicationException e) {
+					throw new GeneralRuntimeException(
+							String.format("Problem updating permissions for object %s",
+									dataObjectPermissions),
+							e);
+				}
+			} else {
+				try {
+					roleService.saveDataElementPermissions(role,
+							dataElementPermissions.getDataElement(),
+							createDataPermissions(dataPermissionsService, desiredPermissions, false));
+				} catch (final ApplicationException e) {
+					throw new GeneralRuntimeException(
+							String.format("Problem updating data element permissions %s",
+									dataElementPermissions),
+							e);
+				}
 			}
-		});
+		}
 	}
 }
@@ -0,0 +1,131 @@
+package net.entellitrak.aea.cdpapi.unstable;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+/**
+ * Class describing the permissions which were (or in a dry run, would have been) changed by
+ * {@link ConfigureDataPermissionsService#updateDataPermissions(com.entellitrak.ExecutionContext, java.util.Collection, boolean)}.
+ *
+ * @author Zachary.Miller
+ */
+public class DataPermissionsChangeReport {
+
+	private final boolean dryRun;
+	private final int unchangedCount;
+	private final List<Change> changes;
+
+	public DataPermissionsChangeReport(final boolean isDryRun, final int theUnchangedCount, final List<Change> theChanges) {
+		dryRun = isDryRun;
+		unchangedCount = theUnchangedCount;
+		changes = Collections.unmodifiableList(theChanges);
+	}
+
+	/**
+	 * Get whether this was a dry run, in which case nothing was actually saved.
+	 *
+	 * @return whether this was a dry run
+	 */
+	public boolean isDryRun() {
+		return dryRun;
+	}
+
+	/**
+	 * Get the number of data object and separately specified data element permissions which already matched the
+	 * desired permissions.
+	 *
+	 * @return the number of unchanged permissions
+	 */
+	public int getUnchangedCount() {
+		return unchangedCount;
+	}
+
+	/**
+	 * Get the permissions which were changed.
+	 *
+	 * @return the changes
+	 */
+	public List<Change> getChanges() {
+		return changes;
+	}
+
+	/**
+	 * Get a one line description of the report, suitable for setup messages.
+	 *
+	 * @return the summary
+	 */
+	public String getSummaryString() {
+		return String.format("%s %s data permissions, %s were already up to date",
+				dryRun ? "Would change" : "Changed",
+				changes.size(),
+				unchangedCount);
+	}
+
+	@Override
+	public String toString() {
+		return new ToStringBuilder(this)
+				.append("dryRun", dryRun)
+				.append("unchangedCount", unchangedCount)
+				.append("changes", changes)
+				.build();
+	}
+
+	/**
+	 * Class describing a change to the permissions of a role for a single data object or data element.
+	 *
+	 * @author Zachary.Miller
+	 */
+	public static class Change {
+
+		private final String roleBusinessKey;
+		private final String dataObjectBusinessKey;
+		private final String dataElementBusinessKey;
+		private final String reason;
+
+		public Change(final String theRoleBusinessKey, final String theDataObjectBusinessKey, final String theDataElementBusinessKey,
+				final String theReason) {
+			roleBusinessKey = theRoleBusinessKey;
+			dataObjectBusinessKey = theDataObjectBusinessKey;
+			dataElementBusinessKey = theDataElementBusinessKey;
+			reason = theReason;
+		}
+
+		public String getRoleBusinessKey() {
+			return roleBusinessKey;
+		}
+
+		public String getDataObjectBusinessKey() {
+			return dataObjectBusinessKey;
+		}
+
+		/**
+		 * Get the business key of the data element.
+		 *
+		 * @return the business key of the data element, or null if this is a change to the data object's permissions
+		 */
+		public String getDataElementBusinessKey() {
+			return dataElementBusinessKey;
+		}
+
+		/**
+		 * Get a description of what is different between the current and desired permissions.
+		 *
+		 * @return the reason
+		 */
+		public String getReason() {
+			return reason;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringBuilder(this)
+					.append("role", roleBusinessKey)
+					.append("dataObject", dataObjectBusinessKey)
+					.append("dataElement", dataElementBusinessKey)
+					.append("reason", reason)
+					.build();
+		}
+	}
+}
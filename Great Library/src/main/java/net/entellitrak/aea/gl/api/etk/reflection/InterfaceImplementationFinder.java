@@ -1,12 +1,8 @@
 package net.entellitrak.aea.gl.api.etk.reflection;
 
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
 import java.util.List;
 
 import com.entellitrak.ExecutionContext;
-import com.entellitrak.configuration.LanguageType;
-import com.entellitrak.configuration.Script;
 import com.entellitrak.configuration.Workspace;
 import com.entellitrak.configuration.WorkspaceService;
 
@@ -29,10 +25,14 @@ public final class InterfaceImplementationFinder {
      * </p>
      * <p>
      *  <strong>
-     *      This method loops through all Script Objects. It is intended to be used in configuration areas, such as
-     *      selecting script objects in a dropdown, but not in runtime areas like user-facing data object event handlers.
+     *      The first call after the workspace changes loops through all Script Objects. It is intended to be used in
+     *      configuration areas, such as selecting script objects in a dropdown, but not in runtime areas like
+     *      user-facing data object event handlers.
      *  </strong>
      * </p>
+     * <p>
+     *  The results are read from the {@link InterfaceImplementationIndex} of the workspace.
+     * </p>
      *
      * @param <I> the interface
      * @param etk entellitrak execution context
@@ -55,10 +55,14 @@ public final class InterfaceImplementationFinder {
      * </p>
      * <p>
      *  <strong>
-     *      This method loops through all Script Objects. It is intended to be used in configuration areas, such as
-     *      selecting script objects in a dropdown, but not in runtime areas like user-facing data object event handlers.
+     *      The first call after the workspace changes loops through all Script Objects. It is intended to be used in
+     *      configuration areas, such as selecting script objects in a dropdown, but not in runtime areas like
+     *      user-facing data object event handlers.
      *  </strong>
      * </p>
+     * <p>
+     *  The results are read from the {@link InterfaceImplementationIndex} of the workspace.
+     * </p>
      *
      * @param <I> the interface
      * @param etk entellitrak execution context
@@ -81,10 +85,14 @@ public final class InterfaceImplementationFinder {
      * </p>
      * <p>
      *  <strong>
-     *      This method loops through all Script Objects. It is intended to be used in configuration areas, such as
-     *      selecting script objects in a dropdown, but not in runtime areas like user-facing data object event handlers.
+     *      The first call after the workspace changes loops through all Script Objects. It is intended to be used in
+     *      configuration areas, such as selecting script objects in a dropdown, but not in runtime areas like
+     *      user-facing data object event handlers.
      *  </strong>
      * </p>
+     * <p>
+     *  The results are read from the {@link InterfaceImplementationIndex} of the workspace.
+     * </p>
      *
      * @param <I> the interface
      * @param etk entellitrak execution context
@@ -93,44 +101,6 @@ public final class InterfaceImplementationFinder {
      * @return The list of classes which implement the interface
      */
     private static <I> List<Class<? extends I>> getInterfaceImplementationsInWorkspace(final ExecutionContext etk, final Workspace workspace, final Class<I> theInterface){
-        final WorkspaceService workspaceService = etk.getWorkspaceService();
-
-        final List<Class<? extends I>> implementations = new ArrayList<>();
-
-        for(final Script script : workspaceService.getScriptsByLanguageType(workspace, LanguageType.JAVA)){
-            final String name = script.getFullyQualifiedName();
-            try {
-                final Class<?> currentClass = Class.forName(name);
-
-                if(doesClassImplementInterface(currentClass, theInterface)){
-                    @SuppressWarnings("unchecked")
-                    final Class<I> currentClassI = (Class<I>) currentClass;
-                    implementations.add(currentClassI);
-                }
-            } catch (final ClassNotFoundException e) {
-                etk.getLogger().debug(String.format("ClassUtility could not determine whether class \"%s\" implements interface \"%s\"",
-                                name,
-                                theInterface.getName()),
-                        e);
-            }
-        }
-        return implementations;
-    }
-
-    /**
-     * This method determines whether a class implements a particular interface.
-     * Note: Checks are also done to ensure that the class is public and not abstract.
-     *
-     * @param theClass the class which might implement the interface
-     * @param theInterface the interface which must be implemented
-     * @return whether the class implements the interface
-     */
-    private static boolean doesClassImplementInterface(final Class<?> theClass, final Class<?> theInterface) {
-        final int modifiers = theClass.getModifiers();
-
-        return theInterface.isAssignableFrom(theClass)
-                && !theClass.isInterface()
-                && !Modifier.isAbstract(modifiers)
-                && Modifier.isPublic(modifiers);
+        return InterfaceImplementationIndex.getIndex(etk, workspace).getImplementations(theInterface);
     }
 }
@@ -0,0 +1,198 @@
+package net.entellitrak.aea.gl.api.etk.reflection;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import com.entellitrak.ExecutionContext;
+import com.entellitrak.IncorrectResultSizeDataAccessException;
+import com.entellitrak.configuration.LanguageType;
+import com.entellitrak.configuration.Workspace;
+import com.entellitrak.configuration.WorkspaceService;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+
+/**
+ * <p>
+ *  An index from every class and interface to the public, concrete classes which are defined as top-level types in the
+ *  Script Objects of a workspace and extend or implement it.
+ * </p>
+ * <p>
+ *  Building the index loads every Java Script Object in the workspace, so it is only built once per workspace revision
+ *  and then shared by all callers. Checking in to a workspace increments its revision, which causes the index to be
+ *  rebuilt the next time it is used. Because the indexes are held in a static field of a Script Object, they are also
+ *  discarded whenever the Script Objects are recompiled.
+ * </p>
+ *
+ * @author zachary.miller
+ */
+public final class InterfaceImplementationIndex {
+
+    /** The most recent index of each workspace, keyed by workspace name. */
+    private static final Map<String, InterfaceImplementationIndex> INDEXES = new ConcurrentHashMap<>();
+
+    private final long workspaceRevision;
+    private final Map<Class<?>, List<Class<?>>> implementationsByType;
+
+    /**
+     * Constructor.
+     *
+     * @param theWorkspaceRevision the revision of the workspace the index was built from
+     * @param theImplementationsByType map from a class or interface to the classes which extend or implement it
+     */
+    private InterfaceImplementationIndex(final long theWorkspaceRevision,
+            final Map<Class<?>, List<Class<?>>> theImplementationsByType) {
+        workspaceRevision = theWorkspaceRevision;
+        implementationsByType = theImplementationsByType;
+    }
+
+    /**
+     * Get the index for a workspace, building it if it has not been built for the current revision of the workspace.
+     *
+     * @param etk entellitrak execution context
+     * @param workspace the workspace
+     * @return the index
+     */
+    public static InterfaceImplementationIndex getIndex(final ExecutionContext etk, final Workspace workspace) {
+        final long revision = getWorkspaceRevision(etk, workspace);
+
+        return INDEXES.compute(workspace.getName(), (workspaceName, existingIndex) ->
+            existingIndex != null && existingIndex.workspaceRevision == revision
+                ? existingIndex
+                : build(etk, workspace, revision));
+    }
+
+    /**
+     * Get the classes which implement an interface (or extend a class). Only public, non-abstract classes are returned.
+     *
+     * @param <I> the interface
+     * @param theInterface the interface
+     * @return the classes, in the order the Script Objects are returned by the {@link WorkspaceService}
+     */
+    public <I> List<Class<? extends I>> getImplementations(final Class<I> theInterface) {
+        return implementationsByType.getOrDefault(theInterface, Collections.emptyList())
+                .stream()
+                .<Class<? extends I>>map(implementation -> implementation.asSubclass(theInterface))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the current revision of a workspace.
+     *
+     * @param etk entellitrak execution context
+     * @param workspace the workspace
+     * @return the revision
+     */
+    private static long getWorkspaceRevision(final ExecutionContext etk, final Workspace workspace) {
+        try {
+            return etk.createSQL("SELECT workspace_revision FROM etk_workspace WHERE workspace_name = :workspaceName")
+                    .setParameter("workspaceName", workspace.getName())
+                    .fetchLong();
+        } catch (final IncorrectResultSizeDataAccessException e) {
+            throw new GeneralRuntimeException(e);
+        }
+    }
+
+    /**
+     * Build the index by loading every Java Script Object in a workspace. The classes are loaded in parallel.
+     *
+     * @param etk entellitrak execution context
+     * @param workspace the workspace
+     * @param revision the current revision of the workspace
+     * @return the index
+     */
+    private static InterfaceImplementationIndex build(final ExecutionContext etk, final Workspace workspace,
+            final long revision) {
+        final List<String> scriptNames = etk.getWorkspaceService()
+                .getScriptsByLanguageType(workspace, LanguageType.JAVA)
+                .stream()
+                .map(script -> script.getFullyQualifiedName())
+                .collect(Collectors.toList());
+
+        final List<Class<?>> classes = scriptNames.parallelStream()
+                .map(InterfaceImplementationIndex::loadClass)
+                .collect(Collectors.toList());
+
+        final Map<Class<?>, List<Class<?>>> implementationsByType = new HashMap<>();
+
+        for (int i = 0; i < scriptNames.size(); i++) {
+            final Class<?> theClass = classes.get(i);
+
+            if (theClass == null) {
+                etk.getLogger().debug(String.format("InterfaceImplementationIndex could not load class \"%s\"",
+                        scriptNames.get(i)));
+            } else if (isPublicConcreteClass(theClass)) {
+                for (final Class<?> superType : getSuperTypes(theClass)) {
+                    implementationsByType.computeIfAbsent(superType, k -> new ArrayList<>()).add(theClass);
+                }
+            }
+        }
+
+        implementationsByType.replaceAll((type, implementations) -> Collections.unmodifiableList(implementations));
+
+        return new InterfaceImplementationIndex(revision, implementationsByType);
+    }
+
+    /**
+     * Load a class.
+     *
+     * @param name the fully qualified name of the class
+     * @return the class, or null if it could not be loaded
+     */
+    private static Class<?> loadClass(final String name) {
+        try {
+            return Class.forName(name);
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Determine whether a class is public, not abstract and not an interface.
+     *
+     * @param theClass the class
+     * @return whether the class is a public concrete class
+     */
+    private static boolean isPublicConcreteClass(final Class<?> theClass) {
+        final int modifiers = theClass.getModifiers();
+
+        return !theClass.isInterface()
+                && !Modifier.isAbstract(modifiers)
+                && Modifier.isPublic(modifiers);
+    }
+
+    /**
+     * Get all of the classes and interfaces that a class is assignable to, including the class itself.
+     *
+     * @param theClass the class
+     * @return the super types
+     */
+    private static Set<Class<?>> getSuperTypes(final Class<?> theClass) {
+        final Set<Class<?>> superTypes = new HashSet<>();
+        final Deque<Class<?>> toVisit = new ArrayDeque<>();
+        toVisit.add(theClass);
+
+        while (!toVisit.isEmpty()) {
+            final Class<?> current = toVisit.poll();
+
+            if (superTypes.add(current)) {
+                if (current.getSuperclass() != null) {
+                    toVisit.add(current.getSuperclass());
+                }
+
+                Collections.addAll(toVisit, current.getInterfaces());
+            }
+        }
+
+        return superTypes;
+    }
+}
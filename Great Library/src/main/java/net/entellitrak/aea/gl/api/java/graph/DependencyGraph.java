@@ -0,0 +1,249 @@
+package net.entellitrak.aea.gl.api.java.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * A directed graph of items which depend on one another, used to topologically sort them so that every item comes
+ * after the items that it depends on.
+ *
+ * <p>
+ *  The graph is built once (see {@link #fromKeys(List, Function, Function)} and
+ *  {@link #fromDependsOn(List, BiPredicate)}) and then sorted with Kahn's algorithm, which is linear in the number of
+ *  items and dependencies apart from the tie-breaking. Ties are broken by the order of the input list, so the result is
+ *  deterministic and is the same as repeatedly choosing the first remaining item whose dependencies have all been
+ *  chosen.
+ * </p>
+ *
+ * <p>
+ *  Items which are part of a cycle (or depend on an item which is) can not be sorted. Instead of being silently dropped
+ *  they are reported by {@link SortResult#getCyclicItems()}.
+ * </p>
+ *
+ * @author Zachary.Miller
+ *
+ * @param <T> the type of the items
+ */
+public final class DependencyGraph<T> {
+
+    private final List<T> items;
+    /** For each item (by index), the indexes of the items which depend on it. */
+    private final List<List<Integer>> dependents;
+    /** For each item (by index), the number of items it depends on. */
+    private final int[] dependencyCounts;
+
+    /**
+     * Constructor.
+     *
+     * @param theItems the items
+     * @param dependencyIndexes for each item, the indexes of the items it depends on
+     */
+    private DependencyGraph(final List<T> theItems, final List<? extends Collection<Integer>> dependencyIndexes) {
+        items = Collections.unmodifiableList(new ArrayList<>(theItems));
+        dependents = new ArrayList<>(items.size());
+        dependencyCounts = new int[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            for (final Integer dependencyIndex : dependencyIndexes.get(i)) {
+                dependents.get(dependencyIndex).add(i);
+                dependencyCounts[i]++;
+            }
+        }
+    }
+
+    /**
+     * Build a graph where items are identified by a key, and each item depends on every item whose key is one of its
+     * dependency keys. Several items may have the same key. The key and dependency key functions are called exactly
+     * once per item, so they may be expensive.
+     *
+     * @param <T> the type of the items
+     * @param <K> the type of the keys
+     * @param items the items
+     * @param getKey function which returns the key of an item
+     * @param getDependencyKeys function which returns the keys of the items that an item depends on
+     * @return the graph
+     */
+    public static <T, K> DependencyGraph<T> fromKeys(final List<T> items,
+            final Function<? super T, ? extends K> getKey,
+            final Function<? super T, ? extends Collection<? extends K>> getDependencyKeys) {
+        final Map<K, List<Integer>> indexesByKey = new HashMap<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            indexesByKey.computeIfAbsent(getKey.apply(items.get(i)), k -> new ArrayList<>()).add(i);
+        }
+
+        final List<Set<Integer>> dependencyIndexes = new ArrayList<>(items.size());
+
+        for (final T item : items) {
+            final Set<Integer> itemDependencies = new LinkedHashSet<>();
+
+            for (final K dependencyKey : getDependencyKeys.apply(item)) {
+                itemDependencies.addAll(indexesByKey.getOrDefault(dependencyKey, Collections.emptyList()));
+            }
+
+            dependencyIndexes.add(itemDependencies);
+        }
+
+        return new DependencyGraph<>(items, dependencyIndexes);
+    }
+
+    /**
+     * Build a graph from a predicate which determines whether one item depends on another. The predicate is called
+     * once for every ordered pair of items (including an item and itself), so
+     * {@link #fromKeys(List, Function, Function)} should be preferred when the dependencies can be expressed as keys.
+     *
+     * @param <T> the type of the items
+     * @param items the items
+     * @param dependsOn predicate which is given an item and a potential dependency and determines whether the item
+     *          depends on the potential dependency
+     * @return the graph
+     */
+    public static <T> DependencyGraph<T> fromDependsOn(final List<T> items, final BiPredicate<? super T, ? super T> dependsOn) {
+        final List<List<Integer>> dependencyIndexes = new ArrayList<>(items.size());
+
+        for (final T item : items) {
+            final List<Integer> itemDependencies = new ArrayList<>();
+
+            for (int j = 0; j < items.size(); j++) {
+                if (dependsOn.test(item, items.get(j))) {
+                    itemDependencies.add(j);
+                }
+            }
+
+            dependencyIndexes.add(itemDependencies);
+        }
+
+        return new DependencyGraph<>(items, dependencyIndexes);
+    }
+
+    /**
+     * Topologically sort the items.
+     *
+     * @return the result
+     */
+    public SortResult<T> sort() {
+        final int[] remainingDependencies = dependencyCounts.clone();
+        final int[] layerOfItem = new int[items.size()];
+
+        final PriorityQueue<Integer> ready = new PriorityQueue<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (remainingDependencies[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        final List<T> sorted = new ArrayList<>(items.size());
+        final List<List<T>> layers = new ArrayList<>();
+        final boolean[] isSorted = new boolean[items.size()];
+
+        while (!ready.isEmpty()) {
+            final int index = ready.poll();
+
+            sorted.add(items.get(index));
+            isSorted[index] = true;
+
+            final int layer = layerOfItem[index];
+            while (layers.size() <= layer) {
+                layers.add(new ArrayList<>());
+            }
+            layers.get(layer).add(items.get(index));
+
+            for (final int dependent : dependents.get(index)) {
+                layerOfItem[dependent] = Math.max(layerOfItem[dependent], layer + 1);
+
+                if (--remainingDependencies[dependent] == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        final List<T> cyclicItems = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (!isSorted[i]) {
+                cyclicItems.add(items.get(i));
+            }
+        }
+
+        return new SortResult<>(sorted, layers, cyclicItems);
+    }
+
+    /**
+     * The result of topologically sorting a {@link DependencyGraph}.
+     *
+     * @author Zachary.Miller
+     *
+     * @param <T> the type of the items
+     */
+    public static final class SortResult<T> {
+
+        private final List<T> sortedItems;
+        private final List<List<T>> layers;
+        private final List<T> cyclicItems;
+
+        /**
+         * Constructor.
+         *
+         * @param theSortedItems the items which could be sorted, in sorted order
+         * @param theLayers the sorted items grouped into layers
+         * @param theCyclicItems the items which could not be sorted
+         */
+        SortResult(final List<T> theSortedItems, final List<List<T>> theLayers, final List<T> theCyclicItems) {
+            sortedItems = Collections.unmodifiableList(theSortedItems);
+            layers = Collections.unmodifiableList(theLayers);
+            cyclicItems = Collections.unmodifiableList(theCyclicItems);
+        }
+
+        /**
+         * Get the items in an order where no item depends on an item after it. Items which could not be sorted are not
+         * included.
+         *
+         * @return the sorted items
+         */
+        public List<T> getSortedItems() {
+            return sortedItems;
+        }
+
+        /**
+         * Get the sorted items grouped into layers. The items of the first layer have no dependencies and the items of
+         * each later layer only depend on items in earlier layers, so the items within a single layer are independent
+         * of one another. Within a layer, items are in the order of the input list.
+         *
+         * @return the layers
+         */
+        public List<List<T>> getLayers() {
+            return layers;
+        }
+
+        /**
+         * Get the items which could not be sorted because they are part of a dependency cycle, or depend (directly or
+         * indirectly) on an item which is. They are in the order of the input list.
+         *
+         * @return the items which could not be sorted
+         */
+        public List<T> getCyclicItems() {
+            return cyclicItems;
+        }
+
+        /**
+         * Get whether there were any items which could not be sorted.
+         *
+         * @return whether there were any cycles
+         */
+        public boolean hasCycles() {
+            return !cyclicItems.isEmpty();
+        }
+    }
+}
@@ -29,4 +29,11 @@ public interface ISetupHandlerResult {
 	 * @return the setup handler response
 	 */
 	ISetupHandlerResponse getSetupHandlerResponse();
+
+	/**
+	 * Get how long {@link ISetupHandler#executeSetup(ISetupHandlerRequest)} took to run.
+	 *
+	 * @return the wall-clock time in milliseconds
+	 */
+	long getDurationMillis();
 }
\ No newline at end of file
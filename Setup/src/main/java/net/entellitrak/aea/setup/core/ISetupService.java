@@ -1,9 +1,12 @@
 package net.entellitrak.aea.setup.core;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.entellitrak.ExecutionContext;
@@ -15,7 +18,8 @@ import com.entellitrak.configuration.WorkspaceService;
 
 import net.entellitrak.aea.gl.api.etk.reflection.InterfaceImplementationFinder;
 import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
-import net.micropact.aea.setup.utility.topologicalsort.TopologicalSorter;
+import net.entellitrak.aea.gl.api.java.graph.DependencyGraph;
+import net.entellitrak.aea.gl.api.java.graph.DependencyGraph.SortResult;
 
 /**
  * Main entry point for dealing with the setup service.
@@ -25,7 +29,7 @@ import net.micropact.aea.setup.utility.topologicalsort.TopologicalSorter;
 public interface ISetupService {
 
 	/**
-	 * Run the setup.
+	 * Run the setup. Every setup handler is run one after another in the request's transaction.
 	 *
 	 * @param setupRequest the request
 	 * @return the response
@@ -33,7 +37,78 @@ public interface ISetupService {
 	public static ISetupResponse setup(final ISetupRequest setupRequest){
 		final ExecutionContext etk = setupRequest.getExecutionContext();
 
-		final List<ISetupHandler> unsortedSetupHandlers = InterfaceImplementationFinder.getInterfaceImplementationsInActiveWorkspace(etk, ISetupHandler.class)
+		final List<ISetupHandler> unsortedSetupHandlers = getSetupHandlers(etk);
+
+		final Map<ISetupHandler, ServiceBundle> serviceBundles = getSetupHandlerServiceBundles(etk, unsortedSetupHandlers);
+
+		final List<ISetupHandler> sortedSetupHandlers = sortSetupHandlers(new SetupHandlerRequest(etk), serviceBundles, unsortedSetupHandlers)
+				.getSortedItems();
+
+		final ISetupHandlerRequest setupHandlerRequest = new SetupHandlerRequest(etk);
+
+		final List<ISetupHandlerResult> setupHandlerResults = sortedSetupHandlers.stream()
+				.map(setupHandler -> executeSetupHandler(setupHandler, serviceBundles.get(setupHandler), setupHandlerRequest))
+				.collect(Collectors.toList());
+
+		return new SetupResponse(etk, setupHandlerResults);
+	}
+
+	/**
+	 * Get the setup handlers grouped into dependency layers, for running setup in parallel.
+	 * The handlers of a layer only depend on handlers of earlier layers, so the handlers of a layer can be run at the same
+	 * time once every earlier layer has finished.
+	 *
+	 * <p>
+	 *  An {@link ExecutionContext} must not be shared between threads, so the caller runs each handler in its own
+	 *  request (with its own execution context and transaction) by calling
+	 *  {@link #setupHandler(ISetupRequest, String)}. Unlike {@link #setup(ISetupRequest)}, a failure therefore only
+	 *  rolls back the handler which failed.
+	 * </p>
+	 *
+	 * @param etk entellitrak execution context
+	 * @return the fully qualified class names of the setup handlers, layer by layer
+	 */
+	public static List<List<String>> getSetupHandlerLayers(final ExecutionContext etk){
+		final List<ISetupHandler> unsortedSetupHandlers = getSetupHandlers(etk);
+
+		final Map<ISetupHandler, ServiceBundle> serviceBundles = getSetupHandlerServiceBundles(etk, unsortedSetupHandlers);
+
+		return sortSetupHandlers(new SetupHandlerRequest(etk), serviceBundles, unsortedSetupHandlers)
+				.getLayers()
+				.stream()
+				.map(layer -> layer.stream()
+						.map(setupHandler -> setupHandler.getClass().getName())
+						.collect(Collectors.toList()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Run a single setup handler in the request's transaction. This is used to run setup in parallel
+	 * (see {@link #getSetupHandlerLayers(ExecutionContext)}). The caller is responsible for only running a handler once
+	 * every handler it depends on has finished.
+	 *
+	 * @param setupRequest the request
+	 * @param setupHandlerClassName the fully qualified class name of the setup handler
+	 * @return the result of the setup handler
+	 */
+	public static ISetupHandlerResult setupHandler(final ISetupRequest setupRequest, final String setupHandlerClassName){
+		final ExecutionContext etk = setupRequest.getExecutionContext();
+
+		/* Only classes which were found as setup handlers may be run, not any class the caller names. */
+		final ISetupHandler setupHandler = getSetupHandlers(etk)
+				.stream()
+				.filter(handler -> handler.getClass().getName().equals(setupHandlerClassName))
+				.findAny()
+				.orElseThrow(() -> new GeneralRuntimeException(String.format("Could not find setup handler %s",
+						setupHandlerClassName)));
+
+		return executeSetupHandler(setupHandler,
+				getSetupHandlerServiceBundles(etk, Collections.singletonList(setupHandler)).get(setupHandler),
+				new SetupHandlerRequest(etk));
+	}
+
+	private static List<ISetupHandler> getSetupHandlers(final ExecutionContext etk) {
+		return InterfaceImplementationFinder.getInterfaceImplementationsInActiveWorkspace(etk, ISetupHandler.class)
 				.stream()
 				.map(handlerClass -> {
 					try {
@@ -44,49 +119,61 @@ public interface ISetupService {
 					}
 				})
 				.collect(Collectors.toList());
+	}
 
-		final List<ISetupHandler> sortedSetupHandlers = sortSetupHandlers(etk, new SetupHandlerRequest(etk), unsortedSetupHandlers);
+	private static ISetupHandlerResult executeSetupHandler(final ISetupHandler setupHandler,
+			final ServiceBundle serviceBundle,
+			final ISetupHandlerRequest setupHandlerRequest) {
+		final long startTime = System.nanoTime();
 
-		final ISetupHandlerRequest setupHandlerRequest = new SetupHandlerRequest(etk);
+		final ISetupHandlerResponse setupHandlerResponse = setupHandler.executeSetup(setupHandlerRequest);
 
-		final List<ISetupHandlerResult> setupHandlerResults = sortedSetupHandlers.stream()
-				.map(setupHandler -> {
-					final ISetupHandlerResponse setupHandlerResponse = setupHandler.executeSetup(setupHandlerRequest);
-					return new SetupHandlerResult(getSetupHandlerServiceBundle(etk, setupHandler), setupHandler.getClass(), setupHandlerResponse);
-				})
-				.collect(Collectors.toList());
-
-		return new SetupResponse(etk, setupHandlerResults);
+		return new SetupHandlerResult(serviceBundle,
+				setupHandler.getClass(),
+				setupHandlerResponse,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
 	}
 
-	private static ServiceBundle getSetupHandlerServiceBundle(final ExecutionContext etk, final ISetupHandler setupHandler) {
+	private static Map<ISetupHandler, ServiceBundle> getSetupHandlerServiceBundles(final ExecutionContext etk, final List<ISetupHandler> setupHandlers) {
 		final WorkspaceService workspaceService = etk.getWorkspaceService();
 		final Workspace activeWorkspace = workspaceService.getActiveWorkspace();
 		final ServiceBundleService serviceBundleService = etk.getServiceBundleService();
 
-		final Script script = workspaceService.getScriptByFullyQualifiedName(activeWorkspace, setupHandler.getClass().getName());
-		return serviceBundleService.getServiceBundle(script, activeWorkspace);
+		final Map<ISetupHandler, ServiceBundle> serviceBundles = new IdentityHashMap<>();
+
+		for(final ISetupHandler setupHandler : setupHandlers){
+			final Script script = workspaceService.getScriptByFullyQualifiedName(activeWorkspace, setupHandler.getClass().getName());
+			serviceBundles.put(setupHandler, serviceBundleService.getServiceBundle(script, activeWorkspace));
+		}
+
+		return serviceBundles;
 	}
 
-	private static List<ISetupHandler> sortSetupHandlers(final ExecutionContext etk, final ISetupHandlerRequest setupHandlerRequest, final List<ISetupHandler> setupHandlers){
+	private static SortResult<ISetupHandler> sortSetupHandlers(final ISetupHandlerRequest setupHandlerRequest,
+			final Map<ISetupHandler, ServiceBundle> serviceBundles,
+			final List<ISetupHandler> setupHandlers){
 		/* We sort first by handler class to make the sorting deterministic to help with debugging if dependencies aren't specified correctly. */
 		final List<ISetupHandler> partiallySortedSetupHandlers = setupHandlers.stream()
 				.sorted(Comparator.comparing(setupHandler -> setupHandler.getClass().getName()))
 				.collect(Collectors.toList());
 
-		return topologicalSort(etk, setupHandlerRequest, partiallySortedSetupHandlers);
-	}
-
-	private static List<ISetupHandler> topologicalSort(final ExecutionContext etk, final ISetupHandlerRequest setupHandlerRequest, final List<ISetupHandler> setupHandlers) {
-		return new TopologicalSorter<>((final ISetupHandler item, final ISetupHandler potentialDependency) -> {
-			final Collection<ServiceBundle> actualDependencies = item.getDependencies(setupHandlerRequest);
-			final Collection<String> actualDependenciesBusinessKeys = actualDependencies.stream()
+		/* The graph calls getDependencies and looks up the bundle only once per handler. */
+		final SortResult<ISetupHandler> sortResult = DependencyGraph.fromKeys(partiallySortedSetupHandlers,
+				setupHandler -> serviceBundles.get(setupHandler).getBusinessKey(),
+				setupHandler -> setupHandler.getDependencies(setupHandlerRequest)
+					.stream()
 					.map(ServiceBundle::getBusinessKey)
-					.collect(Collectors.toSet());
-
-			final ServiceBundle potentialDependencyServiceBundle = getSetupHandlerServiceBundle(etk, potentialDependency);
-
-			return actualDependenciesBusinessKeys.contains(potentialDependencyServiceBundle.getBusinessKey());
-		}).sortDependencies(setupHandlers);
+					.collect(Collectors.toSet()))
+				.sort();
+
+		if(sortResult.hasCycles()){
+			throw new GeneralRuntimeException(String.format("Could not run setup because the following setup handlers have circular dependencies (or depend on handlers which do): %s",
+					sortResult.getCyclicItems()
+					.stream()
+					.map(setupHandler -> setupHandler.getClass().getName())
+					.collect(Collectors.joining(", "))));
+		}
+
+		return sortResult;
 	}
 }
@@ -12,11 +12,14 @@ class SetupHandlerResult implements ISetupHandlerResult {
 	private final ServiceBundle serviceBundle;
 	private final Class<? extends ISetupHandler> setupHandlerClass;
 	private final ISetupHandlerResponse setupHandlerResponse;
+	private final long durationMillis;
 
-	public SetupHandlerResult(final ServiceBundle theServiceBundle, final Class<? extends ISetupHandler> theSetupHandlerClass, final ISetupHandlerResponse theSetupHandlerResponse) {
+	public SetupHandlerResult(final ServiceBundle theServiceBundle, final Class<? extends ISetupHandler> theSetupHandlerClass, final ISetupHandlerResponse theSetupHandlerResponse,
+			final long theDurationMillis) {
 		serviceBundle = theServiceBundle;
 		setupHandlerClass = theSetupHandlerClass;
 		setupHandlerResponse = theSetupHandlerResponse;
+		durationMillis = theDurationMillis;
 	}
 
 	@Override
@@ -33,4 +36,9 @@ class SetupHandlerResult implements ISetupHandlerResult {
 	public ISetupHandlerResponse getSetupHandlerResponse() {
 		return setupHandlerResponse;
 	}
+
+	@Override
+	public long getDurationMillis() {
+		return durationMillis;
+	}
 }
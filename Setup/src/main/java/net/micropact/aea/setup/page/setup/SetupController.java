@@ -13,11 +13,25 @@ import com.entellitrak.page.Parameters;
 import com.entellitrak.page.Response;
 import com.entellitrak.page.SimpleBreadcrumb;
 import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
 
 import net.entellitrak.aea.setup.core.ISetupRequest;
 import net.entellitrak.aea.setup.core.ISetupResponse;
 import net.entellitrak.aea.setup.core.ISetupService;
 
+/**
+ * Runs setup. By default every setup handler is run one after another in this request's transaction.
+ *
+ * <p>
+ *  With parallel=1 the page instead runs the handlers layer by layer (see
+ *  {@link ISetupService#getSetupHandlerLayers(com.entellitrak.ExecutionContext)}), sending a separate request for each
+ *  handler of a layer to {@link net.micropact.aea.setup.page.setupHandlerAjax.SetupHandlerAjaxController}, which must
+ *  be installed as a page whose key is this page's key followed by ".ajax". Each handler is then committed on its own,
+ *  so only use this mode with handlers which are safe to run at the same time.
+ * </p>
+ *
+ * @author Zachary.Miller
+ */
 @HandlerScript(type = PageController.class)
 public class SetupController implements PageController {
 
@@ -28,10 +42,22 @@ public class SetupController implements PageController {
 
 		setBreadcrumbAndTitle(etk, response);
 
-		final ISetupResponse setupResponse = ISetupService.setup(ISetupRequest.builder(etk).build());
-
 		response.put("esc", new EscapeTool());
-		response.put("setupResponse", setupResponse);
+
+		if("1".equals(etk.getParameters().getSingle("parallel"))) {
+			/* The page runs the handlers itself, one request per handler, through the .ajax page. */
+			final Gson gson = new Gson();
+
+			response.put("parallel", true);
+			response.put("setupHandlerLayers", gson.toJson(ISetupService.getSetupHandlerLayers(etk)));
+			response.put("ajaxPage", gson.toJson(String.format("%s.ajax", etk.getParameters().getSingle("page"))));
+			response.put("csrfToken", gson.toJson(etk.getCSRFToken()));
+		} else {
+			final ISetupResponse setupResponse = ISetupService.setup(ISetupRequest.builder(etk).build());
+
+			response.put("parallel", false);
+			response.put("setupResponse", setupResponse);
+		}
 
 		return response;
 	}
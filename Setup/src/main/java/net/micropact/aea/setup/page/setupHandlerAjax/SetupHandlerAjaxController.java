@@ -0,0 +1,57 @@
+package net.micropact.aea.setup.page.setupHandlerAjax;
+
+import java.util.Map;
+import java.util.Objects;
+
+import com.entellitrak.ApplicationException;
+import com.entellitrak.PageExecutionContext;
+import com.entellitrak.handler.HandlerScript;
+import com.entellitrak.page.ContentType;
+import com.entellitrak.page.PageController;
+import com.entellitrak.page.Response;
+import com.entellitrak.page.TextResponse;
+import com.google.gson.Gson;
+
+import net.entellitrak.aea.gl.api.java.GeneralRuntimeException;
+import net.entellitrak.aea.setup.core.ISetupHandlerResult;
+import net.entellitrak.aea.setup.core.ISetupRequest;
+import net.entellitrak.aea.setup.core.ISetupService;
+
+/**
+ * This page is used by the Setup page when it runs setup in parallel. Each request runs a single setup handler in its
+ * own transaction and returns its result in JSON format.
+ *
+ * <p>
+ *  Parameters:
+ * </p>
+ * <ul>
+ *  <li>setupHandler: the fully qualified class name of the setup handler</li>
+ *  <li>csrfToken: the CSRF token</li>
+ * </ul>
+ *
+ * @author Zachary.Miller
+ */
+@HandlerScript(type = PageController.class)
+public class SetupHandlerAjaxController implements PageController {
+
+	@Override
+	public Response execute(final PageExecutionContext etk) throws ApplicationException {
+		if(!Objects.equals(etk.getParameters().getSingle("csrfToken"), etk.getCSRFToken())) {
+			throw new GeneralRuntimeException("A page was submitted with an invalid CSRF token");
+		}
+
+		final ISetupHandlerResult setupHandlerResult = ISetupService.setupHandler(ISetupRequest.builder(etk).build(),
+				etk.getParameters().getSingle("setupHandler"));
+
+		final TextResponse response = etk.createTextResponse();
+		response.setContentType(ContentType.JSON);
+
+		response.put("out", new Gson().toJson(Map.of(
+				"serviceBundleName", setupHandlerResult.getServiceBundle().getName(),
+				"setupHandlerClass", setupHandlerResult.getSetupHandlerClass().getName(),
+				"durationMillis", setupHandlerResult.getDurationMillis(),
+				"messages", setupHandlerResult.getSetupHandlerResponse().getMessages())));
+
+		return response;
+	}
+}
@@ -1,9 +1,11 @@
 package net.micropact.aea.setup.utility.topologicalsort;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import net.entellitrak.aea.gl.api.java.graph.DependencyGraph;
+import net.entellitrak.aea.gl.api.java.graph.DependencyGraph.SortResult;
+
 /**
  * <p>
  *  This class contains the algorithm for sorting objects which depend on one another in such a way that all objects
@@ -14,14 +16,8 @@ import java.util.List;
  *  on.
  * </p>
  * <p>
- *  There are a number of optimizations, or changes to the interface which could be made to improve it, however for the
- *  data density and shape of the data (very few, and very short dependency chains) which we currently have, and that
- *  it is currently only used in one place.
- * </p>
- * <p>
- *  Note: For future reference: If we find that there is a performance issue in the algorithm itself and wish to rewrite
- *  it, the name of this general problem is &quot;Topological Sorting&quot; of a &quot;Directed Acyclic Graph&quot;.
- *  We do have to account for cyclic graphs in this algorithm.
+ *  The sorting itself is done by {@link DependencyGraph}, which builds the dependency graph once and sorts it with
+ *  Kahn's algorithm. Items with circular dependencies can be found with {@link #sort(List)}.
  * </p>
  *
  * @author zmiller
@@ -51,37 +47,18 @@ public class TopologicalSorter<T> {
      * @return A sorted list of items where no item in the list depends on an item after it.
      */
     public List<T> sortDependencies(final List<T> items){
-        /* The algorithm we are going to use is to have the final list of dependencies, and the list of items still
-         * left to add. If the list of items left to process is ever empty, we're done. We will loop over the list of
-         * items to be processed, and if it only depends on things already added to our final list, we move it to the
-         * final list and restart the processing.*/
-
-        final List<T> returnList = new ArrayList<>();
-        final List<T> itemsToBeProcessed = new ArrayList<>(items);
-
-        /* I've added this variable to hopefully make it a little clearer to others what is going on.
-         * The keepProcessing variable will indicate whether or not we have moved an item this iteration. It is what
-         * prevents us from entering an infinite loop when all the items left to be processed depend on other items
-         * still left to be processed. */
-        boolean keepProcessing = true;
-        while(keepProcessing && !itemsToBeProcessed.isEmpty()){
-            keepProcessing = false;
-            for(final T item : itemsToBeProcessed){
-                if(!hasAnyDependencies(item, itemsToBeProcessed)){
-                    /* All the items dependencies are satisfied, so we moved it from the items to be processed
-                     * to the items which have their dependencies satisfied. We will restart at the beginning of the
-                     * list.
-                     * Restarting (break) at the beginning of the list instead of continuing to process this iteration
-                     * is what preserves the order of the input list in the case of ties. */
-                    keepProcessing = true;
-                    returnList.add(item);
-                    itemsToBeProcessed.remove(item);
-                    break;
-                }
-            }
-        }
+        return sort(items).getSortedItems();
+    }
 
-        return returnList;
+    /**
+     * This method sorts a list of items in the same way as {@link #sortDependencies(List)}, but also returns the
+     * independent layers of items and the items which could not be sorted because of circular dependencies.
+     *
+     * @param items The items to be sorted
+     * @return the result of the sort
+     */
+    public SortResult<T> sort(final List<T> items){
+        return DependencyGraph.fromDependsOn(items, comparator::dependsOn).sort();
     }
 
     /**